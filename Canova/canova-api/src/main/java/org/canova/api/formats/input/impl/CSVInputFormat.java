@@ -40,7 +40,11 @@ import java.io.IOException;
 public class CSVInputFormat extends BaseInputFormat {
     @Override
     public RecordReader createReader(InputSplit split, Configuration conf) throws IOException, InterruptedException {
-        return createReader(split);
+        if(conf == null)
+            return createReader(split);
+        CSVRecordReader ret = new CSVRecordReader();
+        ret.initialize(conf, split);
+        return ret;
     }
 
     @Override
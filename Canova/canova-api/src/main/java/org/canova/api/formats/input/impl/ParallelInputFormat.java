@@ -0,0 +1,76 @@
+/*
+ *
+ *  *
+ *  *  * Copyright 2015 Skymind,Inc.
+ *  *  *
+ *  *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  *    you may not use this file except in compliance with the License.
+ *  *  *    You may obtain a copy of the License at
+ *  *  *
+ *  *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *  *
+ *  *  *    Unless required by applicable law or agreed to in writing, software
+ *  *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  *    See the License for the specific language governing permissions and
+ *  *  *    limitations under the License.
+ *  *
+ *
+ */
+
+package org.canova.api.formats.input.impl;
+
+import org.canova.api.conf.Configuration;
+import org.canova.api.formats.input.BaseInputFormat;
+import org.canova.api.formats.input.InputFormat;
+import org.canova.api.records.reader.RecordReader;
+import org.canova.api.records.reader.impl.ParallelRecordReader;
+import org.canova.api.split.InputSplit;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Parallel input format creates a @link{ParallelRecordReader}
+ * reading the files of a split with the readers of another, line based, input format
+ * @author Adam Gibson
+ */
+public class ParallelInputFormat extends BaseInputFormat {
+    private InputFormat inputFormat;
+    private int numThreads;
+    private boolean ordered;
+
+    /**
+     * @param inputFormat the line based input format to read each range with
+     * @param numThreads the number of threads to read with
+     * @param ordered whether to return the records in file order
+     */
+    public ParallelInputFormat(InputFormat inputFormat, int numThreads, boolean ordered) {
+        this.inputFormat = inputFormat;
+        this.numThreads = numThreads;
+        this.ordered = ordered;
+    }
+
+    @Override
+    public RecordReader createReader(InputSplit split, Configuration conf) throws IOException, InterruptedException {
+        ParallelRecordReader ret = new ParallelRecordReader(inputFormat, numThreads, ordered);
+        ret.initialize(conf, split);
+        return ret;
+    }
+
+    @Override
+    public RecordReader createReader(InputSplit split) throws IOException, InterruptedException {
+        return createReader(split, null);
+    }
+
+    @Override
+    public void write(DataOutput out) throws IOException {
+
+    }
+
+    @Override
+    public void readFields(DataInput in) throws IOException {
+
+    }
+}
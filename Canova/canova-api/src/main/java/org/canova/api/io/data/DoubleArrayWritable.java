@@ -0,0 +1,100 @@
+/*
+ *
+ *  *
+ *  *  * Copyright 2015 Skymind,Inc.
+ *  *  *
+ *  *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  *    you may not use this file except in compliance with the License.
+ *  *  *    You may obtain a copy of the License at
+ *  *  *
+ *  *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *  *
+ *  *  *    Unless required by applicable law or agreed to in writing, software
+ *  *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  *    See the License for the specific language governing permissions and
+ *  *  *    limitations under the License.
+ *  *
+ *
+ */
+
+package org.canova.api.io.data;
+
+import org.canova.api.writable.ArrayWritable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Writable for a double[] vector.
+ */
+public class DoubleArrayWritable extends ArrayWritable {
+
+    private double[] values = new double[0];
+
+    public DoubleArrayWritable() {
+
+    }
+
+    public DoubleArrayWritable(double[] values) {
+        set(values);
+    }
+
+    public void readFields(DataInput in) throws IOException {
+        int length = in.readInt();
+        if(values.length != length)
+            values = new double[length];
+        for(int i = 0; i < length; i++)
+            values[i] = in.readDouble();
+    }
+
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(values.length);
+        for(double value : values)
+            out.writeDouble(value);
+    }
+
+    /** Set the values; the array is not copied */
+    public void set(double[] values) { this.values = values; }
+
+    /** The values; the array is not copied */
+    public double[] get() { return values; }
+
+    @Override
+    public int length() {
+        return values.length;
+    }
+
+    @Override
+    public double getDouble(int i) {
+        return values[i];
+    }
+
+    @Override
+    public double[] toDoubleArray() {
+        return values.clone();
+    }
+
+    @Override
+    public void copyTo(double[] target, int offset) {
+        System.arraycopy(values, 0, target, offset, values.length);
+    }
+
+    /**
+     * Returns true iff <code>o</code> is a DoubleArrayWritable with the same values.
+     */
+    public boolean equals(Object o) {
+        if (!(o instanceof DoubleArrayWritable)) {
+            return false;
+        }
+        DoubleArrayWritable other = (DoubleArrayWritable)o;
+        return Arrays.equals(values, other.values);
+    }
+
+    public int hashCode() {
+        return Arrays.hashCode(values);
+    }
+
+}
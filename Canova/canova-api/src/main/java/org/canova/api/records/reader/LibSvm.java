@@ -26,6 +26,8 @@ package org.canova.api.records.reader;
 public interface LibSvm {
 
     String CLASSIFICATION = "libsvm.classification";
+    /** The number of features, used to size the feature vector with vector output */
+    String NUM_FEATURES = "libsvm.numfeatures";
 
 
 }
@@ -40,6 +40,9 @@ public interface RecordReader extends Closeable,Serializable,Configurable {
 
     public final static String APPEND_LABEL = NAME_SPACE + ".appendlabel";
     public final static String LABELS = NAME_SPACE + ".labels";
+    /** Whether numeric readers return the values of a record as one {@link org.canova.api.writable.ArrayWritable}
+     * instead of one writable per value. The default depends on the reader. */
+    public final static String VECTOR_OUTPUT = NAME_SPACE + ".vectoroutput";
 
     /**
      * Called once at initialization.
@@ -23,17 +23,39 @@ package org.canova.api.records.reader.impl;
 
 
 import org.canova.api.conf.Configuration;
+import org.canova.api.io.data.DoubleArrayWritable;
 import org.canova.api.io.data.Text;
+import org.canova.api.split.FileRangeSplit;
 import org.canova.api.split.InputSplit;
+import org.canova.api.split.StringSplit;
+import org.canova.api.util.CSVTokenizer;
+import org.canova.api.util.NominalValues;
 import org.canova.api.writable.Writable;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 /**
  * Simple csv record reader.
+ * By default each column is returned as a {@link Text}.
+ * With vector output (see {@link #VECTOR_OUTPUT}) all columns are parsed as numbers
+ * in to one {@link DoubleArrayWritable}, empty columns being 0.
+ *
+ * A single character delimiter is handled by a streaming {@link CSVTokenizer}, which
+ * parses quoted fields and numbers straight from the bytes of the input. Only then can the
+ * columns be typed ({@link #COLUMN_TYPES}) and batches be read in to columns with {@link #nextBatch(double[][])}.
+ * The values of nominal columns are indexed by one {@link NominalValues} for all the files
+ * the reader reads, seeded with the values declared under {@link #NOMINAL_VALUES}.
+ * Any other delimiter is treated as a regular expression and split line by line.
+ * Given a {@link FileRangeSplit} only the records of that range are read, and lines are
+ * only skipped in the range at the start of the file.
  *
  * @author Adam Gibson
  */
@@ -41,8 +63,17 @@ public class CSVRecordReader extends LineRecordReader {
     private boolean skippedLines = false;
     private int skipNumLines = 0;
     private String delimiter = ",";
+    private boolean vectorOutput = false;
+    private CSVTokenizer.ColumnType[] columnTypes;
+    private NominalValues nominalValues = new NominalValues();
+    private URI[] locations;
+    private int currIndex = 0;
+    private transient CSVTokenizer tokenizer;
     public final static String SKIP_NUM_LINES = NAME_SPACE + ".skipnumlines";
     public final static String DELIMITER = NAME_SPACE + ".delimiter";
+    public final static String COLUMN_TYPES = NAME_SPACE + ".columntypes";
+    /** Prefix of the values of a nominal column: the values of column i are under NOMINAL_VALUES + "." + i */
+    public final static String NOMINAL_VALUES = NAME_SPACE + ".nominalvalues";
 
     /**
      * Skip first n lines
@@ -58,23 +89,184 @@ public class CSVRecordReader extends LineRecordReader {
      * @param delimiter the delimiter
      */
     public CSVRecordReader(int skipNumLines,String delimiter) {
+        this(skipNumLines,delimiter,false);
+    }
+
+    /**
+     * Skip lines and use delimiter
+     * @param skipNumLines the number of lines to skip
+     * @param delimiter the delimiter
+     * @param vectorOutput whether to parse all columns as numbers in to one {@link DoubleArrayWritable}
+     */
+    public CSVRecordReader(int skipNumLines,String delimiter,boolean vectorOutput) {
         this.skipNumLines = skipNumLines;
         this.delimiter = delimiter;
+        this.vectorOutput = vectorOutput;
     }
 
     public CSVRecordReader() {
         this(0,",");
     }
 
+    /**
+     * Type the columns of vector output and batches,
+     * see {@link CSVTokenizer#setColumnTypes(CSVTokenizer.ColumnType...)}
+     * @param columnTypes the type of each column
+     */
+    public void setColumnTypes(CSVTokenizer.ColumnType... columnTypes) {
+        this.columnTypes = columnTypes;
+        if(tokenizer != null)
+            tokenizer.setColumnTypes(columnTypes);
+    }
+
+    /**
+     * The index of each value of the nominal columns, shared by all the files read
+     * @return the nominal values
+     */
+    public NominalValues getNominalValues() {
+        return nominalValues;
+    }
+
+    /**
+     * Index the nominal columns with the given values, for example
+     * to share them with the readers of other parts of the same data.
+     * The values this reader has already declared are declared on them too.
+     * @param nominalValues the nominal values
+     */
+    public void setNominalValues(NominalValues nominalValues) {
+        nominalValues.declare(this.nominalValues);
+        this.nominalValues = nominalValues;
+        if(tokenizer != null)
+            tokenizer.setNominalValues(nominalValues);
+    }
+
+    @Override
+    public void initialize(InputSplit split) throws IOException, InterruptedException {
+        currIndex = 0;
+        if(tokenizerDelimiter() < 0) {
+            tokenizer = null;
+            super.initialize(split);
+            return;
+        }
+        if(split instanceof StringSplit) {
+            locations = new URI[0];
+            //a string split is typically one line, so the buffer only needs to hold it
+            byte[] data = ((StringSplit) split).getData().getBytes(StandardCharsets.UTF_8);
+            tokenizer = tokenizer(new ByteArrayInputStream(data), data.length + 1);
+        }
+        else if(split instanceof FileRangeSplit) {
+            FileRangeSplit range = (FileRangeSplit) split;
+            locations = new URI[0];
+            tokenizer = tokenizer(range.openStream(), (int) Math.min(CSVTokenizer.BUFFER_SIZE, range.length() + 1));
+            //only the first range of a file has the lines to skip
+            if(range.getStart() > 0)
+                skippedLines = true;
+        }
+        else {
+            locations = split.locations();
+            if(locations != null && locations.length > 0)
+                tokenizer = tokenizer(locations[0]);
+        }
+    }
+
     @Override
     public void initialize(Configuration conf, InputSplit split) throws IOException, InterruptedException {
-        super.initialize(conf, split);
         this.skipNumLines = conf.getInt(SKIP_NUM_LINES,0);
-        this.delimiter = conf.get(DELIMITER, ","); 
+        this.delimiter = conf.get(DELIMITER, ",");
+        this.vectorOutput = conf.getBoolean(VECTOR_OUTPUT, false);
+        String[] types = conf.getStrings(COLUMN_TYPES);
+        if(types != null) {
+            columnTypes = new CSVTokenizer.ColumnType[types.length];
+            for(int i = 0; i < types.length; i++) {
+                columnTypes[i] = CSVTokenizer.ColumnType.valueOf(types[i].trim().toUpperCase());
+                String[] values = conf.getStrings(NOMINAL_VALUES + "." + i);
+                if(columnTypes[i] == CSVTokenizer.ColumnType.NOMINAL && values != null)
+                    nominalValues.declare(i, values);
+            }
+        }
+        super.initialize(conf, split);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if(tokenizer == null)
+            return super.hasNext();
+        try {
+            skipLines();
+            while(!tokenizer.hasNext()) {
+                if(currIndex + 1 >= locations.length)
+                    return false;
+                tokenizer.close();
+                tokenizer = tokenizer(locations[++currIndex]);
+            }
+            return true;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Read up to a batch of records in to columns: value j of record i goes to columns[j][i].
+     * The batch size is the length of the columns. Needs a single character delimiter.
+     * @param columns the columns to fill, one per value of a record
+     * @return the number of records read, less than the batch size at the end of the input
+     */
+    public int nextBatch(double[][] columns) {
+        return nextBatch(columns, null);
+    }
+
+    /**
+     * Read up to a batch of records in to columns: value j of record i goes to columns[j][i].
+     * The batch size is the length of the columns. Needs a single character delimiter.
+     * @param columns the columns to fill, one per value of a record
+     * @return the number of records read, less than the batch size at the end of the input
+     */
+    public int nextBatch(float[][] columns) {
+        return nextBatch(null, columns);
+    }
+
+    private int nextBatch(double[][] doubles, float[][] floats) {
+        if(tokenizer == null)
+            throw new IllegalStateException("Batches need a single character delimiter, not " + delimiter);
+        int batchSize = doubles != null ? doubles[0].length : floats[0].length;
+        int read = 0;
+        try {
+            while(read < batchSize && hasNext()) {
+                if(doubles != null)
+                    read += tokenizer.nextBatch(doubles, read, batchSize - read);
+                else
+                    read += tokenizer.nextBatch(floats, read, batchSize - read);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return read;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if(tokenizer != null)
+            tokenizer.close();
+        super.close();
     }
 
     @Override
     public Collection<Writable> next() {
+        if(tokenizer != null) {
+            try {
+                if(!hasNext())
+                    throw new NoSuchElementException("No more elements found!");
+                if(vectorOutput) {
+                    List<Writable> ret = new ArrayList<>();
+                    ret.add(new DoubleArrayWritable(tokenizer.nextValues()));
+                    return ret;
+                }
+                return tokenizer.nextText();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
         if(!skippedLines && skipNumLines > 0) {
             for(int i = 0; i < skipNumLines; i++) {
                 if(!hasNext()) {
@@ -88,9 +280,52 @@ public class CSVRecordReader extends LineRecordReader {
         String val = t.toString();
         String[] split = val.split(delimiter, -1);
         List<Writable> ret = new ArrayList<>();
+        if(vectorOutput) {
+            double[] values = new double[split.length];
+            for(int i = 0; i < split.length; i++)
+                values[i] = split[i].isEmpty() ? 0 : Double.parseDouble(split[i]);
+            ret.add(new DoubleArrayWritable(values));
+            return ret;
+        }
         for(String s : split)
             ret.add(new Text(s));
         return ret;
 
     }
+
+    private void skipLines() throws IOException {
+        if(!skippedLines) {
+            skippedLines = true;
+            for(int i = 0; i < skipNumLines && hasNext(); i++)
+                tokenizer.skip();
+        }
+    }
+
+    private CSVTokenizer tokenizer(URI location) throws IOException {
+        return tokenizer(location.toURL().openStream(), CSVTokenizer.BUFFER_SIZE);
+    }
+
+    private CSVTokenizer tokenizer(InputStream is, int bufferSize) {
+        CSVTokenizer ret = new CSVTokenizer(is, (char) tokenizerDelimiter(), '"', bufferSize);
+        if(columnTypes != null)
+            ret.setColumnTypes(columnTypes);
+        ret.setNominalValues(nominalValues);
+        return ret;
+    }
+
+    /**
+     * The delimiter as a single ascii character, also when it is
+     * escaped as a regular expression, or -1 when it is not one
+     */
+    private int tokenizerDelimiter() {
+        String literal = delimiter;
+        if(literal.equals("\\t"))
+            literal = "\t";
+        else if(literal.length() == 2 && literal.charAt(0) == '\\' && !Character.isLetterOrDigit(literal.charAt(1)))
+            literal = literal.substring(1);
+        if(literal.length() != 1)
+            return -1;
+        char c = literal.charAt(0);
+        return c < 128 && c != '"' && c != '\n' && c != '\r' ? c : -1;
+    }
 }
@@ -21,6 +21,7 @@
 package org.canova.api.records.reader.impl;
 
 import org.canova.api.conf.Configuration;
+import org.canova.api.io.data.DoubleArrayWritable;
 import org.canova.api.io.data.DoubleWritable;
 import org.canova.api.io.data.IntWritable;
 import org.canova.api.io.data.Text;
@@ -31,14 +32,22 @@ import org.canova.api.writable.Writable;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 
 /**
+ * Reads libsvm lines: label index:value index:value ...
+ * With vector output (see {@link #VECTOR_OUTPUT}) the features are returned as one
+ * {@link DoubleArrayWritable} of {@link #NUM_FEATURES} values (or up to the largest index in the line)
+ * instead of one writable per feature.
+ *
  * @author Adam Gibson
  */
 public class LibSvmRecordReader extends LineRecordReader implements LibSvm {
     private boolean appendLabel = false;
     private boolean classification = true;
+    private boolean vectorOutput = false;
+    private int numFeatures = 0;
 
     @Override
     public void initialize(InputSplit split) throws IOException, InterruptedException {
@@ -50,6 +59,8 @@ public class LibSvmRecordReader extends LineRecordReader implements LibSvm {
         super.initialize(conf, split);
         appendLabel = conf.getBoolean(APPEND_LABEL,false);
         classification = conf.getBoolean(CLASSIFICATION,true);
+        vectorOutput = conf.getBoolean(VECTOR_OUTPUT,false);
+        numFeatures = conf.getInt(NUM_FEATURES,0);
     }
 
     @Override
@@ -76,6 +87,23 @@ public class LibSvmRecordReader extends LineRecordReader implements LibSvm {
         tokens = line.trim().split("\\s+");
 
         Collection<Writable> record = new ArrayList<>();
+        if(vectorOutput) {
+            double[] features = new double[numFeatures];
+            for (int k = 1; k < tokens.length; k++) {
+                int colon = tokens[k].indexOf(':');
+                if (colon < 0 || colon != tokens[k].lastIndexOf(':'))
+                    throw new NumberFormatException("Invalid data: " + tokens[k]);
+                int j = Integer.valueOf(tokens[k].substring(0, colon)) - 1;
+                if (j >= features.length)
+                    features = Arrays.copyOf(features, j + 1);
+                features[j] = Double.valueOf(tokens[k].substring(colon + 1));
+            }
+            record.add(new DoubleArrayWritable(features));
+            if(classification && appendLabel || !classification)
+                record.add(new DoubleWritable(response));
+            return record;
+        }
+
         int read = 0;
         for (int k = 1; k < tokens.length; k++) {
             String[] pair = tokens[k].split(":");
@@ -25,6 +25,7 @@ import org.apache.commons.io.LineIterator;
 import org.canova.api.conf.Configuration;
 import org.canova.api.io.data.Text;
 import org.canova.api.records.reader.RecordReader;
+import org.canova.api.split.FileRangeSplit;
 import org.canova.api.split.FileSplit;
 import org.canova.api.split.InputSplit;
 import org.canova.api.split.StringSplit;
@@ -36,7 +37,8 @@ import java.net.URI;
 import java.util.*;
 
 /**
- * Reads files line by line
+ * Reads files line by line.
+ * Given a {@link FileRangeSplit} only the lines of that range are read.
  *
  * @author Adam Gibson
  */
@@ -54,6 +56,10 @@ public class LineRecordReader implements RecordReader {
             StringSplit stringSplit = (StringSplit) split;
             iter = Arrays.asList(stringSplit.getData()).iterator();
         }
+        else if(split instanceof FileRangeSplit) {
+            this.locations = new URI[0];
+            iter = IOUtils.lineIterator(new InputStreamReader(((FileRangeSplit) split).openStream()));
+        }
         else {
             this.locations = split.locations();
             if (locations != null && locations.length > 0) {
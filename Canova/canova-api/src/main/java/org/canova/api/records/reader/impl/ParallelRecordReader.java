@@ -0,0 +1,310 @@
+/*
+ *
+ *  *
+ *  *  * Copyright 2015 Skymind,Inc.
+ *  *  *
+ *  *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  *    you may not use this file except in compliance with the License.
+ *  *  *    You may obtain a copy of the License at
+ *  *  *
+ *  *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *  *
+ *  *  *    Unless required by applicable law or agreed to in writing, software
+ *  *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  *    See the License for the specific language governing permissions and
+ *  *  *    limitations under the License.
+ *  *
+ *
+ */
+
+package org.canova.api.records.reader.impl;
+
+import org.canova.api.conf.Configuration;
+import org.canova.api.formats.input.InputFormat;
+import org.canova.api.records.reader.RecordReader;
+import org.canova.api.split.FileRangeSplit;
+import org.canova.api.split.InputSplit;
+import org.canova.api.util.NominalValues;
+import org.canova.api.writable.Writable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reads line based files on several threads at once.
+ * The files of the split are cut in to byte ranges at line breaks (see {@link FileRangeSplit}),
+ * a few per thread, and each range is read by a record reader of the given input format,
+ * so a single large file is parsed on as many cores as there are threads.
+ *
+ * In ordered mode the records are returned in file order, the same as reading the split
+ * on one thread. Large inputs are then cut in to ranges of about {@link #ORDERED_RANGE_BYTES},
+ * each buffered whole, and the threads read ahead of the consumer by up to
+ * {@link #RANGES_PER_THREAD} ranges each, so all the threads keep parsing while the
+ * consumer drains the earliest range. Otherwise records are returned as soon as any thread has them ready.
+ * Since this is a plain record reader, it can feed a RecordReaderDataSetIterator
+ * or a vectorization engine as is.
+ *
+ * The csv readers of all the ranges share one {@link NominalValues},
+ * so a nominal value has the same index in every range.
+ *
+ * @author Adam Gibson
+ */
+public class ParallelRecordReader implements RecordReader {
+    private static Logger log = LoggerFactory.getLogger(ParallelRecordReader.class);
+    /** Ranges per thread, and in ordered mode how many ranges each thread may read ahead */
+    public static final int RANGES_PER_THREAD = 4;
+    /** The size of a range in ordered mode, when the split is large enough */
+    public static final long ORDERED_RANGE_BYTES = 1 << 21;
+    private static final int CHUNK_SIZE = 128;
+    private static final int QUEUE_SIZE = 8;
+
+    private final InputFormat inputFormat;
+    private final int numThreads;
+    private final boolean ordered;
+    private final NominalValues nominalValues = new NominalValues();
+    private Configuration conf;
+    private List<FileRangeSplit> ranges = new ArrayList<>();
+    private List<BlockingQueue<Chunk>> queues = new ArrayList<>();
+    private final List<Thread> threads = new ArrayList<>();
+    private AtomicBoolean killed = new AtomicBoolean();
+    private Semaphore readAhead;
+    private int remaining;
+    private int current;
+    private Iterator<Collection<Writable>> chunk;
+
+    /**
+     * @param inputFormat creates the reader for each range
+     * @param numThreads the number of ranges to read at once
+     * @param ordered whether to return the records in file order
+     */
+    public ParallelRecordReader(InputFormat inputFormat, int numThreads, boolean ordered) {
+        if(numThreads < 1)
+            throw new IllegalArgumentException("Number of threads must be >= 1");
+        this.inputFormat = inputFormat;
+        this.numThreads = numThreads;
+        this.ordered = ordered;
+    }
+
+    @Override
+    public void initialize(InputSplit split) throws IOException, InterruptedException {
+        initialize(conf, split);
+    }
+
+    @Override
+    public void initialize(Configuration conf, InputSplit split) throws IOException, InterruptedException {
+        stop();
+        this.conf = conf;
+        //a fresh set per run: a worker of the last run that outlived stop() only sees its own
+        ranges = FileRangeSplit.split(split, numThreads * RANGES_PER_THREAD);
+        queues = new ArrayList<>();
+        readAhead = null;
+        if(ordered) {
+            long bytes = 0;
+            for(FileRangeSplit range : ranges)
+                bytes += range.length();
+            if(bytes / ORDERED_RANGE_BYTES > ranges.size())
+                ranges = FileRangeSplit.split(split, (int) Math.min(Integer.MAX_VALUE, bytes / ORDERED_RANGE_BYTES));
+            //a range is queued whole; the permits bound how many ranges are read but not yet returned
+            for(int i = 0; i < ranges.size(); i++)
+                queues.add(new LinkedBlockingQueue<Chunk>());
+            readAhead = new Semaphore(numThreads * RANGES_PER_THREAD);
+        }
+        else
+            queues.add(new LinkedBlockingQueue<Chunk>(QUEUE_SIZE * numThreads));
+
+        killed = new AtomicBoolean();
+        remaining = ranges.size();
+        current = 0;
+        chunk = null;
+        AtomicInteger nextRange = new AtomicInteger();
+        for(int i = 0; i < Math.min(numThreads, ranges.size()); i++) {
+            Thread thread = new Thread(new Worker(ranges, queues, readAhead, conf, nextRange, killed), "ParallelRecordReader-" + i);
+            thread.setDaemon(true);
+            threads.add(thread);
+            thread.start();
+        }
+    }
+
+    @Override
+    public Collection<Writable> next() {
+        if(!hasNext())
+            throw new NoSuchElementException("No more elements found!");
+        return chunk.next();
+    }
+
+    @Override
+    public boolean hasNext() {
+        if(chunk != null && chunk.hasNext())
+            return true;
+        try {
+            while(remaining > 0) {
+                Chunk next = queues.get(ordered ? current : 0).take();
+                if(next.records == null) {
+                    remaining--;
+                    if(ordered) {
+                        current++;
+                        readAhead.release();
+                    }
+                    if(next.exception != null)
+                        throw next.exception;
+                    continue;
+                }
+                chunk = next.records.iterator();
+                return true;
+            }
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * @return the ranges the split was cut in to
+     */
+    public List<FileRangeSplit> getRanges() {
+        return ranges;
+    }
+
+    /**
+     * @return the index of each value of the nominal columns, shared by the csv readers of all the ranges
+     */
+    public NominalValues getNominalValues() {
+        return nominalValues;
+    }
+
+    /**
+     * Stop the threads. They are daemon threads, so this is only needed to release the files early.
+     */
+    @Override
+    public void close() throws IOException {
+        stop();
+    }
+
+    private void stop() {
+        killed.set(true);
+        for(Thread thread : threads)
+            thread.interrupt();
+        for(Thread thread : threads) {
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(5));
+                if(thread.isAlive())
+                    log.warn(thread.getName() + " is still reading, its records will be dropped");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        threads.clear();
+        for(BlockingQueue<Chunk> queue : queues)
+            queue.clear();
+    }
+
+    @Override
+    public void setConf(Configuration conf) {
+        this.conf = conf;
+    }
+
+    @Override
+    public Configuration getConf() {
+        return conf;
+    }
+
+    /** Records of a range, or (if null) the end of a range with the exception that ended it, if any */
+    private static class Chunk {
+        private final List<Collection<Writable>> records;
+        private final RuntimeException exception;
+
+        private Chunk(List<Collection<Writable>> records, RuntimeException exception) {
+            this.records = records;
+            this.exception = exception;
+        }
+    }
+
+    /** Reads the ranges of one run, in file order, until there are none left */
+    private class Worker implements Runnable {
+        private final List<FileRangeSplit> ranges;
+        private final List<BlockingQueue<Chunk>> queues;
+        private final Semaphore readAhead;
+        private final Configuration conf;
+        private final AtomicInteger nextRange;
+        private final AtomicBoolean killed;
+
+        private Worker(List<FileRangeSplit> ranges, List<BlockingQueue<Chunk>> queues, Semaphore readAhead,
+                       Configuration conf, AtomicInteger nextRange, AtomicBoolean killed) {
+            this.ranges = ranges;
+            this.queues = queues;
+            this.readAhead = readAhead;
+            this.conf = conf;
+            this.nextRange = nextRange;
+            this.killed = killed;
+        }
+
+        @Override
+        public void run() {
+            try {
+                while(!killed.get()) {
+                    //in ordered mode the permit is taken before the index, so the ranges
+                    //holding permits are always the earliest ones not yet returned
+                    if(readAhead != null)
+                        readAhead.acquire();
+                    int index = nextRange.getAndIncrement();
+                    if(index >= ranges.size())
+                        break;
+                    read(index, queues.get(ordered ? index : 0));
+                }
+            } catch (InterruptedException e) {
+                //stop() while put or acquire was blocking
+            }
+        }
+
+        private void read(int index, BlockingQueue<Chunk> queue) throws InterruptedException {
+            Chunk end;
+            RecordReader reader = null;
+            try {
+                reader = inputFormat.createReader(ranges.get(index), conf);
+                if(reader instanceof CSVRecordReader)
+                    ((CSVRecordReader) reader).setNominalValues(nominalValues);
+                List<Collection<Writable>> records = new ArrayList<>(CHUNK_SIZE);
+                while(!killed.get() && reader.hasNext()) {
+                    records.add(reader.next());
+                    if(records.size() == CHUNK_SIZE) {
+                        queue.put(new Chunk(records, null));
+                        records = new ArrayList<>(CHUNK_SIZE);
+                    }
+                }
+                if(!records.isEmpty())
+                    queue.put(new Chunk(records, null));
+                end = new Chunk(null, null);
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Exception e) {
+                end = new Chunk(null, e instanceof RuntimeException ? (RuntimeException) e
+                        : new RuntimeException("Unable to read " + ranges.get(index), e));
+            } finally {
+                if(reader != null) {
+                    try {
+                        reader.close();
+                    } catch (IOException e) {
+                        log.warn("Unable to close the reader of " + ranges.get(index), e);
+                    }
+                }
+            }
+            if(!killed.get())
+                queue.put(end);
+        }
+    }
+}
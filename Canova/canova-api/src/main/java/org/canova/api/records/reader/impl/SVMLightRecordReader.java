@@ -22,6 +22,7 @@ package org.canova.api.records.reader.impl;
 
 
 import org.canova.api.conf.Configuration;
+import org.canova.api.io.data.DoubleArrayWritable;
 import org.canova.api.io.data.DoubleWritable;
 import org.canova.api.io.data.Text;
 import org.canova.api.split.InputSplit;
@@ -35,7 +36,9 @@ import java.util.Collection;
 import java.util.StringTokenizer;
 
 /**
- * Adapted from the weka svmlight reader
+ * Adapted from the weka svmlight reader.
+ * With vector output (see {@link #VECTOR_OUTPUT}) the features are returned as one
+ * {@link DoubleArrayWritable} followed by the label, instead of one writable per feature.
  *
  *	June 2015
  *		-	adapted to understand HDFS-style block splits
@@ -46,6 +49,7 @@ import java.util.StringTokenizer;
 public class SVMLightRecordReader extends LineRecordReader {
     private static Logger log = LoggerFactory.getLogger(SVMLightRecordReader.class);
     private int numAttributes = -1;
+    private boolean vectorOutput = false;
     public final static String NUM_ATTRIBUTES = SVMLightRecordReader.class.getName() + ".numattributes";
     public SVMLightRecordReader() {
     }
@@ -80,6 +84,24 @@ public class SVMLightRecordReader extends LineRecordReader {
                     max = index;
             }
 
+            if(vectorOutput) {
+                tok = new StringTokenizer(val, " \t");
+                double classVal = Double.parseDouble(tok.nextToken());
+                double[] values = new double[Math.max(max, numAttributes)];
+                while (tok.hasMoreTokens()) {
+                    col = tok.nextToken();
+                    if (col.startsWith("#"))
+                        break;
+                    if (col.startsWith("qid:"))
+                        continue;
+                    index = Integer.parseInt(col.substring(0, col.indexOf(":"))) - 1;
+                    values[index] = Double.parseDouble(col.substring(col.indexOf(":") + 1));
+                }
+                ret.add(new DoubleArrayWritable(values));
+                ret.add(new DoubleWritable(classVal));
+                return ret;
+            }
+
             // read values into array
             tok    = new StringTokenizer(val, " \t");
 
@@ -132,6 +154,7 @@ public class SVMLightRecordReader extends LineRecordReader {
         super.initialize(conf, split);
         if(conf.get(NUM_ATTRIBUTES) != null)
             numAttributes = conf.getInt(NUM_ATTRIBUTES,-1);
+        vectorOutput = conf.getBoolean(VECTOR_OUTPUT,false);
 
     }
 
@@ -140,5 +163,6 @@ public class SVMLightRecordReader extends LineRecordReader {
         super.setConf(conf);
         if(conf.get(NUM_ATTRIBUTES) != null)
             numAttributes = conf.getInt(NUM_ATTRIBUTES,-1);
+        vectorOutput = conf.getBoolean(VECTOR_OUTPUT,false);
     }
 }
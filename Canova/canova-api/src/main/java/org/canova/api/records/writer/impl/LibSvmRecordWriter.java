@@ -22,12 +22,12 @@ package org.canova.api.records.writer.impl;
 
 import org.canova.api.conf.Configuration;
 import org.canova.api.records.reader.LibSvm;
+import org.canova.api.util.RecordUtils;
 import org.canova.api.writable.Writable;
 
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
@@ -61,7 +61,7 @@ public class LibSvmRecordWriter extends LineRecordWriter implements LibSvm {
 
     @Override
     public void write(Collection<Writable> record) throws IOException {
-        List<Writable> asList = record instanceof  List ? (List<Writable>)  record : new ArrayList<>(record);
+        List<Writable> asList = RecordUtils.expand(record);
         double response = Double.valueOf(asList.get(asList.size() - 1).toString());
         StringBuffer write = new StringBuffer();
         boolean classification = conf.getBoolean(CLASSIFICATION,true);
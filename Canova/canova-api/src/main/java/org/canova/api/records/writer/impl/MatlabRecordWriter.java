@@ -22,6 +22,7 @@ package org.canova.api.records.writer.impl;
 
 
 import org.canova.api.conf.Configuration;
+import org.canova.api.util.RecordUtils;
 import org.canova.api.writable.Writable;
 
 import java.io.File;
@@ -55,7 +56,7 @@ public class MatlabRecordWriter extends FileRecordWriter {
         StringBuilder result = new StringBuilder();
 
         int count = 0;
-        for(Writable w : record) {
+        for(Writable w : RecordUtils.expand(record)) {
             // attributes
             if (count > 0) {
               boolean tabs = false;
@@ -22,10 +22,10 @@ package org.canova.api.records.writer.impl;
 
 
 import org.canova.api.conf.Configuration;
+import org.canova.api.util.RecordUtils;
 import org.canova.api.writable.Writable;
 
 import java.io.*;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
@@ -55,7 +55,7 @@ public class SVMLightRecordWriter extends FileRecordWriter {
     @Override
     public void write(Collection<Writable> record) throws IOException {
         if(!record.isEmpty()) {
-            List<Writable> recordList = record instanceof List ? (List<Writable>) record : new ArrayList<>(record);
+            List<Writable> recordList = RecordUtils.expand(record);
             StringBuilder result = new StringBuilder();
 
             // get the label
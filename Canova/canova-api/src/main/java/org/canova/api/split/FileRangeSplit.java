@@ -0,0 +1,232 @@
+/*
+ *
+ *  *
+ *  *  * Copyright 2015 Skymind,Inc.
+ *  *  *
+ *  *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  *    you may not use this file except in compliance with the License.
+ *  *  *    You may obtain a copy of the License at
+ *  *  *
+ *  *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *  *
+ *  *  *    Unless required by applicable law or agreed to in writing, software
+ *  *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  *    See the License for the specific language governing permissions and
+ *  *  *    limitations under the License.
+ *  *
+ *
+ */
+
+package org.canova.api.split;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A byte range of a single file, starting at the beginning of a line and
+ * ending after a line break (or at the end of the file).
+ * A large file is cut in to ranges with {@link #split(InputSplit, int)} so that the
+ * lines of each range can be read independently, for example on different threads.
+ * Ranges are read with positional reads, so many ranges of one file can be read at once.
+ *
+ * Records must not span lines: quoted csv fields with line breaks can be cut in two.
+ *
+ * @author Adam Gibson
+ */
+public class FileRangeSplit extends BaseInputSplit {
+
+    private File file;
+    private long start;
+    private long end;
+
+    public FileRangeSplit(File file, long start, long end) {
+        if(start < 0 || end < start)
+            throw new IllegalArgumentException("Illegal range " + start + " to " + end);
+        this.file = file;
+        this.start = start;
+        this.end = end;
+        this.locations = new URI[]{file.toURI()};
+    }
+
+    /**
+     * Cut a file in to about numSplits ranges at line breaks.
+     * Fewer ranges are returned when lines are longer than the ranges would be.
+     * @param file the file to cut
+     * @param numSplits the number of ranges to aim for
+     * @return the ranges, in file order
+     * @throws IOException
+     */
+    public static List<FileRangeSplit> split(File file, int numSplits) throws IOException {
+        if(numSplits < 1)
+            throw new IllegalArgumentException("Number of splits must be >= 1");
+        List<FileRangeSplit> ret = new ArrayList<>();
+        long length = file.length();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long start = 0;
+            for(int i = 1; i < numSplits && start < length; i++) {
+                long boundary = nextLine(channel, Math.max(start, length * i / numSplits), length);
+                if(boundary > start && boundary < length) {
+                    ret.add(new FileRangeSplit(file, start, boundary));
+                    start = boundary;
+                }
+            }
+            ret.add(new FileRangeSplit(file, start, length));
+        }
+        return ret;
+    }
+
+    /**
+     * Cut all the files of a split in to ranges at line breaks. Each file gets
+     * a number of the ranges in proportion to its size, at least one.
+     * @param split the split, such as a {@link FileSplit} of a directory
+     * @param numSplits the total number of ranges to aim for
+     * @return the ranges, in the order of the files of the split
+     * @throws IOException
+     */
+    public static List<FileRangeSplit> split(InputSplit split, int numSplits) throws IOException {
+        if(split instanceof FileRangeSplit) {
+            List<FileRangeSplit> ret = new ArrayList<>();
+            ret.add((FileRangeSplit) split);
+            return ret;
+        }
+        List<File> files = new ArrayList<>();
+        long total = 0;
+        for(URI location : split.locations()) {
+            File file = new File(location);
+            if(file.isFile()) {
+                files.add(file);
+                total += file.length();
+            }
+        }
+        List<FileRangeSplit> ret = new ArrayList<>();
+        for(File file : files) {
+            int fileSplits = total == 0 ? 1 : (int) Math.max(1, Math.round((double) numSplits * file.length() / total));
+            ret.addAll(split(file, fileSplits));
+        }
+        return ret;
+    }
+
+    /** The offset just after the first line break at or after from - 1, or the length */
+    private static long nextLine(FileChannel channel, long from, long length) throws IOException {
+        if(from == 0)
+            return 0;
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        long position = from - 1;
+        while(position < length) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if(read < 0)
+                break;
+            for(int i = 0; i < read; i++) {
+                if(buffer.get(i) == '\n')
+                    return position + i + 1;
+            }
+            position += read;
+        }
+        return length;
+    }
+
+    /**
+     * Open the range for reading
+     * @return a stream over the bytes of the range
+     * @throws IOException
+     */
+    public InputStream openStream() throws IOException {
+        return new RangeInputStream(FileChannel.open(file.toPath(), StandardOpenOption.READ), start, end);
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public long getStart() {
+        return start;
+    }
+
+    public long getEnd() {
+        return end;
+    }
+
+    @Override
+    public long length() {
+        return end - start;
+    }
+
+    @Override
+    public void write(DataOutput out) throws IOException {
+        out.writeUTF(file.getPath());
+        out.writeLong(start);
+        out.writeLong(end);
+    }
+
+    @Override
+    public void readFields(DataInput in) throws IOException {
+        file = new File(in.readUTF());
+        start = in.readLong();
+        end = in.readLong();
+        locations = new URI[]{file.toURI()};
+    }
+
+    @Override
+    public String toString() {
+        return file + ":" + start + "-" + end;
+    }
+
+    /** Reads a range of a channel with positional reads, closing the channel on close */
+    private static class RangeInputStream extends InputStream {
+        private final FileChannel channel;
+        private long position;
+        private final long end;
+
+        private RangeInputStream(FileChannel channel, long start, long end) {
+            this.channel = channel;
+            this.position = start;
+            this.end = end;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) < 0 ? -1 : b[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if(len == 0)
+                return 0;
+            if(position >= end)
+                return -1;
+            int read = channel.read(ByteBuffer.wrap(b, off, (int) Math.min(len, end - position)), position);
+            if(read > 0)
+                position += read;
+            return read;
+        }
+
+        @Override
+        public long skip(long n) {
+            long skipped = Math.max(0, Math.min(n, end - position));
+            position += skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return (int) Math.min(Integer.MAX_VALUE, end - position);
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,470 @@
+/*
+ *
+ *  *
+ *  *  * Copyright 2015 Skymind,Inc.
+ *  *  *
+ *  *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  *    you may not use this file except in compliance with the License.
+ *  *  *    You may obtain a copy of the License at
+ *  *  *
+ *  *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *  *
+ *  *  *    Unless required by applicable law or agreed to in writing, software
+ *  *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  *    See the License for the specific language governing permissions and
+ *  *  *    limitations under the License.
+ *  *
+ *
+ */
+
+package org.canova.api.util;
+
+import org.canova.api.io.data.Text;
+import org.canova.api.writable.Writable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Streaming csv tokenizer.
+ * Scans the utf-8 bytes of the input in a reusable buffer and parses numeric fields
+ * straight from the bytes, without a String per line or per field.
+ * Fields may be quoted: a quoted field can contain the delimiter and line breaks,
+ * and a doubled quote inside of it is a literal quote. Blank lines are skipped.
+ *
+ * The columns can be typed with {@link #setColumnTypes(ColumnType...)}, in the spirit
+ * of the cli's csv input schema: numeric columns are parsed (an empty field is 0),
+ * nominal columns are mapped to the index of their value (see {@link NominalValues},
+ * which can be shared by the tokenizers of several inputs) and skipped columns are dropped. Columns without a type are numeric.
+ *
+ * @author Adam Gibson
+ */
+public class CSVTokenizer implements Closeable {
+
+    public enum ColumnType { NUMERIC, NOMINAL, SKIP }
+
+    /** The default size of the buffer, which grows to hold the longest record */
+    public static final int BUFFER_SIZE = 1 << 16;
+
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+    private final InputStream in;
+    private final byte delimiter;
+    private final byte quote;
+    private byte[] buffer;
+    private int limit;
+    private boolean eof;
+    //bytes from mark on are kept when the buffer is refilled
+    private int mark;
+    private int position;
+    private int out;
+    private int fieldStart;
+    private int fieldEnd;
+    private boolean endOfRecord;
+    private long records;
+
+    private ColumnType[] columnTypes = new ColumnType[0];
+    private NominalValues nominalValues = new NominalValues();
+    private double[] values = new double[16];
+
+    /**
+     * @param in the input to tokenize
+     * @param delimiter the field delimiter
+     */
+    public CSVTokenizer(InputStream in, char delimiter) {
+        this(in, delimiter, '"');
+    }
+
+    /**
+     * @param in the input to tokenize
+     * @param delimiter the field delimiter
+     * @param quote the quote character
+     */
+    public CSVTokenizer(InputStream in, char delimiter, char quote) {
+        this(in, delimiter, quote, BUFFER_SIZE);
+    }
+
+    /**
+     * @param in the input to tokenize
+     * @param delimiter the field delimiter
+     * @param quote the quote character
+     * @param bufferSize the initial size of the buffer, for example the length of a short input
+     */
+    public CSVTokenizer(InputStream in, char delimiter, char quote, int bufferSize) {
+        if(bufferSize < 1)
+            throw new IllegalArgumentException("Buffer size must be >= 1");
+        if(delimiter > 127 || quote > 127)
+            throw new IllegalArgumentException("Delimiter and quote must be ascii characters");
+        if(delimiter == quote || delimiter == '\n' || delimiter == '\r')
+            throw new IllegalArgumentException("Illegal delimiter " + delimiter);
+        this.in = in;
+        this.delimiter = (byte) delimiter;
+        this.quote = (byte) quote;
+        this.buffer = new byte[bufferSize];
+    }
+
+    /**
+     * Type the columns, see the class documentation
+     * @param columnTypes the type of each column
+     */
+    public void setColumnTypes(ColumnType... columnTypes) {
+        this.columnTypes = columnTypes == null ? new ColumnType[0] : columnTypes;
+    }
+
+    /**
+     * Map the nominal columns with the given values, for example those of another tokenizer
+     * of the same data, so that a value gets the same index in both
+     * @param nominalValues the index of each value of the nominal columns
+     */
+    public void setNominalValues(NominalValues nominalValues) {
+        this.nominalValues = nominalValues;
+    }
+
+    public NominalValues getNominalValues() {
+        return nominalValues;
+    }
+
+    public ColumnType[] getColumnTypes() {
+        return columnTypes;
+    }
+
+    /**
+     * The values declared or seen so far in a nominal column
+     * @param column the column
+     * @return the values, in order of their index
+     */
+    public List<String> getNominalValues(int column) {
+        if(type(column) != ColumnType.NOMINAL)
+            throw new IllegalArgumentException("Column " + column + " is not nominal");
+        return nominalValues.get(column);
+    }
+
+    /**
+     * @return the number of records read or skipped so far
+     */
+    public long getRecords() {
+        return records;
+    }
+
+    /**
+     * Whether there is another record, skipping blank lines
+     * @return true if there is another record
+     * @throws IOException
+     */
+    public boolean hasNext() throws IOException {
+        mark = position;
+        while(available()) {
+            byte b = buffer[position];
+            if(b != '\n' && b != '\r')
+                return true;
+            position++;
+            mark = position;
+        }
+        return false;
+    }
+
+    /**
+     * Skip the next record
+     * @throws IOException
+     */
+    public void skip() throws IOException {
+        checkNext();
+        do {
+            readField();
+        } while(!endOfRecord);
+        records++;
+    }
+
+    /**
+     * Read the fields of the next record as text
+     * @return one {@link Text} per field
+     * @throws IOException
+     */
+    public List<Writable> nextText() throws IOException {
+        checkNext();
+        List<Writable> ret = new ArrayList<>();
+        do {
+            readField();
+            Text text = new Text();
+            text.set(buffer, fieldStart, fieldEnd - fieldStart);
+            ret.add(text);
+        } while(!endOfRecord);
+        records++;
+        return ret;
+    }
+
+    /**
+     * Read the next record as numbers, typed by the column types
+     * @return one value per column that is not skipped
+     * @throws IOException
+     */
+    public double[] nextValues() throws IOException {
+        checkNext();
+        int column = 0;
+        int length = 0;
+        do {
+            readField();
+            ColumnType type = type(column);
+            if(type != ColumnType.SKIP) {
+                if(length == values.length)
+                    values = Arrays.copyOf(values, length * 2);
+                values[length++] = value(column, type);
+            }
+            column++;
+        } while(!endOfRecord);
+        records++;
+        return Arrays.copyOf(values, length);
+    }
+
+    /**
+     * Read up to length records in to a columnar batch: value j of record i
+     * goes to columns[j][offset + i]. Every record must have one value per column.
+     * @param columns the columns to fill
+     * @param offset the first row to fill
+     * @param length the maximum number of records to read
+     * @return the number of records read, less than length at the end of the input
+     * @throws IOException
+     */
+    public int nextBatch(double[][] columns, int offset, int length) throws IOException {
+        return nextBatch(columns, null, offset, length);
+    }
+
+    /**
+     * Read up to length records in to a columnar batch: value j of record i
+     * goes to columns[j][offset + i]. Every record must have one value per column.
+     * @param columns the columns to fill
+     * @param offset the first row to fill
+     * @param length the maximum number of records to read
+     * @return the number of records read, less than length at the end of the input
+     * @throws IOException
+     */
+    public int nextBatch(float[][] columns, int offset, int length) throws IOException {
+        return nextBatch(null, columns, offset, length);
+    }
+
+    private int nextBatch(double[][] doubles, float[][] floats, int offset, int length) throws IOException {
+        int numColumns = doubles != null ? doubles.length : floats.length;
+        int read = 0;
+        while(read < length && hasNext()) {
+            int row = offset + read;
+            int column = 0;
+            int written = 0;
+            do {
+                readField();
+                ColumnType type = type(column);
+                if(type != ColumnType.SKIP) {
+                    if(written == numColumns)
+                        throw new IllegalStateException("Record " + records + " has more than " + numColumns + " values");
+                    double value = value(column, type);
+                    if(doubles != null)
+                        doubles[written][row] = value;
+                    else
+                        floats[written][row] = (float) value;
+                    written++;
+                }
+                column++;
+            } while(!endOfRecord);
+            if(written != numColumns)
+                throw new IllegalStateException("Record " + records + " has " + written + " values, expected " + numColumns);
+            records++;
+            read++;
+        }
+        return read;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private void checkNext() throws IOException {
+        if(!hasNext())
+            throw new IllegalStateException("No more records");
+    }
+
+    private ColumnType type(int column) {
+        return column < columnTypes.length ? columnTypes[column] : ColumnType.NUMERIC;
+    }
+
+    private double value(int column, ColumnType type) {
+        if(type == ColumnType.NOMINAL) {
+            String value = new String(buffer, fieldStart, fieldEnd - fieldStart, StandardCharsets.UTF_8).trim();
+            return nominalValues.indexOf(column, value);
+        }
+        return parseDouble(buffer, fieldStart, fieldEnd);
+    }
+
+    /**
+     * Read the field at position in to buffer[fieldStart, fieldEnd) and consume
+     * the delimiter or line break after it. A quoted field is unescaped in place.
+     */
+    private void readField() throws IOException {
+        mark = position;
+        if(available() && buffer[position] == quote) {
+            position++;
+            out = position;
+            while(true) {
+                if(!available())
+                    throw new IllegalStateException("Unterminated quoted field in record " + records);
+                byte b = buffer[position++];
+                if(b == quote) {
+                    if(available() && buffer[position] == quote)
+                        position++;
+                    else
+                        break;
+                }
+                buffer[out++] = b;
+            }
+            fieldStart = mark + 1;
+            fieldEnd = out;
+            //ignore anything between the closing quote and the delimiter
+            scanToTerminator();
+        }
+        else {
+            scanToTerminator();
+            fieldStart = mark;
+            fieldEnd = position;
+        }
+
+        if(!available())
+            endOfRecord = true;
+        else if(buffer[position] == delimiter) {
+            position++;
+            endOfRecord = false;
+        }
+        else {
+            endOfRecord = true;
+            if(buffer[position++] == '\r' && available() && buffer[position] == '\n')
+                position++;
+        }
+    }
+
+    /** Move position to the next delimiter or line break, or the end of the input */
+    private void scanToTerminator() throws IOException {
+        do {
+            byte[] bytes = buffer;
+            int p = position;
+            int end = limit;
+            while(p < end) {
+                byte b = bytes[p];
+                if(b == delimiter || b == '\n' || b == '\r')
+                    break;
+                p++;
+            }
+            position = p;
+        } while(position == limit && available());
+    }
+
+    /**
+     * Make sure there is a byte at position, refilling the buffer
+     * and keeping the bytes from mark on
+     * @return false at the end of the input
+     */
+    private boolean available() throws IOException {
+        while(position >= limit) {
+            if(eof)
+                return false;
+            if(mark > 0) {
+                System.arraycopy(buffer, mark, buffer, 0, limit - mark);
+                limit -= mark;
+                position -= mark;
+                out -= mark;
+                fieldStart -= mark;
+                fieldEnd -= mark;
+                mark = 0;
+            }
+            if(limit == buffer.length)
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            int read = in.read(buffer, limit, buffer.length - limit);
+            if(read < 0)
+                eof = true;
+            else
+                limit += read;
+        }
+        return true;
+    }
+
+    /**
+     * Parse a decimal number from ascii bytes. Numbers with at most 18 significant digits
+     * and a small exponent, which covers nearly all data sets, are computed exactly
+     * from a long and a power of ten; anything else falls back on {@link Double#parseDouble(String)}.
+     * Surrounding whitespace is ignored and an empty field is 0.
+     * @param bytes the bytes to parse
+     * @param from the first byte
+     * @param to the end of the number
+     * @return the parsed number
+     */
+    public static double parseDouble(byte[] bytes, int from, int to) {
+        while(from < to && bytes[from] >= 0 && bytes[from] <= ' ')
+            from++;
+        while(to > from && bytes[to - 1] >= 0 && bytes[to - 1] <= ' ')
+            to--;
+        if(from == to)
+            return 0;
+
+        int i = from;
+        boolean negative = bytes[i] == '-';
+        if(negative || bytes[i] == '+')
+            i++;
+        long mantissa = 0;
+        int significant = 0;
+        int exponent = 0;
+        boolean digits = false;
+        boolean exact = true;
+        for(; i < to && bytes[i] >= '0' && bytes[i] <= '9'; i++) {
+            digits = true;
+            if(significant < 18) {
+                mantissa = mantissa * 10 + (bytes[i] - '0');
+                if(mantissa > 0)
+                    significant++;
+            }
+            else {
+                exponent++;
+                exact &= bytes[i] == '0';
+            }
+        }
+        if(i < to && bytes[i] == '.') {
+            for(i++; i < to && bytes[i] >= '0' && bytes[i] <= '9'; i++) {
+                digits = true;
+                if(significant < 18) {
+                    mantissa = mantissa * 10 + (bytes[i] - '0');
+                    exponent--;
+                    if(mantissa > 0)
+                        significant++;
+                }
+                else
+                    exact &= bytes[i] == '0';
+            }
+        }
+        if(digits && i < to && (bytes[i] == 'e' || bytes[i] == 'E')) {
+            i++;
+            boolean negativeExponent = i < to && bytes[i] == '-';
+            if(i < to && (negativeExponent || bytes[i] == '+'))
+                i++;
+            int e = 0;
+            boolean exponentDigits = false;
+            for(; i < to && bytes[i] >= '0' && bytes[i] <= '9'; i++) {
+                exponentDigits = true;
+                if(e < 10000)
+                    e = e * 10 + (bytes[i] - '0');
+            }
+            digits = exponentDigits;
+            exponent += negativeExponent ? -e : e;
+        }
+
+        if(digits && i == to && exact && mantissa < (1L << 53) && exponent >= -22 && exponent <= 22) {
+            double value = exponent >= 0 ? mantissa * POWERS_OF_TEN[exponent] : mantissa / POWERS_OF_TEN[-exponent];
+            return negative ? -value : value;
+        }
+        return Double.parseDouble(new String(bytes, from, to - from, StandardCharsets.US_ASCII));
+    }
+
+}
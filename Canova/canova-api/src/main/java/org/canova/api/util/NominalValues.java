@@ -0,0 +1,110 @@
+/*
+ *
+ *  *
+ *  *  * Copyright 2015 Skymind,Inc.
+ *  *  *
+ *  *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  *    you may not use this file except in compliance with the License.
+ *  *  *    You may obtain a copy of the License at
+ *  *  *
+ *  *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *  *
+ *  *  *    Unless required by applicable law or agreed to in writing, software
+ *  *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  *    See the License for the specific language governing permissions and
+ *  *  *    limitations under the License.
+ *  *
+ *
+ */
+
+package org.canova.api.util;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The index of each value of the nominal columns of a csv input.
+ * Declared values keep the order they are declared in; any other value
+ * gets the next index when it is first seen.
+ *
+ * One instance is shared by every tokenizer of an input (all its files, or all the
+ * ranges of a {@link org.canova.api.records.reader.impl.ParallelRecordReader}), so a value
+ * has the same index wherever it appears. Ranges read in parallel see undeclared values
+ * in no particular order, so declare the values for indices that are stable from run to run.
+ *
+ * @author Adam Gibson
+ */
+public class NominalValues implements Serializable {
+    private final Map<Integer, Map<String, Integer>> indices = new HashMap<>();
+
+    /**
+     * Declare the values of a column, in order, after any values it already has
+     * @param column the column
+     * @param values the values
+     */
+    public synchronized void declare(int column, String... values) {
+        for(String value : values)
+            indexOf(column, value.trim());
+    }
+
+    /**
+     * Declare all the values of other nominal values, column by column in order of their index
+     * @param values the values to declare
+     */
+    public void declare(NominalValues values) {
+        for(int column : values.columns())
+            declare(column, values.get(column).toArray(new String[0]));
+    }
+
+    /**
+     * @return the columns with values
+     */
+    public synchronized List<Integer> columns() {
+        return new ArrayList<>(indices.keySet());
+    }
+
+    /**
+     * The index of a value, adding it if it is new
+     * @param column the column
+     * @param value the value
+     * @return the index of the value in the column
+     */
+    public synchronized int indexOf(int column, String value) {
+        Map<String, Integer> values = column(column);
+        Integer index = values.get(value);
+        if(index == null) {
+            index = values.size();
+            values.put(value, index);
+        }
+        return index;
+    }
+
+    /**
+     * @param column the column
+     * @return the values of the column, in order of their index
+     */
+    public synchronized List<String> get(int column) {
+        Map<String, Integer> values = indices.get(column);
+        if(values == null)
+            return Collections.emptyList();
+        String[] ret = new String[values.size()];
+        for(Map.Entry<String, Integer> entry : values.entrySet())
+            ret[entry.getValue()] = entry.getKey();
+        return Arrays.asList(ret);
+    }
+
+    private Map<String, Integer> column(int column) {
+        Map<String, Integer> ret = indices.get(column);
+        if(ret == null) {
+            ret = new HashMap<>();
+            indices.put(column, ret);
+        }
+        return ret;
+    }
+}
@@ -20,8 +20,11 @@
 
 package org.canova.api.util;
 
+import org.canova.api.io.data.DoubleArrayWritable;
 import org.canova.api.io.data.DoubleWritable;
+import org.canova.api.io.data.FloatArrayWritable;
 import org.canova.api.io.data.FloatWritable;
+import org.canova.api.writable.ArrayWritable;
 import org.canova.api.writable.Writable;
 
 import java.util.ArrayList;
@@ -52,4 +55,65 @@ public class RecordUtils {
         return ret;
     }
 
+    /**
+     * A record holding the whole vector as one writable
+     * @param record the values, not copied
+     * @return a record of one {@link DoubleArrayWritable}
+     */
+    public static Collection<Writable> toVectorRecord(double[] record) {
+        List<Writable> ret = new ArrayList<>(2);
+        ret.add(new DoubleArrayWritable(record));
+        return ret;
+    }
+
+    /**
+     * A record holding the whole vector as one writable
+     * @param record the values, not copied
+     * @return a record of one {@link FloatArrayWritable}
+     */
+    public static Collection<Writable> toVectorRecord(float[] record) {
+        List<Writable> ret = new ArrayList<>(2);
+        ret.add(new FloatArrayWritable(record));
+        return ret;
+    }
+
+    /**
+     * The number of values in a record, counting each value of an {@link ArrayWritable}
+     * @param record the record
+     * @return the number of values
+     */
+    public static int numValues(Collection<Writable> record) {
+        int ret = 0;
+        for(Writable writable : record)
+            ret += writable instanceof ArrayWritable ? ((ArrayWritable) writable).length() : 1;
+        return ret;
+    }
+
+    /**
+     * Expand the {@link ArrayWritable}s of a record in to one {@link DoubleWritable} per value,
+     * for consumers that work on one writable per value
+     * @param record the record
+     * @return the record itself if it has no array writables, otherwise the expanded record
+     */
+    public static List<Writable> expand(Collection<Writable> record) {
+        boolean hasArray = false;
+        for(Writable writable : record)
+            if(writable instanceof ArrayWritable)
+                hasArray = true;
+        if(!hasArray)
+            return record instanceof List ? (List<Writable>) record : new ArrayList<>(record);
+
+        List<Writable> ret = new ArrayList<>(numValues(record));
+        for(Writable writable : record) {
+            if(writable instanceof ArrayWritable) {
+                ArrayWritable array = (ArrayWritable) writable;
+                for(int i = 0; i < array.length(); i++)
+                    ret.add(new DoubleWritable(array.getDouble(i)));
+            }
+            else
+                ret.add(writable);
+        }
+        return ret;
+    }
+
 }
@@ -0,0 +1,99 @@
+/*
+ *
+ *  *
+ *  *  * Copyright 2015 Skymind,Inc.
+ *  *  *
+ *  *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  *    you may not use this file except in compliance with the License.
+ *  *  *    You may obtain a copy of the License at
+ *  *  *
+ *  *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *  *
+ *  *  *    Unless required by applicable law or agreed to in writing, software
+ *  *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  *    See the License for the specific language governing permissions and
+ *  *  *    limitations under the License.
+ *  *
+ *
+ */
+
+package org.canova.api.writable;
+
+/**
+ * A writable holding a whole vector of numbers, for example all the pixels of an image.
+ * Readers that produce dense numeric data return one of these instead of one
+ * boxed writable per value, and consumers read the values with {@link #getDouble(int)}
+ * without creating an object per value.
+ *
+ * A record may mix array writables with scalar writables (typically the label);
+ * each array writable counts as {@link #length()} values of the record.
+ *
+ * @author Adam Gibson
+ */
+public abstract class ArrayWritable implements Writable {
+
+    /**
+     * @return the number of values
+     */
+    public abstract int length();
+
+    /**
+     * @param i the index of the value
+     * @return the value at index i
+     */
+    public abstract double getDouble(int i);
+
+    /**
+     * @param i the index of the value
+     * @return the value at index i
+     */
+    public float getFloat(int i) {
+        return (float) getDouble(i);
+    }
+
+    /**
+     * Copy the values in to an array.
+     * Writables backed by an array override this with a bulk copy.
+     * @param target the array to copy to
+     * @param offset the index in target of the first value
+     */
+    public void copyTo(float[] target, int offset) {
+        int length = length();
+        for(int i = 0; i < length; i++)
+            target[offset + i] = getFloat(i);
+    }
+
+    /**
+     * Copy the values in to an array.
+     * Writables backed by an array override this with a bulk copy.
+     * @param target the array to copy to
+     * @param offset the index in target of the first value
+     */
+    public void copyTo(double[] target, int offset) {
+        int length = length();
+        for(int i = 0; i < length; i++)
+            target[offset + i] = getDouble(i);
+    }
+
+    /**
+     * @return a copy of the values
+     */
+    public double[] toDoubleArray() {
+        double[] ret = new double[length()];
+        for(int i = 0; i < ret.length; i++)
+            ret[i] = getDouble(i);
+        return ret;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for(int i = 0; i < length(); i++) {
+            if(i > 0)
+                sb.append(',');
+            sb.append(getDouble(i));
+        }
+        return sb.toString();
+    }
+}
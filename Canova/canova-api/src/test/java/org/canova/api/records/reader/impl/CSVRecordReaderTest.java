@@ -1,13 +1,24 @@
 package org.canova.api.records.reader.impl;
 
+import org.apache.commons.io.FileUtils;
+import org.canova.api.conf.Configuration;
+import org.canova.api.io.data.DoubleArrayWritable;
+import org.canova.api.io.data.DoubleWritable;
 import org.canova.api.io.data.Text;
+import org.canova.api.split.FileSplit;
 import org.canova.api.split.StringSplit;
+import org.canova.api.util.CSVTokenizer;
+import org.canova.api.util.RecordUtils;
 import org.canova.api.writable.Writable;
 import org.junit.Test;
 
+import java.io.File;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.Assert.*;
 
@@ -35,4 +46,89 @@ public class CSVRecordReaderTest {
             assertEquals("Entry count", 23, vals.size());
         }
     }
+
+    @Test
+    public void testVectorOutput() throws Exception {
+        CSVRecordReader reader = new CSVRecordReader(0, ",", true);
+        reader.initialize(new StringSplit("1,1,8.0,,-2.5,1"));
+        Collection<Writable> vals = reader.next();
+        assertEquals(1, vals.size());
+        DoubleArrayWritable array = (DoubleArrayWritable) vals.iterator().next();
+        assertArrayEquals(new double[]{1, 1, 8, 0, -2.5, 1}, array.get(), 0);
+        assertEquals(6, RecordUtils.numValues(vals));
+        assertEquals(new DoubleWritable(-2.5), RecordUtils.expand(vals).get(4));
+    }
+
+    @Test
+    public void testQuotedFields() throws Exception {
+        CSVRecordReader reader = new CSVRecordReader();
+        reader.initialize(new StringSplit("1,\"a, b\",\"say \"\"hi\"\"\""));
+        List<Writable> vals = new ArrayList<>(reader.next());
+        assertEquals(3, vals.size());
+        assertEquals("a, b", vals.get(1).toString());
+        assertEquals("say \"hi\"", vals.get(2).toString());
+        assertFalse(reader.hasNext());
+    }
+
+    @Test
+    public void testRegexDelimiter() throws Exception {
+        CSVRecordReader reader = new CSVRecordReader(0, "\\s+");
+        reader.initialize(new StringSplit("1  2 3"));
+        assertEquals(3, reader.next().size());
+    }
+
+    @Test
+    public void testColumnTypesAndBatch() throws Exception {
+        CSVRecordReader reader = new CSVRecordReader(1, ",", true);
+        reader.setColumnTypes(CSVTokenizer.ColumnType.NUMERIC, CSVTokenizer.ColumnType.SKIP, CSVTokenizer.ColumnType.NOMINAL);
+        reader.initialize(new StringSplit("header\n1,x,a\n2,y,b\n3,z,a"));
+        DoubleArrayWritable array = (DoubleArrayWritable) reader.next().iterator().next();
+        assertArrayEquals(new double[]{1, 0}, array.get(), 0);
+
+        double[][] columns = new double[2][3];
+        assertEquals(2, reader.nextBatch(columns));
+        assertArrayEquals(new double[]{2, 3, 0}, columns[0], 0);
+        assertArrayEquals(new double[]{1, 0, 0}, columns[1], 0);
+        assertFalse(reader.hasNext());
+    }
+
+    @Test
+    public void testNominalAcrossFiles() throws Exception {
+        File dir = File.createTempFile("nominal", "");
+        dir.delete();
+        dir.mkdirs();
+        try {
+            FileUtils.writeStringToFile(new File(dir, "a.csv"), "1,x\n2,y\n");
+            FileUtils.writeStringToFile(new File(dir, "b.csv"), "3,y\n4,z\n");
+            Configuration conf = new Configuration();
+            conf.set(CSVRecordReader.COLUMN_TYPES, "numeric,nominal");
+            conf.setBoolean(CSVRecordReader.VECTOR_OUTPUT, true);
+
+            //one index per value, whichever file it is in
+            CSVRecordReader reader = new CSVRecordReader();
+            reader.initialize(conf, new FileSplit(dir));
+            Map<Double, Double> indices = new HashMap<>();
+            while (reader.hasNext()) {
+                double[] values = ((DoubleArrayWritable) reader.next().iterator().next()).get();
+                indices.put(values[0], values[1]);
+            }
+            assertEquals(4, indices.size());
+            assertEquals(indices.get(2.0), indices.get(3.0));
+            List<String> nominal = reader.getNominalValues().get(1);
+            assertEquals(3, nominal.size());
+            assertEquals("y", nominal.get(indices.get(2.0).intValue()));
+
+            //declared values come first, in order
+            conf.set(CSVRecordReader.NOMINAL_VALUES + ".1", "z,y,x");
+            reader = new CSVRecordReader();
+            reader.initialize(conf, new FileSplit(dir));
+            while (reader.hasNext()) {
+                double[] values = ((DoubleArrayWritable) reader.next().iterator().next()).get();
+                assertEquals(values[0] == 1 ? 2 : values[0] == 4 ? 0 : 1, values[1], 0);
+            }
+            assertEquals(Arrays.asList("z", "y", "x"), reader.getNominalValues().get(1));
+        } finally {
+            FileUtils.deleteDirectory(dir);
+        }
+    }
 }
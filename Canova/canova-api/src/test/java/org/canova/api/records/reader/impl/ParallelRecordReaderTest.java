@@ -0,0 +1,270 @@
+/*
+ *
+ *  *
+ *  *  * Copyright 2015 Skymind,Inc.
+ *  *  *
+ *  *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  *    you may not use this file except in compliance with the License.
+ *  *  *    You may obtain a copy of the License at
+ *  *  *
+ *  *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *  *
+ *  *  *    Unless required by applicable law or agreed to in writing, software
+ *  *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  *    See the License for the specific language governing permissions and
+ *  *  *    limitations under the License.
+ *  *
+ *
+ */
+
+package org.canova.api.records.reader.impl;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.canova.api.conf.Configuration;
+import org.canova.api.formats.input.impl.CSVInputFormat;
+import org.canova.api.formats.input.impl.LineInputFormat;
+import org.canova.api.io.data.DoubleArrayWritable;
+import org.canova.api.records.reader.RecordReader;
+import org.canova.api.split.FileRangeSplit;
+import org.canova.api.split.FileSplit;
+import org.canova.api.split.InputSplit;
+import org.canova.api.writable.Writable;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Adam Gibson
+ */
+public class ParallelRecordReaderTest {
+    private File dir;
+
+    @Before
+    public void before() throws Exception {
+        dir = File.createTempFile("parallel", "");
+        dir.delete();
+        dir.mkdirs();
+        for(int i = 0; i < 3; i++) {
+            StringBuilder sb = new StringBuilder();
+            for(int j = 0; j < 1000 * (i + 1); j++)
+                sb.append(i).append(',').append(j).append(',').append(j * 0.5).append('\n');
+            //the last line of a file has no line break
+            sb.append(i).append(",-1,0");
+            FileUtils.writeStringToFile(new File(dir, "data" + i + ".csv"), sb.toString());
+        }
+    }
+
+    @After
+    public void after() throws Exception {
+        FileUtils.deleteDirectory(dir);
+    }
+
+    @Test
+    public void testFileRangeSplit() throws Exception {
+        File file = new File(dir, "data2.csv");
+        List<FileRangeSplit> ranges = FileRangeSplit.split(file, 7);
+        assertEquals(7, ranges.size());
+        StringBuilder sb = new StringBuilder();
+        long start = 0;
+        for(FileRangeSplit range : ranges) {
+            assertEquals(start, range.getStart());
+            start = range.getEnd();
+            try (InputStream is = range.openStream()) {
+                String text = new String(IOUtils.toByteArray(is), StandardCharsets.UTF_8);
+                assertEquals(range.length(), text.length());
+                assertTrue(text.startsWith("2,"));
+                sb.append(text);
+            }
+        }
+        assertEquals(file.length(), start);
+        assertEquals(FileUtils.readFileToString(file), sb.toString());
+
+        //more ranges than lines
+        File small = new File(dir, "small.csv");
+        FileUtils.writeStringToFile(small, "a\nb\n");
+        assertEquals(2, FileRangeSplit.split(small, 10).size());
+
+        //ranges of every file in a directory, in proportion to size
+        List<FileRangeSplit> all = FileRangeSplit.split(new FileSplit(dir), 12);
+        long total = 0;
+        for(FileRangeSplit range : all)
+            total += range.length();
+        assertEquals(FileUtils.sizeOfDirectory(dir), total);
+    }
+
+    @Test
+    public void testOrdered() throws Exception {
+        InputSplit split = new FileSplit(dir);
+        RecordReader reader = new CSVRecordReader();
+        reader.initialize(split);
+        List<Collection<Writable>> expected = read(reader);
+        assertEquals(6003, expected.size());
+
+        RecordReader parallel = new ParallelRecordReader(new CSVInputFormat(), 4, true);
+        parallel.initialize(split);
+        assertEquals(expected, read(parallel));
+        parallel.close();
+
+        RecordReader lines = new ParallelRecordReader(new LineInputFormat(), 3, true);
+        lines.initialize(split);
+        List<Collection<Writable>> text = read(lines);
+        assertEquals(expected.size(), text.size());
+        assertEquals("2,-1,0", text.get(text.size() - 1).iterator().next().toString());
+    }
+
+    @Test
+    public void testUnordered() throws Exception {
+        InputSplit split = new FileSplit(dir);
+        RecordReader reader = new CSVRecordReader();
+        reader.initialize(split);
+        List<Collection<Writable>> expected = read(reader);
+
+        RecordReader parallel = new ParallelRecordReader(new CSVInputFormat(), 4, false);
+        parallel.initialize(split);
+        List<Collection<Writable>> records = read(parallel);
+        assertEquals(expected.size(), records.size());
+        assertEquals(new HashSet<>(expected), new HashSet<>(records));
+
+        //initializing again starts over
+        parallel.initialize(split);
+        Set<Collection<Writable>> again = new HashSet<>(read(parallel));
+        assertEquals(new HashSet<>(expected), again);
+        parallel.close();
+    }
+
+    @Test
+    public void testNominalAcrossRanges() throws Exception {
+        File file = new File(dir, "data2.csv");
+        Configuration conf = new Configuration();
+        conf.set(CSVRecordReader.COLUMN_TYPES, "numeric,nominal,numeric");
+        conf.setBoolean(CSVRecordReader.VECTOR_OUTPUT, true);
+        ParallelRecordReader parallel = new ParallelRecordReader(new CSVInputFormat(), 4, false);
+        parallel.initialize(conf, new FileSplit(file));
+        assertTrue(parallel.getRanges().size() > 1);
+        List<double[]> records = new ArrayList<>();
+        while(parallel.hasNext())
+            records.add(((DoubleArrayWritable) parallel.next().iterator().next()).get());
+        parallel.close();
+
+        //every range maps the second column (j, or -1 on the last line) with the same values
+        List<String> nominal = parallel.getNominalValues().get(1);
+        assertEquals(3001, records.size());
+        assertEquals(3001, nominal.size());
+        for(double[] values : records) {
+            double j = Double.parseDouble(nominal.get((int) values[1]));
+            assertEquals(j < 0 ? 0 : j * 0.5, values[2], 0);
+        }
+    }
+
+    @Test
+    public void testSkipHeaderAcrossRanges() throws Exception {
+        File file = new File(dir, "header.csv");
+        StringBuilder sb = new StringBuilder("a,b,c\n");
+        for(int j = 0; j < 2000; j++)
+            sb.append(j).append(",x,y\n");
+        FileUtils.writeStringToFile(file, sb.toString());
+
+        Configuration conf = new Configuration();
+        conf.setInt(CSVRecordReader.SKIP_NUM_LINES, 1);
+        ParallelRecordReader parallel = new ParallelRecordReader(new CSVInputFormat(), 4, true);
+        parallel.initialize(conf, new FileSplit(file));
+        assertTrue(parallel.getRanges().size() > 1);
+        List<Collection<Writable>> records = read(parallel);
+        parallel.close();
+
+        //only the header is skipped, not the first line of every range
+        assertEquals(2000, records.size());
+        for(int j = 0; j < records.size(); j++)
+            assertEquals(String.valueOf(j), records.get(j).iterator().next().toString());
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testExceptionFromHasNext() throws Exception {
+        File file = new File(dir, "invalid.csv");
+        StringBuilder sb = new StringBuilder();
+        for(int j = 0; j < 2000; j++)
+            sb.append(j == 1500 ? "x" : String.valueOf(j)).append(",1\n");
+        FileUtils.writeStringToFile(file, sb.toString());
+
+        Configuration conf = new Configuration();
+        conf.setBoolean(CSVRecordReader.VECTOR_OUTPUT, true);
+        ParallelRecordReader parallel = new ParallelRecordReader(new CSVInputFormat(), 2, true);
+        parallel.initialize(conf, new FileSplit(file));
+        try {
+            //the records before the bad line come back, then the worker's exception
+            int read = 0;
+            while(parallel.hasNext()) {
+                parallel.next();
+                read++;
+            }
+            fail("Read " + read + " records without an exception");
+        } finally {
+            parallel.close();
+        }
+    }
+
+    @Test
+    public void testOrderedReadsAhead() throws Exception {
+        //ranges of well over a queue's worth of records each
+        File file = new File(dir, "large.csv");
+        StringBuilder sb = new StringBuilder();
+        for(int j = 0; j < 100000; j++)
+            sb.append(j).append(",1\n");
+        FileUtils.writeStringToFile(file, sb.toString());
+
+        final CountDownLatch finished = new CountDownLatch(3);
+        ParallelRecordReader parallel = new ParallelRecordReader(new CSVInputFormat() {
+            @Override
+            public RecordReader createReader(InputSplit split, Configuration conf) throws IOException, InterruptedException {
+                CSVRecordReader ret = new CSVRecordReader() {
+                    private boolean done;
+
+                    @Override
+                    public boolean hasNext() {
+                        boolean ret = super.hasNext();
+                        if(!ret && !done) {
+                            done = true;
+                            finished.countDown();
+                        }
+                        return ret;
+                    }
+                };
+                ret.initialize(split);
+                return ret;
+            }
+        }, 2, true);
+        parallel.initialize(new FileSplit(file));
+        assertTrue(parallel.getRanges().size() > 3);
+
+        //ranges after the first are read to the end before anything is consumed
+        assertTrue(finished.await(30, TimeUnit.SECONDS));
+        List<Collection<Writable>> records = read(parallel);
+        parallel.close();
+        assertEquals(100000, records.size());
+        for(int j = 0; j < records.size(); j++)
+            assertEquals(String.valueOf(j), records.get(j).iterator().next().toString());
+    }
+
+    private List<Collection<Writable>> read(RecordReader reader) {
+        List<Collection<Writable>> ret = new ArrayList<>();
+        while(reader.hasNext())
+            ret.add(reader.next());
+        return ret;
+    }
+}
@@ -31,6 +31,7 @@ import org.canova.api.records.writer.RecordWriter;
 import org.canova.api.records.writer.impl.SVMLightRecordWriter;
 import org.canova.api.split.FileSplit;
 import org.canova.api.split.InputSplit;
+import org.canova.api.util.RecordUtils;
 import org.canova.api.writable.Writable;
 import org.junit.Test;
 import org.springframework.core.io.ClassPathResource;
@@ -103,5 +104,26 @@ public class SVMRecordWriterTest {
         assertEquals(785,record.size());
     }
 
+    @Test
+    public void testVectorOutput() throws Exception {
+        File file = new ClassPathResource("mnist_svmlight.txt").getFile();
+        Configuration conf = new Configuration();
+        conf.set(SVMLightRecordReader.NUM_ATTRIBUTES,"784");
+        RecordReader reader = new SVMLightRecordReader();
+        reader.initialize(conf, new FileSplit(file));
+        conf.set(RecordReader.VECTOR_OUTPUT,"true");
+        RecordReader vectorReader = new SVMLightRecordReader();
+        vectorReader.initialize(conf, new FileSplit(file));
+        while(reader.hasNext()) {
+            assertTrue(vectorReader.hasNext());
+            Collection<Writable> record = reader.next();
+            Collection<Writable> vector = vectorReader.next();
+            //the features in one writable and the label
+            assertEquals(2, vector.size());
+            assertEquals(785, RecordUtils.numValues(vector));
+            assertEquals(record, RecordUtils.expand(vector));
+        }
+        assertFalse(vectorReader.hasNext());
+    }
 
 }
@@ -0,0 +1,90 @@
+package org.canova.api.util;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Adam Gibson
+ */
+public class CSVTokenizerTest {
+
+    @Test
+    public void testQuoting() throws Exception {
+        String csv = "a,\"b,c\",\"say \"\"hi\"\"\"\r\n\n1,,é\n\"multi\nline\",x,\n last";
+        //small reads and buffers exercise fields spanning refills and growth of the buffer
+        for(int chunk : new int[]{1, 3, 1000}) {
+            for(int bufferSize : new int[]{1, 5, CSVTokenizer.BUFFER_SIZE}) {
+                CSVTokenizer tokenizer = new CSVTokenizer(stream(csv, chunk), ',', '"', bufferSize);
+                List<String> records = new ArrayList<>();
+                while(tokenizer.hasNext())
+                    records.add(tokenizer.nextText().toString());
+                assertEquals(Arrays.asList("[a, b,c, say \"hi\"]", "[1, , é]", "[multi\nline, x, ]", "[ last]"), records);
+                assertEquals(4, tokenizer.getRecords());
+            }
+        }
+    }
+
+    @Test
+    public void testColumnTypes() throws Exception {
+        CSVTokenizer tokenizer = new CSVTokenizer(stream("1,x,2.5,skip\n3,y,-1,z\n\n4,x,1e2,\n", 3), ',');
+        tokenizer.setColumnTypes(CSVTokenizer.ColumnType.NUMERIC, CSVTokenizer.ColumnType.NOMINAL,
+                CSVTokenizer.ColumnType.NUMERIC, CSVTokenizer.ColumnType.SKIP);
+        assertArrayEquals(new double[]{1, 0, 2.5}, tokenizer.nextValues(), 0);
+
+        float[][] columns = new float[3][4];
+        assertEquals(2, tokenizer.nextBatch(columns, 1, 3));
+        assertArrayEquals(new float[]{0, 3, 4, 0}, columns[0], 0);
+        assertArrayEquals(new float[]{0, 1, 0, 0}, columns[1], 0);
+        assertArrayEquals(new float[]{0, -1, 100, 0}, columns[2], 0);
+        assertEquals(Arrays.asList("x", "y"), tokenizer.getNominalValues(1));
+        assertFalse(tokenizer.hasNext());
+        assertEquals(0, tokenizer.nextBatch(columns, 0, 4));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testWrongNumberOfValues() throws Exception {
+        CSVTokenizer tokenizer = new CSVTokenizer(stream("1,2\n3\n", 100), ',');
+        tokenizer.nextBatch(new double[2][2], 0, 2);
+    }
+
+    @Test
+    public void testParseDouble() {
+        Random random = new Random(42);
+        List<String> numbers = new ArrayList<>(Arrays.asList("  12 ", "-0", "+5", ".5", "5.", "1e5", "1E-5", "", "0",
+                "12345678901234567890123", "0.000000000000000000000000001", "NaN", "-Infinity", "1e400"));
+        for(int i = 0; i < 10000; i++) {
+            numbers.add(Double.toString(random.nextDouble() * Math.pow(10, random.nextInt(40) - 20)));
+            numbers.add(Float.toString(random.nextFloat()));
+            numbers.add(String.format("%.6e", random.nextGaussian() * 1e5));
+        }
+        for(String number : numbers) {
+            byte[] bytes = number.getBytes(StandardCharsets.US_ASCII);
+            double expected = number.isEmpty() ? 0 : Double.parseDouble(number);
+            assertEquals(number, Double.doubleToLongBits(expected), Double.doubleToLongBits(CSVTokenizer.parseDouble(bytes, 0, bytes.length)));
+        }
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testParseInvalid() {
+        byte[] bytes = "1x".getBytes(StandardCharsets.US_ASCII);
+        CSVTokenizer.parseDouble(bytes, 0, bytes.length);
+    }
+
+    private static InputStream stream(String data, final int chunk) {
+        return new ByteArrayInputStream(data.getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, chunk));
+            }
+        };
+    }
+}
@@ -27,6 +27,7 @@ import java.util.Map;
 
 import com.google.common.base.Strings;
 import org.apache.commons.math3.util.Pair;
+import org.canova.api.util.CSVTokenizer;
 import org.canova.cli.csv.schema.CSVSchemaColumn.TransformType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -230,6 +231,36 @@ public class CSVInputSchema {
 
 	}
 
+	/**
+	 * The column types for a {@link CSVTokenizer} reading data of this schema:
+	 * skipped columns are skipped, nominal columns are nominal and the rest is numeric
+	 *
+	 * @return one type per column of the schema
+	 */
+	public CSVTokenizer.ColumnType[] getColumnTypes() {
+
+		CSVTokenizer.ColumnType[] types = new CSVTokenizer.ColumnType[ this.columnSchemas.size() ];
+
+		int colIndex = 0;
+
+		for (CSVSchemaColumn column : this.columnSchemas.values()) {
+
+			if ( column.transform == TransformType.SKIP ) {
+				types[ colIndex ] = CSVTokenizer.ColumnType.SKIP;
+			} else if ( column.columnType == CSVSchemaColumn.ColumnType.NOMINAL ) {
+				types[ colIndex ] = CSVTokenizer.ColumnType.NOMINAL;
+			} else {
+				types[ colIndex ] = CSVTokenizer.ColumnType.NUMERIC;
+			}
+
+			colIndex++;
+
+		}
+
+		return types;
+
+	}
+
 	public void evaluateInputRecord(String csvRecordLine) throws Exception {
 
 		// does the record have the same number of columns that our schema expects?
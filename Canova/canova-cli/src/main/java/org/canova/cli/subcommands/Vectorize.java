@@ -32,6 +32,7 @@ import java.util.Properties;
 import org.canova.api.conf.Configuration;
 import org.canova.api.exceptions.CanovaException;
 import org.canova.api.formats.input.InputFormat;
+import org.canova.api.formats.input.impl.ParallelInputFormat;
 import org.canova.api.formats.output.OutputFormat;
 import org.canova.api.records.reader.RecordReader;
 import org.canova.api.split.FileSplit;
@@ -93,6 +94,8 @@ public class Vectorize implements SubCommand {
     public static final String NORMALIZE_DATA_FLAG = "canova.input.vectorization.normalize";
     public static final String SHUFFLE_DATA_FLAG = "canova.output.shuffle";
     public static final String PRINT_STATS_FLAG = "canova.input.statistics.debug.print";
+    // number of threads to read csv input with, the file is cut in to line aligned ranges
+    public static final String READER_THREADS = "canova.input.reader.threads";
     
     protected String[] args;
 
@@ -333,7 +336,16 @@ public class Vectorize implements SubCommand {
 
         try {
             Class<? extends InputFormat> inputFormatClazz = (Class<? extends InputFormat>) Class.forName(clazz);
-            return inputFormatClazz.newInstance();
+            InputFormat inputFormat = inputFormatClazz.newInstance();
+
+            // only csv records are one per line, the other formats read whole files
+            String threads = (String) this.configProps.get(READER_THREADS);
+            if (null != threads && "csv".equals(this.configProps.get("canova.input.data.type"))) {
+                int numThreads = Integer.parseInt(threads.trim());
+                if (numThreads > 1)
+                    return new ParallelInputFormat(inputFormat, numThreads, true);
+            }
+            return inputFormat;
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
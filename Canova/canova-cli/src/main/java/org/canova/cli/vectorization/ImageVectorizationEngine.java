@@ -4,6 +4,7 @@ import java.io.IOException;
 import java.util.Collection;
 
 import org.canova.api.records.reader.RecordReader;
+import org.canova.api.util.RecordUtils;
 import org.canova.api.writable.Writable;
 import org.canova.cli.shuffle.Shuffler;
 import org.canova.cli.subcommands.Vectorize;
@@ -12,7 +13,8 @@ import org.canova.cli.transforms.image.NormalizeTransform;
 import com.google.common.base.Strings;
 
 /**
- * Reads from InputFormats where (generally, but up to InputFormat) each Writable in Collection is a pixel
+ * Reads from InputFormats where (generally, but up to InputFormat) each Writable in Collection is a pixel;
+ * records holding the whole image as one array writable are expanded to one writable per pixel
  * 
  * Writes back out to the OutputFomat where we are assuming the last element is the double representing the class index
  * 
@@ -41,7 +43,7 @@ public class ImageVectorizationEngine extends VectorizationEngine {
         while (reader.hasNext()) {
             
         	// get the record from the input format
-        	Collection<Writable> w = reader.next();
+        	Collection<Writable> w = RecordUtils.expand(reader.next());
         	normalizer.collectStatistics(w);
 
         }
@@ -68,7 +70,7 @@ public class ImageVectorizationEngine extends VectorizationEngine {
 	        while (reader.hasNext()) {
 	            
 	        	// get the record from the input format
-	        	Collection<Writable> w = reader.next();
+	        	Collection<Writable> w = RecordUtils.expand(reader.next());
 	        	if (false == normalizeData) {
 	        		
 	        	} else {
@@ -97,7 +99,7 @@ public class ImageVectorizationEngine extends VectorizationEngine {
 		        while (reader.hasNext()) {
 		            
 		        	// get the record from the input format
-		        	Collection<Writable> w = reader.next();
+		        	Collection<Writable> w = RecordUtils.expand(reader.next());
 		        	if (false == normalizeData) {
 		        		
 		        	} else {
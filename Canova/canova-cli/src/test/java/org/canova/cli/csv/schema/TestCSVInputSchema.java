@@ -22,6 +22,7 @@ package org.canova.cli.csv.schema;
 
 import static org.junit.Assert.*;
 
+import org.canova.api.util.CSVTokenizer;
 import org.junit.Test;
 
 public class TestCSVInputSchema {
@@ -46,6 +47,9 @@ public class TestCSVInputSchema {
 		assertEquals( CSVSchemaColumn.ColumnType.NOMINAL, inputSchema.getColumnSchemaByName( "class" ).columnType );
 		assertEquals( CSVSchemaColumn.TransformType.LABEL, inputSchema.getColumnSchemaByName( "class" ).transform );
 		
+		assertArrayEquals( new CSVTokenizer.ColumnType[]{ CSVTokenizer.ColumnType.NUMERIC, CSVTokenizer.ColumnType.SKIP,
+				CSVTokenizer.ColumnType.NUMERIC, CSVTokenizer.ColumnType.NUMERIC, CSVTokenizer.ColumnType.NOMINAL },
+				inputSchema.getColumnTypes() );
 		
 	}
 	
@@ -48,6 +48,7 @@ public class WavFileRecordReader implements RecordReader {
     private Collection<Writable> record;
     private boolean hitImage = false;
     private boolean appendLabel = false;
+    private boolean vectorOutput = true;
     private List<String> labels = new ArrayList<>();
     private Configuration conf;
 
@@ -120,6 +121,7 @@ public class WavFileRecordReader implements RecordReader {
     public void initialize(Configuration conf, InputSplit split) throws IOException, InterruptedException {
         this.conf = conf;
         this.appendLabel = conf.getBoolean(APPEND_LABEL,false);
+        this.vectorOutput = conf.getBoolean(VECTOR_OUTPUT,true);
         this.labels = new ArrayList<>(conf.getStringCollection(LABELS));
         initialize(split);
     }
@@ -129,7 +131,8 @@ public class WavFileRecordReader implements RecordReader {
         if(iter != null) {
             File next = iter.next();
             Wave wave = new Wave(next.getAbsolutePath());
-            return RecordUtils.toRecord(wave.getNormalizedAmplitudes());
+            double[] amplitudes = wave.getNormalizedAmplitudes();
+            return vectorOutput ? RecordUtils.toVectorRecord(amplitudes) : RecordUtils.toRecord(amplitudes);
         }
         else if(record != null) {
             hitImage = true;
@@ -0,0 +1,152 @@
+/*
+ *
+ *  *
+ *  *  * Copyright 2015 Skymind,Inc.
+ *  *  *
+ *  *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  *    you may not use this file except in compliance with the License.
+ *  *  *    You may obtain a copy of the License at
+ *  *  *
+ *  *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *  *
+ *  *  *    Unless required by applicable law or agreed to in writing, software
+ *  *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  *    See the License for the specific language governing permissions and
+ *  *  *    limitations under the License.
+ *  *
+ *
+ */
+
+package org.canova.common;
+
+import org.canova.api.writable.ArrayWritable;
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Writable for an {@link INDArray}.
+ * The values are indexed in linear (row major) order.
+ *
+ * @author Adam Gibson
+ */
+public class NDArrayWritable extends ArrayWritable {
+    private INDArray array;
+
+    public NDArrayWritable() {
+    }
+
+    /**
+     * @param array the array, not copied
+     */
+    public NDArrayWritable(INDArray array) {
+        this.array = array;
+    }
+
+    /** The array; not copied */
+    public INDArray get() {
+        return array;
+    }
+
+    public void set(INDArray array) {
+        this.array = array;
+    }
+
+    @Override
+    public int length() {
+        return array.length();
+    }
+
+    @Override
+    public double getDouble(int i) {
+        return array.getDouble(i);
+    }
+
+    @Override
+    public float getFloat(int i) {
+        return array.getFloat(i);
+    }
+
+    @Override
+    public void copyTo(float[] target, int offset) {
+        Object data = contiguousData();
+        if(data instanceof float[])
+            System.arraycopy(data, array.offset(), target, offset, array.length());
+        else if(data instanceof double[]) {
+            double[] values = (double[]) data;
+            int start = array.offset();
+            for(int i = 0; i < array.length(); i++)
+                target[offset + i] = (float) values[start + i];
+        }
+        else
+            super.copyTo(target, offset);
+    }
+
+    @Override
+    public void copyTo(double[] target, int offset) {
+        Object data = contiguousData();
+        if(data instanceof double[])
+            System.arraycopy(data, array.offset(), target, offset, array.length());
+        else if(data instanceof float[]) {
+            float[] values = (float[]) data;
+            int start = array.offset();
+            for(int i = 0; i < array.length(); i++)
+                target[offset + i] = values[start + i];
+        }
+        else
+            super.copyTo(target, offset);
+    }
+
+    /**
+     * The values as a java array, when they are a contiguous run of it in linear order
+     * starting at {@link INDArray#offset()}: the backing array of a heap buffer,
+     * or a copy of a direct buffer the array covers entirely. Otherwise null.
+     */
+    private Object contiguousData() {
+        if(array.elementWiseStride() != 1 || (array.ordering() != 'c' && !array.isVector()))
+            return null;
+        DataBuffer data = array.data();
+        if(data.allocationMode() == DataBuffer.AllocationMode.HEAP)
+            return data.array();
+        if(array.offset() != 0 || array.length() != data.length())
+            return null;
+        return data.dataType() == DataBuffer.Type.DOUBLE ? data.asDouble() : data.asFloat();
+    }
+
+    @Override
+    public void write(DataOutput out) throws IOException {
+        int[] shape = array.shape();
+        out.writeInt(shape.length);
+        for(int dim : shape)
+            out.writeInt(dim);
+        for(int i = 0; i < array.length(); i++)
+            out.writeDouble(array.getDouble(i));
+    }
+
+    @Override
+    public void readFields(DataInput in) throws IOException {
+        int[] shape = new int[in.readInt()];
+        for(int i = 0; i < shape.length; i++)
+            shape[i] = in.readInt();
+        array = Nd4j.create(shape);
+        for(int i = 0; i < array.length(); i++)
+            array.putScalar(i, in.readDouble());
+    }
+
+    public boolean equals(Object o) {
+        if (!(o instanceof NDArrayWritable)) {
+            return false;
+        }
+        NDArrayWritable other = (NDArrayWritable)o;
+        return array == null ? other.array == null : array.equals(other.array);
+    }
+
+    public int hashCode() {
+        return array == null ? 0 : array.hashCode();
+    }
+}
@@ -22,6 +22,8 @@ package org.canova.common;
 
 import org.canova.api.io.data.DoubleWritable;
 import org.canova.api.io.data.FloatWritable;
+import org.canova.api.util.RecordUtils;
+import org.canova.api.writable.ArrayWritable;
 import org.canova.api.writable.Writable;
 import org.nd4j.linalg.api.buffer.DataBuffer;
 import org.nd4j.linalg.api.ndarray.INDArray;
@@ -29,7 +31,6 @@ import org.nd4j.linalg.factory.Nd4j;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Iterator;
 
 /**
  * @author Adam Gibson
@@ -44,12 +45,16 @@ public class RecordConverter {
      */
     public static INDArray toArray
     (Collection<Writable> record) {
-        Iterator<Writable> writables = record.iterator();
-        INDArray linear = Nd4j.zeros(record.size());
-
+        INDArray linear = Nd4j.zeros(RecordUtils.numValues(record));
         int count = 0;
-        while(writables.hasNext()) {
-            linear.putScalar(count++,Double.valueOf(writables.next().toString()));
+        for(Writable writable : record) {
+            if(writable instanceof ArrayWritable) {
+                ArrayWritable array = (ArrayWritable) writable;
+                for(int i = 0; i < array.length(); i++)
+                    linear.putScalar(count++, array.getDouble(i));
+            }
+            else
+                linear.putScalar(count++,Double.valueOf(writable.toString()));
         }
         return linear;
     }
@@ -67,4 +72,16 @@ public class RecordConverter {
         return writables;
     }
 
+    /**
+     * Convert an ndarray to a record of one {@link NDArrayWritable},
+     * instead of one writable per value
+     * @param array the array to convert, not copied
+     * @return the record
+     */
+    public static Collection<Writable> toVectorRecord(INDArray array) {
+        Collection<Writable> writables = new ArrayList<>(2);
+        writables.add(new NDArrayWritable(array));
+        return writables;
+    }
+
 }
@@ -22,7 +22,7 @@ package org.canova.image.loader;
 
 import com.github.jaiimageio.impl.plugins.tiff.TIFFImageReaderSpi;
 import com.github.jaiimageio.impl.plugins.tiff.TIFFImageWriterSpi;
-import org.nd4j.linalg.api.buffer.IntBuffer;
+import org.nd4j.linalg.api.buffer.DataBuffer;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.linalg.util.ArrayUtil;
@@ -31,13 +31,27 @@ import javax.imageio.ImageIO;
 import javax.imageio.spi.IIORegistry;
 import java.awt.*;
 import java.awt.image.BufferedImage;
+import java.awt.image.ComponentColorModel;
 import java.awt.image.DataBufferByte;
+import java.awt.image.PixelInterleavedSampleModel;
+import java.awt.image.Raster;
 import java.awt.image.WritableRaster;
 import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Image loader for taking images
- * and converting them to matrices
+ * and converting them to matrices.
+ *
+ * For bulk ingestion use {@link #asRowVector(File, INDArray)} or {@link #asMinibatch(List, int)}:
+ * they read the pixels in bulk from the raster and resize and reorder the channels
+ * in a single pass, straight in to a row of a minibatch.
  * @author Adam Gibson
  *
  */
@@ -94,14 +108,156 @@ public class ImageLoader implements Serializable {
      * @throws Exception
      */
     public INDArray asRowVector(File f) throws Exception {
-        if(channels == 3) {
-            return toRaveledTensor(f);
+        BufferedImage image = read(f);
+        boolean resize = width > 0 && height > 0;
+        INDArray ret = Nd4j.create(1, rowLength(resize ? width : image.getWidth(), resize ? height : image.getHeight()));
+        asRowVector(image, ret);
+        return ret;
+    }
+
+    /**
+     * Decode an image file straight in to the given vector,
+     * for example a row of a minibatch
+     * @param f the image to decode
+     * @param dest the vector to write to
+     * @throws IOException
+     * @see #asRowVector(BufferedImage, INDArray)
+     */
+    public void asRowVector(File f, INDArray dest) throws IOException {
+        asRowVector(read(f), dest);
+    }
+
+    /**
+     * Decode an image straight in to the given vector, for example a row of a minibatch.
+     * The pixels are read in bulk from the raster and resized to the width and height
+     * of this loader (see {@link #scalingIfNeed(BufferedImage, int, int, boolean)})
+     * in the same pass that reorders the channels.
+     * With 3 channels the vector holds the blue, green and red planes one after the other,
+     * otherwise one packed argb value per pixel.
+     * @param image the image to decode
+     * @param dest the vector to write to, of length {@link #rowLength()}
+     */
+    public void asRowVector(BufferedImage image, INDArray dest) {
+        int srcWidth = image.getWidth(), srcHeight = image.getHeight();
+        boolean scale = width > 0 && height > 0;
+        int w = scale ? width : srcWidth;
+        int h = scale ? height : srcHeight;
+        int length = rowLength(w, h);
+        if(dest.length() != length)
+            throw new IllegalArgumentException("Destination has length " + dest.length() + " but the image needs " + length);
+
+        PixelSource source = PixelSource.of(image);
+        if(w != srcWidth || h != srcHeight)
+            source = new ScaledPixelSource(source, srcWidth, srcHeight, w, h);
+        VectorWriter writer = new VectorWriter(dest);
+
+        boolean planes = channels == 3;
+        int plane = w * h;
+        for (int i = 0; i < h; i++) {
+            for (int j = 0; j < w; j++) {
+                int argb = source.argb(j, i);
+                int k = i * w + j;
+                if(planes) {
+                    //bgr planes, translucent pixels are composited on black
+                    int a = argb >>> 24;
+                    writer.put(k, blend(argb & 0xff, a));
+                    writer.put(plane + k, blend((argb >>> 8) & 0xff, a));
+                    writer.put(2 * plane + k, blend((argb >>> 16) & 0xff, a));
+                }
+                else
+                    writer.put(k, argb);
+            }
+        }
+    }
+
+    /**
+     * Decode image files concurrently in to a new minibatch, one image per row.
+     * The width and height of this loader must be set.
+     * @param files the images to decode
+     * @param numThreads the number of images to decode at a time
+     * @return the minibatch
+     */
+    public INDArray asMinibatch(List<File> files, int numThreads) {
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        try {
+            return asMinibatch(files, Nd4j.create(files.size(), rowLength()), executor);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Decode image files concurrently in to the rows of the given minibatch,
+     * image i in to row i
+     * @param files the images to decode
+     * @param batch the minibatch to write to, with a row of {@link #rowLength()} per file
+     * @param executor the executor to decode on
+     * @return the minibatch
+     */
+    public INDArray asMinibatch(List<File> files, INDArray batch, ExecutorService executor) {
+        if(batch.rows() != files.size())
+            throw new IllegalArgumentException("Batch has " + batch.rows() + " rows for " + files.size() + " files");
+        List<Future<Void>> futures = new ArrayList<>(files.size());
+        for (int i = 0; i < files.size(); i++) {
+            final File file = files.get(i);
+            final INDArray row = batch.getRow(i);
+            futures.add(executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    asRowVector(file, row);
+                    return null;
+                }
+            }));
         }
-        return ArrayUtil.toNDArray(flattenedImageFromFile(f));
+
+        try {
+            for(Future<Void> future : futures)
+                future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Unable to load image", e.getCause());
+        } finally {
+            for(Future<Void> future : futures)
+                future.cancel(true);
+        }
+        return batch;
     }
 
+    /**
+     * The number of values {@link #asRowVector(BufferedImage, INDArray)} writes per image.
+     * The width and height of this loader must be set.
+     * @return the length of a row of a minibatch
+     */
+    public int rowLength() {
+        if(width <= 0 || height <= 0)
+            throw new IllegalStateException("Width and height must be set to know the length of a row");
+        return rowLength(width, height);
+    }
+
+    private int rowLength(int w, int h) {
+        return (channels == 3 ? 3 : 1) * w * h;
+    }
+
+    /**
+     * Decode an image in to a new row vector,
+     * the same as {@link #asRowVector(File)}
+     * @param inputStream the image to decode
+     * @return the flattened image
+     */
     public INDArray asRowVector(InputStream inputStream) {
-        return asMatrix(inputStream).ravel();
+        try {
+            BufferedImage image = ImageIO.read(inputStream);
+            if(image == null)
+                throw new IllegalStateException("Unable to load image");
+            boolean resize = width > 0 && height > 0;
+            INDArray ret = Nd4j.create(1, rowLength(resize ? width : image.getWidth(), resize ? height : image.getHeight()));
+            asRowVector(image, ret);
+            return ret;
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to load image", e);
+        }
     }
 
     /**
@@ -217,14 +373,7 @@ public class ImageLoader implements Serializable {
             image = scalingIfNeed(image, true);
             int w = image.getWidth();
             int h = image.getHeight();
-            INDArray ret = Nd4j.create(h, w);
-
-            for (int i = 0; i < h; i++) {
-                for (int j = 0; j < w; j++) {
-                    ret.putScalar(new int[]{i, j}, image.getRGB(i, j));
-                }
-            }
-            return ret;
+            return Nd4j.create(ArrayUtil.toDoubles(toIntArrayArray(image)), new int[]{h, w});
         } catch (IOException e) {
             throw new RuntimeException("Unable to load image",e);
         }
@@ -365,8 +514,7 @@ public class ImageLoader implements Serializable {
         int w = image.getWidth(), h = image.getHeight();
         int[][] ret = new int[h][w];
         for (int i = 0; i < h; i++)
-            for (int j = 0; j < w; j++)
-                ret[i][j] = image.getRGB(j, i);
+            image.getRGB(0, i, w, 1, ret[i], 0, w);
         return ret;
     }
 
@@ -385,15 +533,32 @@ public class ImageLoader implements Serializable {
         return scalingIfNeed(image, width, height, needAlpha);
     }
 
+    /**
+     * Resize an image, if it is not already the given size.
+     * Downscales by more than 2 average every source pixel an output pixel covers,
+     * weighted by the covered area (the same as {@link Image#SCALE_SMOOTH}),
+     * so fine detail is averaged instead of aliased; anything else is interpolated bilinearly.
+     * All the loading methods resize this way, whatever the image is read from.
+     * Without alpha, translucent pixels are composited on black.
+     */
     protected BufferedImage scalingIfNeed(BufferedImage image, int dstWidth, int dstHeight, boolean needAlpha) {
         if (dstHeight > 0 && dstWidth > 0 && (image.getHeight() != dstHeight || image.getWidth() != dstWidth)) {
-            Image scaled = image.getScaledInstance(dstWidth, dstHeight, Image.SCALE_SMOOTH);
-
-            if (needAlpha && image.getColorModel().hasAlpha()) {
-                return toBufferedImage(scaled, BufferedImage.TYPE_4BYTE_ABGR);
-            } else {
-                return toBufferedImage(scaled, BufferedImage.TYPE_3BYTE_BGR);
+            boolean alpha = needAlpha && image.getColorModel().hasAlpha();
+            PixelSource scaled = new ScaledPixelSource(PixelSource.of(image), image.getWidth(), image.getHeight(), dstWidth, dstHeight);
+            int[] pixels = new int[dstWidth * dstHeight];
+            for (int i = 0; i < dstHeight; i++) {
+                for (int j = 0; j < dstWidth; j++) {
+                    int argb = scaled.argb(j, i);
+                    if (!alpha) {
+                        int a = argb >>> 24;
+                        argb = 0xff << 24 | blend((argb >>> 16) & 0xff, a) << 16 | blend((argb >>> 8) & 0xff, a) << 8 | blend(argb & 0xff, a);
+                    }
+                    pixels[i * dstWidth + j] = argb;
+                }
             }
+            BufferedImage ret = new BufferedImage(dstWidth, dstHeight, alpha ? BufferedImage.TYPE_4BYTE_ABGR : BufferedImage.TYPE_3BYTE_BGR);
+            ret.setRGB(0, 0, dstWidth, dstHeight, pixels, 0, dstWidth);
+            return ret;
         } else {
             if (image.getType() == BufferedImage.TYPE_4BYTE_ABGR || image.getType() == BufferedImage.TYPE_3BYTE_BGR) {
                 return image;
@@ -406,4 +571,186 @@ public class ImageLoader implements Serializable {
         }
     }
 
+    private static BufferedImage read(File f) throws IOException {
+        BufferedImage image = ImageIO.read(f);
+        if(image == null)
+            throw new IllegalStateException("Unable to load image " + f);
+        return image;
+    }
+
+    private static int blend(int color, int alpha) {
+        return alpha == 0xff ? color : (color * alpha + 127) / 255;
+    }
+
+    /**
+     * Packed argb pixels of an image. Interleaved 8 bit rgb(a) rasters, which is what
+     * the jpeg and png readers produce, are read straight from the byte buffer;
+     * anything else is converted in one bulk call.
+     */
+    private abstract static class PixelSource {
+
+        abstract int argb(int x, int y);
+
+        static PixelSource of(BufferedImage image) {
+            Raster raster = image.getRaster();
+            if(raster.getDataBuffer() instanceof DataBufferByte
+                    && raster.getSampleModel() instanceof PixelInterleavedSampleModel
+                    && image.getColorModel() instanceof ComponentColorModel
+                    && image.getColorModel().getColorSpace().isCS_sRGB()
+                    && !image.getColorModel().isAlphaPremultiplied()
+                    && (raster.getNumBands() == 3 || raster.getNumBands() == 4))
+                return new BytePixelSource(raster);
+
+            final int w = image.getWidth();
+            final int[] pixels = image.getRGB(0, 0, w, image.getHeight(), null, 0, w);
+            return new PixelSource() {
+                @Override
+                int argb(int x, int y) {
+                    return pixels[y * w + x];
+                }
+            };
+        }
+    }
+
+    /**
+     * The pixels of another source resized: each output pixel is a weighted sum
+     * of the source pixels its column and row are made of, per channel
+     */
+    private static class ScaledPixelSource extends PixelSource {
+        private final PixelSource source;
+        private final Taps columns;
+        private final Taps rows;
+
+        private ScaledPixelSource(PixelSource source, int srcWidth, int srcHeight, int dstWidth, int dstHeight) {
+            this.source = source;
+            this.columns = new Taps(srcWidth, dstWidth);
+            this.rows = new Taps(srcHeight, dstHeight);
+        }
+
+        @Override
+        int argb(int x, int y) {
+            float a = 0, r = 0, g = 0, b = 0;
+            for (int ty = y * rows.size; ty < (y + 1) * rows.size; ty++) {
+                if (rows.weight[ty] == 0)
+                    continue;
+                for (int tx = x * columns.size; tx < (x + 1) * columns.size; tx++) {
+                    float weight = rows.weight[ty] * columns.weight[tx];
+                    if (weight == 0)
+                        continue;
+                    int argb = source.argb(columns.index[tx], rows.index[ty]);
+                    a += (argb >>> 24) * weight;
+                    r += ((argb >>> 16) & 0xff) * weight;
+                    g += ((argb >>> 8) & 0xff) * weight;
+                    b += (argb & 0xff) * weight;
+                }
+            }
+            return channel(a) << 24 | channel(r) << 16 | channel(g) << 8 | channel(b);
+        }
+
+        private static int channel(float value) {
+            return Math.min(0xff, (int) (value + 0.5f));
+        }
+    }
+
+    /**
+     * The source pixels each output pixel of one axis is made of, {@link #size} per output pixel,
+     * and their weights: for downscales by more than 2 every source pixel the output pixel covers,
+     * weighted by the covered fraction, otherwise the two nearest to its center, interpolated
+     */
+    private static class Taps {
+        private final int size;
+        private final int[] index;
+        private final float[] weight;
+
+        private Taps(int srcSize, int dstSize) {
+            float scale = (float) srcSize / dstSize;
+            size = scale > 2 ? (int) Math.ceil(scale) + 1 : 2;
+            index = new int[dstSize * size];
+            weight = new float[dstSize * size];
+            for (int i = 0; i < dstSize; i++) {
+                if (scale > 2) {
+                    float lo = i * scale, hi = lo + scale;
+                    int first = (int) lo;
+                    for (int t = 0; t < size; t++) {
+                        int s = first + t;
+                        float covered = Math.min(hi, s + 1) - Math.max(lo, s);
+                        index[i * size + t] = Math.min(s, srcSize - 1);
+                        weight[i * size + t] = s < srcSize && covered > 0 ? covered / scale : 0;
+                    }
+                }
+                else {
+                    float s = Math.max(0f, (i + 0.5f) * scale - 0.5f);
+                    int l = Math.min((int) s, srcSize - 1);
+                    index[i * size] = l;
+                    index[i * size + 1] = Math.min(l + 1, srcSize - 1);
+                    weight[i * size] = 1 - (s - l);
+                    weight[i * size + 1] = s - l;
+                }
+            }
+        }
+    }
+
+    private static class BytePixelSource extends PixelSource {
+        private final byte[] data;
+        private final int offset;
+        private final int pixelStride;
+        private final int scanlineStride;
+        private final int red, green, blue, alpha;
+
+        private BytePixelSource(Raster raster) {
+            DataBufferByte buffer = (DataBufferByte) raster.getDataBuffer();
+            PixelInterleavedSampleModel sampleModel = (PixelInterleavedSampleModel) raster.getSampleModel();
+            this.data = buffer.getData();
+            this.pixelStride = sampleModel.getPixelStride();
+            this.scanlineStride = sampleModel.getScanlineStride();
+            //rasters of sub images start part way in to the buffer
+            this.offset = buffer.getOffset()
+                    - raster.getSampleModelTranslateY() * scanlineStride
+                    - raster.getSampleModelTranslateX() * pixelStride;
+            //bands are in color model order: r, g, b and optionally a
+            int[] bandOffsets = sampleModel.getBandOffsets();
+            this.red = bandOffsets[0];
+            this.green = bandOffsets[1];
+            this.blue = bandOffsets[2];
+            this.alpha = bandOffsets.length > 3 ? bandOffsets[3] : -1;
+        }
+
+        @Override
+        int argb(int x, int y) {
+            int i = offset + y * scanlineStride + x * pixelStride;
+            int a = alpha < 0 ? 0xff : data[i + alpha] & 0xff;
+            return a << 24 | (data[i + red] & 0xff) << 16 | (data[i + green] & 0xff) << 8 | (data[i + blue] & 0xff);
+        }
+    }
+
+    /**
+     * Writes to a vector, straight in to the backing array when it is on the heap
+     */
+    private static class VectorWriter {
+        private final INDArray vector;
+        private final float[] floatData;
+        private final double[] doubleData;
+        private final int offset;
+        private final int stride;
+
+        private VectorWriter(INDArray vector) {
+            this.vector = vector;
+            DataBuffer data = vector.data();
+            boolean heap = vector.isVector() && vector.elementWiseStride() > 0 && data.allocationMode() == DataBuffer.AllocationMode.HEAP;
+            this.floatData = heap && data.dataType() == DataBuffer.Type.FLOAT ? (float[]) data.array() : null;
+            this.doubleData = heap && data.dataType() == DataBuffer.Type.DOUBLE ? (double[]) data.array() : null;
+            this.offset = vector.offset();
+            this.stride = vector.elementWiseStride();
+        }
+
+        private void put(int i, double value) {
+            if(floatData != null)
+                floatData[offset + i * stride] = (float) value;
+            else if(doubleData != null)
+                doubleData[offset + i * stride] = value;
+            else
+                vector.putScalar(i, value);
+        }
+    }
+
 }
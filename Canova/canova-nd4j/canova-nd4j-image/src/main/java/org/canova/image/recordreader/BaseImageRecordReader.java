@@ -29,6 +29,7 @@ import org.canova.api.split.FileSplit;
 import org.canova.api.split.InputSplit;
 import org.canova.api.split.InputStreamInputSplit;
 import org.canova.api.writable.Writable;
+import org.canova.common.NDArrayWritable;
 import org.canova.common.RecordConverter;
 import org.canova.image.loader.ImageLoader;
 import org.nd4j.linalg.api.ndarray.INDArray;
@@ -57,6 +58,7 @@ public abstract class BaseImageRecordReader implements RecordReader {
     protected Collection<Writable> record;
     protected final List<String> allowedFormats = Arrays.asList("tif", "jpg", "png", "jpeg", "bmp");
     protected boolean hitImage = false;
+    protected boolean vectorOutput = true;
     protected Configuration conf;
     public final static String WIDTH = NAME_SPACE + ".width";
     public final static String HEIGHT = NAME_SPACE + ".width";
@@ -200,7 +202,7 @@ public abstract class BaseImageRecordReader implements RecordReader {
             InputStream is =  split2.getIs();
             URI[] locations = split2.locations();
             INDArray load = imageLoader.asRowVector(is);
-            record = RecordConverter.toRecord(load);
+            record = vectorOutput ? RecordConverter.toVectorRecord(load) : RecordConverter.toRecord(load);
             if(appendLabel) {
                 Path path = Paths.get(locations[0]);
                 String parent = path.getParent().toString();
@@ -226,6 +228,7 @@ public abstract class BaseImageRecordReader implements RecordReader {
     @Override
     public void initialize(Configuration conf, InputSplit split) throws IOException, InterruptedException {
         this.appendLabel = conf.getBoolean(APPEND_LABEL,false);
+        this.vectorOutput = conf.getBoolean(VECTOR_OUTPUT,true);
         this.labels = new ArrayList<>(conf.getStringCollection(LABELS));
         imageLoader = new ImageLoader(conf.getInt(WIDTH,28),conf.getInt(HEIGHT,28),conf.getInt(CHANNELS,1));
         this.conf = conf;
@@ -242,8 +245,10 @@ public abstract class BaseImageRecordReader implements RecordReader {
                 return next();
             try {
                 INDArray row = imageLoader.asRowVector(image);
-                for(int i = 0; i < row.length(); i++)
-                    ret.add(new DoubleWritable(row.getDouble(i)));
+                if(vectorOutput)
+                    ret.add(new NDArrayWritable(row));
+                else
+                    ret.addAll(RecordConverter.toRecord(row));
                 if(appendLabel)
                     ret.add(new DoubleWritable(labels.indexOf(image.getParentFile().getName())));
             } catch (Exception e) {
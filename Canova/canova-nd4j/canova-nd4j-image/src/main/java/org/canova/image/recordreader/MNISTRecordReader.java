@@ -15,6 +15,8 @@ import org.nd4j.linalg.factory.Nd4j;
 import org.canova.api.io.data.DoubleWritable;
 import org.canova.api.io.data.Text;
 import org.canova.api.writable.Writable;
+import org.canova.common.NDArrayWritable;
+import org.canova.common.RecordConverter;
 import org.canova.image.mnist.MnistManager;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.dataset.DataSet;
@@ -96,7 +98,8 @@ public class MNISTRecordReader implements RecordReader {
     private static final String MNIST_ROOT = TEMP_ROOT + File.separator + "MNIST" + File.separator;
     
     // for now we always want to binarize
-    private boolean binarize = true;    
+    private boolean binarize = true;
+    private boolean vectorOutput = true;    
 	
     public MNISTRecordReader() throws IOException {
     	
@@ -132,6 +135,7 @@ public class MNISTRecordReader implements RecordReader {
 
     @Override
     public void initialize(Configuration conf, InputSplit split) throws IOException, InterruptedException {
+        vectorOutput = conf.getBoolean(VECTOR_OUTPUT, true);
         initialize(split);
     }    
 
@@ -179,10 +183,11 @@ public class MNISTRecordReader implements RecordReader {
             
         //System.out.println( "size of label vector: " + labels.length() );
         
-            // convert it to a List<Writable>
-            for (int i = 0; i < data.length(); i++) {
-                ret.add( new DoubleWritable( data.getDouble( i ) ) );
-            }
+            // the whole row as one writable
+            if (vectorOutput)
+                ret.add( new NDArrayWritable( data ) );
+            else
+                ret.addAll( RecordConverter.toRecord( data ) );
           
         // get the label    
         //    if(appendLabel)
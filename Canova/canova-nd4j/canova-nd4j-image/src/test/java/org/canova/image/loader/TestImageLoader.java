@@ -1,8 +1,17 @@
 package org.canova.image.loader;
 
+import org.junit.Rule;
+import org.junit.rules.TemporaryFolder;
 import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
 
+import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 import org.junit.Test;
 import static org.junit.Assert.assertEquals;
@@ -13,6 +22,9 @@ public class TestImageLoader {
     private static long seed = 10;
     private static Random rng = new Random(seed);
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     @Test
     public void testToIntArrayArray() throws Exception {
         BufferedImage img = makeRandomBufferedImage(true);
@@ -112,6 +124,110 @@ public class TestImageLoader {
 
     }
 
+    @Test
+    public void testAsRowVectorInto() throws Exception {
+        BufferedImage img = makeRandomBufferedImage(false);
+        int w = img.getWidth();
+        int h = img.getHeight();
+
+        ImageLoader bgr = new ImageLoader(0, 0, 3);
+        INDArray batch = Nd4j.create(2, 3 * w * h);
+        bgr.asRowVector(img, batch.getRow(1));
+        INDArray expected = bgr.toINDArrayBGR(img);
+        for (int c = 0; c < 3; ++c) {
+            for (int i = 0; i < h; ++i) {
+                for (int j = 0; j < w; ++j) {
+                    assertEquals(expected.getInt(c, i, j), batch.getInt(1, (c * h + i) * w + j));
+                }
+            }
+        }
+        assertEquals(0, batch.getRow(0).sumNumber().doubleValue(), 0);
+
+        ImageLoader packed = new ImageLoader(0, 0, 1);
+        INDArray row = Nd4j.create(1, w * h);
+        packed.asRowVector(img, row);
+        int[][] arr = packed.toIntArrayArray(img);
+        for (int i = 0; i < h; ++i) {
+            for (int j = 0; j < w; ++j) {
+                assertEquals(arr[i][j], row.getInt(i * w + j));
+            }
+        }
+    }
+
+    @Test
+    public void testAsRowVectorResize() throws Exception {
+        //red and green gradients, blue checkerboard
+        BufferedImage img = new BufferedImage(64, 48, BufferedImage.TYPE_3BYTE_BGR);
+        for (int i = 0; i < 48; ++i) {
+            for (int j = 0; j < 64; ++j) {
+                img.setRGB(j, i, (j * 4) << 16 | (i * 5) << 8 | ((i + j) % 2 == 0 ? 0xff : 0));
+            }
+        }
+
+        //downscale by 8: each pixel is the mean of an 8 by 8 block, the checkerboard averages out
+        ImageLoader loader = new ImageLoader(8, 6, 3);
+        assertEquals(3 * 8 * 6, loader.rowLength());
+        INDArray row = Nd4j.create(1, loader.rowLength());
+        loader.asRowVector(img, row);
+        BufferedImage scaled = loader.scalingIfNeed(img, false);
+        int plane = 8 * 6;
+        for (int i = 0; i < 6; ++i) {
+            for (int j = 0; j < 8; ++j) {
+                int k = i * 8 + j;
+                assertEquals(127.5, row.getInt(k), 1);
+                assertEquals(5 * (i * 8 + 3.5), row.getInt(plane + k), 1);
+                assertEquals(4 * (j * 8 + 3.5), row.getInt(2 * plane + k), 1);
+                //the same scaler as the buffered image path
+                int argb = scaled.getRGB(j, i);
+                assertEquals(argb & 0xff, row.getInt(k));
+                assertEquals((argb >>> 8) & 0xff, row.getInt(plane + k));
+                assertEquals((argb >>> 16) & 0xff, row.getInt(2 * plane + k));
+            }
+        }
+
+        //downscale by 1.6: bilinear, exact on the gradients
+        loader = new ImageLoader(40, 30, 3);
+        row = Nd4j.create(1, loader.rowLength());
+        loader.asRowVector(img, row);
+        plane = 40 * 30;
+        for (int i = 0; i < 30; ++i) {
+            for (int j = 0; j < 40; ++j) {
+                int k = i * 40 + j;
+                assertEquals(5 * ((i + 0.5) * 1.6 - 0.5), row.getInt(plane + k), 1);
+                assertEquals(4 * ((j + 0.5) * 1.6 - 0.5), row.getInt(2 * plane + k), 1);
+            }
+        }
+    }
+
+    @Test
+    public void testAsRowVectorStreamMatchesFile() throws Exception {
+        File file = folder.newFile("image.png");
+        ImageIO.write(makeRandomBufferedImage(true), "png", file);
+        for (int channels : new int[]{1, 3}) {
+            ImageLoader loader = new ImageLoader(20, 15, channels);
+            try (InputStream is = new FileInputStream(file)) {
+                assertEquals(loader.asRowVector(file), loader.asRowVector(is));
+            }
+        }
+    }
+
+    @Test
+    public void testAsMinibatch() throws Exception {
+        ImageLoader loader = new ImageLoader(30, 20, 3);
+        List<File> files = new ArrayList<>();
+        for (int i = 0; i < 5; ++i) {
+            File file = folder.newFile(i + ".png");
+            ImageIO.write(makeRandomBufferedImage(i % 2 == 0), "png", file);
+            files.add(file);
+        }
+        INDArray batch = loader.asMinibatch(files, 2);
+        assertEquals(5, batch.rows());
+        assertEquals(3 * 30 * 20, batch.columns());
+        for (int i = 0; i < 5; ++i) {
+            assertEquals(loader.asRowVector(files.get(i)), batch.getRow(i));
+        }
+    }
+
     private BufferedImage makeRandomBufferedImage(boolean alpha) {
         int w = rng.nextInt() % 100 + 100;
         int h = rng.nextInt() % 100 + 100;
@@ -27,6 +27,7 @@ import org.canova.api.records.reader.RecordReader;
 import org.canova.api.split.FileSplit;
 import org.canova.api.split.InputSplit;
 import org.canova.api.split.InputStreamInputSplit;
+import org.canova.api.util.RecordUtils;
 import org.canova.api.writable.Writable;
 import org.junit.Ignore;
 import org.junit.Test;
@@ -49,7 +50,9 @@ public class TestImageRecordReader {
         reader.initialize(new InputStreamInputSplit(res.getInputStream(), res.getURI()));
         assertTrue(reader.hasNext());
         Collection<Writable> record = reader.next();
-        assertEquals(784,record.size());
+        assertEquals(784,RecordUtils.numValues(record));
+        //the whole image is one writable
+        assertEquals(1,record.size());
 
     }
 
@@ -61,7 +64,8 @@ public class TestImageRecordReader {
         reader.initialize(new InputStreamInputSplit(res.getInputStream(), res.getURI()));
         assertTrue(reader.hasNext());
         Collection<Writable> record = reader.next();
-        assertEquals(784 * 3,record.size());
+        assertEquals(784 * 3,RecordUtils.numValues(record));
+        assertEquals(1,record.size());
     }
 
     @Test
@@ -72,7 +76,8 @@ public class TestImageRecordReader {
         reader.initialize(new InputStreamInputSplit(res.getInputStream(), res.getURI()));
         assertTrue(reader.hasNext());
         Collection<Writable> record = reader.next();
-        assertEquals(784 * 3 + 1, record.size());
+        assertEquals(784 * 3 + 1, RecordUtils.numValues(record));
+        assertEquals(2, record.size());
     }
 
 
@@ -11,6 +11,7 @@ import org.apache.commons.io.FileUtils;
 import org.canova.api.records.reader.RecordReader;
 import org.canova.api.records.writer.impl.SVMLightRecordWriter;
 import org.canova.api.split.InputStreamInputSplit;
+import org.canova.api.util.RecordUtils;
 import org.canova.api.writable.Writable;
 import org.canova.image.mnist.MnistFetcher;
 import org.canova.image.mnist.MnistManager;
@@ -77,7 +78,7 @@ public class TestMNISTRecordReader {
             Collection<Writable> record = reader.next();
             writer.write(record);
             // 784 pixels converted to vector entries + a class label entry == 785
-            assertEquals( 785, record.size() );
+            assertEquals( 785, RecordUtils.numValues(record) );
         }
 
         writer.close();
@@ -0,0 +1,120 @@
+package org.deeplearning4j.clustering.ann;
+
+import java.util.Arrays;
+
+/**
+ * Binary heap of (distance, point) pairs stored in primitive arrays.
+ * Either a min heap (closest on top) or a max heap (farthest on top).
+ * Not thread safe.
+ *
+ * @author Adam Gibson
+ */
+class DistanceHeap {
+    private final boolean max;
+    private float[] distances;
+    private int[] ids;
+    private int size;
+
+    DistanceHeap(int capacity, boolean max) {
+        this.max = max;
+        this.distances = new float[Math.max(1, capacity)];
+        this.ids = new int[Math.max(1, capacity)];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    float topDistance() {
+        return distances[0];
+    }
+
+    int topId() {
+        return ids[0];
+    }
+
+    //true if a should be above b
+    private boolean above(float a, int idA, float b, int idB) {
+        if(a == b)
+            return max ? idA > idB : idA < idB;
+        return max ? a > b : a < b;
+    }
+
+    void push(float distance, int id) {
+        if(size == distances.length) {
+            distances = Arrays.copyOf(distances, size * 2);
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+        int i = size++;
+        while(i > 0) {
+            int parent = (i - 1) >>> 1;
+            if(!above(distance, id, distances[parent], ids[parent]))
+                break;
+            distances[i] = distances[parent];
+            ids[i] = ids[parent];
+            i = parent;
+        }
+        distances[i] = distance;
+        ids[i] = id;
+    }
+
+    /**
+     * Push, then pop the top if the heap is over the given size.
+     * With a max heap this keeps the closest limit points.
+     */
+    void pushBounded(float distance, int id, int limit) {
+        if(size < limit)
+            push(distance, id);
+        else if(above(distances[0], ids[0], distance, id)) {
+            pop();
+            push(distance, id);
+        }
+    }
+
+    void pop() {
+        size--;
+        if(size == 0)
+            return;
+        float distance = distances[size];
+        int id = ids[size];
+        int i = 0;
+        while(true) {
+            int child = 2 * i + 1;
+            if(child >= size)
+                break;
+            if(child + 1 < size && above(distances[child + 1], ids[child + 1], distances[child], ids[child]))
+                child++;
+            if(!above(distances[child], ids[child], distance, id))
+                break;
+            distances[i] = distances[child];
+            ids[i] = ids[child];
+            i = child;
+        }
+        distances[i] = distance;
+        ids[i] = id;
+    }
+
+    /**
+     * Empty the heap in to closest first order.
+     * Must be a max heap.
+     */
+    Neighbors drainClosestFirst() {
+        int n = size;
+        int[] retIds = new int[n];
+        float[] retDistances = new float[n];
+        for(int i = n - 1; i >= 0; i--) {
+            retIds[i] = ids[0];
+            retDistances[i] = distances[0];
+            pop();
+        }
+        return new Neighbors(retIds, retDistances);
+    }
+}
@@ -0,0 +1,459 @@
+package org.deeplearning4j.clustering.ann;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hierarchical navigable small world graph for approximate
+ * euclidean k nearest neighbor search over a {@link VectorStore}.
+ *
+ * Every point is assigned a random top level with an exponentially
+ * decaying distribution and is linked to up to m neighbors on each level
+ * at or below it (2m on level 0). A search descends greedily from the
+ * top level and then runs a best first search with a candidate list of
+ * size efSearch on level 0; larger efSearch trades latency for recall.
+ *
+ * Points are inserted from several threads at once. Each adjacency list
+ * is guarded by its own lock and only one lock is held at a time.
+ *
+ * See Malkov and Yashunin, "Efficient and robust approximate nearest neighbor
+ * search using Hierarchical Navigable Small World graphs".
+ *
+ * @author Adam Gibson
+ */
+public class HnswIndex implements NearestNeighborIndex {
+    public static final int DEFAULT_M = 16;
+    public static final int DEFAULT_EF_CONSTRUCTION = 200;
+    public static final int DEFAULT_EF_SEARCH = 64;
+    private static final int MAX_LEVEL = 16;
+
+    private final VectorStore vectors;
+    private final int m;
+    private final int efConstruction;
+    private volatile int efSearch = DEFAULT_EF_SEARCH;
+    private final int[] levels;
+    //links[node][level] holds linkCounts[node][level] neighbor ids
+    private final int[][][] links;
+    private final int[][] linkCounts;
+    private final Object[] locks;
+    private final ReentrantLock entryLock = new ReentrantLock();
+    //the top level of the entry point is the top level of the graph
+    private volatile int entryPoint = -1;
+    //set once all points are inserted; adjacency lists are then read without locking
+    private volatile boolean built = false;
+
+    private final ThreadLocal<Visited> visited = new ThreadLocal<Visited>() {
+        @Override
+        protected Visited initialValue() {
+            return new Visited(vectors.size());
+        }
+    };
+
+    /**
+     * Build an index with default parameters using all available processors
+     * @param vectors the vectors to index
+     */
+    public HnswIndex(VectorStore vectors) {
+        this(vectors, DEFAULT_M, DEFAULT_EF_CONSTRUCTION, 123, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     *
+     * @param vectors the vectors to index
+     * @param m the number of links per point per level (2m on level 0)
+     * @param efConstruction the candidate list size used when inserting
+     * @param seed the seed used to assign levels
+     * @param numThreads the number of threads to insert with
+     */
+    public HnswIndex(VectorStore vectors, int m, int efConstruction, long seed, int numThreads) {
+        if(m < 2)
+            throw new IllegalArgumentException("m must be at least 2");
+        this.vectors = vectors;
+        this.m = m;
+        this.efConstruction = Math.max(efConstruction, m);
+        int n = vectors.size();
+        this.levels = new int[n];
+        this.links = new int[n][][];
+        this.linkCounts = new int[n][];
+        this.locks = new Object[n];
+
+        Random random = new Random(seed);
+        double levelMult = 1.0 / Math.log(m);
+        for(int i = 0; i < n; i++) {
+            int level = (int) (-Math.log(1.0 - random.nextDouble()) * levelMult);
+            levels[i] = Math.min(level, MAX_LEVEL);
+            links[i] = new int[levels[i] + 1][];
+            linkCounts[i] = new int[levels[i] + 1];
+            for(int l = 0; l <= levels[i]; l++)
+                links[i][l] = new int[maxLinks(l)];
+            locks[i] = new Object();
+        }
+
+        build(Math.max(1, numThreads));
+        built = true;
+    }
+
+    private HnswIndex(VectorStore vectors, int m, int efConstruction, int efSearch, int[] levels,
+                      int[][][] links, int[][] linkCounts, int entryPoint) {
+        this.vectors = vectors;
+        this.m = m;
+        this.efConstruction = efConstruction;
+        this.efSearch = efSearch;
+        this.levels = levels;
+        this.links = links;
+        this.linkCounts = linkCounts;
+        this.locks = new Object[levels.length];
+        for(int i = 0; i < locks.length; i++)
+            locks[i] = new Object();
+        this.entryPoint = entryPoint;
+        this.built = true;
+    }
+
+    private void build(int numThreads) {
+        final int n = vectors.size();
+        if(numThreads == 1 || n < 1000) {
+            for(int i = 0; i < n; i++)
+                insert(i);
+            return;
+        }
+
+        //insert a small prefix serially so the graph has some structure before threads contend on it
+        int serial = Math.min(n, 100);
+        for(int i = 0; i < serial; i++)
+            insert(i);
+
+        final AtomicInteger next = new AtomicInteger(serial);
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for(int t = 0; t < numThreads; t++) {
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        int i;
+                        while((i = next.getAndIncrement()) < n)
+                            insert(i);
+                        return null;
+                    }
+                }));
+            }
+            for(Future<Void> future : futures)
+                future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private int maxLinks(int level) {
+        return level == 0 ? 2 * m : m;
+    }
+
+    private void insert(int node) {
+        float[] query = vectors.get(node);
+        int level = levels[node];
+
+        entryLock.lock();
+        boolean holdingEntry = true;
+        try {
+            if(entryPoint < 0) {
+                entryPoint = node;
+                return;
+            }
+            int current = entryPoint;
+            int top = levels[current];
+            //a new top level point must finish linking before it becomes the entry point
+            if(level <= top) {
+                entryLock.unlock();
+                holdingEntry = false;
+            }
+
+            for(int l = top; l > level; l--)
+                current = greedy(query, current, l);
+
+            for(int l = Math.min(level, top); l >= 0; l--) {
+                DistanceHeap candidates = searchLayer(query, current, efConstruction, l);
+                Neighbors found = candidates.drainClosestFirst();
+                int[] selected = selectNeighbors(found.getIndices(), found.getDistances(), m, node);
+                synchronized (locks[node]) {
+                    System.arraycopy(selected, 0, links[node][l], 0, selected.length);
+                    linkCounts[node][l] = selected.length;
+                }
+                for(int neighbor : selected)
+                    link(neighbor, node, l);
+                current = found.getIndices()[0];
+            }
+
+            if(level > top)
+                entryPoint = node;
+        } finally {
+            if(holdingEntry)
+                entryLock.unlock();
+        }
+    }
+
+    //add node to the adjacency list of target, pruning the list if it is full
+    private void link(int target, int node, int level) {
+        synchronized (locks[target]) {
+            int[] list = links[target][level];
+            int count = linkCounts[target][level];
+            if(count < list.length) {
+                list[count] = node;
+                linkCounts[target][level] = count + 1;
+                return;
+            }
+
+            DistanceHeap heap = new DistanceHeap(count + 1, true);
+            for(int i = 0; i < count; i++)
+                heap.push(vectors.distance(target, list[i]), list[i]);
+            heap.push(vectors.distance(target, node), node);
+            Neighbors sorted = heap.drainClosestFirst();
+            int[] selected = selectNeighbors(sorted.getIndices(), sorted.getDistances(), list.length, target);
+            System.arraycopy(selected, 0, list, 0, selected.length);
+            linkCounts[target][level] = selected.length;
+        }
+    }
+
+    /**
+     * Neighbor selection heuristic: walking the candidates closest first, keep a
+     * candidate only if it is closer to the base point than to every candidate
+     * already kept. This favours links in different directions over
+     * many links in to the same cluster.
+     * @param candidates candidate ids, closest first
+     * @param distances distances of the candidates to the base point
+     * @param max the maximum number of neighbors to keep
+     * @param base the base point, which is never its own neighbor
+     */
+    private int[] selectNeighbors(int[] candidates, float[] distances, int max, int base) {
+        int[] selected = new int[Math.min(max, candidates.length)];
+        int count = 0;
+        for(int i = 0; i < candidates.length && count < selected.length; i++) {
+            if(candidates[i] == base)
+                continue;
+            boolean keep = true;
+            for(int j = 0; j < count; j++) {
+                if(vectors.distance(candidates[i], selected[j]) < distances[i]) {
+                    keep = false;
+                    break;
+                }
+            }
+            if(keep)
+                selected[count++] = candidates[i];
+        }
+
+        if(count < selected.length) {
+            int[] ret = new int[count];
+            System.arraycopy(selected, 0, ret, 0, count);
+            return ret;
+        }
+        return selected;
+    }
+
+    //the closest point to the query reachable by greedy moves on the given level
+    private int greedy(float[] query, int start, int level) {
+        int current = start;
+        float currentDistance = vectors.distance(query, current);
+        int[] buffer = new int[maxLinks(level)];
+        boolean changed = true;
+        while(changed) {
+            changed = false;
+            int count = neighbors(current, level, buffer);
+            for(int i = 0; i < count; i++) {
+                float d = vectors.distance(query, buffer[i]);
+                if(d < currentDistance) {
+                    currentDistance = d;
+                    current = buffer[i];
+                    changed = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Best first search on one level
+     * @return a max heap of the ef closest points found
+     */
+    private DistanceHeap searchLayer(float[] query, int start, int ef, int level) {
+        Visited seen = visited.get();
+        seen.next();
+        DistanceHeap candidates = new DistanceHeap(ef, false);
+        DistanceHeap results = new DistanceHeap(ef + 1, true);
+        int[] buffer = new int[maxLinks(level)];
+
+        float d = vectors.distance(query, start);
+        seen.mark(start);
+        candidates.push(d, start);
+        results.push(d, start);
+        while(!candidates.isEmpty()) {
+            int current = candidates.topId();
+            if(candidates.topDistance() > results.topDistance() && results.size() >= ef)
+                break;
+            candidates.pop();
+
+            int count = neighbors(current, level, buffer);
+            for(int i = 0; i < count; i++) {
+                int neighbor = buffer[i];
+                if(seen.isMarked(neighbor))
+                    continue;
+                seen.mark(neighbor);
+                float distance = vectors.distance(query, neighbor);
+                if(results.size() < ef || distance < results.topDistance()) {
+                    candidates.push(distance, neighbor);
+                    results.push(distance, neighbor);
+                    if(results.size() > ef)
+                        results.pop();
+                }
+            }
+        }
+        return results;
+    }
+
+    //copy the adjacency list of a node in to the buffer, returning its length
+    private int neighbors(int node, int level, int[] buffer) {
+        if(built) {
+            int count = linkCounts[node][level];
+            System.arraycopy(links[node][level], 0, buffer, 0, count);
+            return count;
+        }
+        synchronized (locks[node]) {
+            int count = linkCounts[node][level];
+            System.arraycopy(links[node][level], 0, buffer, 0, count);
+            return count;
+        }
+    }
+
+    @Override
+    public VectorStore vectors() {
+        return vectors;
+    }
+
+    @Override
+    public Neighbors search(float[] query, int k) {
+        if(query.length != vectors.dimension())
+            throw new IllegalArgumentException("Query length " + query.length + " does not match dimension " + vectors.dimension());
+        k = Math.min(k, vectors.size());
+        if(k < 1)
+            return new Neighbors(new int[0], new float[0]);
+
+        int current = entryPoint;
+        for(int l = levels[current]; l > 0; l--)
+            current = greedy(query, current, l);
+        DistanceHeap results = searchLayer(query, current, Math.max(efSearch, k), 0);
+        while(results.size() > k)
+            results.pop();
+        return results.drainClosestFirst();
+    }
+
+    /**
+     * The candidate list size used for searches;
+     * the search uses at least k candidates
+     */
+    public int getEfSearch() {
+        return efSearch;
+    }
+
+    public void setEfSearch(int efSearch) {
+        if(efSearch < 1)
+            throw new IllegalArgumentException("efSearch must be positive");
+        this.efSearch = efSearch;
+    }
+
+    public int getM() {
+        return m;
+    }
+
+    public int getEfConstruction() {
+        return efConstruction;
+    }
+
+    @Override
+    public void write(DataOutputStream dos) throws IOException {
+        vectors.write(dos);
+        dos.writeInt(m);
+        dos.writeInt(efConstruction);
+        dos.writeInt(efSearch);
+        dos.writeInt(entryPoint);
+        for(int i = 0; i < levels.length; i++) {
+            dos.writeInt(levels[i]);
+            for(int l = 0; l <= levels[i]; l++) {
+                int count = linkCounts[i][l];
+                dos.writeInt(count);
+                for(int j = 0; j < count; j++)
+                    dos.writeInt(links[i][l][j]);
+            }
+        }
+    }
+
+    /**
+     * Read an index written with {@link #write(DataOutputStream)}
+     */
+    public static HnswIndex read(DataInputStream dis) throws IOException {
+        VectorStore vectors = VectorStore.read(dis);
+        int m = dis.readInt();
+        int efConstruction = dis.readInt();
+        int efSearch = dis.readInt();
+        int entryPoint = dis.readInt();
+        int n = vectors.size();
+        int[] levels = new int[n];
+        int[][][] links = new int[n][][];
+        int[][] linkCounts = new int[n][];
+        for(int i = 0; i < n; i++) {
+            levels[i] = dis.readInt();
+            links[i] = new int[levels[i] + 1][];
+            linkCounts[i] = new int[levels[i] + 1];
+            for(int l = 0; l <= levels[i]; l++) {
+                int count = dis.readInt();
+                links[i][l] = new int[l == 0 ? 2 * m : m];
+                linkCounts[i][l] = count;
+                for(int j = 0; j < count; j++)
+                    links[i][l][j] = dis.readInt();
+            }
+        }
+        return new HnswIndex(vectors, m, efConstruction, efSearch, levels, links, linkCounts, entryPoint);
+    }
+
+    /**
+     * Per thread visited set: a point is visited if its
+     * mark equals the stamp of the current search
+     */
+    private static class Visited {
+        private final int[] marks;
+        private int stamp;
+
+        private Visited(int size) {
+            this.marks = new int[size];
+        }
+
+        private void next() {
+            stamp++;
+            if(stamp == Integer.MAX_VALUE) {
+                java.util.Arrays.fill(marks, 0);
+                stamp = 1;
+            }
+        }
+
+        private boolean isMarked(int i) {
+            return marks[i] == stamp;
+        }
+
+        private void mark(int i) {
+            marks[i] = stamp;
+        }
+    }
+}
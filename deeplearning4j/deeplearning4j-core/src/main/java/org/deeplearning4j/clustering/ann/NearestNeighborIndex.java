@@ -0,0 +1,35 @@
+package org.deeplearning4j.clustering.ann;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * An index over a {@link VectorStore} for
+ * (possibly approximate) k nearest neighbor search.
+ * Searches are thread safe once the index is built.
+ *
+ * @author Adam Gibson
+ */
+public interface NearestNeighborIndex {
+
+    /**
+     * The indexed vectors
+     * @return the vectors
+     */
+    VectorStore vectors();
+
+    /**
+     * The k nearest neighbors of the query
+     * @param query the query vector
+     * @param k the number of neighbors
+     * @return the neighbors, closest first
+     */
+    Neighbors search(float[] query, int k);
+
+    /**
+     * Write the index (including its vectors)
+     * @param dos the stream to write to
+     * @throws IOException
+     */
+    void write(DataOutputStream dos) throws IOException;
+}
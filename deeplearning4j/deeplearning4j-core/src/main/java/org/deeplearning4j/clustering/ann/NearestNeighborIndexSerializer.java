@@ -0,0 +1,91 @@
+package org.deeplearning4j.clustering.ann;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Reads and writes {@link NearestNeighborIndex} instances.
+ * The index is preceded by a magic number and a tag for the index type.
+ *
+ * @author Adam Gibson
+ */
+public class NearestNeighborIndexSerializer {
+    private static final int MAGIC = 0x414E4E31; //ANN1
+    private static final byte VP_TREE = 1;
+    private static final byte HNSW = 2;
+
+    private NearestNeighborIndexSerializer() {
+    }
+
+    /**
+     * Write an index to a stream; the stream is not closed
+     * @param index the index to write
+     * @param os the stream to write to
+     * @throws IOException
+     */
+    public static void write(NearestNeighborIndex index, OutputStream os) throws IOException {
+        DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(os));
+        dos.writeInt(MAGIC);
+        if(index instanceof PrimitiveVPTree)
+            dos.writeByte(VP_TREE);
+        else if(index instanceof HnswIndex)
+            dos.writeByte(HNSW);
+        else
+            throw new IllegalArgumentException("Unable to serialize index of type " + index.getClass().getName());
+        index.write(dos);
+        dos.flush();
+    }
+
+    /**
+     * Write an index to a file
+     * @param index the index to write
+     * @param file the file to write to
+     * @throws IOException
+     */
+    public static void write(NearestNeighborIndex index, File file) throws IOException {
+        try (OutputStream os = new FileOutputStream(file)) {
+            write(index, os);
+        }
+    }
+
+    /**
+     * Read an index from a stream
+     * @param is the stream to read from
+     * @return the index
+     * @throws IOException if the stream does not contain an index
+     */
+    public static NearestNeighborIndex read(InputStream is) throws IOException {
+        DataInputStream dis = new DataInputStream(new BufferedInputStream(is));
+        if(dis.readInt() != MAGIC)
+            throw new IOException("Not a nearest neighbor index");
+        byte type = dis.readByte();
+        switch(type) {
+            case VP_TREE:
+                return PrimitiveVPTree.read(dis);
+            case HNSW:
+                return HnswIndex.read(dis);
+            default:
+                throw new IOException("Unknown index type " + type);
+        }
+    }
+
+    /**
+     * Read an index from a file
+     * @param file the file to read from
+     * @return the index
+     * @throws IOException
+     */
+    public static NearestNeighborIndex read(File file) throws IOException {
+        try (InputStream is = new FileInputStream(file)) {
+            return read(is);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package org.deeplearning4j.clustering.ann;
+
+import java.io.Serializable;
+
+/**
+ * Result of a nearest neighbor search:
+ * point indices and their distances to the query, closest first
+ *
+ * @author Adam Gibson
+ */
+public class Neighbors implements Serializable {
+    private final int[] indices;
+    private final float[] distances;
+
+    public Neighbors(int[] indices, float[] distances) {
+        this.indices = indices;
+        this.distances = distances;
+    }
+
+    public int[] getIndices() {
+        return indices;
+    }
+
+    public float[] getDistances() {
+        return distances;
+    }
+
+    public int size() {
+        return indices.length;
+    }
+}
@@ -0,0 +1,227 @@
+package org.deeplearning4j.clustering.ann;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Vantage point tree over a {@link VectorStore} for exact
+ * euclidean k nearest neighbor search.
+ *
+ * Unlike {@link org.deeplearning4j.clustering.vptree.VPTree} there are
+ * no node or data point objects and no pairwise distance cache:
+ * the tree is a permutation of the point indices plus two arrays.
+ * A node covering positions [lo,hi) of the permutation has its vantage
+ * point at lo, the points closer than the median distance to the vantage
+ * point at [lo + 1, split[lo]) and the rest at [split[lo], hi).
+ * Ranges no larger than the leaf size are scanned linearly.
+ *
+ * Subtrees above a size threshold are built in parallel.
+ *
+ * @author Adam Gibson
+ */
+public class PrimitiveVPTree implements NearestNeighborIndex {
+    public static final int DEFAULT_LEAF_SIZE = 16;
+    /** Subtrees with fewer points than this are built serially */
+    public static final int PARALLEL_BUILD_THRESHOLD = 4096;
+
+    private final VectorStore vectors;
+    private final int leafSize;
+    private final int[] order;
+    private final int[] split;
+    private final float[] threshold;
+
+    /**
+     * Build a tree with the default leaf size
+     * @param vectors the vectors to index
+     */
+    public PrimitiveVPTree(VectorStore vectors) {
+        this(vectors, DEFAULT_LEAF_SIZE);
+    }
+
+    /**
+     *
+     * @param vectors the vectors to index
+     * @param leafSize the maximum number of points to scan linearly (at least 2)
+     */
+    public PrimitiveVPTree(VectorStore vectors, int leafSize) {
+        if(leafSize < 2)
+            throw new IllegalArgumentException("Leaf size must be at least 2");
+        this.vectors = vectors;
+        this.leafSize = leafSize;
+        int n = vectors.size();
+        this.order = new int[n];
+        this.split = new int[n];
+        this.threshold = new float[n];
+        for(int i = 0; i < n; i++)
+            order[i] = i;
+        float[] scratch = new float[n];
+        Build root = new Build(0, n, scratch);
+        if(n >= PARALLEL_BUILD_THRESHOLD) {
+            ForkJoinPool pool = new ForkJoinPool();
+            try {
+                pool.invoke(root);
+            } finally {
+                pool.shutdown();
+            }
+        }
+        else
+            root.compute();
+    }
+
+    private PrimitiveVPTree(VectorStore vectors, int leafSize, int[] order, int[] split, float[] threshold) {
+        this.vectors = vectors;
+        this.leafSize = leafSize;
+        this.order = order;
+        this.split = split;
+        this.threshold = threshold;
+    }
+
+    @Override
+    public VectorStore vectors() {
+        return vectors;
+    }
+
+    @Override
+    public Neighbors search(float[] query, int k) {
+        if(query.length != vectors.dimension())
+            throw new IllegalArgumentException("Query length " + query.length + " does not match dimension " + vectors.dimension());
+        k = Math.min(k, vectors.size());
+        DistanceHeap heap = new DistanceHeap(k, true);
+        if(k > 0)
+            search(query, 0, order.length, k, heap);
+        return heap.drainClosestFirst();
+    }
+
+    private void search(float[] query, int lo, int hi, int k, DistanceHeap heap) {
+        if(hi - lo <= leafSize) {
+            for(int i = lo; i < hi; i++)
+                heap.pushBounded(vectors.distance(query, order[i]), order[i], k);
+            return;
+        }
+
+        float d = vectors.distance(query, order[lo]);
+        heap.pushBounded(d, order[lo], k);
+        float t = threshold[lo];
+        int mid = split[lo];
+        if(d < t) {
+            search(query, lo + 1, mid, k, heap);
+            if(heap.size() < k || d + heap.topDistance() >= t)
+                search(query, mid, hi, k, heap);
+        }
+        else {
+            search(query, mid, hi, k, heap);
+            if(heap.size() < k || d - heap.topDistance() <= t)
+                search(query, lo + 1, mid, k, heap);
+        }
+    }
+
+    @Override
+    public void write(DataOutputStream dos) throws IOException {
+        vectors.write(dos);
+        dos.writeInt(leafSize);
+        for(int i = 0; i < order.length; i++) {
+            dos.writeInt(order[i]);
+            dos.writeInt(split[i]);
+            dos.writeFloat(threshold[i]);
+        }
+    }
+
+    /**
+     * Read a tree written with {@link #write(DataOutputStream)}
+     */
+    public static PrimitiveVPTree read(DataInputStream dis) throws IOException {
+        VectorStore vectors = VectorStore.read(dis);
+        int leafSize = dis.readInt();
+        int n = vectors.size();
+        int[] order = new int[n];
+        int[] split = new int[n];
+        float[] threshold = new float[n];
+        for(int i = 0; i < n; i++) {
+            order[i] = dis.readInt();
+            split[i] = dis.readInt();
+            threshold[i] = dis.readFloat();
+        }
+        return new PrimitiveVPTree(vectors, leafSize, order, split, threshold);
+    }
+
+    public int getLeafSize() {
+        return leafSize;
+    }
+
+    /**
+     * Builds the subtree over positions [lo,hi).
+     * scratch holds the distance of the point at each position to the
+     * vantage point of the subtree being built.
+     */
+    private class Build extends RecursiveAction {
+        private final int lo;
+        private final int hi;
+        private final float[] scratch;
+
+        private Build(int lo, int hi, float[] scratch) {
+            this.lo = lo;
+            this.hi = hi;
+            this.scratch = scratch;
+        }
+
+        @Override
+        protected void compute() {
+            if(hi - lo <= leafSize)
+                return;
+
+            int vantage = order[lo];
+            for(int i = lo + 1; i < hi; i++)
+                scratch[i] = vectors.distance(vantage, order[i]);
+            int mid = (lo + 1 + hi) >>> 1;
+            select(lo + 1, hi - 1, mid);
+            split[lo] = mid;
+            threshold[lo] = scratch[mid];
+
+            Build inside = new Build(lo + 1, mid, scratch);
+            Build outside = new Build(mid, hi, scratch);
+            if(hi - lo >= PARALLEL_BUILD_THRESHOLD)
+                invokeAll(inside, outside);
+            else {
+                inside.compute();
+                outside.compute();
+            }
+        }
+
+        //quickselect so that scratch[left..nth) <= scratch[nth] <= scratch(nth..right];
+        //equal distances are swapped towards the middle so duplicates do not degrade it
+        private void select(int left, int right, int nth) {
+            while(left < right) {
+                float pivot = scratch[nth];
+                int i = left;
+                int j = right;
+                do {
+                    while(scratch[i] < pivot)
+                        i++;
+                    while(pivot < scratch[j])
+                        j--;
+                    if(i <= j) {
+                        swap(i, j);
+                        i++;
+                        j--;
+                    }
+                } while(i <= j);
+                if(j < nth)
+                    left = i;
+                if(nth < i)
+                    right = j;
+            }
+        }
+
+        private void swap(int i, int j) {
+            float d = scratch[i];
+            scratch[i] = scratch[j];
+            scratch[j] = d;
+            int o = order[i];
+            order[i] = order[j];
+            order[j] = o;
+        }
+    }
+}
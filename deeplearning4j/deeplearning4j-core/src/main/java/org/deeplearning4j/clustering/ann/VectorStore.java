@@ -0,0 +1,152 @@
+package org.deeplearning4j.clustering.ann;
+
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * A set of fixed length vectors stored row after row
+ * in a single float array, with euclidean distance.
+ *
+ * Vectors can be normalized to unit length on creation, in which case the
+ * euclidean distance ranks points the same as cosine similarity
+ * (cosine similarity = 1 - distance^2 / 2) while still being a metric.
+ *
+ * @author Adam Gibson
+ */
+public class VectorStore {
+    private final float[] data;
+    private final int dimension;
+    private final int size;
+
+    /**
+     *
+     * @param data the vectors, row after row
+     * @param dimension the length of each vector
+     */
+    public VectorStore(float[] data, int dimension) {
+        if(dimension < 1 || data.length % dimension != 0)
+            throw new IllegalArgumentException("Data length " + data.length + " is not a multiple of the dimension " + dimension);
+        this.data = data;
+        this.dimension = dimension;
+        this.size = data.length / dimension;
+    }
+
+    /**
+     * Copy the rows of a matrix
+     * @param matrix the matrix to copy, one vector per row
+     * @param normalize whether to scale each row to unit length
+     * @return the vectors
+     */
+    public static VectorStore fromRows(INDArray matrix, boolean normalize) {
+        int rows = matrix.rows();
+        int columns = matrix.columns();
+        float[] data = new float[rows * columns];
+        for(int i = 0; i < rows; i++) {
+            INDArray row = matrix.getRow(i);
+            for(int j = 0; j < columns; j++)
+                data[i * columns + j] = (float) row.getDouble(j);
+        }
+        VectorStore ret = new VectorStore(data, columns);
+        if(normalize)
+            for(int i = 0; i < rows; i++)
+                normalize(data, i * columns, columns);
+        return ret;
+    }
+
+    /**
+     * Scale part of an array to unit length; zero vectors are left alone
+     */
+    public static void normalize(float[] vector, int offset, int length) {
+        double sum = 0;
+        for(int i = 0; i < length; i++)
+            sum += vector[offset + i] * vector[offset + i];
+        if(sum == 0)
+            return;
+        float scale = (float) (1.0 / Math.sqrt(sum));
+        for(int i = 0; i < length; i++)
+            vector[offset + i] *= scale;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int dimension() {
+        return dimension;
+    }
+
+    /**
+     * The backing array; vector i starts at i * dimension
+     */
+    public float[] data() {
+        return data;
+    }
+
+    /**
+     * Copy of the vector at the given index
+     */
+    public float[] get(int index) {
+        float[] ret = new float[dimension];
+        System.arraycopy(data, index * dimension, ret, 0, dimension);
+        return ret;
+    }
+
+    /**
+     * Euclidean distance between two stored vectors
+     */
+    public float distance(int i, int j) {
+        int a = i * dimension;
+        int b = j * dimension;
+        float sum = 0;
+        for(int k = 0; k < dimension; k++) {
+            float d = data[a + k] - data[b + k];
+            sum += d * d;
+        }
+        return (float) Math.sqrt(sum);
+    }
+
+    /**
+     * Euclidean distance between a query and a stored vector
+     */
+    public float distance(float[] query, int j) {
+        int b = j * dimension;
+        float sum = 0;
+        for(int k = 0; k < dimension; k++) {
+            float d = query[k] - data[b + k];
+            sum += d * d;
+        }
+        return (float) Math.sqrt(sum);
+    }
+
+    /**
+     * Exact k nearest neighbors by scanning every vector
+     * @param query the query vector
+     * @param k the number of neighbors
+     * @return the neighbors, closest first
+     */
+    public Neighbors exactSearch(float[] query, int k) {
+        DistanceHeap heap = new DistanceHeap(k, true);
+        for(int i = 0; i < size; i++)
+            heap.pushBounded(distance(query, i), i, k);
+        return heap.drainClosestFirst();
+    }
+
+    public void write(DataOutputStream dos) throws IOException {
+        dos.writeInt(dimension);
+        dos.writeInt(size);
+        for(float f : data)
+            dos.writeFloat(f);
+    }
+
+    public static VectorStore read(DataInputStream dis) throws IOException {
+        int dimension = dis.readInt();
+        int size = dis.readInt();
+        float[] data = new float[dimension * size];
+        for(int i = 0; i < data.length; i++)
+            data[i] = dis.readFloat();
+        return new VectorStore(data, dimension);
+    }
+}
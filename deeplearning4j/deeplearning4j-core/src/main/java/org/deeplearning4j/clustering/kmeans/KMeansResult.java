@@ -0,0 +1,69 @@
+package org.deeplearning4j.clustering.kmeans;
+
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+/**
+ * The outcome of {@link MatrixKMeans}: the centroids and,
+ * for each point, its cluster and squared distance to the centroid
+ *
+ * @author Adam Gibson
+ */
+public class KMeansResult {
+
+	private final INDArray centroids;
+	private final int[] assignments;
+	private final double[] squaredDistances;
+	private final int[] clusterSizes;
+	private final double cost;
+	private final int iterations;
+
+	public KMeansResult(INDArray centroids, int[] assignments, double[] squaredDistances, int[] clusterSizes,
+						double cost, int iterations) {
+		this.centroids = centroids;
+		this.assignments = assignments;
+		this.squaredDistances = squaredDistances;
+		this.clusterSizes = clusterSizes;
+		this.cost = cost;
+		this.iterations = iterations;
+	}
+
+	/**
+	 * @return the centroids, one per row
+	 */
+	public INDArray getCentroids() {
+		return centroids;
+	}
+
+	/**
+	 * @return the index of the cluster (row of the centroids) of each point
+	 */
+	public int[] getAssignments() {
+		return assignments;
+	}
+
+	/**
+	 * @return the squared euclidean distance of each point to its centroid
+	 */
+	public double[] getSquaredDistances() {
+		return squaredDistances;
+	}
+
+	/**
+	 * @return the number of points in each cluster
+	 */
+	public int[] getClusterSizes() {
+		return clusterSizes;
+	}
+
+	/**
+	 * @return the sum of the squared distances of the points to their centroids
+	 */
+	public double getCost() {
+		return cost;
+	}
+
+	public int getIterations() {
+		return iterations;
+	}
+
+}
@@ -0,0 +1,365 @@
+package org.deeplearning4j.clustering.kmeans;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.NDArrayIndex;
+
+/**
+ * K-means (euclidean) over the rows of a single [n, d] matrix.
+ *
+ * Rather than one task and one array per point, the points are processed in
+ * blocks of rows on a fork join pool. The squared distances from a block to all
+ * of the centroids are computed with one matrix multiply as
+ * ||x||^2 - 2 x.c + ||c||^2, each row is assigned to its nearest centroid and
+ * the rows are summed per cluster into block local arrays, which are then
+ * added up to give the new centroids.
+ * Seeding is k-means++, using the same blocked distance computation.
+ *
+ * @author Adam Gibson
+ */
+public class MatrixKMeans {
+
+	public static final int DEFAULT_BLOCK_SIZE = 4096;
+
+	private final int clusterCount;
+	private final int maxIterations;
+	private final double minChangeRate;
+	private final int blockSize;
+	private final long seed;
+
+	/**
+	 *
+	 * @param clusterCount the number of clusters
+	 * @param maxIterations the maximum number of assignment/update iterations
+	 * @param minChangeRate stop once the fraction of points changing cluster in an iteration is at most this
+	 * @param blockSize the number of rows per distance computation/task
+	 * @param seed the seed for the k-means++ seeding
+	 */
+	public MatrixKMeans(int clusterCount, int maxIterations, double minChangeRate, int blockSize, long seed) {
+		if (clusterCount < 1)
+			throw new IllegalArgumentException("Cluster count must be at least 1");
+		if (blockSize < 1)
+			throw new IllegalArgumentException("Block size must be at least 1");
+		this.clusterCount = clusterCount;
+		this.maxIterations = maxIterations;
+		this.minChangeRate = minChangeRate;
+		this.blockSize = blockSize;
+		this.seed = seed;
+	}
+
+	public static MatrixKMeans setup(int clusterCount, int maxIterations) {
+		return new MatrixKMeans(clusterCount, maxIterations, 0, DEFAULT_BLOCK_SIZE, System.currentTimeMillis());
+	}
+
+	/**
+	 * Cluster the rows of the given matrix
+	 * @param points the points, one per row
+	 * @return the centroids and assignments
+	 */
+	public KMeansResult applyTo(INDArray points) {
+		int n = points.rows();
+		if (n < clusterCount)
+			throw new IllegalArgumentException("Unable to create " + clusterCount + " clusters from " + n + " points");
+
+		ForkJoinPool pool = new ForkJoinPool();
+		try {
+			Run run = new Run(points, pool);
+			run.seed(new Random(seed));
+			int iterations = 0;
+			Partial last = null;
+			while (iterations < maxIterations) {
+				last = run.iterate();
+				iterations++;
+				if (last.changed <= minChangeRate * n)
+					break;
+			}
+			//assign to the final centroids
+			if (last == null || last.changed > 0)
+				last = run.iterate(false);
+			return new KMeansResult(run.centroids, run.assignments, run.distances, last.counts, last.cost, iterations);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * The state of one clustering run
+	 */
+	private class Run {
+		private final INDArray points;
+		private final ForkJoinPool pool;
+		private final int n;
+		private final int columns;
+		private final double[] norms;
+		private final int[] assignments;
+		private final double[] distances;
+		private INDArray centroids;
+		private double[] centroidNorms;
+
+		private Run(INDArray points, ForkJoinPool pool) {
+			this.points = points;
+			this.pool = pool;
+			this.n = points.rows();
+			this.columns = points.columns();
+			this.norms = new double[n];
+			this.assignments = new int[n];
+			this.distances = new double[n];
+			pool.invoke(new Norms(0, n));
+		}
+
+		/**
+		 * k-means++: the first centroid is a random point, each further one is a point
+		 * chosen with probability proportional to its squared distance to the nearest centroid so far
+		 */
+		private void seed(Random random) {
+			double[][] chosen = new double[clusterCount][];
+			chosen[0] = row(random.nextInt(n));
+			Arrays.fill(distances, Double.MAX_VALUE);
+			for (int c = 1; c < clusterCount; c++) {
+				setCentroids(new double[][] {chosen[c - 1]});
+				double total = pool.invoke(new NearestSoFar(0, n)).cost;
+				int next = -1;
+				if (total > 0) {
+					double r = random.nextDouble() * total;
+					for (int i = 0; i < n && next < 0; i++) {
+						r -= distances[i];
+						if (r <= 0 && distances[i] > 0)
+							next = i;
+					}
+				}
+				//all points coincide with a centroid (or rounding ran past the end)
+				if (next < 0)
+					next = random.nextInt(n);
+				chosen[c] = row(next);
+			}
+			setCentroids(chosen);
+			Arrays.fill(assignments, -1);
+		}
+
+		private Partial iterate() {
+			return iterate(true);
+		}
+
+		/**
+		 * Assign every point to its nearest centroid and
+		 * (optionally) move the centroids to the mean of their points
+		 */
+		private Partial iterate(boolean update) {
+			Partial total = pool.invoke(new Assign(0, n));
+			if (update) {
+				double[][] next = new double[clusterCount][columns];
+				for (int c = 0; c < clusterCount; c++) {
+					//an empty cluster keeps its centroid
+					if (total.counts[c] == 0) {
+						for (int j = 0; j < columns; j++)
+							next[c][j] = centroids.getDouble(c, j);
+						continue;
+					}
+					for (int j = 0; j < columns; j++)
+						next[c][j] = total.sums[c * columns + j] / total.counts[c];
+				}
+				setCentroids(next);
+			}
+			return total;
+		}
+
+		private void setCentroids(double[][] rows) {
+			centroids = Nd4j.create(rows);
+			centroidNorms = new double[rows.length];
+			for (int c = 0; c < rows.length; c++) {
+				double sum = 0;
+				for (double v : rows[c])
+					sum += v * v;
+				centroidNorms[c] = sum;
+			}
+		}
+
+		private double[] row(int i) {
+			double[] ret = new double[columns];
+			for (int j = 0; j < columns; j++)
+				ret[j] = points.getDouble(i, j);
+			return ret;
+		}
+
+		/**
+		 * Squared distances from the rows [start,end) to the current centroids,
+		 * row after row (one entry per centroid)
+		 */
+		private double[] distances(int start, int end) {
+			INDArray block = points.get(NDArrayIndex.interval(start, end), NDArrayIndex.all());
+			INDArray dots = block.mmul(centroids.transpose());
+			int k = centroidNorms.length;
+			double[] ret = new double[(end - start) * k];
+			for (int i = 0; i < end - start; i++) {
+				double norm = norms[start + i];
+				for (int c = 0; c < k; c++) {
+					double d = norm - 2 * dots.getDouble(i, c) + centroidNorms[c];
+					//cancellation can leave tiny negative values
+					ret[i * k + c] = d > 0 ? d : 0;
+				}
+			}
+			return ret;
+		}
+
+		/**
+		 * Squared length of each point
+		 */
+		private class Norms extends Blocks {
+			private Norms(int start, int end) {
+				super(start, end);
+			}
+
+			@Override
+			Partial block(int start, int end) {
+				for (int i = start; i < end; i++) {
+					double sum = 0;
+					for (int j = 0; j < columns; j++) {
+						double v = points.getDouble(i, j);
+						sum += v * v;
+					}
+					norms[i] = sum;
+				}
+				return null;
+			}
+
+			@Override
+			Blocks create(int start, int end) {
+				return new Norms(start, end);
+			}
+		}
+
+		/**
+		 * Lowers the distance of each point to the nearest centroid with the
+		 * (single) current centroid; the cost is the sum of the distances
+		 */
+		private class NearestSoFar extends Blocks {
+			private NearestSoFar(int start, int end) {
+				super(start, end);
+			}
+
+			@Override
+			Partial block(int start, int end) {
+				double[] d = distances(start, end);
+				Partial ret = new Partial(0, 0);
+				for (int i = start; i < end; i++) {
+					if (d[i - start] < distances[i])
+						distances[i] = d[i - start];
+					ret.cost += distances[i];
+				}
+				return ret;
+			}
+
+			@Override
+			Blocks create(int start, int end) {
+				return new NearestSoFar(start, end);
+			}
+		}
+
+		/**
+		 * Assigns each point to its nearest centroid, summing the points per cluster
+		 */
+		private class Assign extends Blocks {
+			private Assign(int start, int end) {
+				super(start, end);
+			}
+
+			@Override
+			Partial block(int start, int end) {
+				int k = centroidNorms.length;
+				double[] d = distances(start, end);
+				Partial ret = new Partial(k, columns);
+				for (int i = start; i < end; i++) {
+					int offset = (i - start) * k;
+					int nearest = 0;
+					double min = d[offset];
+					for (int c = 1; c < k; c++) {
+						if (d[offset + c] < min) {
+							min = d[offset + c];
+							nearest = c;
+						}
+					}
+					if (assignments[i] != nearest)
+						ret.changed++;
+					assignments[i] = nearest;
+					distances[i] = min;
+					ret.cost += min;
+					ret.counts[nearest]++;
+					int sumOffset = nearest * columns;
+					for (int j = 0; j < columns; j++)
+						ret.sums[sumOffset + j] += points.getDouble(i, j);
+				}
+				return ret;
+			}
+
+			@Override
+			Blocks create(int start, int end) {
+				return new Assign(start, end);
+			}
+		}
+	}
+
+	/**
+	 * Splits a range of rows in half until it is at most one block,
+	 * then combines the results of the blocks
+	 */
+	private abstract class Blocks extends RecursiveTask<Partial> {
+		private final int start;
+		private final int end;
+
+		Blocks(int start, int end) {
+			this.start = start;
+			this.end = end;
+		}
+
+		abstract Partial block(int start, int end);
+
+		abstract Blocks create(int start, int end);
+
+		@Override
+		protected Partial compute() {
+			if (end - start <= blockSize)
+				return block(start, end);
+			int mid = (start + end) >>> 1;
+			Blocks left = create(start, mid);
+			left.fork();
+			Partial right = create(mid, end).compute();
+			Partial ret = left.join();
+			if (ret == null)
+				return right;
+			ret.add(right);
+			return ret;
+		}
+	}
+
+	/**
+	 * Per cluster sums and counts, number of changed assignments
+	 * and total squared distance over some of the rows
+	 */
+	private static class Partial {
+		private final double[] sums;
+		private final int[] counts;
+		private int changed;
+		private double cost;
+
+		private Partial(int k, int columns) {
+			this.sums = new double[k * columns];
+			this.counts = new int[k];
+		}
+
+		private void add(Partial other) {
+			if (other == null)
+				return;
+			for (int i = 0; i < sums.length; i++)
+				sums[i] += other.sums[i];
+			for (int i = 0; i < counts.length; i++)
+				counts[i] += other.counts[i];
+			changed += other.changed;
+			cost += other.cost;
+		}
+	}
+}
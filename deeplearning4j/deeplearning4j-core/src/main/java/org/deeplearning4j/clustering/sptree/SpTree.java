@@ -239,6 +239,62 @@ public class SpTree implements Serializable {
     }
 
 
+    /**
+     * Compute non edge forces using barnes hut on primitive arrays.
+     * Unlike {@link #computeNonEdgeForces(int, double, INDArray, AtomicDouble)}
+     * this only reads the tree, so it may be called for different points concurrently.
+     * Leaves that are too close to be summarized are summed point by point.
+     * @param pointIndex the point to compute the force for
+     * @param theta the barnes hut accuracy/speed trade off
+     * @param points the data the tree was built on, row after row
+     * @param negativeForce the forces, row after row; the force on the point is added to its row
+     * @return the contribution of the point to the normalization term (sum of q)
+     */
+    public double computeNonEdgeForces(int pointIndex, double theta, double[] points, double[] negativeForce) {
+        if(cumSize == 0 || (isLeaf() && size == 1 && index[0] == pointIndex))
+            return 0;
+
+        int offset = pointIndex * D;
+        double dist = 0;
+        double maxWidth = 0;
+        for(int d = 0; d < D; d++) {
+            double diff = points[offset + d] - centerOfMass.getDouble(d);
+            dist += diff * diff;
+            maxWidth = Math.max(maxWidth, boundary.width(d));
+        }
+
+        if(maxWidth / FastMath.sqrt(dist) < theta) {
+            double q = 1.0 / (1.0 + dist);
+            double mult = cumSize * q * q;
+            for(int d = 0; d < D; d++)
+                negativeForce[offset + d] += mult * (points[offset + d] - centerOfMass.getDouble(d));
+            return cumSize * q;
+        }
+
+        double sumQ = 0;
+        if(isLeaf()) {
+            for(int i = 0; i < size; i++) {
+                if(index[i] == pointIndex)
+                    continue;
+                int other = index[i] * D;
+                double pointDist = 0;
+                for(int d = 0; d < D; d++) {
+                    double diff = points[offset + d] - points[other + d];
+                    pointDist += diff * diff;
+                }
+                double q = 1.0 / (1.0 + pointDist);
+                sumQ += q;
+                for(int d = 0; d < D; d++)
+                    negativeForce[offset + d] += q * q * (points[offset + d] - points[other + d]);
+            }
+        }
+        else {
+            for(int i = 0; i < numChildren; i++)
+                sumQ += children[i].computeNonEdgeForces(pointIndex, theta, points, negativeForce);
+        }
+        return sumQ;
+    }
+
     /**
      *
      * Compute edge forces using barns hut
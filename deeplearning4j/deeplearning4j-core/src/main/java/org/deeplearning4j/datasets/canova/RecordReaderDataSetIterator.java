@@ -21,15 +21,21 @@ package org.deeplearning4j.datasets.canova;
 import org.canova.api.io.WritableConverter;
 import org.canova.api.io.converters.SelfWritableConverter;
 import org.canova.api.io.converters.WritableConverterException;
+import org.canova.api.io.data.DoubleWritable;
+import org.canova.api.io.data.FloatWritable;
+import org.canova.api.io.data.IntWritable;
+import org.canova.api.io.data.LongWritable;
 import org.canova.api.records.reader.RecordReader;
 import org.canova.api.records.reader.SequenceRecordReader;
+import org.canova.api.util.RecordUtils;
+import org.canova.api.writable.ArrayWritable;
 import org.canova.api.writable.Writable;
 import org.deeplearning4j.datasets.iterator.DataSetIterator;
 import org.deeplearning4j.datasets.iterator.DataSetPreProcessor;
+import org.nd4j.linalg.api.buffer.DataBuffer;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.dataset.DataSet;
 import org.nd4j.linalg.factory.Nd4j;
-import org.nd4j.linalg.util.FeatureUtil;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -133,84 +139,180 @@ public class RecordReaderDataSetIterator implements DataSetIterator {
             return last;
         }
 
-        List<DataSet> dataSets = new ArrayList<>();
+        List<Collection<Writable>> records = new ArrayList<>(num);
         for (int i = 0; i < num; i++) {
-            if (!hasNext())
-                break;
             if (recordReader instanceof SequenceRecordReader) {
-                if(sequenceIter == null || !sequenceIter.hasNext()) {
+                while ((sequenceIter == null || !sequenceIter.hasNext()) && recordReader.hasNext()) {
                     Collection<Collection<Writable>> sequenceRecord = ((SequenceRecordReader) recordReader).sequenceRecord();
                     sequenceIter = sequenceRecord.iterator();
                 }
-                Collection<Writable> record = sequenceIter.next();
-                dataSets.add(getDataSet(record));
+                if (sequenceIter == null || !sequenceIter.hasNext())
+                    break;
+                records.add(sequenceIter.next());
             }
 
             else {
-                Collection<Writable> record = recordReader.next();
-                dataSets.add(getDataSet(record));
+                if (!recordReader.hasNext())
+                    break;
+                records.add(recordReader.next());
             }
         }
-        List<INDArray> inputs = new ArrayList<>();
-        List<INDArray> labels = new ArrayList<>();
 
-        for (DataSet data : dataSets) {
-            inputs.add(data.getFeatureMatrix());
-            labels.add(data.getLabels());
-        }
-
-        if(inputs.isEmpty()) {
+        if(records.isEmpty()) {
             overshot = true;
             return last;
         }
 
-        DataSet ret =  new DataSet(Nd4j.vstack(inputs.toArray(new INDArray[0])), Nd4j.vstack(labels.toArray(new INDArray[0])));
+        DataSet ret = getDataSet(records);
         last = ret;
         return ret;
     }
 
 
-    private DataSet getDataSet(Collection<Writable> record) {
-        List<Writable> currList;
-        if (record instanceof List)
-            currList = (List<Writable>) record;
-        else
-            currList = new ArrayList<>(record);
-
+    /**
+     * Assemble a minibatch: the feature and label matrices are allocated
+     * once for the whole batch and each record is written straight in to its row.
+     * An {@link ArrayWritable} counts as one column per value (so the label index refers to values,
+     * not writables) and is copied in bulk.
+     */
+    private DataSet getDataSet(List<Collection<Writable>> records) {
+        int numColumns = RecordUtils.numValues(records.get(0));
         //allow people to specify label index as -1 and infer the last possible label
         if (numPossibleLabels >= 1 && labelIndex < 0) {
-            labelIndex = record.size() - 1;
+            labelIndex = numColumns - 1;
         }
-
-        INDArray label = null;
-        INDArray featureVector = Nd4j.create(labelIndex >= 0 ? currList.size()-1 : currList.size());
-        for (int j = 0; j < currList.size(); j++) {
-            Writable current = currList.get(j);
-            if (current.toString().isEmpty())
-                continue;
-            if (labelIndex >= 0 && j == labelIndex) {
-                if (converter != null)
-                    try {
-                        current = converter.convert(current);
-                    } catch (WritableConverterException e) {
-                        e.printStackTrace();
+        if (labelIndex >= 0 && numPossibleLabels < 1)
+            throw new IllegalStateException("Number of possible labels invalid, must be >= 1");
+
+        int numFeatures = labelIndex >= 0 ? numColumns - 1 : numColumns;
+        INDArray featureMatrix = Nd4j.create(records.size(), numFeatures);
+        INDArray labelMatrix = labelIndex >= 0 ? Nd4j.create(records.size(), regression ? 1 : numPossibleLabels) : null;
+        RowWriter features = new RowWriter(featureMatrix);
+        RowWriter labels = labelMatrix != null ? new RowWriter(labelMatrix) : null;
+
+        int row = 0;
+        for (Collection<Writable> record : records) {
+            int numValues = RecordUtils.numValues(record);
+            if (numValues != numColumns)
+                throw new IllegalStateException("Record " + row + " of the batch has " + numValues + " values, expected " + numColumns);
+            int j = 0;
+            int column = 0;
+            for (Writable current : record) {
+                if (current instanceof ArrayWritable) {
+                    ArrayWritable array = (ArrayWritable) current;
+                    int length = array.length();
+                    if (labelIndex < j || labelIndex >= j + length) {
+                        features.put(row, column, array);
+                        column += length;
+                    } else {
+                        for (int i = 0; i < length; i++) {
+                            if (j + i == labelIndex)
+                                putLabel(labels, row, array.getDouble(i));
+                            else
+                                features.put(row, column++, array.getDouble(i));
+                        }
                     }
-                if (numPossibleLabels < 1)
-                    throw new IllegalStateException("Number of possible labels invalid, must be >= 1");
-                if (regression) {
-                    label = Nd4j.scalar(Double.valueOf(current.toString()));
+                    j += length;
+                    continue;
+                }
+                if (labelIndex >= 0 && j == labelIndex) {
+                    if (converter != null)
+                        try {
+                            current = converter.convert(current);
+                        } catch (WritableConverterException e) {
+                            e.printStackTrace();
+                        }
+                    putLabel(labels, row, toDouble(current));
                 } else {
-                    int curr = Double.valueOf(current.toString()).intValue();
-                    if (curr >= numPossibleLabels)
-                        curr--;
-                    label = FeatureUtil.toOutcomeVector(curr, numPossibleLabels);
+                    features.put(row, column++, toDouble(current));
                 }
-            } else {
-                featureVector.putScalar(j, Double.valueOf(current.toString()));
+                j++;
             }
+            row++;
+        }
+
+        return new DataSet(featureMatrix, labelMatrix != null ? labelMatrix : featureMatrix.dup());
+    }
+
+    private void putLabel(RowWriter labels, int row, double value) {
+        if (regression) {
+            labels.put(row, 0, value);
+        } else {
+            int curr = (int) value;
+            if (curr >= numPossibleLabels)
+                curr--;
+            labels.put(row, curr, 1.0);
+        }
+    }
+
+    //numeric writables are read directly; anything else is parsed, with empty values as 0
+    private static double toDouble(Writable writable) {
+        if (writable instanceof DoubleWritable)
+            return ((DoubleWritable) writable).get();
+        if (writable instanceof FloatWritable)
+            return ((FloatWritable) writable).get();
+        if (writable instanceof IntWritable)
+            return ((IntWritable) writable).get();
+        if (writable instanceof LongWritable)
+            return ((LongWritable) writable).get();
+        String value = writable.toString();
+        return value.isEmpty() ? 0 : Double.parseDouble(value);
+    }
+
+    /**
+     * Writes elements of a matrix by row and column.
+     * Heap backed matrices are written through the backing array
+     * using the strides, avoiding a put call per element.
+     */
+    private static class RowWriter {
+        private final INDArray matrix;
+        private final float[] floatData;
+        private final double[] doubleData;
+        private final int offset;
+        private final int rowStride;
+        private final int columnStride;
+
+        private RowWriter(INDArray matrix) {
+            this.matrix = matrix;
+            DataBuffer data = matrix.data();
+            boolean heap = data.allocationMode() == DataBuffer.AllocationMode.HEAP;
+            this.floatData = heap && data.dataType() == DataBuffer.Type.FLOAT ? (float[]) data.array() : null;
+            this.doubleData = heap && data.dataType() == DataBuffer.Type.DOUBLE ? (double[]) data.array() : null;
+            this.offset = matrix.offset();
+            this.rowStride = matrix.stride(0);
+            this.columnStride = matrix.stride(1);
         }
 
-        return new DataSet(featureVector, labelIndex >= 0 ? label : featureVector);
+        private void put(int row, int column, double value) {
+            if (floatData != null)
+                floatData[offset + row * rowStride + column * columnStride] = (float) value;
+            else if (doubleData != null)
+                doubleData[offset + row * rowStride + column * columnStride] = value;
+            else
+                matrix.putScalar(row, column, value);
+        }
+
+        /** Write all the values of an array writable, starting at the given column */
+        private void put(int row, int column, ArrayWritable array) {
+            int length = array.length();
+            int start = offset + row * rowStride + column * columnStride;
+            if (columnStride == 1 && doubleData != null)
+                array.copyTo(doubleData, start);
+            else if (columnStride == 1 && floatData != null)
+                array.copyTo(floatData, start);
+            else if (floatData != null) {
+                for (int i = 0; i < length; i++)
+                    floatData[start + i * columnStride] = array.getFloat(i);
+            }
+            else if (doubleData != null) {
+                for (int i = 0; i < length; i++)
+                    doubleData[start + i * columnStride] = array.getDouble(i);
+            }
+            else {
+                for (int i = 0; i < length; i++)
+                    matrix.putScalar(row, column + i, array.getDouble(i));
+            }
+        }
     }
 
     @Override
@@ -275,7 +377,7 @@ public class RecordReaderDataSetIterator implements DataSetIterator {
 
     @Override
     public boolean hasNext() {
-        return recordReader.hasNext() || overshot;
+        return (sequenceIter != null && sequenceIter.hasNext()) || recordReader.hasNext() || overshot;
     }
 
     @Override
@@ -0,0 +1,394 @@
+package org.deeplearning4j.datasets.iterator;
+
+import org.canova.api.records.reader.RecordReader;
+import org.deeplearning4j.datasets.canova.RecordReaderDataSetIterator;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.dataset.api.DataSetPreProcessor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**ParallelDataSetIterator loads DataSets from several iterators at once, one worker thread per iterator.
+ * Each worker has its own source (for example a RecordReaderDataSetIterator over its own split of the
+ * input) and applies the pre processor itself, so loading, parsing and pre processing use as many cores
+ * as there are workers. The workers start on the first call to hasNext() or next() (and again after a reset),
+ * so a pre processor set before then is applied to every DataSet.<br>
+ * In ordered mode DataSets are returned round robin over the workers: the first DataSet of each worker in
+ * worker order, then the second and so on, skipping workers that have run out. The order is the same on
+ * every pass, regardless of timing. Otherwise each DataSet is returned as soon as any worker has it ready.<br>
+ * next(int) is supported by merging and splitting the loaded DataSets.<br>
+ * The queue depth and the time spent waiting on either side of the queue are tracked: time spent by
+ * the caller waiting in next() means training is waiting on ETL, time spent by the workers waiting on a
+ * full queue means ETL is keeping up.
+ * @author Adam Gibson
+ */
+public class ParallelDataSetIterator implements DataSetIterator {
+    private static final Logger log = LoggerFactory.getLogger(ParallelDataSetIterator.class);
+
+    private final List<DataSetIterator> sources;
+    private final boolean ordered;
+    private final int queueSize;
+    private final List<BlockingQueue<Item>> queues = new ArrayList<>();
+    private final List<Thread> threads = new ArrayList<>();
+    private volatile DataSetPreProcessor preProcessor;
+    private AtomicBoolean killed = new AtomicBoolean();
+    private boolean started;
+    private boolean[] finished;
+    private int remaining;
+    private int turn;
+    private Item nextItem;
+    private DataSet leftOver;
+    private int cursor;
+
+    private final AtomicLong consumerWaitNanos = new AtomicLong();
+    private final AtomicLong producerWaitNanos = new AtomicLong();
+    private final AtomicLong batchesDelivered = new AtomicLong();
+
+    /**Create an ordered ParallelDataSetIterator with a queue size of 2 per worker
+     * @param sources the iterators to load from, one worker each
+     */
+    public ParallelDataSetIterator(List<DataSetIterator> sources) {
+        this(sources, 2, true);
+    }
+
+    /**
+     * @param sources the iterators to load from, one worker each
+     * @param queueSize the number of DataSets each worker may load ahead
+     * @param ordered whether to return DataSets in the same order on every pass
+     */
+    public ParallelDataSetIterator(List<DataSetIterator> sources, int queueSize, boolean ordered) {
+        if(sources.isEmpty()) throw new IllegalArgumentException("At least one source iterator is required");
+        if(queueSize <= 0) throw new IllegalArgumentException("Queue size must be > 0");
+        this.sources = new ArrayList<>(sources);
+        this.queueSize = queueSize;
+        this.ordered = ordered;
+    }
+
+    /**Create an ordered ParallelDataSetIterator with one worker per record reader,
+     * each reader usually being initialized with its own split of the input
+     * @param readers the record readers, one per worker
+     * @param batchSize the batch size
+     * @param labelIndex the index of the label in each record
+     * @param numPossibleLabels the number of labels
+     * @return the iterator
+     */
+    public static ParallelDataSetIterator fromRecordReaders(List<RecordReader> readers, int batchSize, int labelIndex, int numPossibleLabels) {
+        List<DataSetIterator> sources = new ArrayList<>();
+        for(RecordReader reader : readers)
+            sources.add(new RecordReaderDataSetIterator(reader, batchSize, labelIndex, numPossibleLabels));
+        return new ParallelDataSetIterator(sources);
+    }
+
+    private void start() {
+        started = true;
+        killed = new AtomicBoolean();
+        queues.clear();
+        if(ordered) {
+            for(int i = 0; i < sources.size(); i++)
+                queues.add(new LinkedBlockingQueue<Item>(queueSize));
+        }
+        else {
+            BlockingQueue<Item> shared = new LinkedBlockingQueue<>(queueSize * sources.size());
+            for(int i = 0; i < sources.size(); i++)
+                queues.add(shared);
+        }
+        finished = new boolean[sources.size()];
+        remaining = sources.size();
+        turn = 0;
+        nextItem = null;
+        leftOver = null;
+        cursor = 0;
+        threads.clear();
+        for(int i = 0; i < sources.size(); i++) {
+            Thread thread = new Thread(new Worker(i, queues.get(i), killed), "ParallelDataSetIterator-" + i);
+            thread.setDaemon(true);
+            threads.add(thread);
+            thread.start();
+        }
+    }
+
+    /** Stop the workers and wait for them to exit, so their sources may be reset */
+    private void stop() {
+        killed.set(true);
+        for(Thread thread : threads)
+            thread.interrupt();
+        try {
+            for(Thread thread : threads) {
+                thread.join(TimeUnit.SECONDS.toMillis(5));
+                if(thread.isAlive()) {
+                    log.warn("Waiting for " + thread.getName() + " to finish loading its current DataSet");
+                    thread.join();
+                }
+            }
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while stopping the workers", e);
+        }
+        threads.clear();
+        for(BlockingQueue<Item> queue : queues)
+            queue.clear();
+    }
+
+    /** Wait for the next DataSet, if any. Returns false once every worker is done. */
+    private boolean fetch() {
+        if(!started)
+            start();
+        if(nextItem != null)
+            return true;
+        long start = System.nanoTime();
+        try {
+            while(remaining > 0) {
+                Item item;
+                int worker = turn;
+                if(ordered) {
+                    while(finished[worker])
+                        worker = (worker + 1) % finished.length;
+                    item = queues.get(worker).take();
+                }
+                else
+                    item = queues.get(0).take();
+
+                if(item.dataSet == null) {
+                    finished[item.worker] = true;
+                    remaining--;
+                    if(ordered)
+                        turn = (worker + 1) % finished.length;
+                    if(item.exception != null)
+                        throw item.exception;
+                    continue;
+                }
+                if(ordered)
+                    turn = (worker + 1) % finished.length;
+                nextItem = item;
+                return true;
+            }
+            return false;
+        } catch(InterruptedException e) {
+            throw new RuntimeException(e);
+        } finally {
+            consumerWaitNanos.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public synchronized boolean hasNext() {
+        return leftOver != null || fetch();
+    }
+
+    @Override
+    public synchronized DataSet next() {
+        if(leftOver != null) {
+            DataSet ret = leftOver;
+            leftOver = null;
+            cursor += ret.numExamples();
+            return ret;
+        }
+        if(!fetch())
+            throw new NoSuchElementException();
+        DataSet ret = nextItem.dataSet;
+        nextItem = null;
+        batchesDelivered.incrementAndGet();
+        cursor += ret.numExamples();
+        return ret;
+    }
+
+    @Override
+    public synchronized DataSet next(int num) {
+        if(num <= 0) throw new IllegalArgumentException("Number of examples must be > 0");
+        List<DataSet> collected = new ArrayList<>();
+        int count = 0;
+        while(count < num && hasNext()) {
+            DataSet next = next();
+            collected.add(next);
+            count += next.numExamples();
+        }
+        if(collected.isEmpty())
+            throw new NoSuchElementException();
+        DataSet merged = collected.size() == 1 ? collected.get(0) : DataSet.merge(collected, false);
+        if(count > num) {
+            leftOver = (DataSet) merged.getRange(num, count);
+            merged = (DataSet) merged.getRange(0, num);
+            cursor -= count - num;
+        }
+        return merged;
+    }
+
+    /** Stop the workers, reset the sources once the workers have exited, and
+     * start again from the beginning on the next call to hasNext() or next() */
+    @Override
+    public synchronized void reset() {
+        stop();
+        for(DataSetIterator source : sources)
+            source.reset();
+        started = false;
+        cursor = 0;
+        leftOver = null;
+        nextItem = null;
+    }
+
+    /** Stop the worker threads.
+     * They are daemon threads, so this is only needed to release the sources early.
+     * The iterator may be used again after a {@link #reset()}.
+     */
+    public synchronized void shutdown() {
+        stop();
+        started = true;
+        remaining = 0;
+        nextItem = null;
+        leftOver = null;
+    }
+
+    @Override
+    public int totalExamples() {
+        int total = 0;
+        for(DataSetIterator source : sources)
+            total += source.totalExamples();
+        return total;
+    }
+
+    @Override
+    public int inputColumns() {
+        return sources.get(0).inputColumns();
+    }
+
+    @Override
+    public int totalOutcomes() {
+        return sources.get(0).totalOutcomes();
+    }
+
+    @Override
+    public int batch() {
+        return sources.get(0).batch();
+    }
+
+    /** The number of examples returned since the last reset */
+    @Override
+    public synchronized int cursor() {
+        return cursor;
+    }
+
+    @Override
+    public int numExamples() {
+        int total = 0;
+        for(DataSetIterator source : sources)
+            total += source.numExamples();
+        return total;
+    }
+
+    /** Set the pre processor, applied by the worker threads to each DataSet before it is queued.
+     * Set it before iterating (or reset afterwards): DataSets already loaded are not pre processed again. */
+    @Override
+    public void setPreProcessor(DataSetPreProcessor preProcessor) {
+        this.preProcessor = preProcessor;
+    }
+
+    /** The number of DataSets loaded and waiting to be returned */
+    public int getQueueDepth() {
+        if(queues.isEmpty())
+            return 0;
+        if(!ordered)
+            return queues.get(0).size();
+        int depth = 0;
+        for(BlockingQueue<Item> queue : queues)
+            depth += queue.size();
+        return depth;
+    }
+
+    /** The maximum number of DataSets that can be loaded ahead */
+    public int getQueueCapacity() {
+        return queueSize * sources.size();
+    }
+
+    /** Total time in nanoseconds next() and hasNext() waited for a worker, i.e. training waited on ETL */
+    public long getConsumerWaitNanos() {
+        return consumerWaitNanos.get();
+    }
+
+    /** Total time in nanoseconds the workers waited on a full queue, i.e. ETL waited on training */
+    public long getProducerWaitNanos() {
+        return producerWaitNanos.get();
+    }
+
+    /** The number of DataSets returned by the workers so far, over all passes */
+    public long getBatchesDelivered() {
+        return batchesDelivered.get();
+    }
+
+    public int numWorkers() {
+        return sources.size();
+    }
+
+    @Override
+    public void remove() {
+    }
+
+    /** A DataSet, an exception or (if both are null) the end of a worker's source */
+    private static class Item {
+        private final int worker;
+        private final DataSet dataSet;
+        private final RuntimeException exception;
+
+        private Item(int worker, DataSet dataSet, RuntimeException exception) {
+            this.worker = worker;
+            this.dataSet = dataSet;
+            this.exception = exception;
+        }
+    }
+
+    private class Worker implements Runnable {
+        private final int index;
+        private final BlockingQueue<Item> queue;
+        private final AtomicBoolean killed;
+
+        private Worker(int index, BlockingQueue<Item> queue, AtomicBoolean killed) {
+            this.index = index;
+            this.queue = queue;
+            this.killed = killed;
+        }
+
+        @Override
+        public void run() {
+            DataSetIterator source = sources.get(index);
+            Item item;
+            try {
+                while(!killed.get() && source.hasNext()) {
+                    DataSet next = source.next();
+                    DataSetPreProcessor preProcessor = ParallelDataSetIterator.this.preProcessor;
+                    if(preProcessor != null)
+                        preProcessor.preProcess(next);
+                    put(new Item(index, next, null));
+                }
+                item = new Item(index, null, null);
+            } catch(InterruptedException e) {
+                //stop() while put was blocking
+                return;
+            } catch(RuntimeException e) {
+                if(killed.get())
+                    return;
+                item = new Item(index, null, e);
+            }
+            try {
+                if(!killed.get())
+                    put(item);
+            } catch(InterruptedException e) {
+                //stop() while put was blocking
+            }
+        }
+
+        private void put(Item item) throws InterruptedException {
+            if(queue.offer(item))
+                return;
+            long start = System.nanoTime();
+            queue.put(item);
+            producerWaitNanos.addAndGet(System.nanoTime() - start);
+        }
+    }
+}
@@ -22,7 +22,6 @@ import java.io.Serializable;
 import java.text.DecimalFormat;
 import java.util.*;
 
-import org.deeplearning4j.berkeley.Counter;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.factory.Nd4j;
 import org.slf4j.Logger;
@@ -30,18 +29,20 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Evaluation metrics: precision, recall, f1
+ *
+ * Counts are kept in a primitive confusion matrix (actual x predicted).
+ * True/false positives and negatives are derived from it when queried,
+ * so evaluating a minibatch is an argmax along the rows plus one increment
+ * per example. Evaluations of different partitions of a data set
+ * can be combined with {@link #merge(Evaluation)}.
  * @author Adam Gibson
  *
  */
 public class Evaluation<T extends Comparable<? super T>> implements Serializable {
 
-    private Counter<Integer> truePositives = new Counter<>();
-    private Counter<Integer> falsePositives = new Counter<>();
-    private Counter<Integer> trueNegatives = new Counter<>();
-    private Counter<Integer> falseNegatives = new Counter<>();
-    private ConfusionMatrix<Integer> confusion;
+    //confusion[actual][predicted]
+    private int[][] confusion;
     private int numRowCounter = 0;
-    private List<Integer> labelsList = new ArrayList<>();
     private Map<Integer, String> labelsMap = new HashMap<>();
     private static Logger log = LoggerFactory.getLogger(Evaluation.class);
 
@@ -50,9 +51,7 @@ public class Evaluation<T extends Comparable<? super T>> implements Serializable
 
     // Constructor that takes number of output classes
     public Evaluation(int numClasses) {
-        for(int i = 0; i < numClasses; i++)
-            labelsList.add(i);
-        confusion = new ConfusionMatrix<>(labelsList);
+        confusion = new int[numClasses][numClasses];
     }
 
     public Evaluation(List<String> labels) {
@@ -77,104 +76,63 @@ public class Evaluation<T extends Comparable<? super T>> implements Serializable
      * @param guesses the guesses (usually a probability vector)
      * */
     public void eval(INDArray realOutcomes,INDArray guesses) {
-        // Add the number of rows to numRowCounter
-        numRowCounter += realOutcomes.shape()[0];
+        // Length of real labels must be same as length of predicted labels
+        if(realOutcomes.length() != guesses.length())
+            throw new IllegalArgumentException("Unable to evaluate. Outcome matrices not same length");
 
         // If confusion is null, then Evaluation is instantiated without providing the classes
         if(confusion == null) {
             log.warn("Creating confusion matrix based on classes passed in . Will assume the label distribution passed in is indicative of the overall dataset");
-            Set<Integer> classes = new HashSet<>();
-            // Infer all the class label based on mini batch
-            for(int i = 0; i < realOutcomes.columns(); i++) {
-                classes.add(i);
-            }
-            // Create confusion matrix based on potentially incomplete set of labels
-            confusion = new ConfusionMatrix<>(new ArrayList<>(classes));
+            confusion = new int[realOutcomes.columns()][realOutcomes.columns()];
         }
+        else
+            ensureClasses(realOutcomes.columns());
 
-        // Length of real labels must be same as length of predicted labels
-        if(realOutcomes.length() != guesses.length())
-            throw new IllegalArgumentException("Unable to evaluate. Outcome matrices not same length");
+        int rows = realOutcomes.rows();
+        numRowCounter += rows;
 
-        // For each row get the most probable label (column) from prediction and assign as guessMax
-        // For each row get the column of the true label and assign as currMax
-        for(int i = 0; i < realOutcomes.rows(); i++) {
-            INDArray currRow = realOutcomes.getRow(i);
-            INDArray guessRow = guesses.getRow(i);
-
-            int currMax;
-            {
-                double max = currRow.getDouble(0);
-                currMax = 0;
-                for (int col = 1; col < currRow.columns(); col++) {
-                    if (currRow.getDouble(col) > max) {
-                        max = currRow.getDouble(col);
-                        currMax = col;
-                    }
-                }
-            }
-            int guessMax;
-            {
-                double max = guessRow.getDouble(0);
-                guessMax = 0;
-                for (int col = 1; col < guessRow.columns(); col++) {
-                    if (guessRow.getDouble(col) > max) {
-                        max = guessRow.getDouble(col);
-                        guessMax = col;
-                    }
-                }
-            }
-
-            // Add to the confusion matrix the real class of the row and
-            // the predicted class of the row
-            addToConfusion(currMax, guessMax);
-
-            // If they are equal
-            if(currMax == guessMax) {
-                // Then add 1 to True Positive
-                // (For a particular label)
-                incrementTruePositives(guessMax);
-
-                // And add 1 for each negative class that is accurately predicted (True Negative)
-                //(For a particular label)
-                for(Integer clazz : confusion.getClasses()) {
-                    if(clazz != guessMax)
-                      trueNegatives.incrementCount(clazz, 1.0);
-               }
-            }
-            else {
-                // Otherwise the real label is predicted as negative (False Negative)
-                incrementFalseNegatives(currMax);
-                // Otherwise the prediction is predicted as falsely positive (False Positive)
-                incrementFalsePositives(guessMax);
-                // Otherwise true negatives
-                for (Integer clazz : confusion.getClasses()) {
-                    if (clazz != guessMax && clazz != currMax)
-                        trueNegatives.incrementCount(clazz, 1.0);
+        // The most probable label (column) of each row of the labels and the predictions
+        INDArray actual = Nd4j.argMax(realOutcomes, 1);
+        INDArray predicted = Nd4j.argMax(guesses, 1);
+        for(int i = 0; i < rows; i++)
+            confusion[(int) actual.getDouble(i)][(int) predicted.getDouble(i)]++;
+    }
 
-                }
-            }
+    /**
+     * Adds the counts of another evaluation to this one.
+     * Both evaluations must be over the same classes; the
+     * confusion matrix is grown if the other one has seen more classes.
+     * @param other the evaluation to merge in to this one
+     * @return this evaluation
+     */
+    public Evaluation<T> merge(Evaluation<? extends T> other) {
+        if(other.confusion == null)
+            return this;
+        ensureClasses(other.confusion.length);
+        for(int i = 0; i < other.confusion.length; i++) {
+            int[] row = confusion[i];
+            int[] otherRow = other.confusion[i];
+            for(int j = 0; j < otherRow.length; j++)
+                row[j] += otherRow[j];
         }
+        numRowCounter += other.numRowCounter;
+        if(labelsMap.isEmpty())
+            labelsMap.putAll(other.labelsMap);
+        return this;
     }
 
     // Method to print the classification report
     public String stats() {
         StringBuilder builder = new StringBuilder().append("\n");
-        List<Integer> classes = confusion.getClasses();
+        int numClasses = numClasses();
 
-        if (labelsMap.isEmpty()){
-            for (Integer clazz : classes) {
-                for (Integer clazz2 : classes) {
-                    int count = confusion.getCount(clazz, clazz2);
-                    if (count != 0)
+        for (int clazz = 0; clazz < numClasses; clazz++) {
+            for (int clazz2 = 0; clazz2 < numClasses; clazz2++) {
+                int count = confusion[clazz][clazz2];
+                if (count != 0) {
+                    if (labelsMap.isEmpty())
                         builder.append("\n Examples labeled as " + clazz + " classified by model as " + clazz2 + ": " + count + " times\n");
-                }
-            }
-        } else {
-            for (Integer clazz : classes) {
-                for (Integer clazz2 : classes) {
-                    int count = confusion.getCount(clazz, clazz2);
-                    if (count != 0)
+                    else
                         builder.append("\n Examples labeled as "+ labelsMap.get(clazz) + " classified by model as " + labelsMap.get(clazz2) + ": " + count + " times\n");
                 }
             }
@@ -197,8 +155,8 @@ public class Evaluation<T extends Comparable<? super T>> implements Serializable
      * @return the precision for the label
      */
     public double precision(Integer classLabel) {
-        double tpCount = truePositives.getCount(classLabel);
-        double fpCount = falsePositives.getCount(classLabel);
+        double tpCount = truePositives(classLabel);
+        double fpCount = falsePositives(classLabel);
         if (tpCount == 0)
             return 0;
         return tpCount / (tpCount + fpCount);
@@ -212,9 +170,9 @@ public class Evaluation<T extends Comparable<? super T>> implements Serializable
     public double precision() {
         double precisionAcc = 0.0;
         double classCount = 0.0;
-        for(Integer classLabel : confusion.getClasses()) {
+        for(int classLabel = 0; classLabel < numClasses(); classLabel++) {
             precisionAcc += precision(classLabel);
-            if (truePositives.getCount(classLabel) > 0) {
+            if (truePositives(classLabel) > 0) {
                classCount += 1.0;
             }
         }
@@ -227,8 +185,8 @@ public class Evaluation<T extends Comparable<? super T>> implements Serializable
      * @return Recall rate as a double
      */
     public double recall(Integer classLabel) {
-        double tpCount = truePositives.getCount(classLabel);
-        double fnCount = falseNegatives.getCount(classLabel);
+        double tpCount = truePositives(classLabel);
+        double fnCount = falseNegatives(classLabel);
 
         if (tpCount == 0)
             return 0;
@@ -243,9 +201,9 @@ public class Evaluation<T extends Comparable<? super T>> implements Serializable
     public double recall() {
         double recallAcc = 0.0;
         double classCount = 0.0;
-        for(Integer classLabel : confusion.getClasses()) {
+        for(int classLabel = 0; classLabel < numClasses(); classLabel++) {
             recallAcc += recall(classLabel);
-            if (truePositives.getCount(classLabel) > 0) {
+            if (truePositives(classLabel) > 0) {
                 classCount += 1.0;
             }
 
@@ -260,7 +218,7 @@ public class Evaluation<T extends Comparable<? super T>> implements Serializable
      */
     public double f1(Integer classLabel) {
         double precision = precision(classLabel);
-        double recall = recall();
+        double recall = recall(classLabel);
         if(precision == 0 || recall == 0)
             return 0;
         return 2.0 * ((precision * recall / (precision + recall)));
@@ -291,34 +249,92 @@ public class Evaluation<T extends Comparable<? super T>> implements Serializable
     }
 
 
-    // Access counter methods
+    // Counts derived from the confusion matrix
+    /**
+     * True positives for a class: examples of the class predicted as the class
+     * @param classLabel the class
+     * @return the true positives for the class
+     */
+    public int truePositives(int classLabel) {
+        if(classLabel >= numClasses())
+            return 0;
+        return confusion[classLabel][classLabel];
+    }
+
+    /**
+     * False positives for a class: examples of other classes predicted as the class
+     * @param classLabel the class
+     * @return the false positives for the class
+     */
+    public int falsePositives(int classLabel) {
+        if(classLabel >= numClasses())
+            return 0;
+        return predictedTotal(classLabel) - confusion[classLabel][classLabel];
+    }
+
+    /**
+     * False negatives for a class: examples of the class predicted as another class
+     * @param classLabel the class
+     * @return the false negatives for the class
+     */
+    public int falseNegatives(int classLabel) {
+        if(classLabel >= numClasses())
+            return 0;
+        return classCount(classLabel) - confusion[classLabel][classLabel];
+    }
+
+    /**
+     * True negatives for a class: examples of other classes not predicted as the class
+     * @param classLabel the class
+     * @return the true negatives for the class
+     */
+    public int trueNegatives(int classLabel) {
+        if(classLabel >= numClasses())
+            return 0;
+        return total() - classCount(classLabel) - predictedTotal(classLabel) + confusion[classLabel][classLabel];
+    }
+
     /**
      * True positives: correctly rejected
      * @return the total true positives so far
      */
     public double truePositives() {
-        return truePositives.totalCount();
+        double total = 0;
+        for(int i = 0; i < numClasses(); i++)
+            total += truePositives(i);
+        return total;
     }
     /**
      * True negatives: correctly rejected
      * @return the total true negatives so far
      */
     public double trueNegatives() {
-        return trueNegatives.totalCount();
+        //every example is a negative for each class it is neither labeled nor predicted as
+        int numClasses = numClasses();
+        double total = (double) total() * numClasses;
+        for(int i = 0; i < numClasses; i++)
+            total += confusion[i][i] - classCount(i) - predictedTotal(i);
+        return total;
     }
     /**
      * False positive: wrong guess
      * @return the count of the false positives
      */
     public double falsePositives() {
-        return falsePositives.totalCount();
+        double total = 0;
+        for(int i = 0; i < numClasses(); i++)
+            total += falsePositives(i);
+        return total;
     }
     /**
      * False negatives: correctly rejected
      * @return the total false negatives so far
      */
     public double falseNegatives() {
-        return falseNegatives.totalCount();
+        double total = 0;
+        for(int i = 0; i < numClasses(); i++)
+            total += falseNegatives(i);
+        return total;
     }
     /**
      * Total negatives true negatives + false positives
@@ -337,22 +353,6 @@ public class Evaluation<T extends Comparable<? super T>> implements Serializable
     }
 
 
-    // Incrementing counters
-    public void incrementTruePositives(Integer classLabel) {
-        truePositives.incrementCount(classLabel, 1.0);
-    }
-    public void incrementTrueNegatives(Integer classLabel) {
-        truePositives.incrementCount(classLabel, 1.0);
-    }
-    public void incrementFalseNegatives(Integer classLabel) {
-        falseNegatives.incrementCount(classLabel, 1.0);
-    }
-
-    public void incrementFalsePositives(Integer classLabel) {
-        falsePositives.incrementCount(classLabel, 1.0);
-    }
-
-
     // Other misc methods
     /**
      * Adds to the confusion matrix
@@ -360,7 +360,8 @@ public class Evaluation<T extends Comparable<? super T>> implements Serializable
      * @param guess the system guess
      */
     public void addToConfusion(Integer real, Integer guess) {
-        confusion.add(real, guess);
+        ensureClasses(Math.max(real, guess) + 1);
+        confusion[real][guess]++;
     }
 
     /**
@@ -371,12 +372,69 @@ public class Evaluation<T extends Comparable<? super T>> implements Serializable
      * actually occurred
      */
     public int classCount(Integer clazz) {
-        return confusion.getActualTotal(clazz);
+        if(clazz >= numClasses())
+            return 0;
+        int total = 0;
+        for(int count : confusion[clazz])
+            total += count;
+        return total;
+    }
+
+    /**
+     * Returns the number of times the given label was predicted
+     * @param clazz the label
+     * @return the number of times the label was predicted
+     */
+    public int predictedTotal(int clazz) {
+        if(clazz >= numClasses())
+            return 0;
+        int total = 0;
+        for(int[] row : confusion)
+            total += row[clazz];
+        return total;
+    }
+
+    /**
+     * The confusion matrix as a {@link ConfusionMatrix}
+     * @return the confusion matrix seen so far
+     */
+    public ConfusionMatrix<Integer> getConfusionMatrix() {
+        List<Integer> classes = new ArrayList<>();
+        for(int i = 0; i < numClasses(); i++)
+            classes.add(i);
+        ConfusionMatrix<Integer> ret = new ConfusionMatrix<>(classes);
+        for(int i = 0; i < numClasses(); i++)
+            for(int j = 0; j < numClasses(); j++)
+                if(confusion[i][j] > 0)
+                    ret.add(i, j, confusion[i][j]);
+        return ret;
+    }
+
+    public int numClasses() {
+        return confusion == null ? 0 : confusion.length;
     }
 
     public double getNumRowCounter() {return (double) numRowCounter;}
 
     public String getClassLabel(Integer clazz) { return labelsMap.get(clazz);}
 
+    //the number of examples in the confusion matrix
+    private int total() {
+        int total = 0;
+        for(int i = 0; i < numClasses(); i++)
+            total += classCount(i);
+        return total;
+    }
+
+    //grow the confusion matrix to at least the given number of classes
+    private void ensureClasses(int numClasses) {
+        if(numClasses <= numClasses())
+            return;
+        int[][] grown = new int[numClasses][numClasses];
+        for(int i = 0; i < numClasses(); i++)
+            System.arraycopy(confusion[i], 0, grown[i], 0, confusion[i].length);
+        confusion = grown;
+    }
+
 
 }
@@ -32,7 +32,23 @@ import java.util.*;
 
 public class DefaultGradient implements Gradient {
     private Map<String,INDArray> gradients = new LinkedHashMap<>();
+    //optional flat buffer backing every gradient in the table; see DefaultGradient(INDArray)
+    private INDArray flattenedGradient;
 
+    public DefaultGradient() {
+    }
+
+    /**
+     * Create a gradient backed by a single flat buffer.
+     * Entries put in the table up front are expected to be views
+     * of the buffer: {@link #setGradientFor(String, INDArray)} copies
+     * new values in to those views and {@link #gradient()} returns
+     * the buffer itself rather than flattening a copy.
+     * @param flattenedGradient the flat gradient buffer (1 x numParams)
+     */
+    public DefaultGradient(INDArray flattenedGradient) {
+        this.flattenedGradient = flattenedGradient;
+    }
 
 
     @Override
@@ -53,6 +69,8 @@ public class DefaultGradient implements Gradient {
 
     @Override
     public INDArray gradient() {
+        if(flattenedGradient != null)
+            return flattenedGradient;
         return Nd4j.toFlattened('f',gradients.values());
     }
 
@@ -68,6 +86,14 @@ public class DefaultGradient implements Gradient {
 
     @Override
     public INDArray setGradientFor(String variable, INDArray newGradient) {
+        if(flattenedGradient != null) {
+            INDArray view = gradients.get(variable);
+            if(view != null) {
+                if(view != newGradient)
+                    view.assign(newGradient);
+                return view;
+            }
+        }
         return gradients.put(variable, newGradient);
     }
 
@@ -131,7 +131,17 @@ public class ConvolutionLayer extends BaseLayer<org.deeplearning4j.nn.conf.layer
             throw new IllegalArgumentException("No null input allowed");
         applyDropOutIfNecessary(input, training);
 
-        col = Convolution.im2col(input, layerConf().getKernelSize(), layerConf().getStride(), layerConf().getPadding());
+        //the column buffer is kept as a workspace and reused while the input shape stays the same
+        int[] kernel = layerConf().getKernelSize();
+        int[] stride = layerConf().getStride();
+        int[] padding = layerConf().getPadding();
+        int[] colShape = Convolution.im2colShape(input.shape(), kernel[0], kernel[1], stride[0], stride[1], padding[0], padding[1], false);
+        if(col == null || !Arrays.equals(col.shape(), colShape)) {
+            col = Nd4j.create(colShape);
+            //kept across minibatches, so it must not be released with the workspace of the minibatch that created it
+            col.data().persist();
+        }
+        Convolution.im2col(input, kernel, stride, padding, col);
         INDArray z = preOutput(training);
         INDArray activation = Nd4j.getExecutioner().execAndReturn(Nd4j.getOpFactory().createTransform(conf.getLayer().getActivationFunction(), z));
         return activation;
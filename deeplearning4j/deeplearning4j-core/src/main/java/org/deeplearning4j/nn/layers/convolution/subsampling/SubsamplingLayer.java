@@ -47,6 +47,7 @@ import java.util.*;
  */
 public class SubsamplingLayer extends BaseLayer<org.deeplearning4j.nn.conf.layers.SubsamplingLayer> {
     private INDArray maxIndexes;
+    private INDArray col;
 
     public SubsamplingLayer(NeuralNetConfiguration conf) {
         super(conf);
@@ -144,7 +145,17 @@ public class SubsamplingLayer extends BaseLayer<org.deeplearning4j.nn.conf.layer
             this.dropoutMask = Dropout.applyDropout(input,conf.getLayer().getDropOut(),dropoutMask);
         }
 
-        pooled = Convolution.im2col(input,layerConf().getKernelSize(),layerConf().getStride(),layerConf().getPadding());
+        //the column buffer is kept as a workspace and reused while the input shape stays the same
+        int[] kernel = layerConf().getKernelSize();
+        int[] stride = layerConf().getStride();
+        int[] padding = layerConf().getPadding();
+        int[] colShape = Convolution.im2colShape(input.shape(), kernel[0], kernel[1], stride[0], stride[1], padding[0], padding[1], false);
+        if(col == null || !Arrays.equals(col.shape(), colShape)) {
+            col = Nd4j.create(colShape);
+            //kept across minibatches, so it must not be released with the workspace of the minibatch that created it
+            col.data().persist();
+        }
+        pooled = Convolution.im2col(input, kernel, stride, padding, col);
         switch(layerConf().getPoolingType()) {
             case AVG:
                 return pooled.mean(2,3);
@@ -1,13 +1,28 @@
 package org.deeplearning4j.nn.layers.feedforward.dense;
 
+import org.deeplearning4j.berkeley.Pair;
 import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.gradient.DefaultGradient;
+import org.deeplearning4j.nn.gradient.Gradient;
 import org.deeplearning4j.nn.layers.BaseLayer;
+import org.deeplearning4j.nn.params.DefaultParamInitializer;
+import org.deeplearning4j.util.Dropout;
 import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.sparse.CSRMatrix;
+import org.nd4j.linalg.factory.Nd4j;
 
 /**
+ * Fully connected layer.
+ * Besides dense input, the layer accepts a sparse {@link CSRMatrix} minibatch via
+ * {@link #preOutput(CSRMatrix, boolean)} and {@link #activate(CSRMatrix, boolean)},
+ * for example hashed or bag of words features over millions of columns.
+ * The sparse input is never densified. Dropout is not applied to sparse input
+ * and no epsilon is computed for it, so a layer with sparse input has to be the first layer.
  * @author Adam Gibson
  */
 public class DenseLayer extends BaseLayer<org.deeplearning4j.nn.conf.layers.DenseLayer> {
+    private CSRMatrix sparseInput;
+
     public DenseLayer(NeuralNetConfiguration conf) {
         super(conf);
     }
@@ -19,4 +34,71 @@ public class DenseLayer extends BaseLayer<org.deeplearning4j.nn.conf.layers.Dens
     @Override
     public void fit(INDArray input) {}
 
+    @Override
+    public void setInput(INDArray input, boolean training) {
+        sparseInput = null;
+        super.setInput(input, training);
+    }
+
+    /**
+     * The pre output for a sparse minibatch, one example per row
+     * @param x the input
+     * @param training whether this is training (drop connect is applied when configured)
+     * @return x * W + b
+     */
+    public INDArray preOutput(CSRMatrix x, boolean training) {
+        if(x == null)
+            throw new IllegalArgumentException("No null input allowed");
+        this.input = null;
+        this.sparseInput = x;
+        INDArray b = getParam(DefaultParamInitializer.BIAS_KEY);
+        INDArray W = getParam(DefaultParamInitializer.WEIGHT_KEY);
+        if(conf.isUseDropConnect() && training) {
+            if (conf.getLayer().getDropOut() > 0) {
+                W = Dropout.applyDropConnect(this,DefaultParamInitializer.WEIGHT_KEY);
+            }
+        }
+
+        return x.mmul(W).addiRowVector(b);
+    }
+
+    /**
+     * Activate on a sparse minibatch, one example per row
+     * @param x the input
+     * @param training whether this is training
+     * @return the activations
+     */
+    public INDArray activate(CSRMatrix x, boolean training) {
+        return Nd4j.getExecutioner().execAndReturn(Nd4j.getOpFactory().createTransform(conf.getLayer().getActivationFunction(), preOutput(x, training)));
+    }
+
+    /**
+     * @return the sparse input, if the last input was sparse
+     */
+    public CSRMatrix getSparseInput() {
+        return sparseInput;
+    }
+
+    @Override
+    public Pair<Gradient,INDArray> backpropGradient(INDArray epsilon) {
+        if(sparseInput == null)
+            return super.backpropGradient(epsilon);
+
+        INDArray z = preOutput(sparseInput, true);
+        INDArray activationDerivative = Nd4j.getExecutioner().execAndReturn(Nd4j.getOpFactory().createTransform(conf().getLayer().getActivationFunction(), z).derivative());
+        INDArray delta = epsilon.muli(activationDerivative);
+
+        Gradient ret = new DefaultGradient();
+        ret.gradientForVariable().put(DefaultParamInitializer.WEIGHT_KEY, sparseInput.transposeMmul(delta));
+        ret.gradientForVariable().put(DefaultParamInitializer.BIAS_KEY, delta.sum(0));
+
+        //there is nothing below sparse input to pass an epsilon to
+        return new Pair<>(ret,null);
+    }
+
+    @Override
+    public int batchSize() {
+        return sparseInput != null ? sparseInput.rows() : super.batchSize();
+    }
+
 }
@@ -9,6 +9,8 @@ import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
 import org.deeplearning4j.nn.gradient.Gradient;
 import org.deeplearning4j.nn.layers.BaseLayer;
 import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.shape.Shape;
+import org.nd4j.linalg.factory.Nd4j;
 
 public abstract class BaseRecurrentLayer<LayerConfT extends org.deeplearning4j.nn.conf.layers.Layer> extends BaseLayer<LayerConfT> {
 
@@ -86,4 +88,29 @@ public abstract class BaseRecurrentLayer<LayerConfT extends org.deeplearning4j.n
 	 * for standard BPTT.
 	 */
 	public abstract Pair<Gradient,INDArray> tbpttBackpropGradient(INDArray epsilon, int tbpttBackLength);
+
+	/**Input to hidden pre-activations (plus biases) for all time steps of the current input.
+	 * This part of the gate pre-activations does not depend on the recurrence, so it can be
+	 * done as one gemm up front instead of one small gemm per gate and time step.
+	 * @param inputWeights input weights, shape [nIn,nGates*layerSize]
+	 * @param biases biases, shape [1,nGates*layerSize]
+	 * @return array of shape [miniBatchSize*timeSeriesLength,nGates*layerSize], f order, with rows grouped by
+	 * time step: rows t*miniBatchSize to (t+1)*miniBatchSize-1 are the pre-activations for time step t
+	 */
+	protected INDArray inputProjection(INDArray inputWeights, INDArray biases){
+		INDArray inputTimeMajor;
+		if(input.rank() < 3){
+			//Edge case of T=1, may have shape [m,nIn], equiv. to [m,nIn,1]
+			inputTimeMajor = Shape.toMmulCompatible(input);
+		} else {
+			//[m,nIn,T] -> [m,T,nIn] -> [m*T,nIn]. In f order, row t*m+i of the result is example i at time step t
+			int miniBatchSize = input.size(0);
+			int timeSeriesLength = input.size(2);
+			inputTimeMajor = Shape.toOffsetZeroCopy(input.permute(0,2,1),'f').reshape('f',miniBatchSize*timeSeriesLength,input.size(1));
+		}
+		INDArray zs = Nd4j.create(new int[]{inputTimeMajor.size(0),inputWeights.size(1)},'f');
+		Nd4j.gemm(inputTimeMajor,Shape.toMmulCompatible(inputWeights),zs,false,false,1.0,0.0);
+		zs.addiRowVector(biases);
+		return zs;
+	}
 }
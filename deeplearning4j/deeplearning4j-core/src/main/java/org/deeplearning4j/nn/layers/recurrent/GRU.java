@@ -242,18 +242,8 @@ public class GRU extends BaseRecurrentLayer<org.deeplearning4j.nn.conf.layers.GR
 		int hiddenLayerSize = recurrentWeights.size(0);
 		int miniBatchSize = input.size(0);
 		
-		int layerSize = hiddenLayerSize;
-		INDArray wr = inputWeights.get(NDArrayIndex.all(),interval(0,layerSize));
-		INDArray wu = inputWeights.get(NDArrayIndex.all(),interval(layerSize,2*layerSize));
-		INDArray wc = inputWeights.get(NDArrayIndex.all(),interval(2*layerSize,3*layerSize));
-		INDArray wR = recurrentWeights.get(NDArrayIndex.all(),interval(0,layerSize));
-		INDArray wU = recurrentWeights.get(NDArrayIndex.all(),interval(layerSize,2*layerSize));
-		INDArray wC = recurrentWeights.get(NDArrayIndex.all(),interval(2*layerSize,3*layerSize));
-		INDArray br = biases.get(NDArrayIndex.point(0),interval(0,layerSize));
-		INDArray bu = biases.get(NDArrayIndex.point(0),interval(layerSize,2*layerSize));
-		INDArray bc = biases.get(NDArrayIndex.point(0),interval(2*layerSize,3*layerSize));
-//		INDArray wRAndU = recurrentWeights.get(NDArrayIndex.all(),NDArrayIndex.interval(0, 2*hiddenLayerSize));
-//		INDArray wC = recurrentWeights.get(NDArrayIndex.all(),NDArrayIndex.interval(2*hiddenLayerSize,3*hiddenLayerSize));
+		INDArray wRAndU = recurrentWeights.get(NDArrayIndex.all(),NDArrayIndex.interval(0, 2*hiddenLayerSize));
+		INDArray wC = recurrentWeights.get(NDArrayIndex.all(),NDArrayIndex.interval(2*hiddenLayerSize,3*hiddenLayerSize));
 		
 		//Apply dropconnect to input (not recurrent) weights only:
 		if(conf.isUseDropConnect() && training) {
@@ -267,60 +257,39 @@ public class GRU extends BaseRecurrentLayer<org.deeplearning4j.nn.conf.layers.GR
 		INDArray rucZs = Nd4j.zeros(miniBatchSize,3*hiddenLayerSize,timeSeriesLength);	//zs for reset gate, update gate, candidate activation
 		INDArray rucAs = Nd4j.zeros(miniBatchSize,3*hiddenLayerSize,timeSeriesLength);	//activations for above
 		
+		//Inputs + biases for all of reset gate, update gate and candidate activation, for all time steps at once.
+		//Rows t*m to (t+1)*m-1 are for time step t; only the recurrent part is left for the loop below
+		INDArray inputZs = inputProjection(inputWeights,biases);	//Shape: [m*T,3n^L]
+		
+		//Gate buffers, reused for every time step
+		INDArray zs = (timeSeriesLength == 1 ? inputZs : Nd4j.create(new int[]{miniBatchSize,3*hiddenLayerSize},'f'));
+		INDArray as = Nd4j.create(new int[]{miniBatchSize,3*hiddenLayerSize},'f');
+		INDArray zrAndu = zs.get(NDArrayIndex.all(),NDArrayIndex.interval(0, 2*hiddenLayerSize));
+		INDArray zc = zs.get(NDArrayIndex.all(),NDArrayIndex.interval(2*hiddenLayerSize, 3*hiddenLayerSize));
+		INDArray arAndu = as.get(NDArrayIndex.all(),NDArrayIndex.interval(0, 2*hiddenLayerSize));
+		INDArray ar = as.get(NDArrayIndex.all(),NDArrayIndex.interval(0, hiddenLayerSize));
+		INDArray au = as.get(NDArrayIndex.all(),NDArrayIndex.interval(hiddenLayerSize, 2*hiddenLayerSize));
+		INDArray ac = as.get(NDArrayIndex.all(),NDArrayIndex.interval(2*hiddenLayerSize, 3*hiddenLayerSize));
+		
 		if(prevOutputActivations==null) prevOutputActivations = Nd4j.zeros(miniBatchSize,hiddenLayerSize);
 		for( int t=0; t<timeSeriesLength; t++ ){
-			INDArray prevLayerInputSlice = (is2dInput ? input : input.tensorAlongDimension(t,1,0));	//[Expected shape: [m,nIn]. Also deals with edge case of T=1, with 'time series' data of shape [m,nIn], equiv. to [m,nIn,1]
 			if(t>0) prevOutputActivations = outputActivations.tensorAlongDimension(t-1,1,0); //Shape: [m,nL]
-			
-			/* This commented out implementation: should be same as 'naive' implementation that follows.
-			 * Using naive approach at present for debugging purposes
-			 * 
-			//Calculate reset gate, update gate and candidate zs
-				//First: inputs + biases for all (reset gate, update gate, candidate activation)
-			INDArray zs = prevLayerInputSlice.mmul(inputWeights).addiRowVector(biases);	//Shape: [m,3n^L]
+			if(timeSeriesLength > 1) zs.assign(inputZs.get(NDArrayIndex.interval(t*miniBatchSize, (t+1)*miniBatchSize),NDArrayIndex.all()));
 			
 			//Recurrent weights * prevInput for reset and update gates:
-			INDArray zrAndu = zs.get(NDArrayIndex.all(),NDArrayIndex.interval(0, 2*hiddenLayerSize));
 			zrAndu.addi(prevOutputActivations.mmul(wRAndU));	//zr and zu now have all components
 			
-			INDArray as = zs.dup();
-			INDArray arAndu = as.get(NDArrayIndex.all(),NDArrayIndex.interval(0, 2*hiddenLayerSize));
+			as.assign(zs);
 			Nd4j.getExecutioner().execAndReturn(Nd4j.getOpFactory().createTransform("sigmoid", arAndu));	//Sigmoid for both reset and update gates
 			
 			//Recurrent component of candidate z: (previously: zc has only input and bias components)
-			INDArray ar = as.get(NDArrayIndex.all(),NDArrayIndex.interval(0, hiddenLayerSize));
-			INDArray zc = zs.get(NDArrayIndex.all(),NDArrayIndex.interval(2*hiddenLayerSize, 3*hiddenLayerSize));
 			zc.addi(ar.mul(prevOutputActivations).mmul(wC));
 			
-			INDArray ac = as.get(NDArrayIndex.all(),NDArrayIndex.interval(2*hiddenLayerSize, 3*hiddenLayerSize));
 			ac.assign(zc);
 			Nd4j.getExecutioner().execAndReturn(Nd4j.getOpFactory().createTransform(conf.getLayer().getActivationFunction(),ac));
 			
 			//Finally, calculate output activation:
-			INDArray au = as.get(NDArrayIndex.all(),NDArrayIndex.interval(hiddenLayerSize, 2*hiddenLayerSize));
-			INDArray outputASlice = au.mul(prevOutputActivations).addi(au.rsub(1).muli(ac));
-			*/
-			
-			INDArray zs = Nd4j.zeros(miniBatchSize,3*hiddenLayerSize);
-			INDArray as = Nd4j.zeros(miniBatchSize,3*hiddenLayerSize);
-			
-			INDArray zr = prevLayerInputSlice.mmul(wr).addi(prevOutputActivations.mmul(wR)).addiRowVector(br);
-			INDArray ar = Nd4j.getExecutioner().execAndReturn(Nd4j.getOpFactory().createTransform("sigmoid",zr.dup()));
-			zs.get(NDArrayIndex.all(),NDArrayIndex.interval(0, hiddenLayerSize)).assign(zr);
-			as.get(NDArrayIndex.all(),NDArrayIndex.interval(0, hiddenLayerSize)).assign(ar);
-			
-			INDArray zu = prevLayerInputSlice.mmul(wu).addi(prevOutputActivations.mmul(wU)).addiRowVector(bu);
-			INDArray au = Nd4j.getExecutioner().execAndReturn(Nd4j.getOpFactory().createTransform("sigmoid",zu.dup()));
-			zs.get(NDArrayIndex.all(),NDArrayIndex.interval(hiddenLayerSize, 2*hiddenLayerSize)).assign(zu);
-			as.get(NDArrayIndex.all(),NDArrayIndex.interval(hiddenLayerSize, 2*hiddenLayerSize)).assign(au);
-			
-			INDArray zc = prevLayerInputSlice.mmul(wc).addi(prevOutputActivations.mul(ar).mmul(wC)).addiRowVector(bc);
-			INDArray ac = Nd4j.getExecutioner().execAndReturn(Nd4j.getOpFactory().createTransform(conf.getLayer().getActivationFunction(),zc.dup()));
-			zs.get(NDArrayIndex.all(),NDArrayIndex.interval(2*hiddenLayerSize, 3*hiddenLayerSize)).assign(zc);
-			as.get(NDArrayIndex.all(),NDArrayIndex.interval(2*hiddenLayerSize, 3*hiddenLayerSize)).assign(ac);
-			
-			INDArray aOut = au.mul(prevOutputActivations).addi(au.rsub(1).mul(ac));
-			
+			INDArray aOut = au.mul(prevOutputActivations).addi(au.rsub(1).muli(ac));
 			
 			rucZs.tensorAlongDimension(t,1,0).assign(zs);
 			rucAs.tensorAlongDimension(t,1,0).assign(as);
@@ -341,24 +341,21 @@ public class GravesLSTM extends BaseRecurrentLayer<org.deeplearning4j.nn.conf.la
         //Extract weights and biases:
         INDArray wi = inputWeights.get(NDArrayIndex.all(), interval(0, hiddenLayerSize));    //i.e., want rows 0..nIn, columns 0..hiddenLayerSize
         INDArray wI = recurrentWeights.get(NDArrayIndex.all(), interval(0, hiddenLayerSize));
-        INDArray bi = biases.get(NDArrayIndex.point(0), interval(0, hiddenLayerSize));
 
         INDArray wf = inputWeights.get(NDArrayIndex.all(), interval(hiddenLayerSize, 2 * hiddenLayerSize));
         INDArray wF = recurrentWeights.get(NDArrayIndex.all(), interval(hiddenLayerSize, 2 * hiddenLayerSize)); //previous
         INDArray wFFTranspose = recurrentWeights.get(NDArrayIndex.all(), interval(4 * hiddenLayerSize, 4 * hiddenLayerSize + 1)).transpose(); //current
-        INDArray bf = biases.get(NDArrayIndex.point(0), interval(hiddenLayerSize, 2 * hiddenLayerSize));
 
         INDArray wo = inputWeights.get(NDArrayIndex.all(), interval(2 * hiddenLayerSize, 3 * hiddenLayerSize));
         INDArray wO = recurrentWeights.get(NDArrayIndex.all(), interval(2 * hiddenLayerSize, 3 * hiddenLayerSize)); //previous
         INDArray wOOTranspose = recurrentWeights.get(NDArrayIndex.all(), interval(4 * hiddenLayerSize + 1, 4 * hiddenLayerSize + 2)).transpose(); //current
-        INDArray bo = biases.get(NDArrayIndex.point(0), interval(2 * hiddenLayerSize, 3 * hiddenLayerSize));
 
         INDArray wg = inputWeights.get(NDArrayIndex.all(), interval(3 * hiddenLayerSize, 4 * hiddenLayerSize));
         INDArray wG = recurrentWeights.get(NDArrayIndex.all(), interval(3 * hiddenLayerSize, 4 * hiddenLayerSize)); //previous
         INDArray wGGTranspose = recurrentWeights.get(NDArrayIndex.all(), interval(4 * hiddenLayerSize + 2, 4 * hiddenLayerSize + 3)).transpose(); //previous
-        INDArray bg = biases.get(NDArrayIndex.point(0), interval(3 * hiddenLayerSize, 4 * hiddenLayerSize));
 
-        if (timeSeriesLength > 1 || forBackprop) {
+        if (forBackprop) {
+            //Per-gate weights are only used in gemms during backprop; the forward pass uses the fused IFOG weights
             wi = Shape.toMmulCompatible(wi);
             wI = Shape.toMmulCompatible(wI);
             wf = Shape.toMmulCompatible(wf);
@@ -370,10 +367,6 @@ public class GravesLSTM extends BaseRecurrentLayer<org.deeplearning4j.nn.conf.la
             wg = Shape.toMmulCompatible(wg);
             wG = Shape.toMmulCompatible(wG);
             wGGTranspose = Shape.toMmulCompatible(wGGTranspose);
-            bi = Shape.toMmulCompatible(bi);
-            bf = Shape.toMmulCompatible(bf);
-            bo = Shape.toMmulCompatible(bo);
-            bg = Shape.toMmulCompatible(bg);
         }
 
         //Allocate arrays for activations:
@@ -400,48 +393,52 @@ public class GravesLSTM extends BaseRecurrentLayer<org.deeplearning4j.nn.conf.la
         if (prevOutputActivations == null)
             prevOutputActivations = Nd4j.zeros(new int[]{miniBatchSize, hiddenLayerSize});
         if (prevMemCellState == null) prevMemCellState = Nd4j.zeros(new int[]{miniBatchSize, hiddenLayerSize});
-        for (int t = 0; t < timeSeriesLength; t++) {
-            INDArray miniBatchData = (is2dInput ? input : input.tensorAlongDimension(t, 1, 0));    //[Expected shape: [m,nIn]. Also deals with edge case of T=1, with 'time series' data of shape [m,nIn], equiv. to [m,nIn,1]
-            miniBatchData = Shape.toMmulCompatible(miniBatchData);
 
+        //Input to hidden part of all four gates doesn't depend on the recurrence, so calculate it for all time steps
+        //at once: one gemm of [m*T,nIn] x [nIn,4*hiddenLayerSize], biases included. Rows are ordered by time step,
+        //i.e., rows t*m to (t+1)*m-1 are the IFOG input projections (and biases) for time step t
+        INDArray ifogInputZs = inputProjection(inputWeights, biases);
+        //Recurrent weights for all four gates (excluding peephole connections): [hiddenLayerSize,4*hiddenLayerSize]
+        INDArray wIFOG = Shape.toMmulCompatible(recurrentWeights.get(NDArrayIndex.all(), interval(0, 4 * hiddenLayerSize)));
+
+        //One gate buffer, reused for every time step. The gates are column views of it (non-zero offset), so
+        //for backprop each gate block is copied out to an offset zero, f order array before the buffer is reused
+        INDArray ifogActivations = (timeSeriesLength == 1 ? ifogInputZs : Nd4j.create(new int[]{miniBatchSize, 4 * hiddenLayerSize}, 'f'));
+        for (int t = 0; t < timeSeriesLength; t++) {
             //Calculate activations for: network input + forget, output, input modulation gates.
-            INDArray inputActivations = miniBatchData.mmul(wi);
-            Nd4j.gemm(prevOutputActivations, wI, inputActivations, false, false, 1.0, 1.0);
-            inputActivations.addiRowVector(bi);
+            //Copy the input projection for time step t, then a single recurrent gemm for all four gates
+            if (timeSeriesLength > 1)
+                ifogActivations.assign(ifogInputZs.get(interval(t * miniBatchSize, (t + 1) * miniBatchSize), NDArrayIndex.all()));
+            Nd4j.gemm(prevOutputActivations, wIFOG, ifogActivations, false, false, 1.0, 1.0);
+
+            INDArray inputActivations = ifogActivations.get(NDArrayIndex.all(), interval(0, hiddenLayerSize));
             if (forBackprop) toReturn.iz[t] = inputActivations.dup('f');
             Nd4j.getExecutioner().execAndReturn(Nd4j.getOpFactory().createTransform(conf.getLayer().getActivationFunction(), inputActivations));
-            if (forBackprop) toReturn.ia[t] = inputActivations;
+            if (forBackprop) toReturn.ia[t] = inputActivations.dup('f');
 
-            INDArray forgetGateActivations = miniBatchData.mmul(wf);
-            Nd4j.gemm(prevOutputActivations, wF, forgetGateActivations, false, false, 1.0, 1.0);
+            INDArray forgetGateActivations = ifogActivations.get(NDArrayIndex.all(), interval(hiddenLayerSize, 2 * hiddenLayerSize));
             INDArray pmcellWFF = prevMemCellState.dup('f').muliRowVector(wFFTranspose);
-            l1BLAS.axpy(pmcellWFF.length(), 1.0, pmcellWFF, forgetGateActivations);   //y = a*x + y i.e., forgetGateActivations.addi(pmcellWFF)
-            //Above line: treats matrix as a vector. Can only do this because we're sure both pwcelWFF and forgetGateACtivations are f order, offset 0 and have same strides
-            forgetGateActivations.addiRowVector(bf);
+            forgetGateActivations.addi(pmcellWFF);
             Nd4j.getExecutioner().execAndReturn(Nd4j.getOpFactory().createTransform("sigmoid", forgetGateActivations));
-            if (forBackprop) toReturn.fa[t] = forgetGateActivations;
+            if (forBackprop) toReturn.fa[t] = forgetGateActivations.dup('f');
 
 
-            INDArray inputModGateActivations = miniBatchData.mmul(wg);
-            Nd4j.gemm(prevOutputActivations, wG, inputModGateActivations, false, false, 1.0, 1.0);
+            INDArray inputModGateActivations = ifogActivations.get(NDArrayIndex.all(), interval(3 * hiddenLayerSize, 4 * hiddenLayerSize));
             INDArray pmcellWGG = prevMemCellState.dup('f').muliRowVector(wGGTranspose);
-            l1BLAS.axpy(pmcellWGG.length(), 1.0, pmcellWGG, inputModGateActivations);   //inputModGateActivations.addi(pmcellWGG)
-            inputModGateActivations.addiRowVector(bg);
+            inputModGateActivations.addi(pmcellWGG);
             Nd4j.getExecutioner().execAndReturn(Nd4j.getOpFactory().createTransform("sigmoid", inputModGateActivations));
-            if (forBackprop) toReturn.ga[t] = inputModGateActivations;
+            if (forBackprop) toReturn.ga[t] = inputModGateActivations.dup('f');
 
             //Memory cell state
             INDArray currentMemoryCellState = forgetGateActivations.dup('f').muli(prevMemCellState);
             INDArray inputModMulInput = inputModGateActivations.dup('f').muli(inputActivations);
             l1BLAS.axpy(currentMemoryCellState.length(), 1.0, inputModMulInput, currentMemoryCellState);   //currentMemoryCellState.addi(inputModMulInput)
 
-            INDArray outputGateActivations = miniBatchData.mmul(wo);
-            Nd4j.gemm(prevOutputActivations, wO, outputGateActivations, false, false, 1.0, 1.0);
+            INDArray outputGateActivations = ifogActivations.get(NDArrayIndex.all(), interval(2 * hiddenLayerSize, 3 * hiddenLayerSize));
             INDArray pmcellWOO = currentMemoryCellState.dup('f').muliRowVector(wOOTranspose);
-            l1BLAS.axpy(pmcellWOO.length(), 1.0, pmcellWOO, outputGateActivations);   //outputGateActivations.addi(pmcellWOO)
-            outputGateActivations.addiRowVector(bo);
+            outputGateActivations.addi(pmcellWOO);
             Nd4j.getExecutioner().execAndReturn(Nd4j.getOpFactory().createTransform("sigmoid", outputGateActivations));
-            if (forBackprop) toReturn.oa[t] = outputGateActivations;
+            if (forBackprop) toReturn.oa[t] = outputGateActivations.dup('f');
 
             //LSTM unit outputs:
             INDArray currMemoryCellActivation = Nd4j.getExecutioner().execAndReturn(Nd4j.getOpFactory().createTransform(conf.getLayer().getActivationFunction(), currentMemoryCellState.dup('f')));
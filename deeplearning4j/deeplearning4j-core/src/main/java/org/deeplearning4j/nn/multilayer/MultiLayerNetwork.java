@@ -38,6 +38,8 @@ import org.deeplearning4j.optimize.Solver;
 import org.deeplearning4j.optimize.api.ConvexOptimizer;
 import org.deeplearning4j.optimize.api.IterationListener;
 import org.deeplearning4j.util.MultiLayerUtil;
+import org.nd4j.linalg.api.buffer.allocation.BufferWorkspace;
+import org.nd4j.linalg.api.buffer.factory.PooledDataBufferFactory;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.dataset.DataSet;
 import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
@@ -81,6 +83,9 @@ public class MultiLayerNetwork implements Serializable, Classifier, Layer {
     protected Gradient gradient;
     protected double score;
     private INDArray params;
+    //flat gradient buffer matching the layout of params; only set when params are redistributed as views
+    private INDArray flattenedGradients;
+    private Map<String,INDArray> gradientViews;
     /*
       Binary drop connect mask
      */
@@ -416,31 +421,62 @@ public class MultiLayerNetwork implements Serializable, Classifier, Layer {
 
     /**
      * Redistribute parameters handles
-     * having parameters as a view
+     * having parameters as a view.
+     * Each layer's parameters become views of one
+     * flat parameter vector, and a flat gradient vector with the
+     * same layout is allocated for {@link #backprop()} to write in to.
+     * With this, {@link #params()}, {@link #setParams(INDArray)}
+     * and {@link Gradient#gradient()} no longer copy the model.
      */
     public void reDistributeParams() {
         List<INDArray> params = new ArrayList<>();
         for(Layer l : layers) {
-            INDArray paramsForL = l.params();
-            params.add(paramsForL);
+            if(l.numParams() > 0)
+                params.add(l.params());
         }
 
         this.params = Nd4j.toFlattened('f', params);
+        this.flattenedGradients = Nd4j.zeros(1, this.params.length());
+        this.gradientViews = new LinkedHashMap<>();
         int idx = 0;
-        for(Layer l : layers) {
-            INDArray paramsForL = l.params();
-            params.add(paramsForL);
+        for(int i = 0; i < layers.length; i++) {
+            Layer l = layers[i];
             int range = l.numParams();
-            INDArray get = this.params.get(NDArrayIndex.point(0),NDArrayIndex.interval(idx, range + idx));
-            if (get.length() < 1)
+            if (range < 1)
                 continue;
+            INDArray get = this.params.get(NDArrayIndex.point(0),NDArrayIndex.interval(idx, range + idx));
             l.setParams(get);
+
+            //gradient views follow the same (param table, 'f') layout as the parameter views
+            int gradIdx = idx;
+            for(Map.Entry<String,INDArray> entry : l.paramTable().entrySet()) {
+                INDArray param = entry.getValue();
+                INDArray view = flattenedGradients.get(NDArrayIndex.point(0),NDArrayIndex.interval(gradIdx, gradIdx + param.length()));
+                gradientViews.put(i + "_" + entry.getKey(), view.reshape('f', param.shape()));
+                gradIdx += param.length();
+            }
             idx += range;
         }
 
 
     }
 
+    /**
+     * Create the gradient for a backward pass.
+     * When parameters are redistributed this is
+     * backed by the flat gradient buffer, which is
+     * zeroed and reused on every call.
+     * @return the gradient to populate
+     */
+    protected Gradient newGradient() {
+        if(flattenedGradients == null)
+            return new DefaultGradient();
+        flattenedGradients.assign(0.0);
+        DefaultGradient ret = new DefaultGradient(flattenedGradients);
+        ret.gradientForVariable().putAll(gradientViews);
+        return ret;
+    }
+
     /**
      * Sets the input and labels from this dataset
      *
@@ -830,7 +866,12 @@ public class MultiLayerNetwork implements Serializable, Classifier, Layer {
      */
     @Override
     public void setParams(INDArray params) {
-        if(this.params != null) this.params = params;  //not null if isRedistributeParams
+        if(this.params != null) {
+            //not null if isRedistributeParams: layers hold views of this.params, so copy in place
+            if(params != this.params)
+                this.params.assign(params);
+            return;
+        }
         int idx = 0;
         for (int i = 0; i < getLayers().length; i++) {
             Layer layer = getLayer(i);
@@ -1039,21 +1080,68 @@ public class MultiLayerNetwork implements Serializable, Classifier, Layer {
                 else {
                     setInput(next.getFeatureMatrix());
                     setLabels(next.getLabels());
+                    //the first minibatch lazily creates state that outlives it (solver, updater history),
+                    //so only later minibatches run in a workspace
+                    boolean firstMinibatch = solver == null;
                     if( solver == null ){
                         solver = new Solver.Builder()
                                 .configure(conf())
                                 .listeners(getListeners())
                                 .model(this).build();
                     }
-                    solver.optimize();
+                    BufferWorkspace workspace = !firstMinibatch && useIterationWorkspace() ? BufferWorkspace.open() : null;
+                    try {
+                        solver.optimize();
+                        if(workspace != null)
+                            persistMinibatchState();
+                    } finally {
+                        if(workspace != null)
+                            workspace.close();
+                    }
                 }
             }
         }
     }
 
+    /**
+     * Keep the arrays the network and its layers hold on to from the
+     * minibatch just fit (the layer inputs) out of the workspace it is fit in,
+     * so that {@link #getInput()} and activating the layers still work after fitting.
+     * Each minibatch replaces them, so only the last minibatch's are kept.
+     */
+    private void persistMinibatchState() {
+        persist(input);
+        persist(labels);
+        persist(mask);
+        for(Layer layer : getLayers())
+            persist(layer.input());
+    }
+
+    private static void persist(INDArray arr) {
+        if(arr != null)
+            arr.data().persist();
+    }
+
+    /**
+     * Whether temporary arrays allocated while fitting a minibatch can be
+     * released in bulk when it is done. This requires a pooled data buffer factory,
+     * and flat (redistributed) params so that params and gradients live in
+     * buffers allocated outside of the minibatch and are updated in place.
+     * The arrays the layers hold on to from the last minibatch are persisted
+     * (see {@link #persistMinibatchState()}); everything else is released.
+     * Only stochastic gradient descent qualifies: the line search optimizers
+     * (conjugate gradient, LBFGS, line gradient descent) keep search directions,
+     * gradients and params from one minibatch to the next.
+     * @return true if minibatches are fit in a {@link BufferWorkspace}
+     */
+    protected boolean useIterationWorkspace() {
+        return flattenedGradients != null && Nd4j.getDataBufferFactory() instanceof PooledDataBufferFactory
+                && conf().getOptimizationAlgo() == OptimizationAlgorithm.STOCHASTIC_GRADIENT_DESCENT;
+    }
+
     protected void backprop() {
         String multiGradientKey;
-        gradient = new DefaultGradient();
+        gradient = newGradient();
         Layer currLayer;
 
         if(!(getOutputLayer() instanceof BaseOutputLayer)) {
@@ -1175,7 +1263,7 @@ public class MultiLayerNetwork implements Serializable, Classifier, Layer {
     /** Equivalent to backprop(), but calculates gradient for truncated BPTT instead. */
     protected void truncatedBPTTGradient(){
         String multiGradientKey;
-        gradient = new DefaultGradient();
+        gradient = newGradient();
         Layer currLayer;
 
         if(!(getOutputLayer() instanceof BaseOutputLayer)) {
@@ -1694,6 +1782,10 @@ public class MultiLayerNetwork implements Serializable, Classifier, Layer {
      * @param params a parameter vector equal 1,numParameters
      */
     public void setParameters(INDArray params) {
+        if(this.params != null) {
+            setParams(params);
+            return;
+        }
         int idx = 0;
         for (int i = 0; i < getLayers().length; i++) {
             Layer layer = getLayer(i);
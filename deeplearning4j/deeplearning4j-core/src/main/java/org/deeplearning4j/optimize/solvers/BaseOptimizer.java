@@ -140,11 +140,13 @@ public abstract class BaseOptimizer implements ConvexOptimizer {
         model.validateInput();
         Pair<Gradient,Double> pair = gradientAndScore();
         score = pair.getSecond();
+        //gradient() and params() may be buffers reused by the model (see MultiLayerNetwork.reDistributeParams()),
+        //so the search state keeps its own copies
         if(searchState.isEmpty()){
-        	searchState.put(GRADIENT_KEY, pair.getFirst().gradient());
+        	searchState.put(GRADIENT_KEY, pair.getFirst().gradient().dup());
         	setupSearchState(pair);		//Only do this once
         } else {
-        	searchState.put(GRADIENT_KEY, pair.getFirst().gradient());
+        	searchState.put(GRADIENT_KEY, pair.getFirst().gradient().dup());
         }
 
         //pre existing termination conditions
@@ -187,7 +189,7 @@ public abstract class BaseOptimizer implements ConvexOptimizer {
             pair = gradientAndScore();
 
             //updates searchDirection
-            postStep(pair.getFirst().gradient());
+            postStep(pair.getFirst().gradient().dup());
             score = pair.getSecond();
 
             //invoke listeners for debugging
@@ -261,7 +263,7 @@ public abstract class BaseOptimizer implements ConvexOptimizer {
     @Override
     public  void setupSearchState(Pair<Gradient, Double> pair) {
         INDArray gradient = pair.getFirst().gradient(conf.variables());
-        INDArray params = model.params();
+        INDArray params = model.params().dup();
         searchState.put(GRADIENT_KEY,gradient);
         searchState.put(SCORE_KEY,pair.getSecond());
         searchState.put(PARAMS_KEY,params);
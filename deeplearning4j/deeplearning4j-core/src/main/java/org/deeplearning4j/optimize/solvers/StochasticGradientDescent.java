@@ -58,7 +58,7 @@ public class StochasticGradientDescent extends BaseOptimizer {
 
             INDArray params = model.params();
             stepFunction.step(params,gradient.gradient());
-            model.setParams(params);    //params() may not be in-place
+            model.setParams(params);    //params() may not be in-place; no-op when params are views
 
             for(IterationListener listener : iterationListeners)
                 listener.iterationDone(model, i);
@@ -21,12 +21,12 @@ package org.deeplearning4j.plot;
 
 import static org.nd4j.linalg.ops.transforms.Transforms.*;
 
-import com.google.common.util.concurrent.AtomicDouble;
 import org.apache.commons.math3.util.FastMath;
 import org.deeplearning4j.berkeley.Pair;
-import org.deeplearning4j.clustering.sptree.DataPoint;
+import org.deeplearning4j.clustering.ann.Neighbors;
+import org.deeplearning4j.clustering.ann.PrimitiveVPTree;
+import org.deeplearning4j.clustering.ann.VectorStore;
 import org.deeplearning4j.clustering.sptree.SpTree;
-import org.deeplearning4j.clustering.vptree.VPTree;
 import org.deeplearning4j.nn.api.Model;
 import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
 import org.deeplearning4j.nn.gradient.DefaultGradient;
@@ -47,6 +47,8 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 import static org.nd4j.linalg.factory.Nd4j.ones;
 import static org.nd4j.linalg.factory.Nd4j.randn;
@@ -62,15 +64,18 @@ import static org.nd4j.linalg.factory.Nd4j.zeros;
 public class BarnesHutTsne extends Tsne implements Model {
     private int N;
     private double theta;
-    private INDArray rows;
-    private INDArray cols;
-    private INDArray vals;
+    //the sparse input similarities in compressed sparse row form
+    private int[] rowP;
+    private int[] colP;
+    private double[] valP;
     private String simiarlityFunction = "cosinesimilarity";
     private boolean invert = true;
     private INDArray x;
     private int numDimensions = 0;
     public final static String Y_GRAD = "yIncs";
-    private SpTree tree;
+    /** Rows per task when work is split over points */
+    public final static int CHUNK_SIZE = 256;
+    private static final ForkJoinPool POOL = new ForkJoinPool();
 
     public BarnesHutTsne(INDArray x,
                          INDArray y,
@@ -155,6 +160,11 @@ public class BarnesHutTsne extends Tsne implements Model {
     /**
      * Convert data to probability
      * co-occurrences (aka calculating the kernel)
+     *
+     * The nearest neighbors of each point are found with a
+     * {@link PrimitiveVPTree} (euclidean, on unit length rows for cosine similarity)
+     * and the beta of each point is found by binary search;
+     * both run in parallel over chunks of rows.
      * @param d the data to convert
      * @param u the perplexity of the model
      * @return the probabilities of co-occurrence
@@ -163,88 +173,106 @@ public class BarnesHutTsne extends Tsne implements Model {
     public INDArray computeGaussianPerplexity(final INDArray d,  double u) {
         N = d.rows();
 
-        final int k = (int) (3 * u);
+        final int k = Math.min((int) (3 * u), N - 1);
         if(u > k)
             throw new IllegalStateException("Illegal k value " + k + "greater than " + u);
 
-
-        rows = zeros(N + 1);
-        cols = zeros(N * k);
-        vals = zeros(N * k);
-
+        rowP = new int[N + 1];
+        colP = new int[N * k];
+        valP = new double[N * k];
         for(int n = 0; n < N; n++)
-            rows.putScalar(n + 1,rows.getDouble(n) + k);
-
-
-        final INDArray beta =  ones(N, 1);
+            rowP[n + 1] = rowP[n] + k;
 
         final double logU =  FastMath.log(u);
-        VPTree tree = new VPTree(d,simiarlityFunction,invert);
+        final VectorStore vectors = VectorStore.fromRows(d, "cosinesimilarity".equals(simiarlityFunction));
+        final PrimitiveVPTree tree = new PrimitiveVPTree(vectors);
 
         log.info("Calculating probabilities of data similarities...");
-        for(int i = 0; i < N; i++) {
-            if(i % 500 == 0)
-                log.info("Handled " + i + " records");
-
-            double betaMin = -Double.MAX_VALUE;
-            double betaMax = Double.MAX_VALUE;
-            List<DataPoint> results = new ArrayList<>();
-            tree.search(new DataPoint(i,d.slice(i)),k + 1,results,new ArrayList<Double>());
-            double betas = beta.getDouble(i);
-
-            INDArray cArr = VPTree.buildFromData(results);
-            Pair<INDArray,Double> pair =  computeGaussianKernel(cArr, beta.getDouble(i),k);
-            INDArray currP = pair.getFirst();
-            double hDiff =  pair.getSecond() - logU;
-            int tries = 0;
-            boolean found = false;
-            //binary search
-            while(!found && tries < 200) {
-                if(hDiff < tolerance && -hDiff < tolerance)
-                    found = true;
-                else {
-                    if(hDiff > 0) {
-                        betaMin = betas;
-
-                        if(betaMax == Double.MAX_VALUE || betaMax == -Double.MAX_VALUE)
-                            betas *= 2;
-                        else
-                            betas = (betas + betaMax) / 2.0;
-                    }
-                    else {
-                        betaMax = betas;
-                        if(betaMin == -Double.MAX_VALUE || betaMin == Double.MAX_VALUE)
-                            betas /= 2.0;
-                        else
-                            betas = (betas + betaMin) / 2.0;
+        POOL.invoke(new RowChunks(0, N) {
+            @Override
+            double rows(int start, int end) {
+                double[] distances = new double[k];
+                double[] currP = new double[k];
+                for(int i = start; i < end; i++) {
+                    //k + 1 to allow for the point itself
+                    Neighbors neighbors = tree.search(vectors.get(i), k + 1);
+                    int[] indices = neighbors.getIndices();
+                    float[] neighborDistances = neighbors.getDistances();
+                    int found = 0;
+                    for(int j = 0; j < indices.length && found < k; j++) {
+                        if(indices[j] == i)
+                            continue;
+                        colP[rowP[i] + found] = indices[j];
+                        distances[found] = (double) neighborDistances[j] * neighborDistances[j];
+                        found++;
                     }
 
-                    pair = computeGaussianKernel(cArr, betas,k);
-                    hDiff = pair.getSecond() - logU;
-                    tries++;
+                    searchBeta(distances, currP, logU);
+                    double sum = 0;
+                    for(int j = 0; j < k; j++)
+                        sum += currP[j];
+                    for(int j = 0; j < k; j++)
+                        valP[rowP[i] + j] = currP[j] / sum;
                 }
-
+                return 0;
             }
+        });
+        return Nd4j.create(valP);
 
+    }
 
-            currP.divi(currP.sum(Integer.MAX_VALUE));
-            INDArray indices = Nd4j.create(k + 1);
-            for(int j = 0; j < indices.length(); j++) {
-                if(j >= results.size())
-                    break;
-                indices.putScalar(j, results.get(j).getIndex());
+    /**
+     * Binary search for the beta giving the target entropy
+     * @param distances the squared distances to the neighbors
+     * @param currP the (unnormalized) kernel for the beta found
+     * @param logU the log of the perplexity
+     * @return the beta
+     */
+    private double searchBeta(double[] distances, double[] currP, double logU) {
+        double betaMin = -Double.MAX_VALUE;
+        double betaMax = Double.MAX_VALUE;
+        double beta = 1.0;
+        double hDiff = gaussianKernel(distances, beta, currP) - logU;
+        int tries = 0;
+        while(tries < 200 && (hDiff >= tolerance || -hDiff >= tolerance)) {
+            if(hDiff > 0) {
+                betaMin = beta;
+                if(betaMax == Double.MAX_VALUE || betaMax == -Double.MAX_VALUE)
+                    beta *= 2;
+                else
+                    beta = (beta + betaMax) / 2.0;
             }
-
-            for(int l = 0; l < k; l++) {
-                cols.putScalar(rows.getInt(i) + l,indices.getDouble(l + 1));
-                vals.putScalar(rows.getInt(i) + l,currP.getDouble(l));
+            else {
+                betaMax = beta;
+                if(betaMin == -Double.MAX_VALUE || betaMin == Double.MAX_VALUE)
+                    beta /= 2.0;
+                else
+                    beta = (beta + betaMin) / 2.0;
             }
 
-
-
+            hDiff = gaussianKernel(distances, beta, currP) - logU;
+            tries++;
         }
-        return vals;
+        return beta;
+    }
 
+    /**
+     * Gaussian kernel row for the given squared distances
+     * @param distances the squared distances
+     * @param beta the precision
+     * @param currP the kernel values
+     * @return the entropy of the (normalized) kernel row
+     */
+    private static double gaussianKernel(double[] distances, double beta, double[] currP) {
+        double sum = Double.MIN_VALUE;
+        for(int m = 0; m < distances.length; m++) {
+            currP[m] = FastMath.exp(-beta * distances[m]);
+            sum += currP[m];
+        }
+        double h = 0.0;
+        for(int m = 0; m < distances.length; m++)
+            h += beta * distances[m] * currP[m];
+        return (h / sum) + FastMath.log(sum);
     }
 
     @Override
@@ -309,85 +337,111 @@ public class BarnesHutTsne extends Tsne implements Model {
      * @return
      */
     public INDArray symmetrized(INDArray rowP,INDArray colP,INDArray valP) {
-        INDArray rowCounts = Nd4j.create(N);
-        for(int n = 0; n < N; n++) {
-            int begin = rowP.getInt(n);
-            int end = rowP.getInt(n + 1);
-            for(int i = begin; i < end; i++) {
-                boolean present = false;
-                for(int m = rowP.getInt(colP.getInt(i)); m < rowP.getInt(colP.getInt(i) + 1); m++)
-                    if(colP.getInt(m) == n) {
-                        present = true;
-                    }
-
-
-                if(present)
-                    rowCounts.putScalar(n,rowCounts.getDouble(n) + 1);
+        int[] rows = new int[rowP.length()];
+        for(int i = 0; i < rows.length; i++)
+            rows[i] = rowP.getInt(i);
+        int[] cols = new int[colP.length()];
+        double[] vals = new double[valP.length()];
+        for(int i = 0; i < cols.length; i++) {
+            cols[i] = colP.getInt(i);
+            vals[i] = valP.getDouble(i);
+        }
+        return Nd4j.create(symmetrize(rows.length - 1, rows, cols, vals).vals);
+    }
 
-                else {
-                    rowCounts.putScalar(n,rowCounts.getDouble(n) + 1);
-                    rowCounts.putScalar(colP.getInt(i),rowCounts.getDouble(colP.getInt(i)) + 1);
+    /**
+     * Symmetrize a sparse matrix: the value of (n,m) and (m,n) become
+     * (P(n,m) + P(m,n)) / 2
+     * @param n the number of rows
+     * @param rowP the row offsets
+     * @param colP the columns
+     * @param valP the values
+     * @return the symmetric matrix
+     */
+    static SparseRows symmetrize(int n, int[] rowP, int[] colP, double[] valP) {
+        //each row's positions, sorted by column, to look up the transposed entries
+        final int[] sorted = new int[colP.length];
+        for(int i = 0; i < n; i++) {
+            //rows are short, insertion sort
+            for(int j = rowP[i]; j < rowP[i + 1]; j++) {
+                int position = j;
+                int m = j - 1;
+                while(m >= rowP[i] && colP[sorted[m]] > colP[position]) {
+                    sorted[m + 1] = sorted[m];
+                    m--;
                 }
+                sorted[m + 1] = position;
             }
         }
 
+        int[] rowCounts = new int[n];
+        for(int row = 0; row < n; row++) {
+            for(int i = rowP[row]; i < rowP[row + 1]; i++) {
+                rowCounts[row]++;
+                if(find(rowP, colP, sorted, colP[i], row) < 0)
+                    rowCounts[colP[i]]++;
+            }
+        }
 
-        int numElements = rowCounts.sum(Integer.MAX_VALUE).getInt(0);
-        INDArray offset = Nd4j.create(N);
-        INDArray symRowP = Nd4j.create(N + 1);
-        INDArray symColP = Nd4j.create(numElements);
-        INDArray symValP = Nd4j.create(numElements);
-
-        for(int n = 0; n < N; n++)
-            symRowP.putScalar(n + 1,symRowP.getDouble(n) + rowCounts.getDouble(n));
-
-
-
-
-        for(int n = 0; n < N; n++) {
-            for(int i = rowP.getInt(n); i < rowP.getInt(n + 1); i++) {
-                boolean present = false;
-                for(int m = rowP.getInt(colP.getInt(i)); m < rowP.getInt(colP.getInt(i)) + 1; m++) {
-                    if(colP.getInt(m) == n) {
-                        present = true;
-                        if(n < colP.getInt(i)) {
-                            // make sure we do not add elements twice
-                            symColP.putScalar(symRowP.getInt(n) + offset.getInt(n),colP.getInt(i));
-                            symColP.putScalar(symRowP.getInt(colP.getInt(i)) + offset.getInt(colP.getInt(i)), n);
-                            symValP.putScalar(symRowP.getInt(n) + offset.getInt(n),valP.getDouble(i) + valP.getDouble(m));
-                            symValP.putScalar(symRowP.getInt(colP.getInt(i)) + offset.getInt(colP.getInt(i)) ,valP.getDouble(i) + valP.getDouble(m));
-                        }
-                    }
-                }
-
-                // If (colP[i], n) is not present, there is no addition involved
-                if(!present) {
-                    int colPI = colP.getInt(i);
-                    if(n < colPI) {
-                        symColP.putScalar(symRowP.getInt(n) + offset.getInt(n), colPI);
-                        symColP.putScalar(symRowP.getInt(colP.getInt(i)) + offset.getInt(colPI),n);
-                        symValP.putScalar(symRowP.getInt(n) + offset.getInt(n),valP.getDouble(i));
-                        symValP.putScalar(symRowP.getInt(colPI) + offset.getInt(colPI),valP.getDouble(i));
-                    }
-
-                }
-
-                // Update offsets
-                if(!present || (present && n < colP.getInt(i))) {
-                    offset.putScalar(n,offset.getInt(n)+ 1);
-                    int colPI = colP.getInt(i);
-                    if(colPI != n)
-                        offset.putScalar(colPI,offset.getDouble(colPI) + 1);
+        SparseRows ret = new SparseRows(n);
+        for(int row = 0; row < n; row++)
+            ret.rows[row + 1] = ret.rows[row] + rowCounts[row];
+        ret.cols = new int[ret.rows[n]];
+        ret.vals = new double[ret.rows[n]];
+
+        int[] offset = new int[n];
+        for(int row = 0; row < n; row++) {
+            for(int i = rowP[row]; i < rowP[row + 1]; i++) {
+                int col = colP[i];
+                int m = find(rowP, colP, sorted, col, row);
+                //entries present both ways are added once, from the lower row
+                if(m >= 0 && row > col)
+                    continue;
+                double val = m >= 0 ? valP[i] + valP[m] : valP[i];
+                ret.cols[ret.rows[row] + offset[row]] = col;
+                ret.vals[ret.rows[row] + offset[row]] = val;
+                offset[row]++;
+                if(col != row) {
+                    ret.cols[ret.rows[col] + offset[col]] = row;
+                    ret.vals[ret.rows[col] + offset[col]] = val;
+                    offset[col]++;
                 }
             }
         }
 
-        // Divide the result by two
-        symValP.divi(2.0);
-
-
-        return symValP;
+        for(int i = 0; i < ret.vals.length; i++)
+            ret.vals[i] /= 2.0;
+        return ret;
+    }
 
+    //replace the input similarities with their symmetrized version
+    void symmetrizeInput() {
+        SparseRows symmetric = symmetrize(N, rowP, colP, valP);
+        rowP = symmetric.rows;
+        colP = symmetric.cols;
+        valP = symmetric.vals;
+    }
+
+    //the current input similarities; the arrays are shared, not copied
+    SparseRows inputSimilarities() {
+        return new SparseRows(rowP, colP, valP);
+    }
+
+    //the position of column col in the given row, or -1
+    private static int find(int[] rowP, int[] colP, int[] sorted, int row, int col) {
+        int lo = rowP[row];
+        int hi = rowP[row + 1] - 1;
+        while(lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int c = colP[sorted[mid]];
+            if(c < col)
+                lo = mid + 1;
+            else if(c > col)
+                hi = mid - 1;
+            else
+                return sorted[mid];
+        }
+        return -1;
     }
 
     /**
@@ -429,16 +483,22 @@ public class BarnesHutTsne extends Tsne implements Model {
 
 
             computeGaussianPerplexity(x,perplexity);
-            vals = symmetrized(rows, cols, vals).divi(vals.sum(Integer.MAX_VALUE));
-            //lie about gradient
-            vals.muli(12);
+            symmetrizeInput();
+            double sum = 0;
+            for(double val : valP)
+                sum += val;
+            //normalize and lie about gradient
+            for(int i = 0; i < valP.length; i++)
+                valP[i] *= 12 / sum;
             for(int i = 0; i < maxIter; i++) {
-                step(vals,i);
+                //the gradient reads the similarities straight from valP
+                step(null,i);
 
                 if(i == switchMomentumIteration)
                     momentum = finalMomentum;
                 if(i == stopLyingIteration)
-                    vals.divi(12);
+                    for(int j = 0; j < valP.length; j++)
+                        valP[j] /= 12;
 
 
                 if(iterationListener != null)
@@ -454,8 +514,8 @@ public class BarnesHutTsne extends Tsne implements Model {
 
     /**
      * An individual iteration
-     * @param p the probabilities that certain points
-     *          are near each other
+     * @param p ignored: the probabilities that points are near each other
+     *          are the sparse similarities computed by {@link #fit()}
      * @param i the iteration (primarily for debugging purposes)
      */
     @Override
@@ -541,32 +601,85 @@ public class BarnesHutTsne extends Tsne implements Model {
     @Override
     public double score() {
         // Get estimate of normalization term
-        INDArray buff = Nd4j.create(numDimensions);
-        AtomicDouble sum_Q = new AtomicDouble(0.0);
-        for(int n = 0; n < N; n++)
-            tree.computeNonEdgeForces(n, theta, buff, sum_Q);
+        double[] points = points();
+        double sumQ = nonEdgeForces(points, new double[points.length]);
 
         // Loop over all edges to compute t-SNE error
         double C = .0;
-        INDArray linear = y;
         for(int n = 0; n < N; n++) {
-            int begin = rows.getInt(n);
-            int end = rows.getInt(n + 1);
-            int ind1 = n;
-            for(int i = begin; i < end; i++) {
-                int ind2 = cols.getInt(i);
-                buff.assign(linear.slice(ind1));
-                buff.subi(linear.slice(ind2));
-
-                double Q = pow(buff,2).sum(Integer.MAX_VALUE).getDouble(0);
-                Q = (1.0 / (1.0 + Q)) / sum_Q.doubleValue();
-                C += vals.getDouble(i) * FastMath.log(vals.getDouble(i) + Nd4j.EPS_THRESHOLD) / (Q + Nd4j.EPS_THRESHOLD);
+            for(int i = rowP[n]; i < rowP[n + 1]; i++) {
+                double Q = squaredDistance(points, n, colP[i]);
+                Q = (1.0 / (1.0 + Q)) / sumQ;
+                //as in the reference implementation, only guard against zero; a larger epsilon swamps small similarities
+                C += valP[i] * FastMath.log((valP[i] + Float.MIN_NORMAL) / (Q + Float.MIN_NORMAL));
             }
         }
 
         return C;
     }
 
+    //y, row after row
+    private double[] points() {
+        int columns = y.columns();
+        double[] ret = new double[N * columns];
+        for(int i = 0; i < N; i++)
+            for(int j = 0; j < columns; j++)
+                ret[i * columns + j] = y.getDouble(i, j);
+        return ret;
+    }
+
+    private double squaredDistance(double[] points, int a, int b) {
+        int columns = points.length / N;
+        double ret = 0;
+        for(int d = 0; d < columns; d++) {
+            double diff = points[a * columns + d] - points[b * columns + d];
+            ret += diff * diff;
+        }
+        return ret;
+    }
+
+    /**
+     * Barnes hut approximation of the repulsive forces, in parallel over points
+     * @param points y, row after row
+     * @param negF the forces, row after row
+     * @return the normalization term (sum of q)
+     */
+    private double nonEdgeForces(final double[] points, final double[] negF) {
+        final SpTree tree = new SpTree(y);
+        return POOL.invoke(new RowChunks(0, N) {
+            @Override
+            double rows(int start, int end) {
+                double sumQ = 0;
+                for(int n = start; n < end; n++)
+                    sumQ += tree.computeNonEdgeForces(n, theta, points, negF);
+                return sumQ;
+            }
+        });
+    }
+
+    /**
+     * Attractive forces along the edges of the sparse similarities, in parallel over points
+     * @param points y, row after row
+     * @param posF the forces, row after row
+     */
+    private void edgeForces(final double[] points, final double[] posF) {
+        final int columns = points.length / N;
+        POOL.invoke(new RowChunks(0, N) {
+            @Override
+            double rows(int start, int end) {
+                for(int n = start; n < end; n++) {
+                    for(int i = rowP[n]; i < rowP[n + 1]; i++) {
+                        double mult = valP[i] / (1.0 + squaredDistance(points, n, colP[i]));
+                        int other = colP[i] * columns;
+                        for(int d = 0; d < columns; d++)
+                            posF[n * columns + d] += mult * (points[n * columns + d] - points[other + d]);
+                    }
+                }
+                return 0;
+            }
+        });
+    }
+
     @Override
     public void computeGradientAndScore() {
 
@@ -616,20 +729,16 @@ public class BarnesHutTsne extends Tsne implements Model {
         if(gains == null)
             gains = ones(y.shape());
 
-        AtomicDouble sumQ = new AtomicDouble(0);
         /* Calculate gradient based on barnes hut approximation with positive and negative forces */
-        INDArray posF = Nd4j.create(y.shape());
-        INDArray negF = Nd4j.create(y.shape());
-        if(tree == null)
-            tree = new SpTree(y);
-        tree.computeEdgeForces(rows,cols,vals,N,posF);
-
-        for(int n = 0; n < N; n++)
-            tree.computeNonEdgeForces(n,theta,negF.slice(n),sumQ);
-
-
-        INDArray dC = posF.subi(negF.divi(sumQ));
-
+        double[] points = points();
+        double[] posF = new double[points.length];
+        double[] negF = new double[points.length];
+        edgeForces(points, posF);
+        double sumQ = nonEdgeForces(points, negF);
+        for(int i = 0; i < posF.length; i++)
+            posF[i] -= negF[i] / sumQ;
+
+        INDArray dC = Nd4j.create(posF, y.shape());
         Gradient ret = new DefaultGradient();
         ret.gradientForVariable().put(Y_GRAD,dC);
         return ret;
@@ -656,6 +765,62 @@ public class BarnesHutTsne extends Tsne implements Model {
     }
 
 
+    /**
+     * A sparse matrix in compressed sparse row form
+     */
+    static class SparseRows {
+        final int[] rows;
+        int[] cols;
+        double[] vals;
+
+        SparseRows(int n) {
+            this.rows = new int[n + 1];
+        }
+
+        SparseRows(int[] rows, int[] cols, double[] vals) {
+            this.rows = rows;
+            this.cols = cols;
+            this.vals = vals;
+        }
+    }
+
+    /**
+     * Splits a range of points in to chunks and sums a value over them
+     */
+    private abstract static class RowChunks extends RecursiveTask<Double> {
+        private final int start;
+        private final int end;
+
+        RowChunks(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        abstract double rows(int start, int end);
+
+        @Override
+        protected Double compute() {
+            if(end - start <= CHUNK_SIZE)
+                return rows(start, end);
+            List<RecursiveTask<Double>> tasks = new ArrayList<>();
+            for(int i = start; i < end; i += CHUNK_SIZE) {
+                final int chunkStart = i;
+                final int chunkEnd = Math.min(end, i + CHUNK_SIZE);
+                tasks.add(new RecursiveTask<Double>() {
+                    @Override
+                    protected Double compute() {
+                        return rows(chunkStart, chunkEnd);
+                    }
+                });
+            }
+            double ret = 0;
+            for(RecursiveTask<Double> task : invokeAll(tasks))
+                ret += task.join();
+            return ret;
+        }
+    }
+
+
     public static class Builder extends  Tsne.Builder {
         private double theta = 0.0;
         private boolean invert = true;
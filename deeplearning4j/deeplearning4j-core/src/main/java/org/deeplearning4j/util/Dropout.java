@@ -32,7 +32,8 @@ public class Dropout {
     public static INDArray applyDropout(INDArray input,double dropout,INDArray dropoutMask) {
         if(dropoutMask == null || !Shape.shapeEquals(input.shape(), dropoutMask.shape())) {
             dropoutMask = Nd4j.getDistributions().createBinomial(1,dropout).sample(input.shape()).divi(dropout);
-
+            //reused by later minibatches, so it has to outlive the workspace it may be created in
+            dropoutMask.data().persist();
         }
 
 
@@ -0,0 +1,163 @@
+package org.deeplearning4j.clustering.ann;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Measures the recall and latency of a {@link NearestNeighborIndex}
+ * against an exact linear scan of the same vectors.
+ *
+ * Recall is the fraction of the true k nearest neighbors that the
+ * index returns, averaged over the queries.
+ *
+ * @author Adam Gibson
+ */
+public class NearestNeighborBenchmark {
+    private static Logger log = LoggerFactory.getLogger(NearestNeighborBenchmark.class);
+
+    private NearestNeighborBenchmark() {
+    }
+
+    /**
+     * Run every query against the index and against an exact scan
+     * @param index the index to measure
+     * @param queries the query vectors
+     * @param k the number of neighbors per query
+     * @return the recall and latencies
+     */
+    public static Result run(NearestNeighborIndex index, float[][] queries, int k) {
+        VectorStore vectors = index.vectors();
+        long[] indexNanos = new long[queries.length];
+        long exactNanos = 0;
+        double recall = 0;
+        for(int q = 0; q < queries.length; q++) {
+            long start = System.nanoTime();
+            Neighbors approximate = index.search(queries[q], k);
+            indexNanos[q] = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            Neighbors exact = vectors.exactSearch(queries[q], k);
+            exactNanos += System.nanoTime() - start;
+
+            recall += recall(exact, approximate);
+        }
+
+        Arrays.sort(indexNanos);
+        long total = 0;
+        for(long nanos : indexNanos)
+            total += nanos;
+        int n = Math.max(1, queries.length);
+        return new Result(recall / n, total / (double) n, percentile(indexNanos, 0.5),
+                percentile(indexNanos, 0.99), exactNanos / (double) n);
+    }
+
+    /**
+     * Fraction of the exact neighbors present in the approximate result
+     */
+    public static double recall(Neighbors exact, Neighbors approximate) {
+        if(exact.size() == 0)
+            return 1.0;
+        Set<Integer> truth = new HashSet<>();
+        for(int i : exact.getIndices())
+            truth.add(i);
+        int found = 0;
+        for(int i : approximate.getIndices())
+            if(truth.contains(i))
+                found++;
+        return found / (double) exact.size();
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if(sorted.length == 0)
+            return 0;
+        int idx = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(idx, sorted.length - 1))];
+    }
+
+    /**
+     * Benchmark both index types on random unit vectors.
+     * Arguments: number of points, dimension, number of queries, k
+     */
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        int dimension = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int numQueries = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        int k = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+
+        Random random = new Random(123);
+        float[] data = new float[n * dimension];
+        for(int i = 0; i < data.length; i++)
+            data[i] = (float) random.nextGaussian();
+        for(int i = 0; i < n; i++)
+            VectorStore.normalize(data, i * dimension, dimension);
+        VectorStore vectors = new VectorStore(data, dimension);
+        float[][] queries = new float[numQueries][dimension];
+        for(int i = 0; i < numQueries; i++) {
+            for(int j = 0; j < dimension; j++)
+                queries[i][j] = (float) random.nextGaussian();
+            VectorStore.normalize(queries[i], 0, dimension);
+        }
+
+        long start = System.currentTimeMillis();
+        PrimitiveVPTree tree = new PrimitiveVPTree(vectors);
+        log.info("VP tree built in {} ms: {}", System.currentTimeMillis() - start, run(tree, queries, k));
+
+        start = System.currentTimeMillis();
+        HnswIndex hnsw = new HnswIndex(vectors);
+        log.info("HNSW built in {} ms", System.currentTimeMillis() - start);
+        for(int ef : new int[]{16, 32, 64, 128, 256}) {
+            hnsw.setEfSearch(Math.max(ef, k));
+            log.info("HNSW efSearch {}: {}", ef, run(hnsw, queries, k));
+        }
+    }
+
+    /**
+     * Recall and latencies (in nanoseconds) of a benchmark run
+     */
+    public static class Result {
+        private final double recall;
+        private final double meanNanos;
+        private final double p50Nanos;
+        private final double p99Nanos;
+        private final double exactMeanNanos;
+
+        public Result(double recall, double meanNanos, double p50Nanos, double p99Nanos, double exactMeanNanos) {
+            this.recall = recall;
+            this.meanNanos = meanNanos;
+            this.p50Nanos = p50Nanos;
+            this.p99Nanos = p99Nanos;
+            this.exactMeanNanos = exactMeanNanos;
+        }
+
+        public double getRecall() {
+            return recall;
+        }
+
+        public double getMeanNanos() {
+            return meanNanos;
+        }
+
+        public double getP50Nanos() {
+            return p50Nanos;
+        }
+
+        public double getP99Nanos() {
+            return p99Nanos;
+        }
+
+        public double getExactMeanNanos() {
+            return exactMeanNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("recall=%.4f mean=%.1fus p50=%.1fus p99=%.1fus exact mean=%.1fus",
+                    recall, meanNanos / 1e3, p50Nanos / 1e3, p99Nanos / 1e3, exactMeanNanos / 1e3);
+        }
+    }
+}
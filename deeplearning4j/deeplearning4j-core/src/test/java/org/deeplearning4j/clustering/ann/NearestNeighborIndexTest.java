@@ -0,0 +1,87 @@
+package org.deeplearning4j.clustering.ann;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * @author Adam Gibson
+ */
+public class NearestNeighborIndexTest {
+
+    private VectorStore randomVectors(int n, int dimension, Random random) {
+        float[] data = new float[n * dimension];
+        for(int i = 0; i < data.length; i++)
+            data[i] = (float) random.nextGaussian();
+        for(int i = 0; i < n; i++)
+            VectorStore.normalize(data, i * dimension, dimension);
+        return new VectorStore(data, dimension);
+    }
+
+    private float[][] randomQueries(int n, int dimension, Random random) {
+        float[][] ret = new float[n][dimension];
+        for(int i = 0; i < n; i++) {
+            for(int j = 0; j < dimension; j++)
+                ret[i][j] = (float) random.nextGaussian();
+            VectorStore.normalize(ret[i], 0, dimension);
+        }
+        return ret;
+    }
+
+    @Test
+    public void testVpTreeIsExact() {
+        Random random = new Random(12345);
+        VectorStore vectors = randomVectors(5000, 8, random);
+        PrimitiveVPTree tree = new PrimitiveVPTree(vectors);
+        for(float[] query : randomQueries(50, 8, random)) {
+            Neighbors exact = vectors.exactSearch(query, 10);
+            Neighbors found = tree.search(query, 10);
+            assertArrayEquals(exact.getIndices(), found.getIndices());
+            assertArrayEquals(exact.getDistances(), found.getDistances(), 1e-6f);
+        }
+    }
+
+    @Test
+    public void testVpTreeDuplicates() {
+        float[] data = new float[200 * 2];
+        for(int i = 0; i < 200; i++)
+            data[i * 2] = i < 100 ? 1 : 2;
+        PrimitiveVPTree tree = new PrimitiveVPTree(new VectorStore(data, 2), 4);
+        Neighbors found = tree.search(new float[]{2, 0}, 5);
+        assertEquals(5, found.size());
+        for(int i : found.getIndices())
+            assertTrue(i >= 100);
+    }
+
+    @Test
+    public void testHnswRecall() {
+        Random random = new Random(12345);
+        VectorStore vectors = randomVectors(5000, 8, random);
+        HnswIndex index = new HnswIndex(vectors, 16, 100, 123, 4);
+        NearestNeighborBenchmark.Result result = NearestNeighborBenchmark.run(index, randomQueries(100, 8, random), 10);
+        assertTrue(result.toString(), result.getRecall() >= 0.9);
+
+        //a stored point is its own nearest neighbor
+        Neighbors self = index.search(vectors.get(42), 1);
+        assertEquals(42, self.getIndices()[0]);
+    }
+
+    @Test
+    public void testSerialization() throws Exception {
+        Random random = new Random(12345);
+        VectorStore vectors = randomVectors(2000, 8, random);
+        float[] query = randomQueries(1, 8, random)[0];
+        NearestNeighborIndex[] indexes = {new PrimitiveVPTree(vectors), new HnswIndex(vectors, 8, 50, 123, 2)};
+        for(NearestNeighborIndex index : indexes) {
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            NearestNeighborIndexSerializer.write(index, bos);
+            NearestNeighborIndex read = NearestNeighborIndexSerializer.read(new ByteArrayInputStream(bos.toByteArray()));
+            assertEquals(index.getClass(), read.getClass());
+            assertArrayEquals(index.search(query, 10).getIndices(), read.search(query, 10).getIndices());
+        }
+    }
+}
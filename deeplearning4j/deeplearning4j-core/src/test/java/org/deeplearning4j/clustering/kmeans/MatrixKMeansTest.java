@@ -0,0 +1,63 @@
+package org.deeplearning4j.clustering.kmeans;
+
+import org.junit.Test;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Adam Gibson
+ */
+public class MatrixKMeansTest {
+
+    @Test
+    public void testSeparatedBlobs() {
+        double[][] centers = {{0, 0, 0}, {10, 10, 0}, {-10, 10, 5}};
+        int n = 600;
+        Random random = new Random(12345);
+        INDArray points = Nd4j.create(n, 3);
+        for(int i = 0; i < n; i++)
+            for(int j = 0; j < 3; j++)
+                points.putScalar(new int[]{i, j}, centers[i % 3][j] + random.nextGaussian());
+
+        //small blocks so the rows are split over many tasks
+        KMeansResult result = new MatrixKMeans(3, 50, 0, 37, 42).applyTo(points);
+        assertArrayEquals(new int[]{200, 200, 200}, result.getClusterSizes());
+
+        int[] assignments = result.getAssignments();
+        double cost = 0;
+        for(int i = 0; i < n; i++) {
+            //points from the same blob end up in the same cluster
+            assertEquals(assignments[i % 3], assignments[i]);
+            INDArray centroid = result.getCentroids().getRow(assignments[i]);
+            double expected = 0;
+            for(int j = 0; j < 3; j++) {
+                double diff = points.getDouble(i, j) - centroid.getDouble(j);
+                expected += diff * diff;
+            }
+            assertEquals(expected, result.getSquaredDistances()[i], 1e-3);
+            cost += expected;
+        }
+        assertEquals(cost, result.getCost(), 1e-2);
+
+        for(int c = 0; c < 3; c++) {
+            INDArray centroid = result.getCentroids().getRow(assignments[c]);
+            for(int j = 0; j < 3; j++)
+                assertEquals(centers[c][j], centroid.getDouble(j), 0.5);
+        }
+    }
+
+    @Test
+    public void testDuplicatePoints() {
+        INDArray points = Nd4j.ones(10, 2);
+        KMeansResult result = new MatrixKMeans(2, 10, 0, 4, 1).applyTo(points);
+        assertTrue(result.getCost() < 1e-6);
+        assertEquals(10, result.getClusterSizes()[0] + result.getClusterSizes()[1]);
+    }
+
+}
@@ -18,15 +18,30 @@
 
 package org.deeplearning4j.datasets.canova;
 
+import org.canova.api.io.data.DoubleArrayWritable;
+import org.canova.api.io.data.DoubleWritable;
+import org.canova.api.io.data.FloatArrayWritable;
+import org.canova.api.io.data.Text;
 import org.canova.api.records.reader.RecordReader;
 import org.canova.api.records.reader.impl.CSVRecordReader;
+import org.canova.api.records.reader.impl.CollectionRecordReader;
 import org.canova.api.split.FileSplit;
+import org.canova.api.writable.Writable;
+import org.canova.common.NDArrayWritable;
 import org.deeplearning4j.datasets.iterator.DataSetIterator;
 import org.junit.Test;
+import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.factory.Nd4j;
 import org.springframework.core.io.ClassPathResource;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 
 /**
  * Created by agibsonccc on 3/6/15.
@@ -45,4 +60,60 @@ public class RecordReaderDataSetiteratorTest {
 
     }
 
+    @Test
+    public void testBatchAssembly() {
+        List<Collection<Writable>> records = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            records.add(Arrays.<Writable>asList(new DoubleWritable(i % 3), new Text(String.valueOf(i)), new DoubleWritable(i * 10)));
+        }
+
+        DataSetIterator iter = new RecordReaderDataSetIterator(new CollectionRecordReader(records), 3, 0, 3);
+        DataSet first = iter.next();
+        assertEquals(Nd4j.create(new double[][]{{0, 0}, {1, 10}, {2, 20}}), first.getFeatureMatrix());
+        assertEquals(Nd4j.create(new double[][]{{1, 0, 0}, {0, 1, 0}, {0, 0, 1}}), first.getLabels());
+
+        DataSet second = iter.next();
+        assertEquals(2, second.numExamples());
+        assertEquals(Nd4j.create(new double[][]{{3, 30}, {4, 40}}), second.getFeatureMatrix());
+        assertEquals(Nd4j.create(new double[][]{{1, 0, 0}, {0, 1, 0}}), second.getLabels());
+        assertFalse(iter.hasNext());
+    }
+
+    @Test
+    public void testArrayWritables() {
+        List<Collection<Writable>> records = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            //features as one array, label last
+            records.add(Arrays.<Writable>asList(new DoubleArrayWritable(new double[]{i, i + 1, i + 2}), new DoubleWritable(i)));
+        }
+        DataSetIterator iter = new RecordReaderDataSetIterator(new CollectionRecordReader(records), 3, 3, 3);
+        DataSet ds = iter.next();
+        assertEquals(Nd4j.create(new double[][]{{0, 1, 2}, {1, 2, 3}, {2, 3, 4}}), ds.getFeatureMatrix());
+        assertEquals(Nd4j.create(new double[][]{{1, 0, 0}, {0, 1, 0}, {0, 0, 1}}), ds.getLabels());
+
+        //label inside the array, next to a scalar feature
+        records.clear();
+        for (int i = 0; i < 2; i++) {
+            records.add(Arrays.<Writable>asList(new FloatArrayWritable(new float[]{i * 10, i, i * 10 + 1}), new DoubleWritable(-i)));
+        }
+        iter = new RecordReaderDataSetIterator(new CollectionRecordReader(records), 2, 1, 2);
+        ds = iter.next();
+        assertEquals(Nd4j.create(new double[][]{{0, 1, 0}, {10, 11, -1}}), ds.getFeatureMatrix());
+        assertEquals(Nd4j.create(new double[][]{{1, 0}, {0, 1}}), ds.getLabels());
+    }
+
+    @Test
+    public void testNDArrayWritables() {
+        INDArray matrix = Nd4j.create(new double[][]{{1, 2, 3}, {4, 5, 6}, {7, 8, 9}});
+        List<Collection<Writable>> records = new ArrayList<>();
+        //a whole buffer, a view at an offset and a strided view
+        records.add(Arrays.<Writable>asList(new NDArrayWritable(Nd4j.create(new double[]{1, 2, 3})), new DoubleWritable(0)));
+        records.add(Arrays.<Writable>asList(new NDArrayWritable(matrix.getRow(1)), new DoubleWritable(1)));
+        records.add(Arrays.<Writable>asList(new NDArrayWritable(matrix.getColumn(2)), new DoubleWritable(2)));
+        DataSetIterator iter = new RecordReaderDataSetIterator(new CollectionRecordReader(records), 3, 3, 3);
+        DataSet ds = iter.next();
+        assertEquals(Nd4j.create(new double[][]{{1, 2, 3}, {4, 5, 6}, {3, 6, 9}}), ds.getFeatureMatrix());
+        assertEquals(Nd4j.create(new double[][]{{1, 0, 0}, {0, 1, 0}, {0, 0, 1}}), ds.getLabels());
+    }
+
 }
@@ -0,0 +1,197 @@
+package org.deeplearning4j.datasets.iterator;
+
+import org.junit.Test;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.dataset.api.DataSetPreProcessor;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Adam Gibson
+ */
+public class TestParallelIterator {
+
+    @Test
+    public void testOrdered() {
+        ParallelDataSetIterator iter = new ParallelDataSetIterator(sources(), 2, true);
+        List<Double> expected = Arrays.asList(0.0, 100.0, 200.0, 1.0, 101.0, 201.0, 2.0, 102.0, 202.0, 3.0, 203.0, 4.0);
+        assertEquals(expected, firstValues(iter));
+        assertEquals(24, iter.cursor());
+        assertEquals(12, iter.getBatchesDelivered());
+
+        //reset mid pass and again after a full pass: same order every time
+        iter.reset();
+        iter.next();
+        iter.reset();
+        assertEquals(expected, firstValues(iter));
+        iter.shutdown();
+        assertFalse(iter.hasNext());
+    }
+
+    @Test
+    public void testUnordered() {
+        ParallelDataSetIterator iter = new ParallelDataSetIterator(sources(), 1, false);
+        List<Double> values = firstValues(iter);
+        Collections.sort(values);
+        assertEquals(Arrays.asList(0.0, 1.0, 2.0, 3.0, 4.0, 100.0, 101.0, 102.0, 200.0, 201.0, 202.0, 203.0), values);
+        iter.shutdown();
+    }
+
+    @Test
+    public void testNextNum() {
+        ParallelDataSetIterator iter = new ParallelDataSetIterator(sources(), 2, true);
+        int total = 0;
+        while(iter.hasNext()) {
+            DataSet ds = iter.next(3);
+            assertTrue(ds.numExamples() <= 3);
+            total += ds.numExamples();
+        }
+        assertEquals(24, total);
+        assertEquals(24, iter.cursor());
+        iter.shutdown();
+    }
+
+    @Test
+    public void testPreProcessorAndMetrics() {
+        ParallelDataSetIterator iter = new ParallelDataSetIterator(sources(), 2, true);
+        iter.setPreProcessor(new DataSetPreProcessor() {
+            @Override
+            public void preProcess(org.nd4j.linalg.dataset.api.DataSet toPreProcess) {
+                ((DataSet) toPreProcess).multiplyBy(2);
+            }
+        });
+        List<Double> values = firstValues(iter);
+        assertEquals(0.0, values.get(0), 0.0);
+        assertEquals(200.0, values.get(1), 0.0);
+        assertTrue(iter.getConsumerWaitNanos() > 0);
+        assertEquals(0, iter.getQueueDepth());
+        assertEquals(6, iter.getQueueCapacity());
+        iter.shutdown();
+    }
+
+    @Test
+    public void testException() {
+        List<DataSetIterator> sources = sources();
+        ((TestIterator) sources.get(1)).failAt = 2;
+        ParallelDataSetIterator iter = new ParallelDataSetIterator(sources, 2, true);
+        try {
+            while(iter.hasNext())
+                iter.next();
+            fail("Expected exception from source iterator");
+        } catch(IllegalStateException e) {
+            //expected
+        }
+        iter.shutdown();
+    }
+
+    private static List<Double> firstValues(DataSetIterator iter) {
+        List<Double> values = new ArrayList<>();
+        while(iter.hasNext())
+            values.add(iter.next().getFeatureMatrix().getDouble(0));
+        return values;
+    }
+
+    private static List<DataSetIterator> sources() {
+        List<DataSetIterator> sources = new ArrayList<>();
+        sources.add(new TestIterator(0, 5, 7));
+        sources.add(new TestIterator(100, 3, 1));
+        sources.add(new TestIterator(200, 4, 13));
+        return sources;
+    }
+
+    /** Returns batches of two identical examples: start, start + 1, ... */
+    private static class TestIterator implements DataSetIterator {
+
+        private int start;
+        private int size;
+        private int cursor;
+        private long delayMSOnNext;
+        private int failAt = -1;
+
+        private TestIterator(int start, int size, long delayMSOnNext) {
+            this.start = start;
+            this.size = size;
+            this.delayMSOnNext = delayMSOnNext;
+        }
+
+        @Override
+        public DataSet next(int num) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int totalExamples() {
+            return 2 * size;
+        }
+
+        @Override
+        public int inputColumns() {
+            return 1;
+        }
+
+        @Override
+        public int totalOutcomes() {
+            return 1;
+        }
+
+        @Override
+        public void reset() {
+            cursor = 0;
+        }
+
+        @Override
+        public int batch() {
+            return 2;
+        }
+
+        @Override
+        public int cursor() {
+            return cursor;
+        }
+
+        @Override
+        public int numExamples() {
+            return 2 * size;
+        }
+
+        @Override
+        public void setPreProcessor(DataSetPreProcessor preProcessor) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return cursor < size;
+        }
+
+        @Override
+        public DataSet next() {
+            try {
+                Thread.sleep(delayMSOnNext);
+            } catch(InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            if(cursor == failAt)
+                throw new IllegalStateException("Failed at " + cursor);
+            INDArray features = Nd4j.valueArrayOf(2, 1, start + cursor);
+            INDArray labels = Nd4j.valueArrayOf(2, 1, start + cursor);
+            cursor++;
+            return new DataSet(features, labels);
+        }
+
+        @Override
+        public void remove() {
+        }
+    }
+
+}
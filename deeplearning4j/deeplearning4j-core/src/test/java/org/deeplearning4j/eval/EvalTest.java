@@ -37,6 +37,8 @@ import org.junit.Test;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.dataset.DataSet;
 import org.nd4j.linalg.dataset.SplitTestAndTrain;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.NDArrayIndex;
 import org.nd4j.linalg.lossfunctions.LossFunctions;
 import org.nd4j.linalg.util.FeatureUtil;
 
@@ -115,6 +117,59 @@ public class EvalTest {
     }
 
 
+    @Test
+    public void testConfusionCounts() {
+        //actual:    0 0 1 1 2 2
+        //predicted: 0 1 1 1 0 2
+        INDArray labels = Nd4j.create(new double[][]{{1, 0, 0}, {1, 0, 0}, {0, 1, 0}, {0, 1, 0}, {0, 0, 1}, {0, 0, 1}});
+        INDArray guesses = Nd4j.create(new double[][]{{0.8, 0.1, 0.1}, {0.3, 0.6, 0.1}, {0.1, 0.7, 0.2}, {0.2, 0.5, 0.3}, {0.5, 0.2, 0.3}, {0.1, 0.1, 0.8}});
+        Evaluation eval = new Evaluation(3);
+        eval.eval(labels, guesses);
+
+        assertEquals(1, eval.getConfusionMatrix().getCount(0, 1));
+        assertEquals(1, eval.truePositives(0));
+        assertEquals(1, eval.falsePositives(0));
+        assertEquals(1, eval.falseNegatives(0));
+        assertEquals(3, eval.trueNegatives(0));
+        assertEquals(2, eval.truePositives(1));
+        assertEquals(1, eval.falsePositives(1));
+        assertEquals(0, eval.falseNegatives(1));
+        assertEquals(3, eval.trueNegatives(1));
+        assertEquals(3, eval.predictedTotal(1));
+        assertEquals(4, eval.truePositives(), 0);
+        assertEquals(10, eval.trueNegatives(), 0);
+        assertEquals(4 / 6.0, eval.accuracy(), 1e-6);
+    }
+
+    @Test
+    public void testMerge() {
+        Random random = new Random(12345);
+        int numClasses = 4;
+        INDArray labels = Nd4j.zeros(50, numClasses);
+        INDArray guesses = Nd4j.rand(50, numClasses);
+        for(int i = 0; i < labels.rows(); i++)
+            labels.putScalar(i, random.nextInt(numClasses), 1.0);
+
+        Evaluation all = new Evaluation(numClasses);
+        all.eval(labels, guesses);
+
+        Evaluation first = new Evaluation();
+        first.eval(labels.get(NDArrayIndex.interval(0, 20), NDArrayIndex.all()), guesses.get(NDArrayIndex.interval(0, 20), NDArrayIndex.all()));
+        Evaluation second = new Evaluation(numClasses);
+        second.eval(labels.get(NDArrayIndex.interval(20, 50), NDArrayIndex.all()), guesses.get(NDArrayIndex.interval(20, 50), NDArrayIndex.all()));
+        first.merge(second);
+
+        assertEquals(all.getNumRowCounter(), first.getNumRowCounter(), 0);
+        for(int i = 0; i < numClasses; i++) {
+            for(int j = 0; j < numClasses; j++)
+                assertEquals(all.getConfusionMatrix().getCount(i, j), first.getConfusionMatrix().getCount(i, j));
+            assertEquals(all.classCount(i), first.classCount(i));
+        }
+        assertEquals(all.accuracy(), first.accuracy(), 1e-6);
+        assertEquals(all.f1(), first.f1(), 1e-6);
+        assertEquals(all.trueNegatives(), first.trueNegatives(), 0);
+    }
+
     @Test
     public void testIris() {
 
@@ -575,4 +575,62 @@ public class GradientCheckTests {
 	        assertTrue(msg,gradOK);
     	}
     }
+
+    @Test
+    public void testGradientGravesLSTMGRUStacked(){
+    	//GravesLSTM into GRU, with mini-batch size > 1 and time series length > 1: both forward passes project
+    	//the input for all time steps at once, and the gate activations kept for backprop are views of fused buffers
+    	Nd4j.getRandom().setSeed(12345L);
+
+    	int timeSeriesLength = 5;
+    	int nIn = 4;
+    	int layerSize = 5;
+    	int nOut = 3;
+    	int miniBatchSize = 3;
+
+    	MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder()
+	        .regularization(false)
+	        .seed(12345L)
+	        .list(3)
+	        .layer(0, new GravesLSTM.Builder().nIn(nIn).nOut(layerSize).activation("tanh")
+                .weightInit(WeightInit.DISTRIBUTION).dist(new NormalDistribution(0,1.0)).updater(Updater.NONE).build())
+	        .layer(1, new GRU.Builder().nIn(layerSize).nOut(layerSize).activation("tanh")
+				.weightInit(WeightInit.DISTRIBUTION).dist(new NormalDistribution(0,1.0)).updater(Updater.NONE).build())
+	        .layer(2, new RnnOutputLayer.Builder(LossFunction.MCXENT).activation("softmax").nIn(layerSize).nOut(nOut)
+				.weightInit(WeightInit.DISTRIBUTION).dist(new NormalDistribution(0,1.0)).updater(Updater.NONE).build())
+	        .pretrain(false).backprop(true)
+	        .build();
+
+    	MultiLayerNetwork mln = new MultiLayerNetwork(conf);
+    	mln.init();
+
+    	Random r = new Random(12345L);
+    	INDArray input = Nd4j.zeros(miniBatchSize,nIn,timeSeriesLength);
+    	for( int i = 0; i < miniBatchSize; i++) {
+    		for( int j = 0; j < nIn; j++) {
+    			for( int k = 0; k < timeSeriesLength; k++) {
+    				input.putScalar(new int[]{i,j,k},r.nextDouble() - 0.5);
+    			}
+    		}
+    	}
+
+    	INDArray labels = Nd4j.zeros(miniBatchSize,nOut,timeSeriesLength);
+    	for( int i = 0; i < miniBatchSize; i++ ){
+    		for(int j = 0; j < timeSeriesLength; j++) {
+    			int idx = r.nextInt(nOut);
+    			labels.putScalar(new int[]{i,idx,j}, 1.0);
+    		}
+    	}
+
+    	if(PRINT_RESULTS) {
+    		System.out.println("testGradientGravesLSTMGRUStacked()");
+    		for( int j = 0; j < mln.getnLayers(); j++ )
+				System.out.println("Layer " + j + " # params: " + mln.getLayer(j).numParams());
+    	}
+
+    	boolean gradOK = GradientCheckUtil.checkGradients(mln, DEFAULT_EPS, DEFAULT_MAX_REL_ERROR,
+                PRINT_RESULTS, RETURN_ON_FIRST_FAILURE, input, labels, true);
+
+        assertTrue(gradOK);
+    }
 }
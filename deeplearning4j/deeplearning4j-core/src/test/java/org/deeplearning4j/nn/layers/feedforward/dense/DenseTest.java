@@ -1,5 +1,6 @@
 package org.deeplearning4j.nn.layers.feedforward.dense;
 
+import org.deeplearning4j.berkeley.Pair;
 import org.deeplearning4j.datasets.iterator.DataSetIterator;
 import org.deeplearning4j.datasets.iterator.impl.IrisDataSetIterator;
 import org.deeplearning4j.eval.Evaluation;
@@ -9,6 +10,7 @@ import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
 import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
 import org.deeplearning4j.nn.conf.layers.*;
 import org.deeplearning4j.nn.conf.layers.DenseLayer;
+import org.deeplearning4j.nn.gradient.Gradient;
 import org.deeplearning4j.nn.layers.factory.LayerFactories;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
 import org.deeplearning4j.nn.weights.WeightInit;
@@ -16,12 +18,15 @@ import org.deeplearning4j.optimize.api.IterationListener;
 import org.deeplearning4j.optimize.listeners.ScoreIterationListener;
 import org.junit.Test;
 import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.sparse.CSRMatrix;
 import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.linalg.lossfunctions.LossFunctions;
 
 import java.util.Arrays;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 /**
  * Created by nyghtowl on 8/31/15.
@@ -104,6 +109,42 @@ public class DenseTest {
     }
 
 
+    @Test
+    public void testSparseInput() {
+        NeuralNetConfiguration conf = new NeuralNetConfiguration.Builder()
+                .seed(123)
+                .layer(new DenseLayer.Builder()
+                        .nIn(6)
+                        .nOut(3)
+                        .activation("tanh")
+                        .weightInit(WeightInit.XAVIER)
+                        .build())
+                .build();
+        org.deeplearning4j.nn.layers.feedforward.dense.DenseLayer layer =
+                (org.deeplearning4j.nn.layers.feedforward.dense.DenseLayer) LayerFactories.getFactory(conf).create(conf);
+
+        INDArray dense = Nd4j.create(new double[][]{
+                {0, 1, 0, 0, 2, 0},
+                {0, 0, 0, 0, 0, 0},
+                {3, 0, 0, -1, 0, 0.5}});
+        CSRMatrix sparse = CSRMatrix.fromDense(dense);
+        INDArray epsilon = Nd4j.linspace(1, 9, 9).reshape(3, 3);
+
+        INDArray expected = layer.activate(dense, true);
+        Pair<Gradient,INDArray> expectedGradient = layer.backpropGradient(epsilon.dup());
+
+        assertEquals(expected, layer.activate(sparse, true));
+        assertEquals(3, layer.batchSize());
+        Pair<Gradient,INDArray> gradient = layer.backpropGradient(epsilon.dup());
+        assertEquals(expectedGradient.getFirst().getGradientFor("W"), gradient.getFirst().getGradientFor("W"));
+        assertEquals(expectedGradient.getFirst().getGradientFor("b"), gradient.getFirst().getGradientFor("b"));
+        assertNull(gradient.getSecond());
+
+        //dense input replaces the sparse input
+        layer.setInput(dense);
+        assertNull(layer.getSparseInput());
+    }
+
     //////////////////////////////////////////////////////////////////////////////////
 
     private static MultiLayerNetwork getDenseMLNConfig(boolean backprop, boolean pretrain){
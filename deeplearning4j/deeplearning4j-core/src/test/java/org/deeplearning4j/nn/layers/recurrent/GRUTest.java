@@ -19,7 +19,9 @@ import org.deeplearning4j.nn.weights.WeightInit;
 import org.junit.Test;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.NDArrayIndex;
 import org.nd4j.linalg.lossfunctions.LossFunctions.LossFunction;
+import org.nd4j.linalg.ops.transforms.Transforms;
 
 
 public class GRUTest {
@@ -167,4 +169,53 @@ public class GRUTest {
 			assertTrue(d >= 0.0 && d <=1.0);	//Softmax
 		}
 	}
+
+	@Test
+	public void testForwardMatchesPerGateComputation(){
+		//The forward pass projects the input for all time steps with one gemm up front.
+		//Compare against the straightforward computation, one gate and one time step at a time
+		Nd4j.getRandom().setSeed(12345);
+
+		int nIn = 5;
+		int n = 6;
+		int miniBatchSize = 3;
+		int timeSeriesLength = 4;
+
+		NeuralNetConfiguration conf = new NeuralNetConfiguration.Builder()
+		.layer(new org.deeplearning4j.nn.conf.layers.GRU.Builder()
+				.nIn(nIn).nOut(n)
+				.weightInit(WeightInit.DISTRIBUTION).dist(new UniformDistribution(-1, 1))
+				.activation("tanh")
+				.build())
+		.build();
+
+		GRU gru = LayerFactories.getFactory(conf.getLayer()).create(conf);
+		INDArray input = Nd4j.rand(new int[]{miniBatchSize,nIn,timeSeriesLength});
+		INDArray out = gru.activate(input);
+
+		INDArray w = gru.getParam(GRUParamInitializer.INPUT_WEIGHT_KEY);
+		INDArray r = gru.getParam(GRUParamInitializer.RECURRENT_WEIGHT_KEY);
+		INDArray b = gru.getParam(GRUParamInitializer.BIAS_KEY);
+
+		INDArray h = Nd4j.zeros(miniBatchSize,n);
+		for( int t=0; t<timeSeriesLength; t++ ){
+			INDArray x = input.tensorAlongDimension(t,1,0).dup();
+			INDArray reset = Transforms.sigmoid(gate(x,h,w,r,b,0,n),true);
+			INDArray update = Transforms.sigmoid(gate(x,h,w,r,b,1,n),true);
+			INDArray candidate = Transforms.tanh(gate(x,reset.mul(h),w,r,b,2,n),true);
+			h = update.mul(h).addi(update.rsub(1.0).muli(candidate));
+
+			INDArray slice = out.tensorAlongDimension(t,1,0);
+			for( int j=0; j<h.length(); j++ ){
+				assertEquals(h.getDouble(j), slice.getDouble(j), 1e-5);
+			}
+		}
+	}
+
+	/** x*w + h*r + b for the given gate block */
+	private static INDArray gate(INDArray x, INDArray h, INDArray w, INDArray r, INDArray b, int block, int n){
+		return x.mmul(w.get(NDArrayIndex.all(),NDArrayIndex.interval(block*n,(block+1)*n)))
+				.addi(h.mmul(r.get(NDArrayIndex.all(),NDArrayIndex.interval(block*n,(block+1)*n))))
+				.addiRowVector(b.get(NDArrayIndex.point(0),NDArrayIndex.interval(block*n,(block+1)*n)));
+	}
 }
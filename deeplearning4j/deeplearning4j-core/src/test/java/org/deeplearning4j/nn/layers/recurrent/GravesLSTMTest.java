@@ -16,6 +16,8 @@ import org.deeplearning4j.nn.weights.WeightInit;
 import org.junit.Test;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.NDArrayIndex;
+import org.nd4j.linalg.ops.transforms.Transforms;
 
 
 public class GravesLSTMTest {
@@ -160,4 +162,64 @@ public class GravesLSTMTest {
 			assertTrue(sliceFalse.equals(sliceTrue));
 		}
 	}
+
+	@Test
+	public void testForwardMatchesPerGateComputation() throws Exception {
+		//The forward pass projects the input for all time steps with one gemm and does one recurrent gemm for all
+		//four gates. Compare against the straightforward computation, one gate and one time step at a time
+		Nd4j.getRandom().setSeed(12345);
+
+		int nIn = 5;
+		int n = 6;
+		int miniBatchSize = 3;
+		int timeSeriesLength = 4;
+
+		NeuralNetConfiguration conf = new NeuralNetConfiguration.Builder()
+		.layer(new org.deeplearning4j.nn.conf.layers.GravesLSTM.Builder()
+				.nIn(nIn).nOut(n)
+				.weightInit(WeightInit.DISTRIBUTION).dist(new UniformDistribution(-1, 1))
+				.activation("tanh")
+				.build())
+		.build();
+
+		GravesLSTM lstm = LayerFactories.getFactory(conf.getLayer()).create(conf);
+		INDArray input = Nd4j.rand(new int[]{miniBatchSize,nIn,timeSeriesLength});
+		INDArray out = lstm.activate(input);
+
+		INDArray w = lstm.getParam(GravesLSTMParamInitializer.INPUT_WEIGHT_KEY);
+		INDArray r = lstm.getParam(GravesLSTMParamInitializer.RECURRENT_WEIGHT_KEY);
+		INDArray b = lstm.getParam(GravesLSTMParamInitializer.BIAS_KEY);
+		INDArray wFF = r.getColumn(4*n).transpose().dup();
+		INDArray wOO = r.getColumn(4*n+1).transpose().dup();
+		INDArray wGG = r.getColumn(4*n+2).transpose().dup();
+
+		INDArray h = Nd4j.zeros(miniBatchSize,n);
+		INDArray c = Nd4j.zeros(miniBatchSize,n);
+		for( int t=0; t<timeSeriesLength; t++ ){
+			INDArray x = input.tensorAlongDimension(t,1,0).dup();
+			INDArray i = Transforms.tanh(gate(x,h,w,r,b,0,n),true);
+			INDArray f = Transforms.sigmoid(gate(x,h,w,r,b,1,n).addi(c.mulRowVector(wFF)),true);
+			INDArray g = Transforms.sigmoid(gate(x,h,w,r,b,3,n).addi(c.mulRowVector(wGG)),true);
+			c = f.mul(c).addi(g.mul(i));
+			INDArray o = Transforms.sigmoid(gate(x,h,w,r,b,2,n).addi(c.mulRowVector(wOO)),true);
+			h = Transforms.tanh(c,true).muli(o);
+
+			INDArray slice = out.tensorAlongDimension(t,1,0);
+			for( int j=0; j<h.length(); j++ ){
+				assertEquals(h.getDouble(j), slice.getDouble(j), 1e-5);
+			}
+		}
+
+		//The gate activations kept for backprop must match the output too
+		Pair<Gradient,INDArray> gradient = lstm.backpropGradient(Nd4j.ones(miniBatchSize,n,timeSeriesLength));
+		assertArrayEquals(new int[]{miniBatchSize,nIn,timeSeriesLength},gradient.getSecond().shape());
+		assertEquals(out,lstm.activate(input));
+	}
+
+	/** x*w + h*r + b for the given gate block */
+	private static INDArray gate(INDArray x, INDArray h, INDArray w, INDArray r, INDArray b, int block, int n){
+		return x.mmul(w.get(NDArrayIndex.all(),NDArrayIndex.interval(block*n,(block+1)*n)))
+				.addi(h.mmul(r.get(NDArrayIndex.all(),NDArrayIndex.interval(block*n,(block+1)*n))))
+				.addiRowVector(b.get(NDArrayIndex.point(0),NDArrayIndex.interval(block*n,(block+1)*n)));
+	}
 }
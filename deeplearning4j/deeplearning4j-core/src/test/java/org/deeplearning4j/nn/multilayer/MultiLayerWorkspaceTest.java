@@ -0,0 +1,136 @@
+package org.deeplearning4j.nn.multilayer;
+
+import org.deeplearning4j.datasets.iterator.impl.IrisDataSetIterator;
+import org.deeplearning4j.nn.api.OptimizationAlgorithm;
+import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.Updater;
+import org.deeplearning4j.nn.conf.layers.ConvolutionLayer;
+import org.deeplearning4j.nn.conf.layers.DenseLayer;
+import org.deeplearning4j.nn.conf.layers.OutputLayer;
+import org.deeplearning4j.nn.conf.layers.setup.ConvolutionLayerSetup;
+import org.deeplearning4j.nn.weights.WeightInit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.buffer.factory.DataBufferFactory;
+import org.nd4j.linalg.api.buffer.factory.PooledDataBufferFactory;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.NDArrayIndex;
+import org.nd4j.linalg.lossfunctions.LossFunctions;
+
+import static org.junit.Assert.*;
+
+/**
+ * Fitting several minibatches with the pooled data buffer factory installed must give the
+ * same network as fitting without it: nothing that outlives a minibatch may be released
+ * with its workspace.
+ *
+ * @author Adam Gibson
+ */
+public class MultiLayerWorkspaceTest {
+    private DataBufferFactory origFactory;
+    private DataBuffer.AllocationMode origAlloc;
+
+    @Before
+    public void before() {
+        origFactory = Nd4j.getDataBufferFactory();
+        origAlloc = Nd4j.alloc;
+        Nd4j.alloc = DataBuffer.AllocationMode.HEAP;
+    }
+
+    @After
+    public void after() {
+        Nd4j.setDataBufferFactory(origFactory);
+        Nd4j.alloc = origAlloc;
+    }
+
+    @Test
+    public void testLineSearchOptimizers() {
+        OptimizationAlgorithm[] algorithms = {OptimizationAlgorithm.CONJUGATE_GRADIENT, OptimizationAlgorithm.LBFGS,
+                OptimizationAlgorithm.LINE_GRADIENT_DESCENT};
+        for(OptimizationAlgorithm algorithm : algorithms) {
+            MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder()
+                    .optimizationAlgo(algorithm).iterations(3)
+                    .learningRate(1e-1).seed(12345L)
+                    .list(2)
+                    .layer(0, new DenseLayer.Builder().nIn(4).nOut(5).activation("tanh")
+                            .weightInit(WeightInit.XAVIER).updater(Updater.NONE).build())
+                    .layer(1, new OutputLayer.Builder(LossFunctions.LossFunction.MCXENT).activation("softmax")
+                            .nIn(5).nOut(3).weightInit(WeightInit.XAVIER).updater(Updater.NONE).build())
+                    .pretrain(false).backprop(true)
+                    .build();
+            assertSameFit(algorithm.toString(), conf, false);
+        }
+    }
+
+    @Test
+    public void testStochasticGradientDescent() {
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder()
+                .optimizationAlgo(OptimizationAlgorithm.STOCHASTIC_GRADIENT_DESCENT).iterations(2)
+                .learningRate(1e-1).momentum(0.9).seed(12345L)
+                .list(2)
+                .layer(0, new DenseLayer.Builder().nIn(4).nOut(5).activation("tanh")
+                        .weightInit(WeightInit.XAVIER).updater(Updater.NESTEROVS).build())
+                .layer(1, new OutputLayer.Builder(LossFunctions.LossFunction.MCXENT).activation("softmax")
+                        .nIn(5).nOut(3).weightInit(WeightInit.XAVIER).updater(Updater.ADAGRAD).build())
+                .pretrain(false).backprop(true)
+                .build();
+        assertSameFit("sgd", conf, true);
+    }
+
+    @Test
+    public void testConvolutionNet() {
+        //150 examples in minibatches of 40: the last minibatch is smaller, so the column buffer of the
+        //convolution layer is allocated again inside a workspace, and has to survive it
+        MultiLayerConfiguration.Builder builder = new NeuralNetConfiguration.Builder()
+                .optimizationAlgo(OptimizationAlgorithm.STOCHASTIC_GRADIENT_DESCENT).iterations(1)
+                .learningRate(1e-1).seed(12345L)
+                .list(2)
+                .layer(0, new ConvolutionLayer.Builder(new int[]{1, 1})
+                        .nOut(6).weightInit(WeightInit.XAVIER).activation("tanh").updater(Updater.NONE).build())
+                .layer(1, new OutputLayer.Builder(LossFunctions.LossFunction.MCXENT).activation("softmax")
+                        .nOut(3).weightInit(WeightInit.XAVIER).updater(Updater.NONE).build())
+                .pretrain(false).backprop(true);
+        new ConvolutionLayerSetup(builder, 2, 2, 1);
+        assertSameFit("convolution", builder.build(), true);
+    }
+
+    private void assertSameFit(String name, MultiLayerConfiguration conf, boolean workspace) {
+        Nd4j.setDataBufferFactory(origFactory);
+        MultiLayerNetwork expected = fit(conf);
+
+        PooledDataBufferFactory factory = new PooledDataBufferFactory();
+        Nd4j.setDataBufferFactory(factory);
+        MultiLayerNetwork pooled = fit(conf);
+        assertEquals(name, workspace, pooled.useIterationWorkspace());
+        if(workspace)
+            assertTrue(name, factory.getPool().releases() > 0);
+        assertEquals(name, expected.params(), pooled.params());
+
+        //what the network and its layers keep from the last minibatch outlives its workspace;
+        //the layers first, since activating the network replaces their inputs
+        assertEquals(name, expected.getInput(), pooled.getInput());
+        for(int i = 0; i < pooled.getnLayers(); i++)
+            assertEquals(name, expected.getLayer(i).activate(), pooled.getLayer(i).activate());
+        assertEquals(name, expected.activate(), pooled.activate());
+
+        //the network is still usable after fitting, also with the shape of the last minibatch
+        DataSet all = new IrisDataSetIterator(150, 150).next();
+        INDArray last = all.getFeatureMatrix().get(NDArrayIndex.interval(120, 150), NDArrayIndex.all()).dup();
+        assertEquals(name, expected.output(last), pooled.output(last));
+        assertEquals(name, expected.output(all.getFeatureMatrix()), pooled.output(all.getFeatureMatrix()));
+    }
+
+    private MultiLayerNetwork fit(MultiLayerConfiguration conf) {
+        Nd4j.getRandom().setSeed(12345L);
+        MultiLayerNetwork network = new MultiLayerNetwork(conf.clone());
+        network.init();
+        for(int epoch = 0; epoch < 3; epoch++)
+            network.fit(new IrisDataSetIterator(40, 150));
+        return network;
+    }
+}
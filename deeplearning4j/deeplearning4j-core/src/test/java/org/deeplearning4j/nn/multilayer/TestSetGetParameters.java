@@ -98,4 +98,60 @@ public class TestSetGetParameters {
 		
 		assertEquals(net.params(),randomParams);
 	}
+
+	@Test
+	public void testRedistributedParamsAreViews(){
+		//With redistributeParams, layer parameters and gradients are views of single flat buffers
+		MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder()
+			.list(2)
+			.layer(0, new DenseLayer.Builder().nIn(4).nOut(5)
+					.weightInit(WeightInit.DISTRIBUTION).dist(new NormalDistribution(0, 1)).build())
+			.layer(1, new OutputLayer.Builder(LossFunction.MSE).nIn(5).nOut(3)
+					.weightInit(WeightInit.DISTRIBUTION).dist(new NormalDistribution(0, 1)).build())
+			.backprop(true).pretrain(false)
+			.redistributeParams(true)
+			.build();
+
+		MultiLayerNetwork net = new MultiLayerNetwork(conf);
+		net.init();
+
+		INDArray params = net.params();
+		assertTrue(params == net.params());
+
+		//Writes to the flat buffer are visible in the layers, and set(get) does not replace the buffer
+		INDArray firstParam = net.getLayer(0).paramTable().values().iterator().next();
+		params.putScalar(0, 5.0);
+		assertEquals(5.0, firstParam.getDouble(0), 0.0);
+		net.setParams(params);
+		assertTrue(params == net.params());
+
+		INDArray randomParams = Nd4j.rand(params.shape());
+		net.setParams(randomParams);
+		assertTrue(params == net.params());
+		assertEquals(randomParams, net.params());
+
+		//Gradients match a network without flat buffers
+		MultiLayerNetwork net2 = new MultiLayerNetwork(conf.clone());
+		net2.getLayerWiseConfigurations().setRedistributeParams(false);
+		net2.init();
+		net2.setParams(net.params().dup());
+
+		INDArray input = Nd4j.rand(6, 4);
+		INDArray labels = Nd4j.rand(6, 3);
+		net.setInput(input);
+		net.setLabels(labels);
+		net2.setInput(input);
+		net2.setLabels(labels);
+		net.computeGradientAndScore();
+		net2.computeGradientAndScore();
+
+		INDArray flatGradient = net.gradient().gradient();
+		assertEquals(params.length(), flatGradient.length());
+		for( String s : net2.gradient().gradientForVariable().keySet() ){
+			assertEquals("Gradients differ: "+s, net2.gradient().getGradientFor(s), net.gradient().getGradientFor(s));
+		}
+
+		net.computeGradientAndScore();
+		assertTrue(flatGradient == net.gradient().gradient());
+	}
 }
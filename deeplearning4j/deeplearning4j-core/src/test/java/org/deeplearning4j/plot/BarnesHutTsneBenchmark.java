@@ -0,0 +1,56 @@
+package org.deeplearning4j.plot;
+
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Times the phases of {@link BarnesHutTsne} for growing numbers of points:
+ * the input similarities (nearest neighbors and perplexity search),
+ * their symmetrization and one gradient evaluation.
+ *
+ * @author Adam Gibson
+ */
+public class BarnesHutTsneBenchmark {
+    private static Logger log = LoggerFactory.getLogger(BarnesHutTsneBenchmark.class);
+
+    private BarnesHutTsneBenchmark() {
+    }
+
+    /**
+     * Arguments: dimension, perplexity, then the numbers of points to time
+     */
+    public static void main(String[] args) {
+        int dimension = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        double perplexity = args.length > 1 ? Double.parseDouble(args[1]) : 30;
+        int[] sizes = {1000, 5000, 20000, 50000};
+        if(args.length > 2) {
+            sizes = new int[args.length - 2];
+            for(int i = 2; i < args.length; i++)
+                sizes[i - 2] = Integer.parseInt(args[i]);
+        }
+
+        Nd4j.getRandom().setSeed(123);
+        for(int n : sizes) {
+            INDArray data = Nd4j.randn(n, dimension);
+            BarnesHutTsne tsne = new BarnesHutTsne.Builder().theta(0.5).perplexity(perplexity)
+                    .similarityFunction("euclidean").build();
+
+            long start = System.currentTimeMillis();
+            tsne.computeGaussianPerplexity(data, perplexity);
+            long similarities = System.currentTimeMillis() - start;
+
+            start = System.currentTimeMillis();
+            tsne.symmetrizeInput();
+            long symmetrize = System.currentTimeMillis() - start;
+
+            tsne.setY(Nd4j.randn(n, 2));
+            start = System.currentTimeMillis();
+            tsne.gradient();
+            long gradient = System.currentTimeMillis() - start;
+
+            log.info("n={} similarities={}ms symmetrize={}ms gradient={}ms", n, similarities, symmetrize, gradient);
+        }
+    }
+}
@@ -19,6 +19,8 @@
 package org.deeplearning4j.plot;
 
 import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
 import org.junit.Test;
 import static org.junit.Assert.*;
 import org.nd4j.linalg.api.buffer.DataBuffer;
@@ -35,6 +37,21 @@ import java.util.List;
  * Created by agibsonccc on 10/1/14.
  */
 public class BarnesHutTsneTest {
+    private DataBuffer.Type dtype;
+    private boolean numericalStability;
+
+    @Before
+    public void before() {
+        dtype = Nd4j.factory().dtype();
+        numericalStability = Nd4j.ENFORCE_NUMERICAL_STABILITY;
+    }
+
+    @After
+    public void after() {
+        //the tests switch these process wide settings
+        Nd4j.factory().setDType(dtype);
+        Nd4j.ENFORCE_NUMERICAL_STABILITY = numericalStability;
+    }
 
     @Test
     public void testTsne() throws Exception {
@@ -56,6 +73,102 @@ public class BarnesHutTsneTest {
         b.fit(data);
     }
 
+    @Test
+    public void testInputSimilarities() {
+        Nd4j.getRandom().setSeed(123);
+        INDArray data = Nd4j.rand(200, 10);
+        BarnesHutTsne b = new BarnesHutTsne.Builder().theta(0.5).perplexity(5).similarityFunction("euclidean").build();
+        INDArray vals = b.computeGaussianPerplexity(data, 5);
+        assertEquals(200 * 15, vals.length());
+        for(int i = 0; i < 200; i++) {
+            double sum = 0;
+            for(int j = 0; j < 15; j++)
+                sum += vals.getDouble(i * 15 + j);
+            assertEquals(1.0, sum, 1e-3);
+        }
+    }
+
+    @Test
+    public void testSymmetrize() {
+        //0 -> {1, 2}, 1 -> {0, 2}, 2 -> {0, 1}, with P(0,1) = .5 and P(1,0) = .3
+        int[] rowP = {0, 2, 4, 6};
+        int[] colP = {1, 2, 0, 2, 1, 0};
+        double[] valP = {0.5, 0.5, 0.3, 0.7, 0.4, 0.6};
+        BarnesHutTsne.SparseRows symmetric = BarnesHutTsne.symmetrize(3, rowP, colP, valP);
+        double[][] dense = new double[3][3];
+        for(int i = 0; i < 3; i++)
+            for(int j = symmetric.rows[i]; j < symmetric.rows[i + 1]; j++)
+                dense[i][symmetric.cols[j]] = symmetric.vals[j];
+        assertEquals(0.4, dense[0][1], 1e-9);
+        assertEquals(0.4, dense[1][0], 1e-9);
+        assertEquals(0.55, dense[0][2], 1e-9);
+        assertEquals(0.55, dense[1][2], 1e-9);
+        assertEquals(0.55, dense[2][1], 1e-9);
+        assertEquals(0, dense[1][1], 1e-9);
+        assertEquals(6, symmetric.vals.length);
+    }
+
+    @Test
+    public void testGradientAndScoreMatchExact() {
+        Nd4j.factory().setDType(DataBuffer.Type.DOUBLE);
+        Nd4j.getRandom().setSeed(123);
+        int n = 40;
+        INDArray data = Nd4j.randn(n, 5);
+        //theta 0 opens every cell of the tree, so the repulsive forces are exact
+        BarnesHutTsne b = new BarnesHutTsne.Builder().theta(0.0).perplexity(5).similarityFunction("euclidean").build();
+        b.computeGaussianPerplexity(data, 5);
+        b.symmetrizeInput();
+        BarnesHutTsne.SparseRows similarities = b.inputSimilarities();
+        double total = 0;
+        for(double val : similarities.vals)
+            total += val;
+        double[][] p = new double[n][n];
+        for(int i = 0; i < n; i++) {
+            for(int j = similarities.rows[i]; j < similarities.rows[i + 1]; j++) {
+                similarities.vals[j] /= total;
+                p[i][similarities.cols[j]] = similarities.vals[j];
+            }
+        }
+
+        INDArray y = Nd4j.randn(n, 2);
+        b.setY(y);
+        INDArray gradient = b.gradient().getGradientFor(BarnesHutTsne.Y_GRAD);
+        double score = b.score();
+
+        //exact t-SNE: w = 1 / (1 + d^2), q = w / sum(w), dC/dy_i = 4 sum_j (p_ij - q_ij) w_ij (y_i - y_j)
+        double[][] w = new double[n][n];
+        double sumW = 0;
+        for(int i = 0; i < n; i++) {
+            for(int j = 0; j < n; j++) {
+                if(i == j)
+                    continue;
+                double d = 0;
+                for(int k = 0; k < 2; k++)
+                    d += Math.pow(y.getDouble(i, k) - y.getDouble(j, k), 2);
+                w[i][j] = 1.0 / (1.0 + d);
+                sumW += w[i][j];
+            }
+        }
+
+        double kl = 0;
+        for(int i = 0; i < n; i++) {
+            double[] expected = new double[2];
+            for(int j = 0; j < n; j++) {
+                if(i == j)
+                    continue;
+                double q = w[i][j] / sumW;
+                for(int k = 0; k < 2; k++)
+                    expected[k] += (p[i][j] - q) * w[i][j] * (y.getDouble(i, k) - y.getDouble(j, k));
+                if(p[i][j] > 0)
+                    kl += p[i][j] * Math.log(p[i][j] / q);
+            }
+            //like the reference implementation, the gradient leaves out the constant factor of 4
+            for(int k = 0; k < 2; k++)
+                assertEquals(expected[k], gradient.getDouble(i, k), 1e-6 * Math.abs(expected[k]) + 1e-12);
+        }
+        assertEquals(kl, score, 1e-6 * Math.abs(kl));
+    }
+
     @Test
     public void testBuilderFields() throws Exception {
         final double theta = 0;
@@ -25,6 +25,8 @@ import org.deeplearning4j.text.documentiterator.DocumentIterator;
 import org.deeplearning4j.text.invertedindex.InvertedIndex;
 import org.deeplearning4j.text.sentenceiterator.SentenceIterator;
 import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.sparse.COOMatrix;
+import org.nd4j.linalg.api.sparse.CSRMatrix;
 import org.nd4j.linalg.dataset.DataSet;
 import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.linalg.util.FeatureUtil;
@@ -33,7 +35,9 @@ import org.deeplearning4j.text.tokenization.tokenizerfactory.TokenizerFactory;
 
 import java.io.File;
 import java.io.InputStream;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Bag of words vectorizer.
@@ -138,6 +142,20 @@ public class BagOfWordsVectorizer extends BaseTextVectorizer {
         return input;
     }
 
+    @Override
+    public CSRMatrix transformSparse(String text) {
+        Tokenizer tokenizer = tokenizerFactory.create(text);
+        List<String> tokens = tokenizer.getTokens();
+        COOMatrix input = new COOMatrix(1, cache.numWords(), tokens.size());
+        Set<Integer> seen = new HashSet<>();
+        for (String token : tokens) {
+            int idx = cache.indexOf(token);
+            if (idx >= 0 && seen.add(idx))
+                input.put(0, idx, cache.wordFrequency(token));
+        }
+        return input.toCSR();
+    }
+
     @Override
     public DataSet vectorize() {
         return null;
@@ -25,6 +25,7 @@ import org.deeplearning4j.datasets.vectorizer.Vectorizer;
 import org.deeplearning4j.models.word2vec.wordstore.VocabCache;
 import org.deeplearning4j.text.invertedindex.InvertedIndex;
 import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.sparse.CSRMatrix;
 import org.nd4j.linalg.dataset.DataSet;
 
 /**
@@ -92,6 +93,13 @@ public interface TextVectorizer extends Vectorizer {
      */
     INDArray transform(String text);
 
+    /**
+     * Transforms the text in to a sparse row, storing only the words that occur in it
+     * @param text text to transform
+     * @return a 1 x numWords {@link CSRMatrix}
+     */
+    CSRMatrix transformSparse(String text);
+
     /**
      * Returns the number of words encountered so far
      * @return the number of words encountered so far
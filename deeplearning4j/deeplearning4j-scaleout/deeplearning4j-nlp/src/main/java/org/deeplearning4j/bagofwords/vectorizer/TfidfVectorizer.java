@@ -27,6 +27,8 @@ import org.deeplearning4j.text.invertedindex.InvertedIndex;
 import org.deeplearning4j.text.sentenceiterator.SentenceIterator;
 import org.deeplearning4j.text.tokenization.tokenizerfactory.TokenizerFactory;
 import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.sparse.COOMatrix;
+import org.nd4j.linalg.api.sparse.CSRMatrix;
 import org.nd4j.linalg.dataset.DataSet;
 import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.linalg.util.FeatureUtil;
@@ -37,7 +39,9 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Turns a applyTransformToDestination of documents in to a tfidf bag of words
@@ -89,6 +93,19 @@ public class TfidfVectorizer extends BaseTextVectorizer implements Serializable
         return ret;
     }
 
+    private CSRMatrix sparseTfidfForInput(String text) {
+        Tokenizer tokenizer = tokenizerFactory.create(text);
+        List<String> tokens = tokenizer.getTokens();
+        COOMatrix ret = new COOMatrix(1, cache.numWords(), tokens.size());
+        Set<Integer> seen = new HashSet<>();
+        for(int i = 0;i < tokens.size(); i++) {
+            int idx = cache.indexOf(tokens.get(i));
+            if(idx >= 0 && seen.add(idx))
+                ret.put(0, idx, tfidfWord(tokens.get(i)));
+        }
+        return ret.toCSR();
+    }
+
     private INDArray tfidfForInput(InputStream is) {
         try {
             String text = new String(IOUtils.toByteArray(is));
@@ -135,6 +152,11 @@ public class TfidfVectorizer extends BaseTextVectorizer implements Serializable
         return tfidfForInput(text);
     }
 
+    @Override
+    public CSRMatrix transformSparse(String text) {
+        return sparseTfidfForInput(text);
+    }
+
     @Override
     public DataSet vectorize() {
         return null;
@@ -0,0 +1,165 @@
+package org.deeplearning4j.models.embeddings.ann;
+
+import org.deeplearning4j.clustering.ann.HnswIndex;
+import org.deeplearning4j.clustering.ann.NearestNeighborIndex;
+import org.deeplearning4j.clustering.ann.NearestNeighborIndexSerializer;
+import org.deeplearning4j.clustering.ann.Neighbors;
+import org.deeplearning4j.clustering.ann.PrimitiveVPTree;
+import org.deeplearning4j.clustering.ann.VectorStore;
+import org.deeplearning4j.models.embeddings.wordvectors.WordVectors;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Nearest neighbor index over a vocabulary of word vectors.
+ *
+ * The vectors are normalized to unit length when the index is built,
+ * so the nearest words by euclidean distance are the
+ * most similar words by cosine similarity.
+ * The index keeps its own copy of the words, so it can be
+ * written and read independently of the word vectors.
+ *
+ * @author Adam Gibson
+ */
+public class WordVectorIndex {
+    public enum Type {
+        /** exact search */
+        VP_TREE,
+        /** approximate search, much faster on large vocabularies */
+        HNSW
+    }
+
+    private final NearestNeighborIndex index;
+    private final String[] words;
+    private final Map<String,Integer> wordIndices;
+
+    /**
+     *
+     * @param index the index over the normalized vectors
+     * @param words the word for each indexed vector
+     */
+    public WordVectorIndex(NearestNeighborIndex index, String[] words) {
+        if(index.vectors().size() != words.length)
+            throw new IllegalArgumentException("Index has " + index.vectors().size() + " vectors but " + words.length + " words were given");
+        this.index = index;
+        this.words = words;
+        this.wordIndices = new HashMap<>(words.length * 2);
+        for(int i = 0; i < words.length; i++)
+            wordIndices.put(words[i], i);
+    }
+
+    /**
+     * Index every word in the vocabulary
+     * @param vec the word vectors to index
+     * @param type the type of index to build
+     * @return the index
+     */
+    public static WordVectorIndex build(WordVectors vec, Type type) {
+        Collection<String> vocab = vec.vocab().words();
+        String[] words = vocab.toArray(new String[vocab.size()]);
+        int dimension = vec.lookupTable().layerSize();
+        float[] data = new float[words.length * dimension];
+        for(int i = 0; i < words.length; i++) {
+            INDArray vector = vec.getWordVectorMatrix(words[i]);
+            for(int j = 0; j < dimension; j++)
+                data[i * dimension + j] = (float) vector.getDouble(j);
+            VectorStore.normalize(data, i * dimension, dimension);
+        }
+
+        VectorStore vectors = new VectorStore(data, dimension);
+        NearestNeighborIndex index = type == Type.VP_TREE ? new PrimitiveVPTree(vectors) : new HnswIndex(vectors);
+        return new WordVectorIndex(index, words);
+    }
+
+    /**
+     * The words nearest to a word in the index
+     * @param word the word
+     * @param n the number of words to return
+     * @return the nearest words (not including the word itself), nearest first
+     */
+    public List<String> wordsNearest(String word, int n) {
+        Integer i = wordIndices.get(word);
+        if(i == null)
+            return new ArrayList<>();
+        return wordsNearest(index.vectors().get(i), n, Collections.singleton(word));
+    }
+
+    /**
+     * The words nearest to a vector by cosine similarity
+     * @param vector the vector
+     * @param n the number of words to return
+     * @param exclude words not to return
+     * @return the nearest words, nearest first
+     */
+    public List<String> wordsNearest(INDArray vector, int n, Collection<String> exclude) {
+        float[] query = new float[vector.length()];
+        for(int i = 0; i < query.length; i++)
+            query[i] = (float) vector.getDouble(i);
+        VectorStore.normalize(query, 0, query.length);
+        return wordsNearest(query, n, exclude);
+    }
+
+    private List<String> wordsNearest(float[] query, int n, Collection<String> exclude) {
+        //room for UNK, STOP and the excluded words
+        Neighbors neighbors = index.search(query, n + exclude.size() + 2);
+        List<String> ret = new ArrayList<>(n);
+        for(int i : neighbors.getIndices()) {
+            if(ret.size() >= n)
+                break;
+            String word = words[i];
+            if(word == null || word.equals("UNK") || word.equals("STOP") || exclude.contains(word))
+                continue;
+            ret.add(word);
+        }
+        return ret;
+    }
+
+    public NearestNeighborIndex getIndex() {
+        return index;
+    }
+
+    public String[] getWords() {
+        return words;
+    }
+
+    /**
+     * Write the words and the index; the stream is not closed
+     * @param os the stream to write to
+     * @throws IOException
+     */
+    public void write(OutputStream os) throws IOException {
+        DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(os));
+        dos.writeInt(words.length);
+        for(String word : words)
+            dos.writeUTF(word);
+        dos.flush();
+        NearestNeighborIndexSerializer.write(index, os);
+    }
+
+    /**
+     * Read an index written with {@link #write(OutputStream)}
+     * @param is the stream to read from
+     * @return the index
+     * @throws IOException
+     */
+    public static WordVectorIndex read(InputStream is) throws IOException {
+        DataInputStream dis = new DataInputStream(new BufferedInputStream(is));
+        String[] words = new String[dis.readInt()];
+        for(int i = 0; i < words.length; i++)
+            words[i] = dis.readUTF();
+        return new WordVectorIndex(NearestNeighborIndexSerializer.read(dis), words);
+    }
+}
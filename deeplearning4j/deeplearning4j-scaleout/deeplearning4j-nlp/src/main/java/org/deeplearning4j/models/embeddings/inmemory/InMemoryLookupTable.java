@@ -58,6 +58,12 @@ public class InMemoryLookupTable implements WeightLookupTable {
     protected double negative = 0;
     protected VocabCache vocab;
     protected Map<Integer,INDArray> codes = new ConcurrentHashMap<>();
+    //training kernel over the current weights, created on first use
+    protected transient volatile SkipGramKernel skipGramKernel;
+    //set by writes to the weights and folded in to the modification count when it is read,
+    //so training threads only ever read a shared flag that is already set
+    protected volatile boolean weightsDirty;
+    protected volatile long modificationCount;
 
 
     public InMemoryLookupTable() {}
@@ -78,6 +84,52 @@ public class InMemoryLookupTable implements WeightLookupTable {
 
     public void setExpTable(double[] expTable) {
         this.expTable = expTable;
+        this.skipGramKernel = null;
+    }
+
+    /**
+     * Skip gram kernel working directly on the weight arrays.
+     * The kernel is created on first use and discarded
+     * when the weights or training settings change.
+     * @return the kernel, or null if the weights or settings
+     * are not supported (see {@link SkipGramKernel#create(InMemoryLookupTable)})
+     */
+    public SkipGramKernel skipGramKernel() {
+        SkipGramKernel ret = skipGramKernel;
+        if(ret == null && syn0 != null) {
+            ret = SkipGramKernel.create(this);
+            skipGramKernel = ret;
+        }
+        return ret;
+    }
+
+    /**
+     * A version of the weights: it changes between two calls whenever
+     * the weights have been written to in between. Anything computed from
+     * the weights (a normalized copy, say) is stale once this changes.
+     * @return the modification count
+     */
+    public long getModificationCount() {
+        if(weightsDirty) {
+            synchronized (this) {
+                if(weightsDirty) {
+                    //cleared first, so a write racing with this marks the next version
+                    weightsDirty = false;
+                    modificationCount++;
+                }
+            }
+        }
+        return modificationCount;
+    }
+
+    /**
+     * Record a write made directly to the weight arrays.
+     * Cheap enough to call per trained pair: once the flag is set
+     * this is a read of a cache line that no other writer touches.
+     */
+    public void weightsModified() {
+        if(!weightsDirty)
+            weightsDirty = true;
     }
 
     @Override
@@ -97,6 +149,8 @@ public class InMemoryLookupTable implements WeightLookupTable {
         if(syn1 == null || reset)
             syn1 = Nd4j.create(syn0.shape());
         initNegative();
+        skipGramKernel = null;
+        weightsModified();
     }
 
     @Override
@@ -289,6 +343,7 @@ public class InMemoryLookupTable implements WeightLookupTable {
 
         else
             Nd4j.getBlasWrapper().axpy(1.0f,neu1e,l1);
+        weightsModified();
     }
 
     public boolean isUseAdaGrad() {
@@ -297,6 +352,7 @@ public class InMemoryLookupTable implements WeightLookupTable {
 
     public void setUseAdaGrad(boolean useAdaGrad) {
         this.useAdaGrad = useAdaGrad;
+        this.skipGramKernel = null;
     }
 
     public double getNegative() {
@@ -305,6 +361,7 @@ public class InMemoryLookupTable implements WeightLookupTable {
 
     public void setNegative(double negative) {
         this.negative = negative;
+        this.skipGramKernel = null;
     }
 
     /**
@@ -371,6 +428,7 @@ public class InMemoryLookupTable implements WeightLookupTable {
 
         else
             Nd4j.getBlasWrapper().level1().axpy(l1.length(), 1.0f, neu1e, l1);
+        weightsModified();
 
 
 
@@ -393,6 +451,8 @@ public class InMemoryLookupTable implements WeightLookupTable {
 
         syn1 = Nd4j.create(syn0.shape());
         initNegative();
+        skipGramKernel = null;
+        weightsModified();
 
     }
 
@@ -444,6 +504,7 @@ public class InMemoryLookupTable implements WeightLookupTable {
             throw new IllegalArgumentException("No null vectors allowed");
         int idx = vocab.indexOf(word);
         syn0.slice(idx).assign(vector);
+        weightsModified();
 
     }
 
@@ -453,6 +514,7 @@ public class InMemoryLookupTable implements WeightLookupTable {
 
     public void setTable(INDArray table) {
         this.table = table;
+        this.skipGramKernel = null;
     }
 
     public INDArray getSyn1Neg() {
@@ -461,6 +523,7 @@ public class InMemoryLookupTable implements WeightLookupTable {
 
     public void setSyn1Neg(INDArray syn1Neg) {
         this.syn1Neg = syn1Neg;
+        this.skipGramKernel = null;
     }
 
     /**
@@ -520,6 +583,8 @@ public class InMemoryLookupTable implements WeightLookupTable {
 
     public void setSyn0(INDArray syn0) {
         this.syn0 = syn0;
+        this.skipGramKernel = null;
+        weightsModified();
     }
 
     public INDArray getSyn1() {
@@ -528,6 +593,7 @@ public class InMemoryLookupTable implements WeightLookupTable {
 
     public void setSyn1(INDArray syn1) {
         this.syn1 = syn1;
+        this.skipGramKernel = null;
     }
 
     public int getVectorLength() {
@@ -0,0 +1,263 @@
+package org.deeplearning4j.models.embeddings.inmemory;
+
+import org.deeplearning4j.models.word2vec.VocabWord;
+import org.deeplearning4j.models.word2vec.wordstore.VocabCache;
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Skip gram training on the raw weights of an {@link InMemoryLookupTable}.
+ *
+ * Rows of syn0, syn1 and syn1Neg are addressed by index arithmetic on the
+ * backing float arrays, so a word pair costs no allocation and no BLAS calls:
+ * the dot products and updates for every hierarchical softmax point and
+ * negative sample of a pair are done in one pass with a single error
+ * accumulator, and the sigmoid is read from the exp table.
+ *
+ * As in the reference word2vec implementation, threads update the
+ * shared weights without locking (Hogwild). Each call keeps its own
+ * random state, passed in and returned as a long.
+ *
+ * Only float weights stored contiguously on the heap are supported;
+ * see {@link #create(InMemoryLookupTable)}.
+ *
+ * @author Adam Gibson
+ */
+public class SkipGramKernel {
+    private final InMemoryLookupTable lookupTable;
+    private final float[] syn0;
+    private final float[] syn1;
+    private final float[] syn1Neg;
+    private final int[] table;
+    private final float[] expTable;
+    private final float maxExp;
+    private final float expScale;
+    private final int vectorLength;
+    private final int negative;
+    private final int numWords;
+    //huffman codes and inner node indices for each word
+    private final byte[][] codes;
+    private final int[][] points;
+    //words never trained on (UNK and STOP)
+    private final boolean[] skip;
+
+    private final ThreadLocal<float[]> neu1e = new ThreadLocal<float[]>() {
+        @Override
+        protected float[] initialValue() {
+            return new float[vectorLength];
+        }
+    };
+
+    private SkipGramKernel(InMemoryLookupTable lookupTable) {
+        this.lookupTable = lookupTable;
+        this.vectorLength = lookupTable.getVectorLength();
+        this.syn0 = (float[]) lookupTable.getSyn0().data().array();
+        this.syn1 = (float[]) lookupTable.getSyn1().data().array();
+        this.negative = (int) lookupTable.getNegative();
+        this.syn1Neg = negative > 0 ? (float[]) lookupTable.getSyn1Neg().data().array() : null;
+
+        if(negative > 0) {
+            INDArray t = lookupTable.getTable();
+            table = new int[t.length()];
+            for(int i = 0; i < table.length; i++)
+                table[i] = t.getInt(i);
+        }
+        else
+            table = null;
+
+        double[] exp = lookupTable.getExpTable();
+        this.expTable = new float[exp.length];
+        for(int i = 0; i < exp.length; i++)
+            expTable[i] = (float) exp[i];
+        this.maxExp = (float) InMemoryLookupTable.MAX_EXP;
+        this.expScale = (float) (expTable.length / InMemoryLookupTable.MAX_EXP / 2.0);
+
+        VocabCache vocab = lookupTable.getVocab();
+        int rows = lookupTable.getSyn0().rows();
+        this.numWords = vocab.numWords();
+        this.codes = new byte[rows][];
+        this.points = new int[rows][];
+        this.skip = new boolean[rows];
+        for(VocabWord word : vocab.vocabWords()) {
+            int index = word.getIndex();
+            if(index < 0 || index >= rows)
+                continue;
+            skip[index] = word.getWord().equals("STOP") || word.getWord().equals("UNK");
+            int codeLength = word.getCodeLength();
+            List<Integer> wordCodes = word.getCodes();
+            List<Integer> wordPoints = word.getPoints();
+            codes[index] = new byte[codeLength];
+            points[index] = new int[codeLength];
+            for(int i = 0; i < codeLength; i++) {
+                int point = wordPoints.get(i);
+                if(point >= rows || point < 0)
+                    throw new IllegalStateException("Illegal point " + point);
+                codes[index][i] = (byte) (int) wordCodes.get(i);
+                points[index][i] = point;
+            }
+        }
+    }
+
+    /**
+     * Create a kernel over the current weights of a lookup table.
+     * The kernel holds on to the weight arrays, so a new
+     * kernel is needed whenever the weights are replaced.
+     * @param lookupTable the lookup table to train
+     * @return the kernel, or null if the weights are not
+     * contiguous heap float arrays or ada grad is in use
+     */
+    public static SkipGramKernel create(InMemoryLookupTable lookupTable) {
+        if(lookupTable.isUseAdaGrad() || lookupTable.getExpTable() == null)
+            return null;
+        if(!isSupported(lookupTable.getSyn0()) || !isSupported(lookupTable.getSyn1()))
+            return null;
+        if(lookupTable.getNegative() > 0 && (!isSupported(lookupTable.getSyn1Neg()) || lookupTable.getTable() == null))
+            return null;
+        return new SkipGramKernel(lookupTable);
+    }
+
+    private static boolean isSupported(INDArray weights) {
+        if(weights == null)
+            return false;
+        DataBuffer data = weights.data();
+        return data.dataType() == DataBuffer.Type.FLOAT
+                && data.allocationMode() == DataBuffer.AllocationMode.HEAP
+                && weights.ordering() == 'c'
+                && weights.offset() == 0
+                && weights.elementWiseStride() == 1;
+    }
+
+    /**
+     * Train skip gram on every word of a sentence
+     * @param sentence the vocab indices of the words in the sentence
+     * @param window the maximum window size
+     * @param nextRandom the random state to start from
+     * @param alpha the learning rate
+     * @return the random state after training
+     */
+    public long trainSentence(int[] sentence, int window, long nextRandom, float alpha) {
+        float[] error = neu1e.get();
+        for(int i = 0; i < sentence.length; i++) {
+            nextRandom = nextRandom * 25214903917L + 11;
+            int word = sentence[i];
+            if(word < 0)
+                continue;
+            int b = (int) ((nextRandom >>> 16) % window);
+            int end = window * 2 + 1 - b;
+            for(int a = b; a < end; a++) {
+                if(a == window)
+                    continue;
+                int c = i - window + a;
+                if(c >= 0 && c < sentence.length)
+                    nextRandom = trainPair(word, sentence[c], nextRandom, alpha, error);
+            }
+        }
+        //once per sentence rather than per pair, so threads don't contend on the counter
+        lookupTable.weightsModified();
+        return nextRandom;
+    }
+
+    /**
+     * Train a single word and context pair. As in the reference implementation
+     * only the centre position of a window is skipped, so the caller passes
+     * pairs of distinct positions; the two may still be the same word.
+     * @param word the vocab index of the word being predicted
+     * @param context the vocab index of the context word whose vector is updated
+     * @param nextRandom the random state to start from
+     * @param alpha the learning rate
+     * @return the random state after training
+     */
+    public long trainPair(int word, int context, long nextRandom, float alpha) {
+        nextRandom = trainPair(word, context, nextRandom, alpha, neu1e.get());
+        lookupTable.weightsModified();
+        return nextRandom;
+    }
+
+    private long trainPair(int word, int context, long nextRandom, float alpha, float[] error) {
+        if(word < 0 || context < 0 || skip[word] || skip[context])
+            return nextRandom;
+
+        int l1 = context * vectorLength;
+        Arrays.fill(error, 0f);
+
+        //hierarchical softmax
+        byte[] wordCodes = codes[word];
+        int[] wordPoints = points[word];
+        if(wordCodes != null) {
+            for(int d = 0; d < wordCodes.length; d++) {
+                int l2 = wordPoints[d] * vectorLength;
+                float f = dot(syn0, l1, syn1, l2);
+                if(f <= -maxExp || f >= maxExp)
+                    continue;
+                int idx = (int) ((f + maxExp) * expScale);
+                if(idx >= expTable.length)
+                    continue;
+                float g = (1 - wordCodes[d] - expTable[idx]) * alpha;
+                update(error, syn1, l2, syn0, l1, g);
+            }
+        }
+
+        //negative sampling
+        for(int d = 0; d < negative + 1 && negative > 0; d++) {
+            int target;
+            int label;
+            if(d == 0) {
+                target = word;
+                label = 1;
+            }
+            else {
+                nextRandom = nextRandom * 25214903917L + 11;
+                target = table[(int) ((nextRandom >>> 16) % table.length)];
+                if(target <= 0)
+                    target = (int) ((nextRandom >>> 1) % Math.max(1, numWords - 1)) + 1;
+                if(target == word)
+                    continue;
+                label = 0;
+            }
+
+            int l2 = target * vectorLength;
+            if(l2 < 0 || l2 >= syn1Neg.length)
+                continue;
+            float f = dot(syn0, l1, syn1Neg, l2);
+            float g;
+            if(f > maxExp)
+                g = (label - 1) * alpha;
+            else if(f < -maxExp)
+                g = label * alpha;
+            else
+                g = (label - expTable[(int) ((f + maxExp) * expScale)]) * alpha;
+            update(error, syn1Neg, l2, syn0, l1, g);
+        }
+
+        for(int i = 0; i < vectorLength; i++)
+            syn0[l1 + i] += error[i];
+        return nextRandom;
+    }
+
+    //dot product of two rows, with independent partial sums so the loop is not bound by add latency
+    private float dot(float[] x, int xOffset, float[] y, int yOffset) {
+        float s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+        int i = 0;
+        for(; i + 3 < vectorLength; i += 4) {
+            s0 += x[xOffset + i] * y[yOffset + i];
+            s1 += x[xOffset + i + 1] * y[yOffset + i + 1];
+            s2 += x[xOffset + i + 2] * y[yOffset + i + 2];
+            s3 += x[xOffset + i + 3] * y[yOffset + i + 3];
+        }
+        for(; i < vectorLength; i++)
+            s0 += x[xOffset + i] * y[yOffset + i];
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    //error += g * out; out += g * in
+    private void update(float[] error, float[] out, int outOffset, float[] in, int inOffset, float g) {
+        for(int i = 0; i < vectorLength; i++) {
+            float o = out[outOffset + i];
+            error[i] += g * o;
+            out[outOffset + i] = o + g * in[inOffset + i];
+        }
+    }
+}
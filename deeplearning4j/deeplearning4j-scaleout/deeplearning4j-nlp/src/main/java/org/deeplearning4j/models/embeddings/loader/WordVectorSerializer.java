@@ -25,11 +25,13 @@ import java.io.DataInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.zip.GZIPInputStream;
@@ -39,6 +41,7 @@ import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.LineIterator;
 import org.deeplearning4j.berkeley.Pair;
 import org.deeplearning4j.models.embeddings.WeightLookupTable;
+import org.deeplearning4j.models.embeddings.ann.WordVectorIndex;
 import org.deeplearning4j.models.embeddings.inmemory.InMemoryLookupTable;
 import org.deeplearning4j.models.embeddings.wordvectors.WordVectors;
 import org.deeplearning4j.models.embeddings.wordvectors.WordVectorsImpl;
@@ -548,4 +551,56 @@ public class WordVectorSerializer {
 
     }
 
+    /**
+     * The file a nearest neighbor index for the given vectors file is stored in
+     *
+     * @param vectorsFile
+     *            the word vectors file
+     * @return the index file next to the vectors file
+     */
+    public static File indexFile(File vectorsFile)
+    {
+        return new File(vectorsFile.getPath() + ".ann");
+    }
+
+    /**
+     * Writes a nearest neighbor index next to the given word vectors file
+     * (see {@link #indexFile(File)})
+     *
+     * @param index
+     *            the index to write
+     * @param vectorsFile
+     *            the word vectors file the index was built from
+     * @throws IOException
+     */
+    public static void writeIndex(WordVectorIndex index, File vectorsFile)
+        throws IOException
+    {
+        try (OutputStream os = new FileOutputStream(indexFile(vectorsFile))) {
+            index.write(os);
+        }
+        log.info("Wrote index of " + index.getWords().length + " words to " + indexFile(vectorsFile));
+    }
+
+    /**
+     * Loads the nearest neighbor index stored next to the given word vectors file
+     *
+     * @param vectorsFile
+     *            the word vectors file
+     * @return the index
+     * @throws IOException
+     *             if there is no index for the file
+     */
+    public static WordVectorIndex loadIndex(File vectorsFile)
+        throws IOException
+    {
+        File indexFile = indexFile(vectorsFile);
+        if (!indexFile.exists()) {
+            throw new FileNotFoundException("No index found at " + indexFile);
+        }
+        try (InputStream is = new FileInputStream(indexFile)) {
+            return WordVectorIndex.read(is);
+        }
+    }
+
 }
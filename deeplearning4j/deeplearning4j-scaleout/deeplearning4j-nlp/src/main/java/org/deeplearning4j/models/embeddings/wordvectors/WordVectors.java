@@ -45,6 +45,14 @@ public interface WordVectors extends Serializable {
 
     Collection<String> wordsNearest(INDArray words, int top);
 
+    /**
+     * Words nearest to each of the given query vectors
+     * @param queries the query vectors, one per row
+     * @param top the number of words to return per query
+     * @return the nearest words for each query, nearest first
+     */
+    List<List<String>> wordsNearestBatch(INDArray queries, int top);
+
     Collection<String> wordsNearestSum(INDArray words, int top);
 
     /**
@@ -18,11 +18,10 @@
 
 package org.deeplearning4j.models.embeddings.wordvectors;
 
-import com.google.common.collect.Lists;
 import org.deeplearning4j.berkeley.Counter;
 import org.deeplearning4j.models.embeddings.WeightLookupTable;
+import org.deeplearning4j.models.embeddings.ann.WordVectorIndex;
 import org.deeplearning4j.models.embeddings.inmemory.InMemoryLookupTable;
-import org.deeplearning4j.models.word2vec.VocabWord;
 import org.deeplearning4j.models.word2vec.wordstore.VocabCache;
 import org.deeplearning4j.text.stopwords.StopWords;
 import org.deeplearning4j.util.MathUtils;
@@ -30,6 +29,7 @@ import org.deeplearning4j.util.SetUtils;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.linalg.ops.transforms.Transforms;
+import org.nd4j.linalg.util.TopK;
 
 import java.util.*;
 
@@ -46,6 +46,12 @@ public class WordVectorsImpl implements WordVectors {
     protected int layerSize = 100;
     public final static String UNK = "UNK";
     protected List<String> stopWords = StopWords.getStopWords();
+    //cached row normalized copy of syn0 for nearest words queries
+    protected transient volatile INDArray syn0Normalized;
+    protected transient volatile INDArray syn0NormalizedFrom;
+    protected transient volatile long syn0NormalizedVersion;
+    //optional nearest neighbor index used instead of scoring every word
+    protected transient volatile WordVectorIndex index;
     /**
      * Returns true if the model has this word in the vocab
      * @param word the word to test for
@@ -71,42 +77,16 @@ public class WordVectorsImpl implements WordVectors {
         for(String s : negative)
             words.addi(lookupTable.vector(s).mul(-1));
 
+        WordVectorIndex index = this.index;
+        if(index != null)
+            return index.wordsNearest(words, top, union);
 
         if(lookupTable() instanceof InMemoryLookupTable) {
             InMemoryLookupTable l = (InMemoryLookupTable) lookupTable();
             INDArray syn0 = l.getSyn0();
             INDArray weights = syn0.norm2(0).rdivi(1).muli(words);
             INDArray distances = syn0.mulRowVector(weights).sum(1);
-            INDArray[] sorted = Nd4j.sortWithIndices(distances,0,false);
-            INDArray sort = sorted[0];
-            List<String> ret = new ArrayList<>();
-            if(top > sort.length())
-                top = sort.length();
-            //there will be a redundant word
-            int end = top;
-            for(int i = 0; i < end; i++) {
-                String word = vocab.wordAtIndex(sort.getInt(i));
-                if(union.contains(word)) {
-                    end++;
-                    if(end >= sort.length())
-                        break;
-                    continue;
-                }
-
-                String add = vocab().wordAtIndex(sort.getInt(i));
-                if(add == null || add.equals("UNK") || add.equals("STOP")) {
-                    end++;
-                    if(end >= sort.length())
-                        break;
-                    continue;
-                }
-
-
-                ret.add(vocab().wordAtIndex(sort.getInt(i)));
-            }
-
-
-            return ret;
+            return nearestWords(distances, top, union);
         }
 
         Counter<String> distances = new Counter<>();
@@ -130,34 +110,16 @@ public class WordVectorsImpl implements WordVectors {
      */
     @Override
     public Collection<String> wordsNearestSum(INDArray words,int top) {
+        WordVectorIndex index = this.index;
+        if(index != null)
+            return index.wordsNearest(words, top, Collections.<String>emptySet());
 
         if(lookupTable() instanceof InMemoryLookupTable) {
             InMemoryLookupTable l = (InMemoryLookupTable) lookupTable();
             INDArray syn0 = l.getSyn0();
             INDArray weights = syn0.norm2(0).rdivi(1).muli(words);
             INDArray distances = syn0.mulRowVector(weights).sum(1);
-            INDArray[] sorted = Nd4j.sortWithIndices(distances,0,false);
-            INDArray sort = sorted[0];
-            List<String> ret = new ArrayList<>();
-            if(top > sort.length())
-                top = sort.length();
-            //there will be a redundant word
-            int end = top;
-            for(int i = 0; i < end; i++) {
-                String add = vocab().wordAtIndex(sort.getInt(i));
-                if(add == null || add.equals("UNK") || add.equals("STOP")) {
-                    end++;
-                    if(end >= sort.length())
-                        break;
-                    continue;
-                }
-
-
-                ret.add(vocab().wordAtIndex(sort.getInt(i)));
-            }
-
-
-            return ret;
+            return nearestWords(distances, top, Collections.<String>emptySet());
         }
 
         Counter<String> distances = new Counter<>();
@@ -181,33 +143,16 @@ public class WordVectorsImpl implements WordVectors {
      */
     @Override
     public Collection<String> wordsNearest(INDArray words, int top) {
+        WordVectorIndex index = this.index;
+        if(index != null)
+            return index.wordsNearest(words, top, Collections.<String>emptySet());
+
         if(lookupTable() instanceof InMemoryLookupTable) {
             InMemoryLookupTable l = (InMemoryLookupTable) lookupTable();
             INDArray syn0 = l.getSyn0();
             INDArray weights = syn0.norm2(0).rdivi(1).muli(words);
             INDArray distances = syn0.mulRowVector(weights).mean(1);
-            INDArray[] sorted = Nd4j.sortWithIndices(distances,0,false);
-            INDArray sort = sorted[0];
-            List<String> ret = new ArrayList<>();
-            if(top > sort.length())
-                top = sort.length();
-            //there will be a redundant word
-            int end = top;
-            for(int i = 0; i < end; i++) {
-                String add = vocab().wordAtIndex(sort.getInt(i));
-                if(add == null || add.equals("UNK") || add.equals("STOP")) {
-                    end++;
-                    if(end >= sort.length())
-                        break;
-                    continue;
-                }
-
-
-                ret.add(vocab().wordAtIndex(sort.getInt(i)));
-            }
-
-
-            return ret;
+            return nearestWords(distances, top, Collections.<String>emptySet());
         }
 
         Counter<String> distances = new Counter<>();
@@ -232,6 +177,10 @@ public class WordVectorsImpl implements WordVectors {
      * @return the top n words
      */
     public Collection<String> wordsNearestSum(String word,int n) {
+        WordVectorIndex index = this.index;
+        if(index != null)
+            return index.wordsNearest(word, n);
+
         INDArray vec = Transforms.unitVec(this.getWordVectorMatrix(word));
 
 
@@ -240,28 +189,7 @@ public class WordVectorsImpl implements WordVectors {
             INDArray syn0 = l.getSyn0();
             INDArray weights = syn0.norm2(0).rdivi(1).muli(vec);
             INDArray distances = syn0.mulRowVector(weights).sum(1);
-            INDArray[] sorted = Nd4j.sortWithIndices(distances,0,false);
-            INDArray sort = sorted[0];
-            List<String> ret = new ArrayList<>();
-            VocabWord word2 = vocab().wordFor(word);
-            if(n > sort.length())
-                n = sort.length();
-            //there will be a redundant word
-            for(int i = 0; i < n + 1; i++) {
-                if(sort.getInt(i) == word2.getIndex())
-                    continue;
-                String add = vocab().wordAtIndex(sort.getInt(i));
-                if(add == null || add.equals("UNK") || add.equals("STOP")) {
-                    continue;
-                }
-
-
-
-                ret.add(vocab().wordAtIndex(sort.getInt(i)));
-            }
-
-
-            return ret;
+            return nearestWords(distances, n, Collections.singleton(word));
         }
 
         if(vec == null)
@@ -401,33 +329,14 @@ public class WordVectorsImpl implements WordVectors {
         }
 
         INDArray mean = words.isMatrix() ? words.mean(0) : words;
-        if (lookupTable() instanceof InMemoryLookupTable) {
-            InMemoryLookupTable l = (InMemoryLookupTable) lookupTable();
-
-            INDArray syn0 = l.getSyn0();
-            INDArray syn0Norm = syn0.norm2(0);
-            syn0.diviRowVector(syn0Norm);
-            INDArray weights = Transforms.unitVec(mean);
-
-            INDArray similarity = weights.mmul(syn0.transpose());
-            // We assume that syn0 is normalized.
-            // Hence, the following division is not needed anymore.
-            // distances.diviRowVector(distances.norm2(1));
-            //INDArray[] sorted = Nd4j.sortWithIndices(distances,0,false);
-            List<Double> highToLowSimList = getTopN(similarity, top);
-            List<String> ret = new ArrayList<>();
-
-            for (int i = 0; i < highToLowSimList.size(); i++) {
-                String word = vocab().wordAtIndex(highToLowSimList.get(i).intValue());
-                if (word != null && !word.equals("UNK") && !word.equals("STOP") && !union.contains(word)) {
-                    ret.add(word);
-                    if (ret.size() >= top) {
-                        break;
-                    }
-                }
-            }
+        WordVectorIndex index = this.index;
+        if (index != null) {
+            return index.wordsNearest(mean, top, union);
+        }
 
-            return ret;
+        if (lookupTable() instanceof InMemoryLookupTable) {
+            INDArray similarity = normalizedSyn0().mmul(Transforms.unitVec(mean).transpose());
+            return nearestWords(similarity, top, union);
         }
 
         Counter<String> distances = new Counter<>();
@@ -443,47 +352,100 @@ public class WordVectorsImpl implements WordVectors {
 
     }
 
-    private static class ArrayComparator implements Comparator<Double[]> {
+    /**
+     * Words nearest to each of the given query vectors by cosine similarity.
+     * All queries are scored with a single matrix multiply against
+     * the normalized weights, which are cached until the weights change
+     * (see {@link #normalizedSyn0()}). With an index set, each query is
+     * searched in the index instead.
+     *
+     * @param queries the query vectors, one per row
+     * @param top the number of words to return per query
+     * @return the nearest words for each query, nearest first
+     */
+    @Override
+    public List<List<String>> wordsNearestBatch(INDArray queries, int top) {
+        List<List<String>> ret = new ArrayList<>(queries.rows());
+        if (index != null || !(lookupTable() instanceof InMemoryLookupTable)) {
+            for (int i = 0; i < queries.rows(); i++)
+                ret.add(new ArrayList<>(wordsNearest(queries.getRow(i), top)));
+            return ret;
+        }
 
-        @Override
-        public int compare(Double[] o1, Double[] o2) {
-                return Double.compare(o1[0], o2[0]);
-            }
+        INDArray normalizedQueries = queries.dup();
+        for (int i = 0; i < normalizedQueries.rows(); i++) {
+            INDArray row = normalizedQueries.getRow(i);
+            row.divi(Math.max(row.norm2Number().doubleValue(), Nd4j.EPS_THRESHOLD));
+        }
+        INDArray similarity = normalizedQueries.mmul(normalizedSyn0().transpose());
+        for (int i = 0; i < queries.rows(); i++)
+            ret.add(nearestWords(similarity.getRow(i), top, Collections.<String>emptySet()));
+        return ret;
+    }
 
+    /**
+     * The lookup table's weights with each row scaled to unit length.
+     * The copy is recomputed whenever the weights are replaced or the
+     * lookup table's modification count has moved on since it was made
+     * (see {@link InMemoryLookupTable#getModificationCount()}).
+     * @return the row normalized weights
+     */
+    protected INDArray normalizedSyn0() {
+        InMemoryLookupTable table = (InMemoryLookupTable) lookupTable();
+        //read before normalizing, so writes made while normalizing mark the copy stale
+        long version = table.getModificationCount();
+        INDArray syn0 = table.getSyn0();
+        INDArray ret = syn0Normalized;
+        if (ret == null || syn0NormalizedFrom != syn0 || syn0NormalizedVersion != version) {
+            INDArray norms = syn0.norm2(1);
+            //unused rows stay zero rather than NaN
+            norms.addi(Nd4j.EPS_THRESHOLD);
+            ret = syn0.divColumnVector(norms);
+            syn0Normalized = ret;
+            syn0NormalizedFrom = syn0;
+            syn0NormalizedVersion = version;
+        }
+        return ret;
     }
 
+    /**
+     * Drop the cached normalized weights so they are recomputed on the
+     * next nearest words query. Only needed after writing to the weights
+     * without going through the lookup table.
+     */
+    public void invalidateNormalizedSyn0() {
+        syn0Normalized = null;
+        syn0NormalizedFrom = null;
+    }
 
     /**
-     * Get top N elements
-     *
-     * @param vec the vec to extract the top elements from
-     * @param N the number of elements to extract
-     * @return the indices and the sorted top N elements
+     * The top words by score, skipping unknown and excluded words.
+     * Selects the best candidates with a bounded heap rather than
+     * sorting every score, widening the selection only if too many
+     * candidates are skipped.
+     * @param scores a score for each word index
+     * @param top the number of words to return
+     * @param exclude words not to return
+     * @return up to top words, highest score first
      */
-    private static List<Double> getTopN(INDArray vec, int N) {
-        ArrayComparator comparator = new ArrayComparator();
-        PriorityQueue<Double[]> queue = new PriorityQueue<>(vec.rows(),comparator);
-
-        for (int j = 0; j < vec.length(); j++) {
-            final Double[] pair = new Double[]{vec.getDouble(j), (double) j};
-            if (queue.size() < N) {
-                queue.add(pair);
-            } else {
-                Double[] head = queue.peek();
-                if (comparator.compare(pair, head) > 0) {
-                    queue.poll();
-                    queue.add(pair);
-                }
+    protected List<String> nearestWords(INDArray scores, int top, Collection<String> exclude) {
+        int n = scores.length();
+        //room for UNK, STOP and the excluded words
+        int k = Math.min(n, top + exclude.size() + 2);
+        while (true) {
+            int[] best = TopK.indices(scores, k, true);
+            List<String> ret = new ArrayList<>(top);
+            for (int i = 0; i < best.length && ret.size() < top; i++) {
+                String word = vocab().wordAtIndex(best[i]);
+                if (word == null || word.equals("UNK") || word.equals("STOP") || exclude.contains(word))
+                    continue;
+                ret.add(word);
             }
-        }
-
-        List<Double> lowToHighSimLst = new ArrayList<>();
 
-        while (!queue.isEmpty()) {
-            double ind = queue.poll()[1];
-            lowToHighSimLst.add(ind);
+            if (ret.size() >= top || k >= n)
+                return ret;
+            k = Math.min(n, k * 2);
         }
-        return Lists.reverse(lowToHighSimLst);
     }
 
 
@@ -534,4 +496,18 @@ public class WordVectorsImpl implements WordVectors {
         this.vocab = vocab;
     }
 
+    public WordVectorIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * Answer the wordsNearest and wordsNearestSum queries from
+     * a nearest neighbor index rather than scoring every word.
+     * The index is not updated with the weights; set it again (or to null) after training.
+     * @param index the index to use, or null to score every word
+     */
+    public void setIndex(WordVectorIndex index) {
+        this.index = index;
+    }
+
 }
@@ -161,6 +161,8 @@ public class Glove  extends WordVectorsImpl {
             log.info("Processed " + countUp.doubleValue() + " out of " + (pairList.size() * iterations) + " error was " + errorPerIteration.getCount(i));
 
         }
+        //weights changed; nearest words queries need to renormalize
+        invalidateNormalizedSyn0();
 
 
     }
@@ -23,6 +23,7 @@ package org.deeplearning4j.models.glove;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.LineIterator;
 import org.deeplearning4j.models.embeddings.inmemory.InMemoryLookupTable;
+import org.deeplearning4j.models.embeddings.inmemory.SkipGramKernel;
 import org.deeplearning4j.models.word2vec.VocabWord;
 import org.deeplearning4j.models.word2vec.Word2Vec;
 import org.deeplearning4j.models.word2vec.wordstore.VocabCache;
@@ -149,6 +150,7 @@ public class GloveWeightLookupTable extends InMemoryLookupTable {
         double biasGradient = biasAdaGrad.getGradient(gradient,w1.getIndex(),bias.shape());
         double update2 = w1Bias - biasGradient;
         bias.putScalar(w1.getIndex(),update2);
+        weightsModified();
     }
 
     public AdaGrad getWeightAdaGrad() {
@@ -243,6 +245,15 @@ public class GloveWeightLookupTable extends InMemoryLookupTable {
 
     }
 
+    /**
+     * Glove is not trained with skip gram
+     * @return null
+     */
+    @Override
+    public SkipGramKernel skipGramKernel() {
+        return null;
+    }
+
     public double getxMax() {
         return xMax;
     }
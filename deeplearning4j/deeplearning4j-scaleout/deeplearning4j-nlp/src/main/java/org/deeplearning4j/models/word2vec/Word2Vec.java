@@ -32,7 +32,10 @@ import org.deeplearning4j.bagofwords.vectorizer.TextVectorizer;
 import org.deeplearning4j.bagofwords.vectorizer.TfidfVectorizer;
 import org.deeplearning4j.models.embeddings.WeightLookupTable;
 import org.deeplearning4j.models.embeddings.inmemory.InMemoryLookupTable;
+import org.deeplearning4j.models.embeddings.inmemory.SkipGramKernel;
 import org.deeplearning4j.models.embeddings.wordvectors.WordVectorsImpl;
+import org.deeplearning4j.models.word2vec.wordstore.StreamingVocabCounter;
+import org.deeplearning4j.models.word2vec.wordstore.inmemory.CompactVocabCache;
 import org.deeplearning4j.models.word2vec.wordstore.inmemory.InMemoryLookupCache;
 import org.deeplearning4j.parallel.Parallelization;
 import org.deeplearning4j.text.invertedindex.InvertedIndex;
@@ -86,6 +89,8 @@ public class Word2Vec extends WordVectorsImpl {
     protected InvertedIndex invertedIndex;
     protected boolean useAdaGrad = false;
     protected int workers = Runtime.getRuntime().availableProcessors();
+    //maximum number of distinct tokens kept while counting a streaming vocab
+    protected int maxVocabSize = 20000000;
 
     public Word2Vec() {}
 
@@ -186,6 +191,8 @@ public class Word2Vec extends WordVectorsImpl {
         for(int i = 0; i < numIterations; i++)
             doIteration(batch2,numWordsSoFar,nextRandom,actorSystem);
         actorSystem.shutdown();
+        //weights changed; nearest words queries need to renormalize
+        invalidateNormalizedSyn0();
 
 
     }
@@ -270,6 +277,16 @@ public class Word2Vec extends WordVectorsImpl {
         }
 
 
+        //count the vocab up front with bounded memory; the vectorizer pass below then only indexes the documents
+        if(vocab() instanceof CompactVocabCache && vocab().numWords() == 0 && sentenceIter != null) {
+            log.info("Counting vocab...");
+            new StreamingVocabCounter.Builder().tokenizerFactory(tokenizerFactory)
+                    .stopWords(stopWords).minWordFrequency(minWordFrequency)
+                    .workers(workers).maxVocabSize(maxVocabSize).build()
+                    .buildVocab(sentenceIter, (CompactVocabCache) vocab());
+            sentenceIter.reset();
+        }
+
         if(invertedIndex == null)
             invertedIndex = new LuceneInvertedIndex.Builder()
                     .cache(vocab()).stopWords(stopWords)
@@ -303,6 +320,18 @@ public class Word2Vec extends WordVectorsImpl {
     public void trainSentence(final List<VocabWord> sentence,AtomicLong nextRandom,double alpha) {
         if(sentence == null || sentence.isEmpty())
             return;
+        SkipGramKernel kernel = skipGramKernel();
+        if(kernel != null) {
+            int[] indices = new int[sentence.size()];
+            for(int i = 0; i < indices.length; i++) {
+                VocabWord word = sentence.get(i);
+                indices[i] = word == null ? -1 : word.getIndex();
+            }
+            //each sentence trains from its own random state rather than contending on the shared one for every pair
+            kernel.trainSentence(indices, window, nextRandom.getAndIncrement() * 0x9E3779B97F4A7C15L, (float) alpha);
+            return;
+        }
+
         for(int i = 0; i < sentence.size(); i++) {
             nextRandom.set(nextRandom.get() * 25214903917L + 11);
             skipGram(i, sentence, (int) nextRandom.get() % window,nextRandom,alpha);
@@ -340,10 +369,26 @@ public class Word2Vec extends WordVectorsImpl {
      * @param w1 the first word to fit
      */
     public void  iterate(VocabWord w1, VocabWord w2,AtomicLong nextRandom,double alpha) {
+        SkipGramKernel kernel = skipGramKernel();
+        if(kernel != null) {
+            if(w2 != null)
+                nextRandom.set(kernel.trainPair(w1.getIndex(), w2.getIndex(), nextRandom.get(), (float) alpha));
+            return;
+        }
         lookupTable.iterateSample(w1,w2,nextRandom,alpha);
 
     }
 
+    /**
+     * The skip gram kernel of the lookup table, if it has one
+     * @return the kernel, or null to train through {@link WeightLookupTable#iterateSample}
+     */
+    protected SkipGramKernel skipGramKernel() {
+        if(lookupTable instanceof InMemoryLookupTable)
+            return ((InMemoryLookupTable) lookupTable).skipGramKernel();
+        return null;
+    }
+
 
 
 
@@ -428,6 +473,26 @@ public class Word2Vec extends WordVectorsImpl {
         protected int workers = Runtime.getRuntime().availableProcessors();
         protected InvertedIndex index;
         protected WeightLookupTable lookupTable;
+        protected boolean streamingVocab = false;
+        protected int maxVocabSize = 20000000;
+
+        /**
+         * Count the vocab in a separate streaming pass with bounded memory
+         * in to a {@link CompactVocabCache} (used when no vocab cache is given)
+         */
+        public Builder streamingVocab(boolean streamingVocab) {
+            this.streamingVocab = streamingVocab;
+            return this;
+        }
+
+        /**
+         * The maximum number of distinct tokens kept while counting a streaming vocab;
+         * rare tokens are pruned beyond this
+         */
+        public Builder maxVocabSize(int maxVocabSize) {
+            this.maxVocabSize = maxVocabSize;
+            return this;
+        }
 
         public Builder lookupTable(WeightLookupTable lookupTable) {
             this.lookupTable = lookupTable;
@@ -565,6 +630,7 @@ public class Word2Vec extends WordVectorsImpl {
                 ret.minLearningRate = minLearningRate;
                 ret.sample = sampling;
                 ret.workers = workers;
+                ret.maxVocabSize = maxVocabSize;
                 ret.invertedIndex = index;
                 ret.lookupTable = lookupTable;
                 try {
@@ -575,7 +641,7 @@ public class Word2Vec extends WordVectorsImpl {
                 }
 
                 if(vocabCache == null) {
-                    vocabCache = new InMemoryLookupCache();
+                    vocabCache = streamingVocab ? new CompactVocabCache() : new InMemoryLookupCache();
 
                     ret.setVocab(vocabCache);
                 }
@@ -614,6 +680,7 @@ public class Word2Vec extends WordVectorsImpl {
                 ret.batchSize = batchSize;
                 ret.sample = sampling;
                 ret.workers = workers;
+                ret.maxVocabSize = maxVocabSize;
                 ret.invertedIndex = index;
                 ret.lookupTable = lookupTable;
 
@@ -625,7 +692,7 @@ public class Word2Vec extends WordVectorsImpl {
                 }
 
                 if(vocabCache == null) {
-                    vocabCache = new InMemoryLookupCache();
+                    vocabCache = streamingVocab ? new CompactVocabCache() : new InMemoryLookupCache();
 
                     ret.setVocab(vocabCache);
                 }
@@ -38,6 +38,7 @@ import org.deeplearning4j.text.tokenization.tokenizer.Tokenizer;
 import org.deeplearning4j.text.tokenization.tokenizerfactory.TokenizerFactory;
 import org.deeplearning4j.text.movingwindow.Util;
 import org.deeplearning4j.models.word2vec.wordstore.VocabCache;
+import org.deeplearning4j.models.word2vec.wordstore.inmemory.CompactVocabCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -208,6 +209,13 @@ public class VocabActor extends UntypedActor {
         if(token.isEmpty())
             token = oldToken;
 
+        //a vocabulary counted up front can't be added to; only look the token up
+        if(cache instanceof CompactVocabCache) {
+            VocabWord known = cache.tokenFor(token);
+            words.add(known != null ? known : new VocabWord(1.0, token));
+            return;
+        }
+
         cache.incrementWordCount(token);
 
 
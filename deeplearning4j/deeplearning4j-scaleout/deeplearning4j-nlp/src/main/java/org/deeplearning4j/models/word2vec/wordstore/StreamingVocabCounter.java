@@ -0,0 +1,305 @@
+package org.deeplearning4j.models.word2vec.wordstore;
+
+import org.deeplearning4j.models.word2vec.VocabWord;
+import org.deeplearning4j.models.word2vec.wordstore.inmemory.CompactVocabCache;
+import org.deeplearning4j.text.sentenceiterator.SentenceIterator;
+import org.deeplearning4j.text.tokenization.tokenizer.Tokenizer;
+import org.deeplearning4j.text.tokenization.tokenizerfactory.DefaultTokenizerFactory;
+import org.deeplearning4j.text.tokenization.tokenizerfactory.TokenizerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Builds a vocabulary in a single streaming pass over a corpus
+ * with memory bounded by the number of distinct tokens kept, not
+ * the number of distinct tokens in the corpus.
+ *
+ * The calling thread reads sentences in batches and hands them to
+ * worker threads that tokenize and count in to a local {@link TokenCounter}.
+ * Workers periodically merge their counts in to a fixed number of shards,
+ * each with its own lock. When a shard grows past its share of the
+ * maximum vocabulary size, tokens occurring at most minReduce times are
+ * dropped and minReduce is incremented, like ReduceVocab in the original
+ * word2vec tool. Counts of dropped tokens are lost, so a token that is
+ * rare early in the corpus and common later may be undercounted.
+ *
+ * Finally the shards are merged, tokens below the minimum word frequency
+ * dropped and the rest loaded, most frequent first, in to a {@link CompactVocabCache}.
+ *
+ * @author Adam Gibson
+ */
+public class StreamingVocabCounter {
+    private static final Logger log = LoggerFactory.getLogger(StreamingVocabCounter.class);
+    private static final List<String> END = Collections.emptyList();
+
+    private final TokenizerFactory tokenizerFactory;
+    private final Set<String> stopWords;
+    private final int minWordFrequency;
+    private final int workers;
+    private final int numShards;
+    private final int maxVocabSize;
+    private final int batchSize;
+    private final int localFlushSize;
+
+    private TokenCounter[] shards;
+    private long[] minReduce;
+    private final AtomicLong totalWords = new AtomicLong();
+    private final AtomicInteger numDocs = new AtomicInteger();
+    private final AtomicLong pruned = new AtomicLong();
+
+    protected StreamingVocabCounter(Builder builder) {
+        this.tokenizerFactory = builder.tokenizerFactory;
+        this.stopWords = new HashSet<>(builder.stopWords);
+        this.minWordFrequency = builder.minWordFrequency;
+        this.workers = Math.max(1, builder.workers);
+        this.numShards = Math.max(1, builder.numShards);
+        this.maxVocabSize = builder.maxVocabSize;
+        this.batchSize = Math.max(1, builder.batchSize);
+        this.localFlushSize = Math.max(1024, builder.localFlushSize);
+    }
+
+    /**
+     * Count the tokens of every sentence and build a new vocabulary
+     * @param iter the sentences to count
+     * @return the vocabulary
+     */
+    public CompactVocabCache buildVocab(SentenceIterator iter) {
+        CompactVocabCache cache = new CompactVocabCache();
+        buildVocab(iter, cache);
+        return cache;
+    }
+
+    /**
+     * Count the tokens of every sentence and load the vocabulary in to the given cache
+     * @param iter the sentences to count
+     * @param cache the cache to load
+     */
+    public void buildVocab(SentenceIterator iter, CompactVocabCache cache) {
+        shards = new TokenCounter[numShards];
+        minReduce = new long[numShards];
+        for(int i = 0; i < numShards; i++)
+            shards[i] = new TokenCounter();
+        totalWords.set(0);
+        numDocs.set(0);
+        pruned.set(0);
+
+        final BlockingQueue<List<String>> queue = new ArrayBlockingQueue<>(workers * 2);
+        final AtomicReference<Throwable> error = new AtomicReference<>();
+        Thread[] threads = new Thread[workers];
+        for(int i = 0; i < workers; i++) {
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        count(queue);
+                    } catch (Throwable t) {
+                        error.compareAndSet(null, t);
+                        //keep draining so the reader never blocks on a dead worker
+                        drain(queue);
+                    }
+                }
+            }, "vocab-counter-" + i);
+            threads[i].setDaemon(true);
+            threads[i].start();
+        }
+
+        try {
+            try {
+                List<String> batch = new ArrayList<>(batchSize);
+                while(iter.hasNext() && error.get() == null) {
+                    String sentence = iter.nextSentence();
+                    if(sentence == null)
+                        break;
+                    if(sentence.isEmpty())
+                        continue;
+                    batch.add(sentence);
+                    if(batch.size() >= batchSize) {
+                        queue.put(batch);
+                        batch = new ArrayList<>(batchSize);
+                    }
+                }
+                if(!batch.isEmpty())
+                    queue.put(batch);
+            } finally {
+                for(int i = 0; i < workers; i++)
+                    queue.put(END);
+            }
+            for(Thread thread : threads)
+                thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+
+        if(error.get() != null)
+            throw new RuntimeException("Unable to count vocab", error.get());
+
+        merge(cache);
+    }
+
+    private void count(BlockingQueue<List<String>> queue) throws InterruptedException {
+        TokenCounter local = new TokenCounter(localFlushSize);
+        while(true) {
+            List<String> batch = queue.take();
+            if(batch == END)
+                break;
+            long words = 0;
+            for(String sentence : batch) {
+                int doc = numDocs.getAndIncrement();
+                Tokenizer tokenizer = tokenizerFactory.create(sentence);
+                while(tokenizer.hasMoreTokens()) {
+                    String token = tokenizer.nextToken();
+                    if(token == null || token.isEmpty() || stopWords.contains(token))
+                        continue;
+                    local.increment(token, doc);
+                    words++;
+                }
+            }
+            totalWords.addAndGet(words);
+            if(local.size() >= localFlushSize)
+                flush(local);
+        }
+        flush(local);
+    }
+
+    private void drain(BlockingQueue<List<String>> queue) {
+        try {
+            while(queue.take() != END)
+                ;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    //merge a worker's counts in to the shards, pruning shards that grow too large
+    private void flush(TokenCounter local) {
+        final int maxShardSize = maxVocabSize > 0 ? Math.max(1, maxVocabSize / numShards) : Integer.MAX_VALUE;
+        local.forEach(new TokenCounter.Visitor() {
+            @Override
+            public void visit(String token, long count, int docCount) {
+                int shard = (TokenCounter.hash(token) & Integer.MAX_VALUE) % numShards;
+                TokenCounter counter = shards[shard];
+                synchronized (counter) {
+                    counter.add(token, count, docCount);
+                    if(counter.size() > maxShardSize) {
+                        pruned.addAndGet(counter.prune(++minReduce[shard]));
+                    }
+                }
+            }
+        });
+        local.clear();
+    }
+
+    private void merge(CompactVocabCache cache) {
+        final List<VocabWord> words = new ArrayList<>();
+        final TokenCounter kept = new TokenCounter();
+        for(TokenCounter shard : shards) {
+            shard.forEach(new TokenCounter.Visitor() {
+                @Override
+                public void visit(String token, long count, int docCount) {
+                    if(count >= minWordFrequency) {
+                        words.add(new VocabWord(count, token));
+                        kept.add(token, count, docCount);
+                    }
+                }
+            });
+        }
+        shards = null;
+
+        VocabWord[] sorted = words.toArray(new VocabWord[words.size()]);
+        Arrays.sort(sorted, new Comparator<VocabWord>() {
+            @Override
+            public int compare(VocabWord o1, VocabWord o2) {
+                int c = Double.compare(o2.getWordFrequency(), o1.getWordFrequency());
+                return c != 0 ? c : o1.getWord().compareTo(o2.getWord());
+            }
+        });
+        int[] docCounts = new int[sorted.length];
+        for(int i = 0; i < sorted.length; i++)
+            docCounts[i] = kept.docCount(sorted[i].getWord());
+
+        cache.load(sorted, docCounts, totalWords.get(), numDocs.get());
+        log.info("Built vocab of " + sorted.length + " words from " + totalWords.get() + " tokens in "
+                + numDocs.get() + " sentences; pruned " + pruned.get() + " rare tokens while counting");
+    }
+
+    public static class Builder {
+        protected TokenizerFactory tokenizerFactory = new DefaultTokenizerFactory();
+        protected Collection<String> stopWords = new ArrayList<>();
+        protected int minWordFrequency = 5;
+        protected int workers = Runtime.getRuntime().availableProcessors();
+        protected int numShards = 64;
+        protected int maxVocabSize = 20000000;
+        protected int batchSize = 1000;
+        protected int localFlushSize = 100000;
+
+        public Builder tokenizerFactory(TokenizerFactory tokenizerFactory) {
+            this.tokenizerFactory = tokenizerFactory;
+            return this;
+        }
+
+        public Builder stopWords(Collection<String> stopWords) {
+            this.stopWords = stopWords;
+            return this;
+        }
+
+        public Builder minWordFrequency(int minWordFrequency) {
+            this.minWordFrequency = minWordFrequency;
+            return this;
+        }
+
+        public Builder workers(int workers) {
+            this.workers = workers;
+            return this;
+        }
+
+        public Builder numShards(int numShards) {
+            this.numShards = numShards;
+            return this;
+        }
+
+        /**
+         * The maximum number of distinct tokens to keep while counting,
+         * across all shards; 0 for no limit
+         */
+        public Builder maxVocabSize(int maxVocabSize) {
+            this.maxVocabSize = maxVocabSize;
+            return this;
+        }
+
+        /**
+         * The number of sentences handed to a worker at a time
+         */
+        public Builder batchSize(int batchSize) {
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        /**
+         * The number of distinct tokens a worker counts
+         * before merging them in to the shards
+         */
+        public Builder localFlushSize(int localFlushSize) {
+            this.localFlushSize = localFlushSize;
+            return this;
+        }
+
+        public StreamingVocabCounter build() {
+            return new StreamingVocabCounter(this);
+        }
+    }
+}
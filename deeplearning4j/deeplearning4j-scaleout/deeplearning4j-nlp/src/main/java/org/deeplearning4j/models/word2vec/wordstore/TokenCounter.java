@@ -0,0 +1,200 @@
+package org.deeplearning4j.models.word2vec.wordstore;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing hash map from tokens to occurrence and
+ * document counts, stored in parallel primitive arrays
+ * rather than as an entry object per token. Not thread safe.
+ *
+ * @author Adam Gibson
+ */
+public class TokenCounter {
+    private static final float LOAD_FACTOR = 0.7f;
+
+    private String[] keys;
+    private long[] counts;
+    private int[] docs;
+    //the last document each token was counted in, to count documents once per token
+    private int[] lastDoc;
+    private int size;
+
+    public TokenCounter() {
+        this(1024);
+    }
+
+    /**
+     * @param expectedSize the number of tokens expected
+     */
+    public TokenCounter(int expectedSize) {
+        allocate(tableSize(expectedSize));
+    }
+
+    private static int tableSize(int expectedSize) {
+        int capacity = 16;
+        while(capacity * LOAD_FACTOR < expectedSize)
+            capacity <<= 1;
+        return capacity;
+    }
+
+    private void allocate(int capacity) {
+        keys = new String[capacity];
+        counts = new long[capacity];
+        docs = new int[capacity];
+        lastDoc = new int[capacity];
+        Arrays.fill(lastDoc, -1);
+        size = 0;
+    }
+
+    /**
+     * Spread the bits of a hash code; also used to pick shards
+     */
+    public static int hash(String token) {
+        int h = token.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private int slot(String token) {
+        int mask = keys.length - 1;
+        int i = hash(token) & mask;
+        while(keys[i] != null && !keys[i].equals(token))
+            i = (i + 1) & mask;
+        return i;
+    }
+
+    /**
+     * Count an occurrence of a token in a document
+     * @param token the token
+     * @param doc the id of the document the token occurred in;
+     *            each token is counted once per consecutive run of the same id
+     */
+    public void increment(String token, int doc) {
+        int i = slot(token);
+        if(keys[i] == null) {
+            keys[i] = token;
+            size++;
+        }
+        counts[i]++;
+        if(lastDoc[i] != doc) {
+            lastDoc[i] = doc;
+            docs[i]++;
+        }
+        if(size > keys.length * LOAD_FACTOR)
+            rehash(keys.length << 1);
+    }
+
+    /**
+     * Add counts for a token
+     * @param token the token
+     * @param count the number of occurrences to add
+     * @param docCount the number of documents to add
+     */
+    public void add(String token, long count, int docCount) {
+        int i = slot(token);
+        if(keys[i] == null) {
+            keys[i] = token;
+            size++;
+        }
+        counts[i] += count;
+        docs[i] += docCount;
+        if(size > keys.length * LOAD_FACTOR)
+            rehash(keys.length << 1);
+    }
+
+    /**
+     * Add every count of another counter to this one
+     */
+    public void addAll(TokenCounter other) {
+        for(int i = 0; i < other.keys.length; i++)
+            if(other.keys[i] != null)
+                add(other.keys[i], other.counts[i], other.docs[i]);
+    }
+
+    /**
+     * The number of occurrences of a token
+     * @return the count, or 0 if the token has not been seen
+     */
+    public long count(String token) {
+        int i = slot(token);
+        return keys[i] == null ? 0 : counts[i];
+    }
+
+    /**
+     * The number of documents a token occurred in
+     * @return the count, or 0 if the token has not been seen
+     */
+    public int docCount(String token) {
+        int i = slot(token);
+        return keys[i] == null ? 0 : docs[i];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Remove every token that occurred at most the given number of times
+     * @param minCount the highest count to remove
+     * @return the number of tokens removed
+     */
+    public int prune(long minCount) {
+        String[] oldKeys = keys;
+        long[] oldCounts = counts;
+        int[] oldDocs = docs;
+        int[] oldLastDoc = lastDoc;
+        int kept = 0;
+        for(int i = 0; i < oldKeys.length; i++)
+            if(oldKeys[i] != null && oldCounts[i] > minCount)
+                kept++;
+
+        int removed = size - kept;
+        allocate(tableSize(Math.max(kept, 16) * 2));
+        for(int i = 0; i < oldKeys.length; i++)
+            if(oldKeys[i] != null && oldCounts[i] > minCount)
+                put(oldKeys[i], oldCounts[i], oldDocs[i], oldLastDoc[i]);
+        return removed;
+    }
+
+    /**
+     * Remove every token
+     */
+    public void clear() {
+        allocate(keys.length);
+    }
+
+    private void rehash(int capacity) {
+        String[] oldKeys = keys;
+        long[] oldCounts = counts;
+        int[] oldDocs = docs;
+        int[] oldLastDoc = lastDoc;
+        allocate(capacity);
+        for(int i = 0; i < oldKeys.length; i++)
+            if(oldKeys[i] != null)
+                put(oldKeys[i], oldCounts[i], oldDocs[i], oldLastDoc[i]);
+    }
+
+    private void put(String token, long count, int docCount, int last) {
+        int i = slot(token);
+        keys[i] = token;
+        counts[i] = count;
+        docs[i] = docCount;
+        lastDoc[i] = last;
+        size++;
+    }
+
+    /**
+     * Visit every token and its counts
+     */
+    public void forEach(Visitor visitor) {
+        for(int i = 0; i < keys.length; i++)
+            if(keys[i] != null)
+                visitor.visit(keys[i], counts[i], docs[i]);
+    }
+
+    /**
+     * Callback for {@link #forEach(Visitor)}
+     */
+    public interface Visitor {
+        void visit(String token, long count, int docCount);
+    }
+}
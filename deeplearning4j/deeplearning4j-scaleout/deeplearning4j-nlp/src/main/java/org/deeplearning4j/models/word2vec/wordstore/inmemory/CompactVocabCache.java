@@ -0,0 +1,276 @@
+package org.deeplearning4j.models.word2vec.wordstore.inmemory;
+
+import org.deeplearning4j.models.word2vec.VocabWord;
+import org.deeplearning4j.models.word2vec.wordstore.TokenCounter;
+import org.deeplearning4j.models.word2vec.wordstore.VocabCache;
+import org.deeplearning4j.util.SerializationUtils;
+
+import java.io.File;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Fixed vocabulary backed by arrays.
+ *
+ * Words are stored in index order (most frequent first, as the huffman
+ * tree expects) with counts in primitive arrays and an open addressing
+ * table of indices for lookups; there are no maps of word objects and
+ * no synchronization on reads.
+ *
+ * The vocabulary is set once with {@link #load(VocabWord[], int[], long, int)},
+ * normally by a {@link org.deeplearning4j.models.word2vec.wordstore.StreamingVocabCounter}.
+ * After that the vocabulary is fixed: the counting and adding calls of
+ * {@link VocabCache} throw {@link IllegalStateException}, and only words
+ * already in the vocabulary are known as tokens.
+ *
+ * @author Adam Gibson
+ */
+public class CompactVocabCache implements VocabCache {
+    private VocabWord[] vocabWords = new VocabWord[0];
+    private long[] counts = new long[0];
+    private int[] docCounts = new int[0];
+    //index + 1 of the word hashed to each slot, 0 if empty
+    private int[] slots = new int[16];
+    private long totalWordOccurrences;
+    private int numDocs;
+
+    /**
+     * Set the vocabulary. Each word's index is set to its position.
+     * @param words the words, most frequent first
+     * @param docCounts the number of documents each word occurred in
+     * @param totalWordOccurrences the number of tokens in the corpus
+     * @param numDocs the number of documents in the corpus
+     */
+    public synchronized void load(VocabWord[] words, int[] docCounts, long totalWordOccurrences, int numDocs) {
+        if(words.length != docCounts.length)
+            throw new IllegalArgumentException("Expected a document count for every word");
+        long[] counts = new long[words.length];
+        int capacity = 16;
+        while(capacity < words.length * 2)
+            capacity <<= 1;
+        int[] slots = new int[capacity];
+        for(int i = 0; i < words.length; i++) {
+            words[i].setIndex(i);
+            counts[i] = (long) words[i].getWordFrequency();
+            int slot = TokenCounter.hash(words[i].getWord()) & (capacity - 1);
+            while(slots[slot] != 0) {
+                if(words[slots[slot] - 1].getWord().equals(words[i].getWord()))
+                    throw new IllegalArgumentException("Duplicate word " + words[i].getWord());
+                slot = (slot + 1) & (capacity - 1);
+            }
+            slots[slot] = i + 1;
+        }
+
+        this.vocabWords = words;
+        this.counts = counts;
+        this.docCounts = docCounts;
+        this.slots = slots;
+        this.totalWordOccurrences = totalWordOccurrences;
+        this.numDocs = numDocs;
+    }
+
+    @Override
+    public int indexOf(String word) {
+        if(word == null)
+            return -1;
+        int[] slots = this.slots;
+        VocabWord[] words = this.vocabWords;
+        int mask = slots.length - 1;
+        int slot = TokenCounter.hash(word) & mask;
+        while(slots[slot] != 0) {
+            int index = slots[slot] - 1;
+            if(words[index].getWord().equals(word))
+                return index;
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    @Override
+    public Collection<String> words() {
+        final VocabWord[] words = this.vocabWords;
+        return new AbstractList<String>() {
+            @Override
+            public String get(int index) {
+                return words[index].getWord();
+            }
+
+            @Override
+            public int size() {
+                return words.length;
+            }
+        };
+    }
+
+    @Override
+    public Collection<VocabWord> vocabWords() {
+        return Collections.unmodifiableList(Arrays.asList(vocabWords));
+    }
+
+    @Override
+    public Collection<VocabWord> tokens() {
+        return vocabWords();
+    }
+
+    @Override
+    public int wordFrequency(String word) {
+        int index = indexOf(word);
+        return index < 0 ? 0 : (int) counts[index];
+    }
+
+    @Override
+    public boolean containsWord(String word) {
+        return indexOf(word) >= 0;
+    }
+
+    @Override
+    public String wordAtIndex(int index) {
+        VocabWord[] words = this.vocabWords;
+        return index < 0 || index >= words.length ? null : words[index].getWord();
+    }
+
+    @Override
+    public long totalWordOccurrences() {
+        return totalWordOccurrences;
+    }
+
+    @Override
+    public VocabWord wordFor(String word) {
+        int index = indexOf(word);
+        return index < 0 ? null : vocabWords[index];
+    }
+
+    @Override
+    public VocabWord tokenFor(String word) {
+        return wordFor(word);
+    }
+
+    @Override
+    public boolean hasToken(String token) {
+        return containsWord(token);
+    }
+
+    @Override
+    public int numWords() {
+        return vocabWords.length;
+    }
+
+    @Override
+    public int docAppearedIn(String word) {
+        int index = indexOf(word);
+        return index < 0 ? 0 : docCounts[index];
+    }
+
+    @Override
+    public int totalNumberOfDocs() {
+        return numDocs;
+    }
+
+    /**
+     * Unsupported; counts are fixed when the vocabulary is loaded
+     */
+    @Override
+    public void incrementWordCount(String word) {
+        throw fixed();
+    }
+
+    /**
+     * Unsupported; counts are fixed when the vocabulary is loaded
+     */
+    @Override
+    public void incrementWordCount(String word, int increment) {
+        throw fixed();
+    }
+
+    /**
+     * Unsupported; counts are fixed when the vocabulary is loaded
+     */
+    @Override
+    public void incrementDocCount(String word, int howMuch) {
+        throw fixed();
+    }
+
+    /**
+     * Unsupported; counts are fixed when the vocabulary is loaded
+     */
+    @Override
+    public void setCountForDoc(String word, int count) {
+        throw fixed();
+    }
+
+    /**
+     * Unsupported; counts are fixed when the vocabulary is loaded
+     */
+    @Override
+    public void incrementTotalDocCount() {
+        throw fixed();
+    }
+
+    /**
+     * Unsupported; counts are fixed when the vocabulary is loaded
+     */
+    @Override
+    public void incrementTotalDocCount(int by) {
+        throw fixed();
+    }
+
+    /**
+     * Unsupported; the vocabulary is fixed when it is loaded
+     */
+    @Override
+    public void addWordToIndex(int index, String word) {
+        throw fixed();
+    }
+
+    /**
+     * Unsupported; the vocabulary is fixed when it is loaded
+     */
+    @Override
+    public void putVocabWord(String word) {
+        throw fixed();
+    }
+
+    /**
+     * Unsupported; the vocabulary is fixed when it is loaded
+     */
+    @Override
+    public void addToken(VocabWord word) {
+        throw fixed();
+    }
+
+    private IllegalStateException fixed() {
+        return new IllegalStateException("CompactVocabCache is fixed once loaded; count the vocabulary with a StreamingVocabCounter");
+    }
+
+    @Override
+    public synchronized void saveVocab() {
+        SerializationUtils.saveObject(this, new File("ser"));
+    }
+
+    @Override
+    public boolean vocabExists() {
+        return new File("ser").exists();
+    }
+
+    @Override
+    public synchronized void loadVocab() {
+        CompactVocabCache cache = SerializationUtils.readObject(new File("ser"));
+        this.vocabWords = cache.vocabWords;
+        this.counts = cache.counts;
+        this.docCounts = cache.docCounts;
+        this.slots = cache.slots;
+        this.totalWordOccurrences = cache.totalWordOccurrences;
+        this.numDocs = cache.numDocs;
+    }
+
+    @Override
+    public String toString() {
+        return "CompactVocabCache{" +
+                "numWords=" + vocabWords.length +
+                ", totalWordOccurrences=" + totalWordOccurrences +
+                ", numDocs=" + numDocs +
+                '}';
+    }
+}
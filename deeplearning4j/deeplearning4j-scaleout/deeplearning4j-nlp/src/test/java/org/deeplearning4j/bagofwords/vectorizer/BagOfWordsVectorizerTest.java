@@ -34,6 +34,9 @@ import org.deeplearning4j.text.tokenization.tokenizerfactory.TokenizerFactory;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.sparse.CSRMatrix;
+import org.nd4j.linalg.factory.Nd4j;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.io.ClassPathResource;
@@ -44,6 +47,7 @@ import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  *@author Adam Gibson
@@ -85,6 +89,20 @@ public class BagOfWordsVectorizerTest {
         assertEquals(word,vectorizer.vocab().tokenFor("file."));
         assertEquals(2,vectorizer.index().numDocuments());
 
+        //the sparse transform holds the same weights as the dense one
+        String text = "This is 2 file. This file.";
+        INDArray dense = vectorizer.transform(text);
+        CSRMatrix sparse = vectorizer.transformSparse(text);
+        assertEquals(dense, sparse.toDense());
+        int nonZero = 0;
+        for (int i = 0; i < dense.length(); i++)
+            if (dense.getDouble(i) != 0)
+                nonZero++;
+        assertTrue(nonZero > 0);
+        assertEquals(nonZero, sparse.nnz());
+        INDArray weights = Nd4j.rand(dense.columns(), 3);
+        assertEquals(dense.mmul(weights), sparse.mmul(weights));
+
 
     }
 
@@ -35,11 +35,15 @@ import org.deeplearning4j.text.tokenization.tokenizerfactory.UimaTokenizerFactor
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.sparse.CSRMatrix;
+import org.nd4j.linalg.factory.Nd4j;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.io.ClassPathResource;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.junit.Assume.assumeNotNull;
 
@@ -117,5 +121,17 @@ public class TfIdfVectorizerTest {
         assertEquals(docStrings.size(),docs.length);
         assertEquals(docStrings.size(), vectorizer.index().documents(word).length);
 
+        //the sparse transform holds the same weights as the dense one, one entry per known word
+        for(String text : docStrings) {
+            INDArray dense = vectorizer.transform(text);
+            CSRMatrix sparse = vectorizer.transformSparse(text);
+            assertEquals(dense, sparse.toDense());
+            assertEquals(1, sparse.rows());
+            assertEquals(vectorizer.vocab().numWords(), sparse.columns());
+            assertTrue(sparse.nnz() > 0);
+            INDArray weights = Nd4j.rand(dense.columns(), 3);
+            assertEquals(dense.mmul(weights), sparse.mmul(weights));
+        }
+
     }
 }
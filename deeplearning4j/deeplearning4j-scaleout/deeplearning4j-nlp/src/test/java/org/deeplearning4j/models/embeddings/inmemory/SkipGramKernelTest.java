@@ -0,0 +1,183 @@
+/*
+ *
+ *  * Copyright 2015 Skymind,Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ *
+ */
+
+package org.deeplearning4j.models.embeddings.inmemory;
+
+import org.deeplearning4j.models.word2vec.Huffman;
+import org.deeplearning4j.models.word2vec.VocabWord;
+import org.deeplearning4j.models.word2vec.wordstore.VocabCache;
+import org.deeplearning4j.models.word2vec.wordstore.inmemory.InMemoryLookupCache;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Adam Gibson
+ */
+public class SkipGramKernelTest {
+    private static final String[] WORDS = {"the", "cat", "sat", "on", "mat", "dog", "ran"};
+    private static final int VECTOR_LENGTH = 10;
+    private static final float ALPHA = 0.025f;
+
+    private DataBuffer.Type type;
+    private VocabCache vocab;
+    private INDArray syn0;
+    private INDArray syn1;
+
+    @Before
+    public void before() {
+        type = Nd4j.dtype;
+        Nd4j.dtype = DataBuffer.Type.FLOAT;
+        vocab = new InMemoryLookupCache(false);
+        for (int i = 0; i < WORDS.length; i++) {
+            VocabWord word = new VocabWord(WORDS.length - i, WORDS[i]);
+            word.setIndex(i);
+            vocab.addToken(word);
+            vocab.addWordToIndex(i, WORDS[i]);
+            vocab.putVocabWord(WORDS[i]);
+        }
+        List<VocabWord> byFrequency = new ArrayList<>();
+        for (String word : WORDS)
+            byFrequency.add(vocab.wordFor(word));
+        new Huffman(byFrequency).build();
+
+        Nd4j.getRandom().setSeed(123);
+        syn0 = Nd4j.rand(WORDS.length, VECTOR_LENGTH).subi(0.5).divi(VECTOR_LENGTH);
+        //non zero so the first update already reaches syn0
+        syn1 = Nd4j.rand(WORDS.length, VECTOR_LENGTH).subi(0.5);
+    }
+
+    @After
+    public void after() {
+        Nd4j.dtype = type;
+    }
+
+    @Test
+    public void testPairMatchesLookupTable() {
+        InMemoryLookupTable kernelTable = table();
+        InMemoryLookupTable reference = table();
+        SkipGramKernel kernel = kernelTable.skipGramKernel();
+        assertNotNull(kernel);
+
+        int[][] pairs = {{0, 1}, {1, 0}, {2, 3}, {4, 2}, {6, 5}, {5, 6}, {3, 3}};
+        for (int[] pair : pairs) {
+            kernel.trainPair(pair[0], pair[1], 0, ALPHA);
+            reference.iterate(vocab.wordFor(WORDS[pair[0]]), vocab.wordFor(WORDS[pair[1]]));
+        }
+
+        assertNotEquals(syn0, kernelTable.getSyn0());
+        assertArraysEquals(reference.getSyn0(), kernelTable.getSyn0());
+        assertArraysEquals(reference.getSyn1(), kernelTable.getSyn1());
+    }
+
+    @Test
+    public void testRepeatedWordInWindowIsTrained() {
+        InMemoryLookupTable kernelTable = table();
+        InMemoryLookupTable reference = table();
+        SkipGramKernel kernel = kernelTable.skipGramKernel();
+
+        //with a window of one, each position is paired only with its neighbours: "the the" trains the on the twice
+        long count = kernelTable.getModificationCount();
+        kernel.trainSentence(new int[]{0, 0}, 1, 0, ALPHA);
+        assertTrue(kernelTable.getModificationCount() > count);
+        VocabWord the = vocab.wordFor("the");
+        reference.iterate(the, the);
+        reference.iterate(the, the);
+
+        assertNotEquals(syn0.getRow(0), kernelTable.getSyn0().getRow(0));
+        assertArraysEquals(reference.getSyn0(), kernelTable.getSyn0());
+        assertArraysEquals(reference.getSyn1(), kernelTable.getSyn1());
+    }
+
+    @Test
+    public void testConcurrentTraining() throws Exception {
+        final InMemoryLookupTable table = table();
+        table.setNegative(3);
+        table.initNegative();
+        final SkipGramKernel kernel = table.skipGramKernel();
+        assertNotNull(kernel);
+        long count = table.getModificationCount();
+
+        final AtomicReference<Throwable> error = new AtomicReference<>();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final int seed = t;
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        Random random = new Random(seed);
+                        long nextRandom = seed;
+                        for (int s = 0; s < 500; s++) {
+                            int[] sentence = new int[10];
+                            for (int i = 0; i < sentence.length; i++)
+                                sentence[i] = random.nextInt(WORDS.length);
+                            nextRandom = kernel.trainSentence(sentence, 3, nextRandom, ALPHA);
+                        }
+                    } catch (Throwable e) {
+                        error.set(e);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads)
+            thread.join();
+
+        assertNull(error.get());
+        assertTrue(table.getModificationCount() > count);
+        //no writes since the last read: the version stays put
+        assertEquals(table.getModificationCount(), table.getModificationCount());
+        for (INDArray weights : new INDArray[]{table.getSyn0(), table.getSyn1(), table.getSyn1Neg()}) {
+            for (int i = 0; i < weights.length(); i++) {
+                float value = weights.getFloat(i);
+                assertFalse(Float.isNaN(value) || Float.isInfinite(value));
+            }
+        }
+        assertNotEquals(syn0, table.getSyn0());
+    }
+
+    private InMemoryLookupTable table() {
+        InMemoryLookupTable table = (InMemoryLookupTable) new InMemoryLookupTable.Builder()
+                .cache(vocab).vectorLength(VECTOR_LENGTH).lr(ALPHA).negative(0).useAdaGrad(false).build();
+        table.setSyn0(syn0.dup());
+        table.setSyn1(syn1.dup());
+        return table;
+    }
+
+    private static void assertArraysEquals(INDArray expected, INDArray actual) {
+        assertEquals(expected.length(), actual.length());
+        for (int i = 0; i < expected.length(); i++)
+            assertEquals(expected.getFloat(i), actual.getFloat(i), 1e-5);
+    }
+}
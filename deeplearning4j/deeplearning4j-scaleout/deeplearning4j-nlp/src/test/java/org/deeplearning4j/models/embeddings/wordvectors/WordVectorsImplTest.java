@@ -0,0 +1,97 @@
+/*
+ *
+ *  * Copyright 2015 Skymind,Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ *
+ */
+
+package org.deeplearning4j.models.embeddings.wordvectors;
+
+import org.deeplearning4j.models.embeddings.inmemory.InMemoryLookupTable;
+import org.deeplearning4j.models.embeddings.loader.WordVectorSerializer;
+import org.junit.Before;
+import org.junit.Test;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.springframework.core.io.ClassPathResource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Adam Gibson
+ */
+public class WordVectorsImplTest {
+    private WordVectors vec;
+    private InMemoryLookupTable table;
+
+    @Before
+    public void before() throws Exception {
+        vec = WordVectorSerializer.loadGoogleModel(new ClassPathResource("word2vec/googleload/sample_vec.txt").getFile(), false, true);
+        table = (InMemoryLookupTable) vec.lookupTable();
+    }
+
+    @Test
+    public void testNormalizedWeightsFollowPutVector() {
+        //fills the normalized weights cache
+        List<String> before = new ArrayList<>(vec.wordsNearest("database", 5));
+        String other = otherWord(before.get(0));
+
+        long count = table.getModificationCount();
+        table.putVector(other, table.vector("database"));
+        assertTrue(table.getModificationCount() > count);
+        assertEquals(Arrays.asList(other), new ArrayList<>(vec.wordsNearest("database", 1)));
+    }
+
+    @Test
+    public void testNormalizedWeightsFollowDirectWrites() {
+        List<String> before = new ArrayList<>(vec.wordsNearest("database", 5));
+        String other = otherWord(before.get(0));
+
+        table.getSyn0().putRow(vec.indexOf(other), table.vector("database").mul(2));
+        table.weightsModified();
+        assertEquals(Arrays.asList(other), new ArrayList<>(vec.wordsNearest("database", 1)));
+    }
+
+    @Test
+    public void testWordsNearestBatchMatchesWordsNearest() {
+        String[] words = {"database", "data", "query", "storage", "the"};
+        int top = 5;
+        INDArray queries = Nd4j.create(words.length, table.layerSize());
+        for (int i = 0; i < words.length; i++)
+            queries.putRow(i, vec.getWordVectorMatrix(words[i]));
+
+        List<List<String>> batch = vec.wordsNearestBatch(queries, top + 1);
+        assertEquals(words.length, batch.size());
+        for (int i = 0; i < words.length; i++) {
+            //the query word is its own nearest word, but wordsNearest leaves it out
+            List<String> nearest = new ArrayList<>(batch.get(i));
+            assertEquals(words[i], nearest.remove(0));
+            assertEquals(new ArrayList<>(vec.wordsNearest(words[i], top)), nearest);
+        }
+    }
+
+    //a word other than the query and its nearest word
+    private String otherWord(String nearest) {
+        for (String word : vec.vocab().words()) {
+            if (!word.equals("database") && !word.equals(nearest) && !word.equals("</s>"))
+                return word;
+        }
+        throw new IllegalStateException("Vocab too small");
+    }
+}
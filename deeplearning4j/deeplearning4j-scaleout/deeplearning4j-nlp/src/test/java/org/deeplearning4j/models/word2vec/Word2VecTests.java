@@ -24,7 +24,10 @@ import org.deeplearning4j.models.embeddings.WeightLookupTable;
 import org.deeplearning4j.models.embeddings.inmemory.InMemoryLookupTable;
 import org.deeplearning4j.models.embeddings.loader.WordVectorSerializer;
 import org.deeplearning4j.models.embeddings.wordvectors.WordVectors;
+import org.deeplearning4j.models.word2vec.wordstore.VocabCache;
+import org.deeplearning4j.models.word2vec.wordstore.inmemory.CompactVocabCache;
 import org.deeplearning4j.models.word2vec.wordstore.inmemory.InMemoryLookupCache;
+import org.deeplearning4j.text.sentenceiterator.CollectionSentenceIterator;
 import org.deeplearning4j.text.sentenceiterator.SentenceIterator;
 import org.deeplearning4j.text.sentenceiterator.UimaSentenceIterator;
 import org.deeplearning4j.text.tokenization.tokenizer.preprocessor.CommonPreprocessor;
@@ -41,8 +44,10 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.Random;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 
@@ -129,6 +134,61 @@ public class Word2VecTests {
         new File("cache.ser").delete();
     }
 
+    @Test
+    public void testStreamingVocabMatchesInMemory() throws Exception {
+        //words only, so both vocab passes see exactly the same tokens
+        Random random = new Random(123);
+        List<String> sentences = new ArrayList<>();
+        for(int i = 0; i < 2000; i++) {
+            StringBuilder sentence = new StringBuilder();
+            for(int j = 0; j < 8; j++) {
+                //skewed towards low numbers, so the tail falls under the minimum frequency
+                int word = (int) (Math.pow(random.nextDouble(), 3) * 3000);
+                sentence.append(j > 0 ? " " : "").append("w").append(word);
+            }
+            sentences.add(sentence.toString());
+        }
+
+        Word2Vec inMemory = new Word2Vec.Builder()
+                .minWordFrequency(5).iterations(1).layerSize(20)
+                .stopWords(new ArrayList<String>()).seed(42)
+                .windowSize(5).iterate(new CollectionSentenceIterator(sentences))
+                .tokenizerFactory(new DefaultTokenizerFactory()).build();
+        inMemory.fit();
+
+        FileUtils.deleteDirectory(new File("word2vec-index"));
+        Word2Vec streaming = new Word2Vec.Builder()
+                .minWordFrequency(5).iterations(1).layerSize(20)
+                .stopWords(new ArrayList<String>()).seed(42).streamingVocab(true)
+                .windowSize(5).iterate(new CollectionSentenceIterator(sentences))
+                .tokenizerFactory(new DefaultTokenizerFactory()).build();
+        streaming.fit();
+
+        VocabCache expected = inMemory.vocab();
+        VocabCache actual = streaming.vocab();
+        assertTrue(actual instanceof CompactVocabCache);
+        assertTrue(actual.numWords() > 0);
+        int expectedWords = 0;
+        for(String word : expected.words()) {
+            if(word.equals("UNK") || word.equals("STOP"))
+                continue;
+            expectedWords++;
+            assertTrue(word, actual.containsWord(word));
+            assertEquals(word, expected.wordFrequency(word), actual.wordFrequency(word));
+            assertEquals(word, expected.docAppearedIn(word), actual.docAppearedIn(word));
+        }
+        assertEquals(expectedWords, actual.numWords());
+
+        //the same words were trained
+        for(String word : actual.words()) {
+            double[] vector = streaming.getWordVector(word);
+            assertEquals(20, vector.length);
+            for(double value : vector)
+                assertFalse(word, Double.isNaN(value));
+            assertEquals(word, 10, streaming.wordsNearest(word, 10).size());
+        }
+    }
+
     @Test
     public void testLoadingWordVectors() throws Exception {
         File modelFile = new File(pathToWriteto);
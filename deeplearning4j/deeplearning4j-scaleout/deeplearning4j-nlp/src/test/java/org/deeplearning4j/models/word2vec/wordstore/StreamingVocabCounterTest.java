@@ -0,0 +1,66 @@
+package org.deeplearning4j.models.word2vec.wordstore;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.deeplearning4j.models.word2vec.wordstore.inmemory.CompactVocabCache;
+import org.deeplearning4j.text.sentenceiterator.CollectionSentenceIterator;
+import org.junit.Test;
+
+/**
+ * @author Adam Gibson
+ */
+public class StreamingVocabCounterTest {
+
+    @Test
+    public void testCounts() {
+        List<String> sentences = new ArrayList<>();
+        for(int i = 0; i < 1000; i++)
+            sentences.add("the cat sat on the mat " + (i % 2 == 0 ? "rare" + i : "dog"));
+
+        CompactVocabCache cache = new StreamingVocabCounter.Builder()
+                .stopWords(Arrays.asList("on"))
+                .minWordFrequency(5).workers(4).batchSize(10).localFlushSize(1024)
+                .build().buildVocab(new CollectionSentenceIterator(sentences));
+
+        assertEquals(5, cache.numWords());
+        assertEquals("the", cache.wordAtIndex(0));
+        assertEquals(0, cache.indexOf("the"));
+        assertEquals(2000, cache.wordFrequency("the"));
+        assertEquals(1000, cache.docAppearedIn("the"));
+        assertEquals(500, cache.wordFrequency("dog"));
+        assertFalse(cache.containsWord("on"));
+        assertFalse(cache.containsWord("rare2"));
+        assertEquals(1000, cache.totalNumberOfDocs());
+        assertEquals(6000, cache.totalWordOccurrences());
+        for(int i = 0; i < cache.numWords(); i++)
+            assertEquals(i, cache.wordFor(cache.wordAtIndex(i)).getIndex());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testFixedOnceLoaded() {
+        CompactVocabCache cache = new StreamingVocabCounter.Builder().minWordFrequency(1)
+                .build().buildVocab(new CollectionSentenceIterator(Arrays.asList("the cat sat")));
+        assertTrue(cache.containsWord("cat"));
+        cache.incrementWordCount("cat");
+    }
+
+    @Test
+    public void testPruning() {
+        List<String> sentences = new ArrayList<>();
+        for(int i = 0; i < 1000; i++)
+            sentences.add("common unique" + i);
+
+        CompactVocabCache cache = new StreamingVocabCounter.Builder()
+                .minWordFrequency(1).workers(2).numShards(2).maxVocabSize(100)
+                .batchSize(10).localFlushSize(1024)
+                .build().buildVocab(new CollectionSentenceIterator(sentences));
+
+        assertTrue(cache.containsWord("common"));
+        assertEquals(1000, cache.wordFrequency("common"));
+        assertTrue(cache.numWords() <= 101);
+    }
+}
@@ -22,15 +22,15 @@ import org.apache.spark.api.java.function.Function;
 import org.canova.api.io.WritableConverter;
 import org.canova.api.records.reader.RecordReader;
 import org.canova.api.split.StringSplit;
+import org.canova.api.util.RecordUtils;
+import org.canova.api.writable.ArrayWritable;
 import org.canova.api.writable.Writable;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.dataset.DataSet;
 import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.linalg.util.FeatureUtil;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
 
 /**
  * Turn a string in to a dataset based on
@@ -56,49 +56,52 @@ public class RecordReaderFunction implements Function<String,DataSet> {
         this(recordReader,labelIndex,numPossibleLabels,null);
     }
 
+    /**
+     * Array writables (for example the pixels of an image) are copied in bulk
+     * and count as one column per value, so the label index refers to values, not writables.
+     */
     @Override
     public DataSet call(String v1) throws Exception {
         recordReader.initialize(new StringSplit(v1));
-        List<DataSet> dataSets = new ArrayList<>();
         Collection<Writable> record = recordReader.next();
-        List<Writable> currList;
-        if(record instanceof List)
-            currList = (List<Writable>) record;
-        else
-            currList = new ArrayList<>(record);
+        if(labelIndex >= 0 && numPossibleLabels < 1)
+            throw new IllegalStateException("Number of possible labels invalid, must be >= 1");
 
+        int numValues = RecordUtils.numValues(record);
+        double[] features = new double[labelIndex >= 0 ? numValues - 1 : numValues];
         INDArray label = null;
-        INDArray featureVector = Nd4j.create(labelIndex >= 0 ? currList.size() - 1 : currList.size());
+        int j = 0;
         int count = 0;
-        for(int j = 0; j < currList.size(); j++) {
-            if(labelIndex >= 0 && j == labelIndex) {
-                if(numPossibleLabels < 1)
-                    throw new IllegalStateException("Number of possible labels invalid, must be >= 1");
-                Writable current = currList.get(j);
+        for(Writable current : record) {
+            if(current instanceof ArrayWritable) {
+                ArrayWritable array = (ArrayWritable) current;
+                int length = array.length();
+                if(labelIndex < j || labelIndex >= j + length) {
+                    array.copyTo(features, count);
+                    count += length;
+                }
+                else {
+                    for(int i = 0; i < length; i++) {
+                        if(j + i == labelIndex)
+                            label = FeatureUtil.toOutcomeVector((int) array.getDouble(i), numPossibleLabels);
+                        else
+                            features[count++] = array.getDouble(i);
+                    }
+                }
+                j += length;
+                continue;
+            }
+            if(j == labelIndex) {
                 if(converter != null)
                     current = converter.convert(current);
                 label = FeatureUtil.toOutcomeVector(Double.valueOf(current.toString()).intValue(), numPossibleLabels);
             }
-            else {
-                Writable current = currList.get(j);
-                featureVector.putScalar(count++,Double.valueOf(current.toString()));
-            }
+            else
+                features[count++] = Double.parseDouble(current.toString());
+            j++;
         }
 
-        dataSets.add(new DataSet(featureVector,labelIndex >= 0 ? label : featureVector));
-
-
-
-
-        List<INDArray> inputs = new ArrayList<>();
-        List<INDArray> labels = new ArrayList<>();
-        for(DataSet data : dataSets) {
-            inputs.add(data.getFeatureMatrix());
-            labels.add(data.getLabels());
-        }
-
-
-        DataSet ret = new DataSet(Nd4j.vstack(inputs.toArray(new INDArray[0])),Nd4j.vstack(labels.toArray(new INDArray[0])));
-        return ret;
+        INDArray featureVector = Nd4j.create(features);
+        return new DataSet(featureVector, labelIndex >= 0 ? label : featureVector);
     }
 }
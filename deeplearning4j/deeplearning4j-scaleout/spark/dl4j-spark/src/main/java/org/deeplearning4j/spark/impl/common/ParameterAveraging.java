@@ -0,0 +1,98 @@
+package org.deeplearning4j.spark.impl.common;
+
+import org.apache.spark.api.java.function.Function2;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.io.Serializable;
+
+/**
+ * Running sum of {@link ParameterUpdate}s for use with treeAggregate.
+ * The sum buffer is allocated on the first update and every further update
+ * or merged partial sum is added to it in place, so each task
+ * holds one buffer no matter how many updates it combines.
+ *
+ * @author Adam Gibson
+ */
+public class ParameterAveraging implements Serializable {
+
+    private INDArray sum;
+    private int count;
+    private boolean changed;
+
+    /**
+     * Add an update to the sum
+     * @param update the update to add
+     * @return this
+     */
+    public ParameterAveraging add(ParameterUpdate update) {
+        if(sum == null)
+            sum = Nd4j.zeros(update.length());
+        if(!update.isEmpty()) {
+            update.addTo(sum);
+            changed = true;
+        }
+        count++;
+        return this;
+    }
+
+    /**
+     * Add another partial sum to this one
+     * @param other the sum to merge
+     * @return this
+     */
+    public ParameterAveraging merge(ParameterAveraging other) {
+        if(other.sum != null) {
+            if(sum == null)
+                sum = other.sum;
+            else
+                sum.addi(other.sum);
+        }
+        count += other.count;
+        changed |= other.changed;
+        return this;
+    }
+
+    /**
+     * @return the mean update, or null if there were no updates
+     */
+    public INDArray average() {
+        if(count == 0)
+            return null;
+        return sum.divi(count);
+    }
+
+    /**
+     * @return the number of updates added
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @return whether any of the updates changed a parameter
+     */
+    public boolean isChanged() {
+        return changed;
+    }
+
+    /**
+     * treeAggregate sequence operation
+     */
+    public static class Add implements Function2<ParameterAveraging, ParameterUpdate, ParameterAveraging> {
+        @Override
+        public ParameterAveraging call(ParameterAveraging sum, ParameterUpdate update) throws Exception {
+            return sum.add(update);
+        }
+    }
+
+    /**
+     * treeAggregate combine operation
+     */
+    public static class Merge implements Function2<ParameterAveraging, ParameterAveraging, ParameterAveraging> {
+        @Override
+        public ParameterAveraging call(ParameterAveraging first, ParameterAveraging second) throws Exception {
+            return first.merge(second);
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package org.deeplearning4j.spark.impl.common;
+
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.io.Serializable;
+
+/**
+ * A (possibly compressed) change to a parameter vector sent from a worker.
+ *
+ * <ul>
+ *     <li>NONE: every value as a float</li>
+ *     <li>FP16: every value as a half precision float</li>
+ *     <li>THRESHOLD: only the values whose magnitude reaches a threshold, each sent
+ *     as +/- threshold by its signed index. What is not sent is kept by the worker as a
+ *     residual and added to its next update, so small changes are delayed rather than lost.</li>
+ * </ul>
+ *
+ * @author Adam Gibson
+ */
+public class ParameterUpdate implements Serializable {
+
+    public enum Compression {
+        NONE, FP16, THRESHOLD
+    }
+
+    private final Compression compression;
+    private final int length;
+    private float[] values;
+    private short[] halves;
+    //index + 1, negated for negative values
+    private int[] indices;
+    private float threshold;
+    private boolean empty = true;
+
+    private ParameterUpdate(Compression compression, int length) {
+        this.compression = compression;
+        this.length = length;
+    }
+
+    /**
+     * Uncompressed update
+     * @param delta the change in the parameters
+     * @return the update
+     */
+    public static ParameterUpdate none(INDArray delta) {
+        ParameterUpdate ret = new ParameterUpdate(Compression.NONE, delta.length());
+        ret.values = new float[ret.length];
+        for(int i = 0; i < ret.length; i++) {
+            ret.values[i] = (float) delta.getDouble(i);
+            if(ret.values[i] != 0)
+                ret.empty = false;
+        }
+        return ret;
+    }
+
+    /**
+     * Half precision update
+     * @param delta the change in the parameters
+     * @return the update
+     */
+    public static ParameterUpdate fp16(INDArray delta) {
+        ParameterUpdate ret = new ParameterUpdate(Compression.FP16, delta.length());
+        ret.halves = new short[ret.length];
+        for(int i = 0; i < ret.length; i++) {
+            ret.halves[i] = toHalf((float) delta.getDouble(i));
+            if((ret.halves[i] & 0x7fff) != 0)
+                ret.empty = false;
+        }
+        return ret;
+    }
+
+    /**
+     * Threshold quantized update.
+     * The delta is added to the residual, every entry of the residual with a
+     * magnitude of at least the threshold is sent as +/- threshold and
+     * the amount sent is taken off the residual.
+     * @param delta the change in the parameters
+     * @param residual what was not sent by previous updates; updated in place
+     * @param threshold the quantization threshold
+     * @return the update
+     */
+    public static ParameterUpdate threshold(INDArray delta, INDArray residual, double threshold) {
+        if(threshold <= 0)
+            throw new IllegalArgumentException("Threshold must be positive");
+        residual.addi(delta);
+        int length = residual.length();
+        int count = 0;
+        for(int i = 0; i < length; i++)
+            if(Math.abs(residual.getDouble(i)) >= threshold)
+                count++;
+
+        ParameterUpdate ret = new ParameterUpdate(Compression.THRESHOLD, length);
+        ret.threshold = (float) threshold;
+        ret.indices = new int[count];
+        ret.empty = count == 0;
+        int j = 0;
+        for(int i = 0; i < length && j < count; i++) {
+            double value = residual.getDouble(i);
+            if(value >= threshold) {
+                ret.indices[j++] = i + 1;
+                residual.putScalar(i, value - threshold);
+            }
+            else if(value <= -threshold) {
+                ret.indices[j++] = -(i + 1);
+                residual.putScalar(i, value + threshold);
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Compress a delta
+     * @param compression the compression to use
+     * @param delta the change in the parameters
+     * @param residual the residual for threshold compression (ignored otherwise)
+     * @param threshold the threshold for threshold compression (ignored otherwise)
+     * @return the update
+     */
+    public static ParameterUpdate compress(Compression compression, INDArray delta, INDArray residual, double threshold) {
+        switch(compression) {
+            case FP16: return fp16(delta);
+            case THRESHOLD: return threshold(delta, residual, threshold);
+            default: return none(delta);
+        }
+    }
+
+    /**
+     * Add the update to the given array, in place
+     * @param target the array to add to
+     */
+    public void addTo(INDArray target) {
+        if(target.length() != length)
+            throw new IllegalArgumentException("Update of length " + length + " can not be added to array of length " + target.length());
+        if(empty)
+            return;
+        target.addi(Nd4j.create(decode(), target.shape()));
+    }
+
+    //the update as a dense vector; the values themselves when uncompressed
+    private float[] decode() {
+        switch(compression) {
+            case NONE:
+                return values;
+            case FP16:
+                float[] ret = new float[length];
+                for(int i = 0; i < length; i++)
+                    ret[i] = toFloat(halves[i]);
+                return ret;
+            default:
+                float[] dense = new float[length];
+                for(int index : indices)
+                    dense[Math.abs(index) - 1] = index > 0 ? threshold : -threshold;
+                return dense;
+        }
+    }
+
+    public Compression getCompression() {
+        return compression;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    /**
+     * @return whether the update changes nothing
+     */
+    public boolean isEmpty() {
+        return empty;
+    }
+
+    /**
+     * Round a float to the nearest half precision value
+     * (overflow goes to infinity, small values to subnormals or zero)
+     * @param value the value
+     * @return the bits of the half precision value
+     */
+    public static short toHalf(float value) {
+        int bits = Float.floatToIntBits(value);
+        int sign = (bits >>> 16) & 0x8000;
+        int magnitude = bits & 0x7fffffff;
+        //NaN
+        if(magnitude > 0x7f800000)
+            return (short) (sign | 0x7e00);
+        //overflow (including infinity), the largest half is 65504
+        if(magnitude >= 0x477ff000)
+            return (short) (sign | 0x7c00);
+        //normal half
+        if(magnitude >= 0x38800000) {
+            int rounded = magnitude + 0x0fff + ((magnitude >>> 13) & 1);
+            return (short) (sign | ((rounded - 0x38000000) >>> 13));
+        }
+        //subnormal half or zero
+        if(magnitude < 0x33000000)
+            return (short) sign;
+        int exponent = magnitude >>> 23;
+        int mantissa = (magnitude & 0x7fffff) | 0x800000;
+        int shift = 126 - exponent;
+        int half = mantissa >>> shift;
+        int remainder = mantissa & ((1 << shift) - 1);
+        int halfway = 1 << (shift - 1);
+        if(remainder > halfway || (remainder == halfway && (half & 1) != 0))
+            half++;
+        return (short) (sign | half);
+    }
+
+    /**
+     * @param half the bits of a half precision value
+     * @return the value as a float
+     */
+    public static float toFloat(short half) {
+        int sign = (half & 0x8000) << 16;
+        int exponent = (half >>> 10) & 0x1f;
+        int mantissa = half & 0x3ff;
+        if(exponent == 0x1f)
+            return Float.intBitsToFloat(sign | 0x7f800000 | (mantissa << 13));
+        if(exponent == 0) {
+            if(mantissa == 0)
+                return Float.intBitsToFloat(sign);
+            //subnormal: normalize
+            exponent = 1;
+            while((mantissa & 0x400) == 0) {
+                mantissa <<= 1;
+                exponent--;
+            }
+            mantissa &= 0x3ff;
+        }
+        return Float.intBitsToFloat(sign | ((exponent + 112) << 23) | (mantissa << 13));
+    }
+}
@@ -0,0 +1,148 @@
+package org.deeplearning4j.spark.impl.multilayer;
+
+import org.apache.spark.api.java.function.FlatMapFunction;
+import org.apache.spark.api.java.function.FlatMapFunction2;
+import org.apache.spark.api.java.function.Function;
+import org.apache.spark.broadcast.Broadcast;
+import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.spark.impl.common.ParameterUpdate;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.factory.Nd4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import scala.Tuple2;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Fits a partition starting from the broadcast parameters and emits
+ * the change in the parameters as a (possibly compressed) {@link ParameterUpdate}.
+ * Empty partitions emit nothing so they do not count towards the average.
+ *
+ * For threshold compression the part of the change that was not sent (the residual)
+ * must be added to the next update of the same partition. Rather than being kept in
+ * executor memory, the residual is part of the partition's output: zipped with the
+ * data partition it goes with, the residuals of one round are the input of the next
+ * (see {@link #call(Iterator, Iterator)}). Error feedback therefore does not depend on
+ * a partition being trained on the same executor every round, and nothing is left
+ * behind on the executors once the driver unpersists the rounds. If a cached
+ * round is lost with its executor, Spark recomputes it from the lineage,
+ * which retrains the partitions of the earlier rounds.
+ *
+ * @author Adam Gibson
+ */
+public class ParameterAveragingFlatMap implements FlatMapFunction<Iterator<DataSet>,ParameterUpdate>,
+        FlatMapFunction2<Iterator<DataSet>,Iterator<INDArray>,Tuple2<ParameterUpdate,INDArray>> {
+
+    private static Logger log = LoggerFactory.getLogger(ParameterAveragingFlatMap.class);
+
+    private String json;
+    private Broadcast<INDArray> params;
+    private ParameterUpdate.Compression compression;
+    private double threshold;
+
+    /**
+     * @param json json configuration for the network
+     * @param params the parameters to start from
+     * @param compression how to compress the change in the parameters
+     * @param threshold the threshold for threshold compression
+     */
+    public ParameterAveragingFlatMap(String json, Broadcast<INDArray> params, ParameterUpdate.Compression compression, double threshold) {
+        this.json = json;
+        this.params = params;
+        this.compression = compression;
+        this.threshold = threshold;
+    }
+
+    /**
+     * Fit a partition without a residual from a previous round
+     */
+    @Override
+    public Iterable<ParameterUpdate> call(Iterator<DataSet> dataSetIterator) throws Exception {
+        INDArray delta = fit(dataSetIterator);
+        if(delta == null)
+            return Collections.emptyList();
+        INDArray residual = compression == ParameterUpdate.Compression.THRESHOLD ? Nd4j.zeros(delta.length()) : null;
+        return Collections.singletonList(compress(delta, residual));
+    }
+
+    /**
+     * Fit a partition and emit its update together with what is left of its residual
+     * @param dataSetIterator the data of the partition
+     * @param residuals the residual of the partition from the previous round, if any
+     * @return the update and the new residual
+     */
+    @Override
+    public Iterable<Tuple2<ParameterUpdate,INDArray>> call(Iterator<DataSet> dataSetIterator, Iterator<INDArray> residuals) throws Exception {
+        INDArray delta = fit(dataSetIterator);
+        if(delta == null)
+            return Collections.emptyList();
+        //a copy: the previous round is cached, and a retried task must see the residual it started from
+        INDArray residual = residuals.hasNext() ? residuals.next().dup() : null;
+        if(residual == null || residual.length() != delta.length())
+            residual = Nd4j.zeros(delta.length());
+        ParameterUpdate update = compress(delta, residual);
+        return Collections.singletonList(new Tuple2<>(update, residual));
+    }
+
+    //the change in the parameters from fitting the partition, or null if it is empty
+    private INDArray fit(Iterator<DataSet> dataSetIterator) {
+        if(!dataSetIterator.hasNext())
+            return null;
+
+        List<DataSet> collect = new ArrayList<>();
+        while(dataSetIterator.hasNext())
+            collect.add(dataSetIterator.next());
+
+        DataSet data = DataSet.merge(collect,false);
+        MultiLayerNetwork network = new MultiLayerNetwork(MultiLayerConfiguration.fromJson(json));
+        network.init();
+        INDArray val = params.value();
+        if(val.length() != network.numParams())
+            throw new IllegalStateException("Network did not have same number of parameters as the broadcasted set parameters");
+        network.setParameters(val.dup());
+        network.fit(data);
+        return network.params().subi(val);
+    }
+
+    private ParameterUpdate compress(INDArray delta, INDArray residual) {
+        ParameterUpdate update = ParameterUpdate.compress(compression, delta, residual, threshold);
+        log.debug("Sending " + compression + " update of length " + update.length());
+        return update;
+    }
+
+    /**
+     * The updates of a round fitted with residuals
+     */
+    public static class Updates implements Function<Tuple2<ParameterUpdate,INDArray>,ParameterUpdate> {
+        @Override
+        public ParameterUpdate call(Tuple2<ParameterUpdate,INDArray> result) throws Exception {
+            return result._1();
+        }
+    }
+
+    /**
+     * The residuals of a round fitted with residuals, to zip with the data for the next round
+     */
+    public static class Residuals implements Function<Tuple2<ParameterUpdate,INDArray>,INDArray> {
+        @Override
+        public INDArray call(Tuple2<ParameterUpdate,INDArray> result) throws Exception {
+            return result._2();
+        }
+    }
+
+    /**
+     * Empty residuals for the first round
+     */
+    public static class NoResiduals implements FlatMapFunction<Iterator<DataSet>,INDArray> {
+        @Override
+        public Iterable<INDArray> call(Iterator<DataSet> dataSetIterator) throws Exception {
+            return Collections.emptyList();
+        }
+    }
+}
@@ -25,6 +25,7 @@ import org.apache.spark.broadcast.Broadcast;
 import org.apache.spark.mllib.linalg.Matrix;
 import org.apache.spark.mllib.linalg.Vector;
 import org.apache.spark.mllib.regression.LabeledPoint;
+import org.apache.spark.storage.StorageLevel;
 import org.canova.api.records.reader.RecordReader;
 import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
 import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
@@ -33,6 +34,8 @@ import org.deeplearning4j.nn.gradient.Gradient;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
 import org.deeplearning4j.spark.canova.RecordReaderFunction;
 import org.deeplearning4j.spark.impl.common.Adder;
+import org.deeplearning4j.spark.impl.common.ParameterAveraging;
+import org.deeplearning4j.spark.impl.common.ParameterUpdate;
 import org.deeplearning4j.spark.impl.common.gradient.GradientAdder;
 import org.deeplearning4j.spark.impl.multilayer.gradientaccum.GradientAccumFlatMap;
 import org.deeplearning4j.spark.util.MLLibUtil;
@@ -40,6 +43,7 @@ import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.dataset.DataSet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import scala.Tuple2;
 
 import java.io.Serializable;
 
@@ -59,6 +63,12 @@ public class SparkDl4jMultiLayer implements Serializable {
     public final static String AVERAGE_EACH_ITERATION = "org.deeplearning4j.spark.iteration.average";
     public final static String ACCUM_GRADIENT = "org.deeplearning4j.spark.iteration.accumgrad";
     public final static String DIVIDE_ACCUM_GRADIENT = "org.deeplearning4j.spark.iteration.dividegrad";
+    public final static String TREE_AGGREGATE = "org.deeplearning4j.spark.iteration.treeaggregate";
+    public final static String TREE_AGGREGATE_DEPTH = "org.deeplearning4j.spark.iteration.treeaggregate.depth";
+    public final static String UPDATE_COMPRESSION = "org.deeplearning4j.spark.iteration.compression";
+    public final static String COMPRESSION_THRESHOLD = "org.deeplearning4j.spark.iteration.compression.threshold";
+    public final static String CHECKPOINT_INTERVAL = "org.deeplearning4j.spark.iteration.checkpoint.interval";
+    public final static String CHECKPOINT_DIR = "org.deeplearning4j.spark.iteration.checkpoint.dir";
 
     private static final Logger log = LoggerFactory.getLogger(SparkDl4jMultiLayer.class);
 
@@ -178,6 +188,9 @@ public class SparkDl4jMultiLayer implements Serializable {
     public MultiLayerNetwork fitDataSet(JavaRDD<DataSet> rdd) {
         int iterations = conf.getConf(0).getNumIterations();
         log.info("Running distributed training averaging each iteration " + averageEachIteration + " and " + rdd.partitions().size() + " partitions");
+        if(sc.getConf().getBoolean(TREE_AGGREGATE,false))
+            return fitAveraging(rdd);
+
         if(!averageEachIteration)
               runIteration(rdd);
 
@@ -198,6 +211,88 @@ public class SparkDl4jMultiLayer implements Serializable {
         return network;
     }
 
+    /**
+     * Parameter averaging with the sum of the updates computed by treeAggregate.
+     * The network is initialized once and each round starts from the
+     * average of the previous one. Workers send the change in the parameters,
+     * optionally compressed (see {@link ParameterUpdate}), and partial sums are
+     * combined in place on the executors so the driver only receives one vector.
+     * The broadcast parameters are only replaced when a round changed them.
+     * With threshold compression each round is persisted with the residuals of its
+     * partitions, which are zipped with the data for the next round. Since each round's
+     * residuals are computed from the previous round's, every {@link #CHECKPOINT_INTERVAL}
+     * rounds are checkpointed to keep the lineage from growing with the number of rounds.
+     * This needs a checkpoint directory, set on the context or with {@link #CHECKPOINT_DIR}.
+     * @param rdd the data to train on
+     * @return the trained network
+     */
+    private MultiLayerNetwork fitAveraging(JavaRDD<DataSet> rdd) {
+        int rounds = 1;
+        if(averageEachIteration) {
+            rounds = conf.getConf(0).getNumIterations();
+            for(NeuralNetConfiguration conf : this.conf.getConfs())
+                conf.setNumIterations(1);
+        }
+        int depth = sc.getConf().getInt(TREE_AGGREGATE_DEPTH,2);
+        ParameterUpdate.Compression compression = ParameterUpdate.Compression.valueOf(sc.getConf().get(UPDATE_COMPRESSION,"none").toUpperCase());
+        double threshold = sc.getConf().getDouble(COMPRESSION_THRESHOLD,1e-3);
+        int checkpointInterval = sc.getConf().getInt(CHECKPOINT_INTERVAL,10);
+        if(sc.getConf().contains(CHECKPOINT_DIR))
+            sc.setCheckpointDir(sc.getConf().get(CHECKPOINT_DIR));
+        boolean checkpoint = compression == ParameterUpdate.Compression.THRESHOLD && checkpointInterval > 0 && sc.getCheckpointDir().isPresent();
+        if(compression == ParameterUpdate.Compression.THRESHOLD && rounds > checkpointInterval && !checkpoint)
+            log.warn("No checkpoint directory set; the lineage of the residuals will grow with each of the " + rounds + " rounds");
+        String json = conf.toJson();
+
+        MultiLayerNetwork network = new MultiLayerNetwork(conf);
+        network.init();
+        INDArray current = network.params();
+        log.info("Averaging " + current.length() + " parameters over " + rounds + " rounds with " + compression + " updates and tree depth " + depth);
+        Broadcast<INDArray> broadcast = null;
+        //the previous round's updates and residuals, for threshold compression
+        JavaRDD<Tuple2<ParameterUpdate,INDArray>> previous = null;
+        for(int i = 0; i < rounds; i++) {
+            if(broadcast == null)
+                broadcast = sc.broadcast(current);
+            ParameterAveragingFlatMap fit = new ParameterAveragingFlatMap(json, broadcast, compression, threshold);
+            JavaRDD<ParameterUpdate> updates;
+            JavaRDD<Tuple2<ParameterUpdate,INDArray>> results = null;
+            if(compression == ParameterUpdate.Compression.THRESHOLD) {
+                //residuals stay with their partitions, whichever executor trains them
+                JavaRDD<INDArray> residuals = previous == null ? rdd.mapPartitions(new ParameterAveragingFlatMap.NoResiduals(), true)
+                        : previous.map(new ParameterAveragingFlatMap.Residuals());
+                results = rdd.zipPartitions(residuals, fit).persist(StorageLevel.MEMORY_AND_DISK());
+                //written out by the aggregation below, which then becomes the start of the lineage
+                if(checkpoint && (i + 1) % checkpointInterval == 0)
+                    results.checkpoint();
+                updates = results.map(new ParameterAveragingFlatMap.Updates());
+            }
+            else
+                updates = rdd.mapPartitions(fit, true);
+            ParameterAveraging sum = updates.treeAggregate(new ParameterAveraging(), new ParameterAveraging.Add(), new ParameterAveraging.Merge(), depth);
+            //this round's residuals are computed, so the previous ones can go
+            if(previous != null)
+                previous.unpersist();
+            previous = results;
+            if(sum.getCount() == 0 || !sum.isChanged()) {
+                log.info("Round " + i + " did not change the parameters");
+                continue;
+            }
+            current = current.dup().addi(sum.average());
+            broadcast.unpersist();
+            broadcast = null;
+        }
+
+        if(broadcast != null)
+            broadcast.unpersist();
+        if(previous != null)
+            previous.unpersist();
+        network.setParameters(current);
+        this.params = sc.broadcast(current);
+        this.network = network;
+        return network;
+    }
+
     private void runIteration(JavaRDD<DataSet> rdd) {
         MultiLayerNetwork network = new MultiLayerNetwork(conf);
         network.init();
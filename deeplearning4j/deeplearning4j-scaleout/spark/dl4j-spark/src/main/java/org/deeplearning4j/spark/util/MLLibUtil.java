@@ -34,6 +34,7 @@ import org.apache.spark.mllib.linalg.Vectors;
 import org.apache.spark.mllib.regression.LabeledPoint;
 import org.canova.api.records.reader.RecordReader;
 import org.canova.api.split.InputStreamInputSplit;
+import org.canova.api.util.RecordUtils;
 import org.canova.api.writable.Writable;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.dataset.DataSet;
@@ -162,6 +163,7 @@ public class MLLibUtil {
      * @return the labeled point
      */
     public static LabeledPoint pointOf(Collection<Writable> writables) {
+        writables = RecordUtils.expand(writables);
         double[] ret = new double[writables.size() - 1];
         int count = 0;
         double target = 0;
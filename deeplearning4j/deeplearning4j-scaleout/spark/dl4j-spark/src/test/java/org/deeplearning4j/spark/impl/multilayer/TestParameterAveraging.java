@@ -0,0 +1,193 @@
+package org.deeplearning4j.spark.impl.multilayer;
+
+import org.apache.spark.SparkConf;
+import org.apache.spark.api.java.JavaRDD;
+import org.apache.spark.api.java.JavaSparkContext;
+import org.deeplearning4j.datasets.iterator.impl.IrisDataSetIterator;
+import org.deeplearning4j.eval.Evaluation;
+import org.deeplearning4j.nn.api.OptimizationAlgorithm;
+import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
+import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
+import org.deeplearning4j.nn.conf.layers.DenseLayer;
+import org.deeplearning4j.nn.conf.layers.OutputLayer;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.nn.weights.WeightInit;
+import org.deeplearning4j.spark.BaseSparkTest;
+import org.deeplearning4j.spark.impl.common.ParameterAveraging;
+import org.deeplearning4j.spark.impl.common.ParameterUpdate;
+import org.junit.Test;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.lossfunctions.LossFunctions;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Adam Gibson
+ */
+public class TestParameterAveraging extends BaseSparkTest {
+
+    @Override
+    public JavaSparkContext getContext() {
+        return context("none");
+    }
+
+    private JavaSparkContext context(String compression) {
+        return context(compression, 1e-3);
+    }
+
+    private JavaSparkContext context(String compression, double threshold) {
+        if(sc != null)
+            sc.close();
+        SparkConf sparkConf = new SparkConf()
+                .set(SparkDl4jMultiLayer.TREE_AGGREGATE, "true")
+                .set(SparkDl4jMultiLayer.TREE_AGGREGATE_DEPTH, "2")
+                .set(SparkDl4jMultiLayer.UPDATE_COMPRESSION, compression)
+                .set(SparkDl4jMultiLayer.COMPRESSION_THRESHOLD, String.valueOf(threshold))
+                .set(SparkDl4jMultiLayer.AVERAGE_EACH_ITERATION, "true")
+                .set(SparkDl4jMultiLayer.CHECKPOINT_INTERVAL, "2")
+                .set(SparkDl4jMultiLayer.CHECKPOINT_DIR, new File(System.getProperty("java.io.tmpdir"), "dl4j-checkpoint").getAbsolutePath())
+                .setMaster("local[4]")
+                .setAppName("sparktest");
+        sc = new JavaSparkContext(sparkConf);
+        return sc;
+    }
+
+    @Test
+    public void testHalfPrecision() {
+        float[] values = {0, 1, -1, 0.5f, 1e-3f, -65504, 3.14159f, 1e-6f};
+        for(float value : values) {
+            float back = ParameterUpdate.toFloat(ParameterUpdate.toHalf(value));
+            assertEquals(value, back, Math.abs(value) * 1e-3 + 1e-7);
+        }
+        assertTrue(Float.isInfinite(ParameterUpdate.toFloat(ParameterUpdate.toHalf(1e6f))));
+        assertEquals(0, ParameterUpdate.toFloat(ParameterUpdate.toHalf(1e-9f)), 0);
+    }
+
+    @Test
+    public void testThresholdResidual() {
+        INDArray residual = Nd4j.zeros(4);
+        INDArray delta = Nd4j.create(new double[]{0.25, -0.05, 0.04, 0});
+        ParameterUpdate update = ParameterUpdate.threshold(delta, residual, 0.1);
+        INDArray target = Nd4j.zeros(4);
+        update.addTo(target);
+        assertEquals(Nd4j.create(new double[]{0.1, 0, 0, 0}), target);
+        assertEquals(0.15, residual.getDouble(0), 1e-6);
+        assertEquals(-0.05, residual.getDouble(1), 1e-6);
+
+        //what was held back is sent once it adds up to the threshold
+        update = ParameterUpdate.threshold(Nd4j.create(new double[]{0, -0.05, 0.07, 0}), residual, 0.1);
+        update.addTo(target);
+        assertEquals(Nd4j.create(new double[]{0.2, -0.1, 0.1, 0}), target);
+        assertEquals(0.05, residual.getDouble(0), 1e-6);
+        assertEquals(0.01, residual.getDouble(2), 1e-6);
+
+        assertTrue(ParameterUpdate.threshold(Nd4j.zeros(4), Nd4j.zeros(4), 0.1).isEmpty());
+    }
+
+    @Test
+    public void testTreeAggregateSum() {
+        List<ParameterUpdate> updates = new ArrayList<>();
+        INDArray expected = Nd4j.zeros(10);
+        for(int i = 0; i < 16; i++) {
+            INDArray delta = Nd4j.linspace(1, 10, 10).muli(i);
+            expected.addi(delta);
+            updates.add(ParameterUpdate.none(delta));
+        }
+        ParameterAveraging sum = sc.parallelize(updates, 8)
+                .treeAggregate(new ParameterAveraging(), new ParameterAveraging.Add(), new ParameterAveraging.Merge(), 3);
+        assertEquals(16, sum.getCount());
+        assertTrue(sum.isChanged());
+        assertEquals(expected.divi(16), sum.average());
+
+        ParameterAveraging empty = sc.parallelize(new ArrayList<ParameterUpdate>(), 4)
+                .treeAggregate(new ParameterAveraging(), new ParameterAveraging.Add(), new ParameterAveraging.Merge(), 2);
+        assertEquals(0, empty.getCount());
+        assertFalse(empty.isChanged());
+    }
+
+    @Test
+    public void testFitUncompressed() {
+        fitIris(5);
+    }
+
+    @Test
+    public void testFitHalfPrecision() {
+        context("fp16");
+        fitIris(5);
+    }
+
+    @Test
+    public void testFitThreshold() {
+        context("threshold");
+        fitIris(5);
+    }
+
+    @Test
+    public void testCompressedConvergence() {
+        Evaluation uncompressed = fitIris(40);
+        assertTrue(uncompressed.accuracy() > 0.8);
+
+        context("fp16");
+        Evaluation halfPrecision = fitIris(40);
+        assertEquals(uncompressed.accuracy(), halfPrecision.accuracy(), 0.05);
+
+        //a threshold large enough that most of each update is held back, so the accuracy depends on the residuals
+        context("threshold", 1e-2);
+        Evaluation threshold = fitIris(40);
+        assertEquals(uncompressed.accuracy(), threshold.accuracy(), 0.1);
+    }
+
+    private Evaluation fitIris(int iterations) {
+        MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder()
+                .seed(123)
+                .optimizationAlgo(OptimizationAlgorithm.STOCHASTIC_GRADIENT_DESCENT)
+                .iterations(iterations)
+                .list(2)
+                .layer(0, new DenseLayer.Builder()
+                        .nIn(4).nOut(10)
+                        .weightInit(WeightInit.XAVIER)
+                        .activation("relu")
+                        .build())
+                .layer(1, new OutputLayer.Builder(LossFunctions.LossFunction.MCXENT)
+                        .nIn(10).nOut(3)
+                        .activation("softmax")
+                        .weightInit(WeightInit.XAVIER)
+                        .build())
+                .backprop(true)
+                .build();
+
+        DataSet d = new IrisDataSetIterator(150,150).next();
+        d.normalizeZeroMeanZeroUnitVariance();
+        d.shuffle();
+        JavaRDD<DataSet> data = sc.parallelize(d.asList(), 4);
+
+        MultiLayerNetwork initial = new MultiLayerNetwork(conf);
+        initial.init();
+
+        SparkDl4jMultiLayer master = new SparkDl4jMultiLayer(sc, conf);
+        MultiLayerNetwork network = master.fitDataSet(data);
+        assertEquals(initial.numParams(), network.params().length());
+        assertFalse(initial.params().equals(network.params()));
+        assertTrue(network.score(d) < initial.score(d));
+
+        Evaluation evaluation = new Evaluation();
+        evaluation.eval(d.getLabels(), network.output(d.getFeatureMatrix()));
+        assertEquals(d.numExamples(), evaluation.getNumRowCounter(), 0);
+        int predicted = 0;
+        for(int i = 0; i < 3; i++) {
+            //iris has 50 examples of each class
+            assertEquals(50, evaluation.classCount(i));
+            predicted += evaluation.predictedTotal(i);
+        }
+        assertEquals(d.numExamples(), predicted);
+        return evaluation;
+    }
+}
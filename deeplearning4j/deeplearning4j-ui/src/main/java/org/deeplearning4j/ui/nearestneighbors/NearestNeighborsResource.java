@@ -25,6 +25,9 @@ import java.io.IOException;
 import java.net.URI;
 import java.net.URL;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
@@ -35,16 +38,16 @@ import javax.ws.rs.core.Response;
 
 import org.apache.commons.io.FileUtils;
 import org.deeplearning4j.berkeley.Pair;
-import org.deeplearning4j.clustering.sptree.DataPoint;
-import org.deeplearning4j.clustering.vptree.VPTree;
+import org.deeplearning4j.models.embeddings.ann.WordVectorIndex;
 import org.deeplearning4j.models.embeddings.inmemory.InMemoryLookupTable;
 import org.deeplearning4j.models.embeddings.loader.WordVectorSerializer;
 import org.deeplearning4j.models.embeddings.wordvectors.WordVectors;
-import org.deeplearning4j.models.word2vec.VocabWord;
 import org.deeplearning4j.models.word2vec.wordstore.VocabCache;
 import org.deeplearning4j.ui.api.UrlResource;
 import org.deeplearning4j.ui.uploads.FileResource;
 import org.deeplearning4j.util.SerializationUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Nearest neighbors
@@ -53,12 +56,19 @@ import org.deeplearning4j.util.SerializationUtils;
  */
 @Path("/nearestneighbors")
 public class NearestNeighborsResource extends FileResource {
-    private VPTree tree;
-    private List<VocabWord> words;
-    private Map<Integer,VocabWord> theVocab;
-    private VocabCache vocab;
-    private WordVectors wordVectors;
+    private static final Logger log = LoggerFactory.getLogger(NearestNeighborsResource.class);
+    //built in the background after an upload; queries score every word until it is ready
+    private volatile WordVectorIndex index;
+    private volatile WordVectors wordVectors;
     private File localFile;
+    private final ExecutorService indexBuilder = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "nearest-neighbors-index");
+            t.setDaemon(true);
+            return t;
+        }
+    });
 
     /**
      * The file path for uploads
@@ -106,11 +116,6 @@ public class NearestNeighborsResource extends FileResource {
         if(wordVectors != null) {
             words.addAll(wordVectors.vocab().words());
         }
-        else {
-            for(VocabWord word : this.words) {
-                words.add(word.getWord());
-            }
-        }
 
         return Response.ok((new ArrayList<>(words))).build();
     }
@@ -120,21 +125,16 @@ public class NearestNeighborsResource extends FileResource {
     @Path("/words")
     public Response getWords(NearestNeighborsQuery query) {
         Map<String,Double> map = new HashMap<>();
+        WordVectors wordVectors = this.wordVectors;
+        WordVectorIndex index = this.index;
 
         if(wordVectors != null) {
-            Collection<String> words = wordVectors.wordsNearest(query.getWord(),query.getNumWords());
+            Collection<String> words = index != null ? index.wordsNearest(query.getWord(),query.getNumWords())
+                    : wordVectors.wordsNearest(query.getWord(),query.getNumWords());
             for(String word : words) {
                 map.put(word,wordVectors.similarity(query.getWord(),word));
             }
         }
-        else {
-            List<DataPoint> results = new ArrayList<>();
-            List<Double> distances = new ArrayList<>();
-            tree.search(tree.getItems().get(vocab.indexOf(query.getWord())),query.getNumWords(),results,distances);
-            for(int i = 0; i < results.size(); i++) {
-                map.put(theVocab.get(results.get(i).getIndex()).getWord(),distances.get(i));
-            }
-        }
 
 
         return Response.ok(map).build();
@@ -144,31 +144,41 @@ public class NearestNeighborsResource extends FileResource {
     @Override
     public void handleUpload(File path) {
         try {
+            final WordVectors vectors;
             if(path.getAbsolutePath().endsWith(".ser")) {
-                WordVectors vectors = SerializationUtils.readObject(path);
-                InMemoryLookupTable table = (InMemoryLookupTable) vectors.lookupTable();
-                tree = new VPTree(table.getSyn0(),"dot",true);
-                words = new ArrayList<>(vectors.vocab().vocabWords());
-                theVocab = new HashMap<>();
-
-                for(VocabWord word : words) {
-                    theVocab.put(word.getIndex(),word);
-                }
-                this.vocab = vectors.vocab();
-
-
+                vectors = SerializationUtils.readObject(path);
             }
             else if(path.getAbsolutePath().contains("Google")) {
-                WordVectors vectors = WordVectorSerializer.loadGoogleModel(path, true);
-                this.wordVectors = vectors;
+                vectors = WordVectorSerializer.loadGoogleModel(path, true);
             }
 
             else {
                 Pair<InMemoryLookupTable, VocabCache> vocab = WordVectorSerializer.loadTxt(path);
-                this.wordVectors = WordVectorSerializer.fromPair(vocab);
+                vectors = WordVectorSerializer.fromPair(vocab);
 
             }
 
+            //use the index saved next to the vectors if there is one
+            WordVectorIndex saved = WordVectorSerializer.indexFile(path).exists() ? WordVectorSerializer.loadIndex(path) : null;
+            synchronized (this) {
+                this.wordVectors = vectors;
+                this.index = saved;
+            }
+
+            if(saved == null) {
+                indexBuilder.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        WordVectorIndex built = WordVectorIndex.build(vectors, WordVectorIndex.Type.HNSW);
+                        synchronized (NearestNeighborsResource.this) {
+                            //a later upload may have replaced the vectors in the meantime
+                            if(wordVectors == vectors)
+                                index = built;
+                        }
+                        log.info("Built nearest neighbors index of " + built.getWords().length + " words");
+                    }
+                });
+            }
 
         } catch (Exception e) {
             e.printStackTrace();
@@ -21,6 +21,7 @@ package org.nd4j.linalg.api.buffer;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
+import org.nd4j.linalg.api.buffer.allocation.DataBufferPool;
 import org.nd4j.linalg.api.complex.IComplexDouble;
 import org.nd4j.linalg.api.complex.IComplexFloat;
 import org.nd4j.linalg.api.complex.IComplexNumber;
@@ -52,6 +53,7 @@ public abstract class BaseDataBuffer implements DataBuffer {
     protected double[] doubleData;
     protected int[] intData;
     protected float[] floatData;
+    protected transient DataBufferPool pool;
 
     /**
      *
@@ -64,6 +66,18 @@ public abstract class BaseDataBuffer implements DataBuffer {
         this.length = length;
     }
 
+    /**
+     *
+     * @param buf the buffer to wrap
+     * @param length the number of elements in the buffer
+     * @param allocationMode the allocation mode to report for the buffer
+     *                       (direct for buffers that aren't array backed, such as memory mapped ones)
+     */
+    protected BaseDataBuffer(ByteBuf buf,int length,AllocationMode allocationMode) {
+        this(buf,length);
+        this.allocationMode = allocationMode;
+    }
+
     /**
      *
      * @param data
@@ -768,6 +782,28 @@ public abstract class BaseDataBuffer implements DataBuffer {
         this.dataBuffer = null;
     }
 
+    /**
+     * Set the pool this buffer's storage
+     * is returned to on {@link #release()}
+     * @param pool the pool to return to, or null if this buffer isn't pooled
+     */
+    public void setPool(DataBufferPool pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public void release() {
+        if(pool == null || isPersist)
+            return;
+        DataBufferPool returnTo = pool;
+        Object storage = floatData != null ? floatData : doubleData;
+        pool = null;
+        floatData = null;
+        doubleData = null;
+        if(storage != null)
+            returnTo.release(storage);
+    }
+
     @Override
     public boolean equals(Object o) {
         if(o instanceof DataBuffer) {
@@ -468,6 +468,14 @@ public interface DataBuffer extends Serializable {
      */
     void destroy();
 
+    /**
+     * Return this buffer's storage to the pool it
+     * was allocated from (if any) for reuse.
+     * The buffer (and any ndarray backed by it) must not be used afterwards.
+     * Does nothing for buffers that aren't pooled or are persisted.
+     */
+    void release();
+
     /**
      * Write this buffer to the output stream
      * @param dos the output stream to write
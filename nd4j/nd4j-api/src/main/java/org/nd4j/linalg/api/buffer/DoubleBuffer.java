@@ -41,6 +41,10 @@ public class DoubleBuffer extends BaseDataBuffer {
         super(buf,length);
     }
 
+    public DoubleBuffer(ByteBuf buf,int length,AllocationMode allocationMode) {
+        super(buf,length,allocationMode);
+    }
+
     public DoubleBuffer(double[] data) {
         super(data);
     }
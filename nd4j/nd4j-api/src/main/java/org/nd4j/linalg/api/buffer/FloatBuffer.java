@@ -45,6 +45,10 @@ public class FloatBuffer extends BaseDataBuffer {
         super(buf,length);
     }
 
+    public FloatBuffer(ByteBuf buf,int length,AllocationMode allocationMode) {
+        super(buf,length,allocationMode);
+    }
+
     public FloatBuffer(float[] data) {
         this(data, Nd4j.copyOnOps);
     }
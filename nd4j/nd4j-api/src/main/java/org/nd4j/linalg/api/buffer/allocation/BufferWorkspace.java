@@ -0,0 +1,99 @@
+package org.nd4j.linalg.api.buffer.allocation;
+
+import org.nd4j.linalg.api.buffer.DataBuffer;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A scope for bulk release of pooled data buffers.
+ *
+ * While a workspace is open, every pooled buffer created on the
+ * same thread is recorded, and all of them are {@link DataBuffer#release() released}
+ * when the workspace is closed. This is meant for code such as a training iteration
+ * that allocates the same temporary arrays over and over:
+ *
+ * <pre>
+ * try(BufferWorkspace ws = BufferWorkspace.open()) {
+ *     ...
+ * }
+ * </pre>
+ *
+ * Nothing created in the workspace may be used after it is closed.
+ * Buffers that need to outlive it should be {@link DataBuffer#persist() persisted}.
+ * Workspaces may be nested; a buffer belongs to the innermost open workspace.
+ *
+ * Only buffers created by a pooled data buffer factory are recorded.
+ *
+ * @author Adam Gibson
+ */
+public class BufferWorkspace implements Closeable {
+    private static final ThreadLocal<BufferWorkspace> CURRENT = new ThreadLocal<>();
+
+    private final BufferWorkspace parent;
+    private final List<DataBuffer> buffers = new ArrayList<>();
+    private boolean closed = false;
+
+    private BufferWorkspace(BufferWorkspace parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * Open a workspace on the calling thread
+     * @return the opened workspace
+     */
+    public static BufferWorkspace open() {
+        BufferWorkspace ret = new BufferWorkspace(CURRENT.get());
+        CURRENT.set(ret);
+        return ret;
+    }
+
+    /**
+     * The innermost open workspace on the calling thread
+     * @return the current workspace or null if none is open
+     */
+    public static BufferWorkspace current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Record the buffer in the current workspace, if there is one
+     * @param buffer the buffer to record
+     */
+    public static void track(DataBuffer buffer) {
+        BufferWorkspace workspace = CURRENT.get();
+        if(workspace != null)
+            workspace.buffers.add(buffer);
+    }
+
+    /**
+     * The number of buffers recorded in this workspace
+     * @return the number of buffers that will be released on close
+     */
+    public int size() {
+        return buffers.size();
+    }
+
+    /**
+     * Release all buffers created in this workspace
+     * and make the enclosing workspace (if any) current again.
+     */
+    @Override
+    public void close() {
+        if(closed)
+            return;
+        if(CURRENT.get() != this)
+            throw new IllegalStateException("Workspaces must be closed on the thread that opened them, innermost first");
+
+        for(DataBuffer buffer : buffers)
+            buffer.release();
+        buffers.clear();
+        closed = true;
+
+        if(parent == null)
+            CURRENT.remove();
+        else
+            CURRENT.set(parent);
+    }
+}
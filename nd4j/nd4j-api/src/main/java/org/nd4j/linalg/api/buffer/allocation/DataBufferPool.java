@@ -0,0 +1,235 @@
+package org.nd4j.linalg.api.buffer.allocation;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Free lists of float and double arrays
+ * for reuse as heap data buffer storage.
+ *
+ * Arrays are bucketed by size class (data type and exact length,
+ * since a heap buffer's length is the length of its array).
+ * Each thread keeps a small cache per size class that
+ * is checked first without any synchronization; arrays that don't fit in
+ * the thread's cache go to a global list shared by all threads,
+ * bounded by the total number of bytes retained.
+ *
+ * Arrays handed out are always zeroed.
+ *
+ * @author Adam Gibson
+ */
+public class DataBufferPool {
+    public final static int DEFAULT_THREAD_CACHE_SIZE = 4;
+    public final static long DEFAULT_MAX_RETAINED_BYTES = 256L * 1024 * 1024;
+
+    private final int threadCacheSize;
+    private final long maxRetainedBytes;
+    private final ConcurrentMap<Long,Queue<Object>> global = new ConcurrentHashMap<>();
+    private final ThreadLocal<Map<Long,ArrayDeque<Object>>> local = new ThreadLocal<Map<Long,ArrayDeque<Object>>>() {
+        @Override
+        protected Map<Long, ArrayDeque<Object>> initialValue() {
+            return new HashMap<>();
+        }
+    };
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong releases = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong bytesRetained = new AtomicLong();
+
+    public DataBufferPool() {
+        this(DEFAULT_THREAD_CACHE_SIZE, DEFAULT_MAX_RETAINED_BYTES);
+    }
+
+    /**
+     *
+     * @param threadCacheSize the max number of arrays per size class cached by each thread
+     * @param maxRetainedBytes the max number of bytes held by the pool
+     *                         before released arrays are left to the garbage collector
+     */
+    public DataBufferPool(int threadCacheSize, long maxRetainedBytes) {
+        if(threadCacheSize < 0 || maxRetainedBytes < 0)
+            throw new IllegalArgumentException("Thread cache size and max retained bytes must be >= 0");
+        this.threadCacheSize = threadCacheSize;
+        this.maxRetainedBytes = maxRetainedBytes;
+    }
+
+    /**
+     * Get a zeroed double array of the given length,
+     * reusing a released one if possible
+     * @param length the length of the array
+     * @return a zeroed array of the given length
+     */
+    public double[] allocateDouble(int length) {
+        double[] ret = (double[]) take(key(length, true), 8L * length);
+        if(ret == null)
+            return new double[length];
+        Arrays.fill(ret, 0.0);
+        return ret;
+    }
+
+    /**
+     * Get a zeroed float array of the given length,
+     * reusing a released one if possible
+     * @param length the length of the array
+     * @return a zeroed array of the given length
+     */
+    public float[] allocateFloat(int length) {
+        float[] ret = (float[]) take(key(length, false), 4L * length);
+        if(ret == null)
+            return new float[length];
+        Arrays.fill(ret, 0.0f);
+        return ret;
+    }
+
+    /**
+     * Return an array to the pool.
+     * The caller must not use the array afterwards.
+     * Arrays other than float[] and double[] are ignored.
+     * @param array the array to return
+     */
+    public void release(Object array) {
+        long key;
+        long bytes;
+        if(array instanceof double[]) {
+            int length = ((double[]) array).length;
+            key = key(length, true);
+            bytes = 8L * length;
+        }
+        else if(array instanceof float[]) {
+            int length = ((float[]) array).length;
+            key = key(length, false);
+            bytes = 4L * length;
+        }
+        else
+            return;
+
+        releases.incrementAndGet();
+        if(bytesRetained.addAndGet(bytes) > maxRetainedBytes) {
+            bytesRetained.addAndGet(-bytes);
+            dropped.incrementAndGet();
+            return;
+        }
+
+        Map<Long,ArrayDeque<Object>> cache = local.get();
+        ArrayDeque<Object> threadList = cache.get(key);
+        if(threadList == null && threadCacheSize > 0) {
+            threadList = new ArrayDeque<>();
+            cache.put(key, threadList);
+        }
+        if(threadList != null && threadList.size() < threadCacheSize) {
+            threadList.push(array);
+            return;
+        }
+
+        Queue<Object> globalList = global.get(key);
+        if(globalList == null) {
+            Queue<Object> newList = new ConcurrentLinkedQueue<>();
+            globalList = global.putIfAbsent(key, newList);
+            if(globalList == null)
+                globalList = newList;
+        }
+        globalList.offer(array);
+    }
+
+    /**
+     * Drop all pooled arrays (for the calling thread's cache and the global lists)
+     * and leave them to the garbage collector.
+     * Other threads' caches are left in place.
+     */
+    public void clear() {
+        for(Map.Entry<Long,ArrayDeque<Object>> entry : local.get().entrySet()) {
+            long bytes = bytesFor(entry.getKey());
+            bytesRetained.addAndGet(-bytes * entry.getValue().size());
+            entry.getValue().clear();
+        }
+        for(Map.Entry<Long,Queue<Object>> entry : global.entrySet()) {
+            long bytes = bytesFor(entry.getKey());
+            while(entry.getValue().poll() != null)
+                bytesRetained.addAndGet(-bytes);
+        }
+    }
+
+    /**
+     * The number of allocations served from the pool
+     * @return the number of pool hits
+     */
+    public long hits() {
+        return hits.get();
+    }
+
+    /**
+     * The number of allocations that had to create a new array
+     * @return the number of pool misses
+     */
+    public long misses() {
+        return misses.get();
+    }
+
+    /**
+     * The number of arrays returned to the pool,
+     * including those dropped because the pool was full
+     * @return the number of releases
+     */
+    public long releases() {
+        return releases.get();
+    }
+
+    /**
+     * The number of released arrays that were left
+     * to the garbage collector because the pool was full
+     * @return the number of dropped arrays
+     */
+    public long dropped() {
+        return dropped.get();
+    }
+
+    /**
+     * The number of bytes currently held by the pool
+     * @return the number of bytes retained
+     */
+    public long bytesRetained() {
+        return bytesRetained.get();
+    }
+
+    @Override
+    public String toString() {
+        return "DataBufferPool{hits=" + hits() + ", misses=" + misses() + ", releases=" + releases()
+                + ", dropped=" + dropped() + ", bytesRetained=" + bytesRetained() + "}";
+    }
+
+    private Object take(long key, long bytes) {
+        ArrayDeque<Object> threadList = local.get().get(key);
+        Object ret = threadList != null ? threadList.poll() : null;
+        if(ret == null) {
+            Queue<Object> globalList = global.get(key);
+            if(globalList != null)
+                ret = globalList.poll();
+        }
+
+        if(ret == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+
+        hits.incrementAndGet();
+        bytesRetained.addAndGet(-bytes);
+        return ret;
+    }
+
+    private static long key(int length, boolean isDouble) {
+        return ((long) length << 1) | (isDouble ? 1 : 0);
+    }
+
+    private static long bytesFor(long key) {
+        return (key >>> 1) * ((key & 1) == 1 ? 8 : 4);
+    }
+}
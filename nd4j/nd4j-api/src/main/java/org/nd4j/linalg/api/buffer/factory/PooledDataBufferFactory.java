@@ -0,0 +1,68 @@
+package org.nd4j.linalg.api.buffer.factory;
+
+import org.nd4j.linalg.api.buffer.BaseDataBuffer;
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.buffer.DoubleBuffer;
+import org.nd4j.linalg.api.buffer.FloatBuffer;
+import org.nd4j.linalg.api.buffer.allocation.BufferWorkspace;
+import org.nd4j.linalg.api.buffer.allocation.DataBufferPool;
+import org.nd4j.linalg.factory.Nd4j;
+
+/**
+ * Data buffer factory that reuses the storage of
+ * released buffers.
+ *
+ * New float and double buffers of a given length are backed by
+ * arrays from a {@link DataBufferPool}. Their storage goes back to the pool
+ * when they are {@link DataBuffer#release() released}, either explicitly
+ * or by closing the {@link BufferWorkspace} they were created in.
+ * Buffers that are never released are garbage collected as usual.
+ *
+ * Only heap allocation is pooled; for other allocation modes
+ * this behaves like the {@link DefaultDataBufferFactory}.
+ *
+ * Enable with -Ddatabufferfactory=org.nd4j.linalg.api.buffer.factory.PooledDataBufferFactory
+ * or {@link Nd4j#setDataBufferFactory(DataBufferFactory)}.
+ *
+ * @author Adam Gibson
+ */
+public class PooledDataBufferFactory extends DefaultDataBufferFactory {
+    private final DataBufferPool pool;
+
+    public PooledDataBufferFactory() {
+        this(new DataBufferPool());
+    }
+
+    public PooledDataBufferFactory(DataBufferPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * The pool buffers are allocated from;
+     * useful for hit/miss statistics
+     * @return the pool for this factory
+     */
+    public DataBufferPool getPool() {
+        return pool;
+    }
+
+    @Override
+    public DataBuffer createDouble(int length) {
+        if(Nd4j.alloc != DataBuffer.AllocationMode.HEAP)
+            return super.createDouble(length);
+        return pooled(new DoubleBuffer(pool.allocateDouble(length), false));
+    }
+
+    @Override
+    public DataBuffer createFloat(int length) {
+        if(Nd4j.alloc != DataBuffer.AllocationMode.HEAP)
+            return super.createFloat(length);
+        return pooled(new FloatBuffer(pool.allocateFloat(length), false));
+    }
+
+    private DataBuffer pooled(BaseDataBuffer buffer) {
+        buffer.setPool(pool);
+        BufferWorkspace.track(buffer);
+        return buffer;
+    }
+}
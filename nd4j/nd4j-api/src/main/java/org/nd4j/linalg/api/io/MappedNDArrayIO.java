@@ -0,0 +1,392 @@
+package org.nd4j.linalg.api.io;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.buffer.DoubleBuffer;
+import org.nd4j.linalg.api.buffer.FloatBuffer;
+import org.nd4j.linalg.api.complex.IComplexNDArray;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.shape.Shape;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.util.ArrayUtil;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+
+/**
+ * NDArray IO for a raw, memory mappable file format.
+ *
+ * A file is a small header followed by the raw elements of the array
+ * in the platform's byte order, starting at an offset aligned to {@link #ALIGNMENT} bytes:
+ *
+ * <pre>
+ * magic       8 bytes  "ND4JMAP1"
+ * data type   1 byte   'f' or 'd'
+ * ordering    1 byte   'c' or 'f'
+ * byte order  1 byte   'L' or 'B' (byte order of the data section)
+ * reserved    1 byte
+ * rank        int
+ * shape       int[rank]
+ * stride      int[rank]
+ * length      long     number of elements
+ * data offset long     position of the first element in the file
+ * </pre>
+ *
+ * The header is big endian. The array is written as a compact
+ * (zero offset, default strides) copy if it isn't compact already.
+ *
+ * Reading a file maps the data section with {@link FileChannel#map} and
+ * wraps it directly as a (direct allocation mode) {@link DataBuffer}, so there is
+ * no deserialization pass and the pages are shared through the page cache
+ * by every process that maps the same file.
+ * Files written with a different byte order, and reads from an input stream,
+ * fall back to copying the data.
+ *
+ * A single data buffer is limited to {@link Integer#MAX_VALUE} bytes.
+ *
+ * @author Adam Gibson
+ */
+public class MappedNDArrayIO extends BaseNDArrayIO {
+    public final static byte[] MAGIC = {'N', 'D', '4', 'J', 'M', 'A', 'P', '1'};
+    public final static int ALIGNMENT = 64;
+    private final static int WRITE_CHUNK_BYTES = 1 << 20;
+
+    /**
+     * How the data section of a file is mapped
+     */
+    public enum Mode {
+        /** writes throw an exception */
+        READ_ONLY,
+        /** writes are private to the returned array and never reach the file */
+        COPY_ON_WRITE,
+        /** writes go through to the file */
+        READ_WRITE
+    }
+
+    private Mode mode;
+
+    public MappedNDArrayIO() {
+        this(Mode.COPY_ON_WRITE);
+    }
+
+    /**
+     *
+     * @param mode how files read with {@link #read(File)} are mapped
+     */
+    public MappedNDArrayIO(Mode mode) {
+        this.mode = mode;
+    }
+
+    /**
+     * Map the given file as an ndarray
+     * using the mode this instance was created with
+     *
+     * @param file the file to read in from
+     * @return an ndarray backed by the mapped file
+     */
+    @Override
+    public INDArray read(File file) throws IOException {
+        return read(file, mode);
+    }
+
+    /**
+     * Map the given file as an ndarray
+     *
+     * @param file the file to map
+     * @param mode how to map the file
+     * @return an ndarray backed by the mapped file
+     * @throws IOException
+     */
+    public INDArray read(File file, Mode mode) throws IOException {
+        String fileMode = mode == Mode.READ_WRITE ? "rw" : "r";
+        try (RandomAccessFile raf = new RandomAccessFile(file, fileMode)) {
+            Header header;
+            try (InputStream is = new BufferedInputStream(new FileInputStream(file))) {
+                header = Header.read(new DataInputStream(is));
+            }
+
+            long bytes = header.length * header.elementSize();
+            if (header.dataOffset + bytes > raf.length())
+                throw new IOException("File " + file + " is truncated: expected " + (header.dataOffset + bytes) + " bytes but was " + raf.length());
+            if (bytes > Integer.MAX_VALUE)
+                throw new IllegalArgumentException("Unable to map " + bytes + " bytes as a single data buffer; data buffers are limited to " + Integer.MAX_VALUE + " bytes");
+
+            FileChannel channel = raf.getChannel();
+            if (header.byteOrder != ByteOrder.nativeOrder()) {
+                channel.position(header.dataOffset);
+                return header.create(readData(header, Channels.newInputStream(channel)));
+            }
+
+            FileChannel.MapMode mapMode;
+            switch (mode) {
+                case READ_ONLY:
+                    mapMode = FileChannel.MapMode.READ_ONLY;
+                    break;
+                case READ_WRITE:
+                    mapMode = FileChannel.MapMode.READ_WRITE;
+                    break;
+                default:
+                    mapMode = FileChannel.MapMode.PRIVATE;
+                    break;
+            }
+
+            //the mapping stays valid after the channel is closed
+            MappedByteBuffer mapped = channel.map(mapMode, header.dataOffset, bytes);
+            mapped.order(ByteOrder.nativeOrder());
+            ByteBuf buf = Unpooled.wrappedBuffer(mapped).order(ByteOrder.nativeOrder());
+            int length = (int) header.length;
+            DataBuffer data = header.isDouble()
+                    ? new DoubleBuffer(buf, length, DataBuffer.AllocationMode.DIRECT)
+                    : new FloatBuffer(buf, length, DataBuffer.AllocationMode.DIRECT);
+            return header.create(data);
+        }
+    }
+
+    /**
+     * Read in an ndarray from an input stream.
+     * Streams can't be mapped, so the data is copied on to the heap.
+     *
+     * @param is the input stream to read in from
+     * @return the ndarray read in
+     */
+    @Override
+    public INDArray read(InputStream is) throws IOException {
+        CountingInputStream counting = new CountingInputStream(is);
+        Header header = Header.read(new DataInputStream(counting));
+        long skip = header.dataOffset - counting.count;
+        while (skip > 0) {
+            long skipped = counting.skip(skip);
+            if (skipped <= 0)
+                throw new EOFException("Unexpected end of stream before array data");
+            skip -= skipped;
+        }
+        return header.create(readData(header, counting));
+    }
+
+    @Override
+    public IComplexNDArray readComplex(InputStream is) throws IOException {
+        throw new UnsupportedOperationException("Complex ndarrays are not supported by the mapped format");
+    }
+
+    /**
+     * Write an ndarray to the output stream
+     *
+     * @param out the ndarray to write
+     * @param to  the output stream to write to
+     */
+    @Override
+    public void write(INDArray out, OutputStream to) throws IOException {
+        if (out instanceof IComplexNDArray)
+            throw new UnsupportedOperationException("Complex ndarrays are not supported by the mapped format");
+
+        INDArray compact = isCompact(out) ? out : Shape.toOffsetZeroCopyAnyOrder(out);
+        DataBuffer data = compact.data();
+        Header header = new Header(data.dataType() == DataBuffer.Type.DOUBLE, compact.ordering(),
+                ByteOrder.nativeOrder(), compact.shape(), compact.stride(), compact.length());
+
+        byte[] headerBytes = header.toBytes();
+        to.write(headerBytes);
+        to.write(new byte[(int) (header.dataOffset - headerBytes.length)]);
+
+        WritableByteChannel channel = Channels.newChannel(to);
+        int elementSize = header.elementSize();
+        ByteBuffer chunk = ByteBuffer.allocate(WRITE_CHUNK_BYTES).order(ByteOrder.nativeOrder());
+        int perChunk = WRITE_CHUNK_BYTES / elementSize;
+        int length = compact.length();
+        boolean heap = data.allocationMode() == DataBuffer.AllocationMode.HEAP;
+        for (int i = 0; i < length; i += perChunk) {
+            int n = Math.min(perChunk, length - i);
+            chunk.clear();
+            if (header.isDouble()) {
+                java.nio.DoubleBuffer view = chunk.asDoubleBuffer();
+                if (heap)
+                    view.put((double[]) data.array(), i, n);
+                else
+                    for (int j = 0; j < n; j++)
+                        view.put(data.getDouble(i + j));
+            } else {
+                java.nio.FloatBuffer view = chunk.asFloatBuffer();
+                if (heap)
+                    view.put((float[]) data.array(), i, n);
+                else
+                    for (int j = 0; j < n; j++)
+                        view.put(data.getFloat(i + j));
+            }
+            chunk.limit(n * elementSize);
+            while (chunk.hasRemaining())
+                channel.write(chunk);
+        }
+        to.flush();
+    }
+
+    @Override
+    public void writeComplex(IComplexNDArray out, OutputStream to) throws IOException {
+        throw new UnsupportedOperationException("Complex ndarrays are not supported by the mapped format");
+    }
+
+    private static boolean isCompact(INDArray arr) {
+        return arr.offset() == 0 && arr.length() == arr.data().length()
+                && Arrays.equals(arr.stride(), Nd4j.getStrides(arr.shape(), arr.ordering()));
+    }
+
+    private static DataBuffer readData(Header header, InputStream is) throws IOException {
+        int length = (int) header.length;
+        int elementSize = header.elementSize();
+        DataInputStream dis = new DataInputStream(is);
+        byte[] chunk = new byte[WRITE_CHUNK_BYTES];
+        ByteBuffer wrapped = ByteBuffer.wrap(chunk).order(header.byteOrder);
+        int perChunk = WRITE_CHUNK_BYTES / elementSize;
+        if (header.isDouble()) {
+            double[] data = new double[length];
+            for (int i = 0; i < length; i += perChunk) {
+                int n = Math.min(perChunk, length - i);
+                dis.readFully(chunk, 0, n * elementSize);
+                wrapped.clear();
+                wrapped.asDoubleBuffer().get(data, i, n);
+            }
+            return new DoubleBuffer(data, false);
+        }
+
+        float[] data = new float[length];
+        for (int i = 0; i < length; i += perChunk) {
+            int n = Math.min(perChunk, length - i);
+            dis.readFully(chunk, 0, n * elementSize);
+            wrapped.clear();
+            wrapped.asFloatBuffer().get(data, i, n);
+        }
+        return new FloatBuffer(data, false);
+    }
+
+    /**
+     * File header: everything needed to wrap the data section as an ndarray
+     */
+    private static class Header {
+        private final boolean isDouble;
+        private final char ordering;
+        private final ByteOrder byteOrder;
+        private final int[] shape;
+        private final int[] stride;
+        private final long length;
+        private final long dataOffset;
+
+        private Header(boolean isDouble, char ordering, ByteOrder byteOrder, int[] shape, int[] stride, long length) {
+            this(isDouble, ordering, byteOrder, shape, stride, length, align(headerSize(shape.length)));
+        }
+
+        private Header(boolean isDouble, char ordering, ByteOrder byteOrder, int[] shape, int[] stride, long length, long dataOffset) {
+            this.isDouble = isDouble;
+            this.ordering = ordering;
+            this.byteOrder = byteOrder;
+            this.shape = shape;
+            this.stride = stride;
+            this.length = length;
+            this.dataOffset = dataOffset;
+        }
+
+        private boolean isDouble() {
+            return isDouble;
+        }
+
+        private int elementSize() {
+            return isDouble ? 8 : 4;
+        }
+
+        private INDArray create(DataBuffer data) {
+            return Nd4j.create(data, shape, stride, 0, ordering);
+        }
+
+        private static int headerSize(int rank) {
+            return MAGIC.length + 4 + 4 + 8 * rank + 8 + 8;
+        }
+
+        private static long align(long position) {
+            return (position + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+        }
+
+        private byte[] toBytes() throws IOException {
+            ByteArrayOutputStream bos = new ByteArrayOutputStream(headerSize(shape.length));
+            DataOutputStream dos = new DataOutputStream(bos);
+            dos.write(MAGIC);
+            dos.writeByte(isDouble ? 'd' : 'f');
+            dos.writeByte(ordering);
+            dos.writeByte(byteOrder == ByteOrder.LITTLE_ENDIAN ? 'L' : 'B');
+            dos.writeByte(0);
+            dos.writeInt(shape.length);
+            for (int i = 0; i < shape.length; i++)
+                dos.writeInt(shape[i]);
+            for (int i = 0; i < stride.length; i++)
+                dos.writeInt(stride[i]);
+            dos.writeLong(length);
+            dos.writeLong(dataOffset);
+            dos.flush();
+            return bos.toByteArray();
+        }
+
+        private static Header read(DataInputStream dis) throws IOException {
+            byte[] magic = new byte[MAGIC.length];
+            dis.readFully(magic);
+            if (!Arrays.equals(magic, MAGIC))
+                throw new IOException("Not a mapped ndarray file: bad magic number");
+            byte type = dis.readByte();
+            if (type != 'd' && type != 'f')
+                throw new IOException("Illegal data type " + (char) type);
+            char ordering = (char) dis.readByte();
+            ByteOrder byteOrder = dis.readByte() == 'L' ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
+            dis.readByte();
+            int rank = dis.readInt();
+            int[] shape = new int[rank];
+            int[] stride = new int[rank];
+            for (int i = 0; i < rank; i++)
+                shape[i] = dis.readInt();
+            for (int i = 0; i < rank; i++)
+                stride[i] = dis.readInt();
+            long length = dis.readLong();
+            long dataOffset = dis.readLong();
+            if (length != ArrayUtil.prod(shape))
+                throw new IOException("Length " + length + " does not match shape " + Arrays.toString(shape));
+            return new Header(type == 'd', ordering, byteOrder, shape, stride, length, dataOffset);
+        }
+    }
+
+    /**
+     * Tracks the stream position so the reader can
+     * skip the padding between the header and the data
+     */
+    private static class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        private CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int ret = super.read();
+            if (ret >= 0)
+                count++;
+            return ret;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int ret = super.read(b, off, len);
+            if (ret > 0)
+                count += ret;
+            return ret;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long ret = super.skip(n);
+            count += ret;
+            return ret;
+        }
+    }
+}
@@ -29,6 +29,7 @@ import org.nd4j.linalg.api.instrumentation.Instrumentation;
 import org.nd4j.linalg.api.iter.NdIndexIterator;
 import org.nd4j.linalg.api.iter.FirstAxisIterator;
 import org.nd4j.linalg.api.ops.executioner.DefaultOpExecutioner;
+import org.nd4j.linalg.api.ops.fused.Expression;
 import org.nd4j.linalg.api.ops.impl.accum.Max;
 import org.nd4j.linalg.api.ops.impl.accum.*;
 import org.nd4j.linalg.api.ops.impl.accum.Min;
@@ -48,6 +49,8 @@ import org.nd4j.linalg.api.parallel.TaskCreator;
 import org.nd4j.linalg.api.shape.loop.coordinatefunction.CoordinateFunction;
 import org.nd4j.linalg.api.shape.loop.two.CopyLoopFunction;
 import org.nd4j.linalg.api.shape.loop.two.RawArrayIterationInformation2;
+import org.nd4j.linalg.api.shape.tad.TADCache;
+import org.nd4j.linalg.api.shape.tad.TADDescriptor;
 import org.nd4j.linalg.factory.NDArrayFactory;
 import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.linalg.indexing.*;
@@ -55,7 +58,6 @@ import org.nd4j.linalg.indexing.conditions.Condition;
 import org.nd4j.linalg.string.NDArrayStrings;
 import org.nd4j.linalg.util.ArrayUtil;
 import org.nd4j.linalg.util.LinAlgExceptions;
-import org.nd4j.linalg.util.NDArrayMath;
 import org.nd4j.linalg.api.shape.Shape;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -733,39 +735,13 @@ public abstract class BaseNDArray implements INDArray, Iterable {
         }
 
 
-        int[] tensorShape = ArrayUtil.keep(shape(),dimension);
-        int[] reverseDimensions = ArrayUtil.reverseCopy(dimension);
-        int[] remove = ArrayUtil.removeIndex(ArrayUtil.range(0, rank()), dimension);
-        int[] newPermuteDims = Ints.concat(remove, reverseDimensions);
+        if(this instanceof IComplexNDArray)
+            return TADDescriptor.tensorAlongDimension(this, index, dimension);
 
-        INDArray permuted = permute(newPermuteDims);
-
-        int sliceIdx = NDArrayMath.sliceOffsetForTensor(index, permuted, tensorShape);
-
-        INDArray ret2 = permuted.slice(sliceIdx);
-        if(dimension.length == tensorShape.length && ArrayUtil.prod(tensorShape) == ret2.length())
-            return ret2;
-
-        int length = ArrayUtil.prod(tensorShape);
-        int tensorLength = ArrayUtil.prod(tensorShape);
-        int offset = index * tensorLength / NDArrayMath.lengthPerSlice(ret2);
-
-        if(sliceIdx == 0 && length == NDArrayMath.lengthPerSlice(ret2))
-            return ret2.slice(offset);
-
-        if(length == NDArrayMath.lengthPerSlice(ret2)) {
-            offset -= ret2.slices() * (offset / ret2.slices());
-            ret2 = ret2.slice(offset);
-            return ret2;
-        }
-
-        while(ret2.length() > length) {
-            sliceIdx = NDArrayMath.sliceOffsetForTensor(index, ret2, tensorShape);
-            sliceIdx -= ret2.slices() * (sliceIdx / ret2.slices());
-            ret2 = ret2.slice(sliceIdx);
-        }
-
-        return  ret2;
+        TADDescriptor tad = TADCache.getInstance().get(this, dimension);
+        if(!tad.isUniform())
+            return TADDescriptor.tensorAlongDimension(this, index, dimension);
+        return create(data(), tad.getShape(), tad.getStride(), offset() + tad.offset(index), tad.getOrdering());
     }
 
 
@@ -1096,12 +1072,8 @@ public abstract class BaseNDArray implements INDArray, Iterable {
             return this;
         }
 
-        if(isRowVector())
-            return putScalar(new int[]{0,i},value);
-        else if(isColumnVector())
-            return putScalar(new int[]{i,0},value);
-        int[] indexes = ordering() == 'c' ? Shape.ind2subC(this,i) : Shape.ind2sub(this, i);
-        return putScalar(indexes, value);
+        data.put(linearOffset(i), value);
+        return this;
 
     }
 
@@ -3161,23 +3133,109 @@ public abstract class BaseNDArray implements INDArray, Iterable {
 
     @Override
     public double getDouble(int i) {
-        if(i >= length()) {
-            throw new IllegalArgumentException("Unable to get linear index >= " + length());
-        }
-
-
         if(i == 0)
             return data().getDouble(offset);
-
-        int[] dimensions = ordering == 'c'? Shape.ind2subC(this,i) : Shape.ind2sub(this, i);
-        Shape.assertShapeLessThan(dimensions,shape());
-        return getDouble(dimensions);
+        return data().getDouble(linearOffset(i));
 
     }
 
     @Override
     public double getDouble(int i, int j) {
-        return getDouble(new int[]{i, j});
+        if(shape.length != 2)
+            return getDouble(new int[]{i, j});
+        if(i >= shape[0] || j >= shape[1])
+            throw new IllegalArgumentException("Illegal index [" + i + "," + j + "] for shape " + Arrays.toString(shape));
+        int offset = this.offset;
+        if(shape[0] != 1)
+            offset += i * stride[0];
+        if(shape[1] != 1)
+            offset += j * stride[1];
+        return data().getDouble(offset);
+    }
+
+    @Override
+    public double[] getDoubles(int[] linearIndexes, double[] out) {
+        if(out.length < linearIndexes.length)
+            throw new IllegalArgumentException("Output length " + out.length + " is less than the number of indexes " + linearIndexes.length);
+        if(this instanceof IComplexNDArray) {
+            for(int k = 0; k < linearIndexes.length; k++)
+                out[k] = getDouble(linearIndexes[k]);
+            return out;
+        }
+
+        int ews = elementWiseStride();
+        DataBuffer data = data();
+        boolean heap = data.allocationMode() == DataBuffer.AllocationMode.HEAP;
+        if(heap && data.dataType() == DataBuffer.Type.DOUBLE) {
+            double[] d = (double[]) data.array();
+            for(int k = 0; k < linearIndexes.length; k++)
+                out[k] = d[bulkOffset(linearIndexes[k], ews)];
+        }
+        else if(heap && data.dataType() == DataBuffer.Type.FLOAT) {
+            float[] f = (float[]) data.array();
+            for(int k = 0; k < linearIndexes.length; k++)
+                out[k] = f[bulkOffset(linearIndexes[k], ews)];
+        }
+        else {
+            for(int k = 0; k < linearIndexes.length; k++)
+                out[k] = data.getDouble(bulkOffset(linearIndexes[k], ews));
+        }
+        return out;
+    }
+
+    @Override
+    public INDArray putDoubles(int[] linearIndexes, double[] values) {
+        if(values.length < linearIndexes.length)
+            throw new IllegalArgumentException("Values length " + values.length + " is less than the number of indexes " + linearIndexes.length);
+        if(this instanceof IComplexNDArray) {
+            for(int k = 0; k < linearIndexes.length; k++)
+                putScalar(linearIndexes[k], values[k]);
+            return this;
+        }
+
+        int ews = elementWiseStride();
+        DataBuffer data = data();
+        boolean heap = data.allocationMode() == DataBuffer.AllocationMode.HEAP;
+        if(heap && data.dataType() == DataBuffer.Type.DOUBLE) {
+            double[] d = (double[]) data.array();
+            for(int k = 0; k < linearIndexes.length; k++)
+                d[bulkOffset(linearIndexes[k], ews)] = values[k];
+        }
+        else if(heap && data.dataType() == DataBuffer.Type.FLOAT) {
+            float[] f = (float[]) data.array();
+            for(int k = 0; k < linearIndexes.length; k++)
+                f[bulkOffset(linearIndexes[k], ews)] = (float) values[k];
+        }
+        else {
+            for(int k = 0; k < linearIndexes.length; k++)
+                data.put(bulkOffset(linearIndexes[k], ews), values[k]);
+        }
+        return this;
+    }
+
+    /**
+     * The offset in the buffer of the element at the given linear index
+     * (relative to this array's ordering), computed without allocating.
+     * Uses the element wise stride when it is already known,
+     * otherwise walks the shape and stride.
+     * @param i the linear index
+     * @return the offset of the element in the buffer
+     */
+    protected int linearOffset(int i) {
+        if(i < 0 || i >= length)
+            throw new IllegalArgumentException("Unable to get linear index " + i + " for length " + length);
+        if(elementWiseStride > 0 && !(this instanceof IComplexNDArray))
+            return offset + i * elementWiseStride;
+        return Shape.offsetForLinearIndex(offset, shape, stride, ordering, i);
+    }
+
+    //bulk access has already resolved the element wise stride once for the whole batch
+    private int bulkOffset(int i, int ews) {
+        if(i < 0 || i >= length)
+            throw new IllegalArgumentException("Unable to get linear index " + i + " for length " + length);
+        if(ews > 0)
+            return offset + i * ews;
+        return Shape.offsetForLinearIndex(offset, shape, stride, ordering, i);
     }
 
     @Override
@@ -4293,4 +4351,9 @@ public abstract class BaseNDArray implements INDArray, Iterable {
     public Iterator<Object> iterator() {
         return new FirstAxisIterator(this);
     }
+
+    @Override
+    public Expression lazy() {
+        return Expression.of(this);
+    }
 }
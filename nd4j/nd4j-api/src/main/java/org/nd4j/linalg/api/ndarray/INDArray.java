@@ -22,6 +22,7 @@ package org.nd4j.linalg.api.ndarray;
 import org.nd4j.linalg.api.buffer.DataBuffer;
 import org.nd4j.linalg.api.complex.IComplexNDArray;
 import org.nd4j.linalg.api.complex.IComplexNumber;
+import org.nd4j.linalg.api.ops.fused.Expression;
 import org.nd4j.linalg.indexing.INDArrayIndex;
 import org.nd4j.linalg.indexing.NDArrayIndex;
 import org.nd4j.linalg.indexing.ShapeOffsetResolution;
@@ -1558,6 +1559,24 @@ public interface INDArray extends Serializable  {
      */
     double getDouble(int i);
 
+    /**
+     * Get the elements at the given linear indices
+     * (relative to this array's ordering) in one call
+     * @param linearIndexes the linear indices of the elements to get
+     * @param out the array to write the elements to, at least as long as linearIndexes
+     * @return out
+     */
+    double[] getDoubles(int[] linearIndexes, double[] out);
+
+    /**
+     * Put the given values at the given linear indices
+     * (relative to this array's ordering) in one call
+     * @param linearIndexes the linear indices of the elements to put
+     * @param values the values to put, at least as long as linearIndexes
+     * @return this array
+     */
+    INDArray putDoubles(int[] linearIndexes, double[] values);
+
     /**
      *
      * @param i
@@ -2091,6 +2110,11 @@ public interface INDArray extends Serializable  {
      */
     IComplexNDArray addi(IComplexNumber n, IComplexNDArray result);
 
-
-
+    /**
+     * Start a lazily evaluated element wise expression over this array.
+     * Operations on the expression are recorded rather than executed,
+     * and are run as one fused pass when the expression is evaluated.
+     * @return an expression for the elements of this array
+     */
+    Expression lazy();
 }
@@ -24,6 +24,7 @@ import org.nd4j.linalg.api.complex.IComplexNDArray;
 import org.nd4j.linalg.api.complex.IComplexNumber;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.api.ops.*;
+import org.nd4j.linalg.api.parallel.DefaultParallelExecutionProvider;
 import org.nd4j.linalg.api.parallel.ParallelExecutioner;
 import org.nd4j.linalg.api.parallel.tasks.Task;
 import org.nd4j.linalg.api.parallel.tasks.TaskFactory;
@@ -41,14 +42,21 @@ public class DefaultOpExecutioner implements OpExecutioner {
 
     protected ExecutionMode executionMode = ExecutionMode.JAVA;
     protected TaskFactory taskFactory;
+    protected ParallelExecutioner parallelExecutioner;
 
     public DefaultOpExecutioner() {
         taskFactory = Nd4j.getTaskFactory();
     }
 
+    /**
+     * The parallel executioner, created on first use
+     * @return the parallel executioner
+     */
     @Override
-    public ParallelExecutioner parallelExecutioner() {
-        throw new UnsupportedOperationException();
+    public synchronized ParallelExecutioner parallelExecutioner() {
+        if(parallelExecutioner == null)
+            parallelExecutioner = new DefaultParallelExecutionProvider().getService();
+        return parallelExecutioner;
     }
 
     @Override
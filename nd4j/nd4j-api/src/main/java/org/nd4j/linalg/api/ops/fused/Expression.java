@@ -0,0 +1,315 @@
+package org.nd4j.linalg.api.ops.fused;
+
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+/**
+ * A lazily evaluated element wise expression over ndarrays.
+ *
+ * Element wise, scalar and row/column broadcast operations are recorded
+ * into a small DAG instead of being executed one at a time. Evaluating
+ * the expression runs all of them in a single pass over the arrays:
+ * the elements are processed in small chunks that stay in cache, so
+ * a chain of N operations reads and writes main memory once rather than N times.
+ *
+ * Expressions are immutable and may be reused and shared between expressions;
+ * a sub expression used more than once is only computed once per chunk.
+ * <pre>
+ *     INDArray out = x.lazy().mul(y).add(1.0).sigmoid().eval();
+ *     z.lazy().mul(0.9).add(g.lazy().mul(0.1)).evalInto(z);
+ * </pre>
+ *
+ * @author Adam Gibson
+ */
+public class Expression {
+
+    enum Kind {
+        ARRAY, SCALAR, ROW_VECTOR, COLUMN_VECTOR, UNARY, BINARY
+    }
+
+    /** Operations on a single value */
+    public enum UnaryOp {
+        NEG, ABS, EXP, LOG, SQRT, SQUARE, TANH, TANH_DERIVATIVE, SIGMOID, SIGMOID_DERIVATIVE, RELU, SIGN
+    }
+
+    /** Operations on two values */
+    public enum BinaryOp {
+        ADD, SUB, MUL, DIV, RSUB, RDIV, MAX, MIN, POW;
+
+        //the op with its operands swapped
+        BinaryOp reverse() {
+            switch(this) {
+                case SUB: return RSUB;
+                case DIV: return RDIV;
+                case RSUB: return SUB;
+                case RDIV: return DIV;
+                case POW: return null;
+                default: return this;
+            }
+        }
+    }
+
+    final Kind kind;
+    final INDArray array;
+    final double value;
+    final UnaryOp unaryOp;
+    final BinaryOp binaryOp;
+    final Expression left;
+    final Expression right;
+
+    private Expression(Kind kind, INDArray array, double value, UnaryOp unaryOp, BinaryOp binaryOp, Expression left, Expression right) {
+        this.kind = kind;
+        this.array = array;
+        this.value = value;
+        this.unaryOp = unaryOp;
+        this.binaryOp = binaryOp;
+        this.left = left;
+        this.right = right;
+    }
+
+    /**
+     * An expression for the elements of an array
+     * @param arr the array
+     * @return the expression
+     */
+    public static Expression of(INDArray arr) {
+        return new Expression(Kind.ARRAY, arr, 0, null, null, null, null);
+    }
+
+    /**
+     * A constant expression
+     * @param value the constant
+     * @return the expression
+     */
+    public static Expression scalar(double value) {
+        return new Expression(Kind.SCALAR, null, value, null, null, null, null);
+    }
+
+    private static Expression broadcast(Kind kind, INDArray vector) {
+        if(!vector.isVector() && !vector.isScalar())
+            throw new IllegalArgumentException("Only vectors can be broadcast");
+        return new Expression(kind, vector, 0, null, null, null, null);
+    }
+
+    private static Expression unary(UnaryOp op, Expression child) {
+        if(child.kind == Kind.SCALAR)
+            return scalar(FusedProgram.apply(op, child.value));
+        return new Expression(Kind.UNARY, null, 0, op, null, child, null);
+    }
+
+    private static Expression binary(BinaryOp op, Expression left, Expression right) {
+        if(left.kind == Kind.SCALAR && right.kind == Kind.SCALAR)
+            return scalar(FusedProgram.apply(op, left.value, right.value));
+        //keep constants on the right so they compile to scalar ops
+        if(left.kind == Kind.SCALAR && op.reverse() != null)
+            return new Expression(Kind.BINARY, null, 0, null, op.reverse(), right, left);
+        return new Expression(Kind.BINARY, null, 0, null, op, left, right);
+    }
+
+    public Expression add(Expression other) {
+        return binary(BinaryOp.ADD, this, other);
+    }
+
+    public Expression add(INDArray other) {
+        return add(of(other));
+    }
+
+    public Expression add(double value) {
+        return add(scalar(value));
+    }
+
+    public Expression sub(Expression other) {
+        return binary(BinaryOp.SUB, this, other);
+    }
+
+    public Expression sub(INDArray other) {
+        return sub(of(other));
+    }
+
+    public Expression sub(double value) {
+        return sub(scalar(value));
+    }
+
+    /** value - this */
+    public Expression rsub(double value) {
+        return binary(BinaryOp.RSUB, this, scalar(value));
+    }
+
+    public Expression mul(Expression other) {
+        return binary(BinaryOp.MUL, this, other);
+    }
+
+    public Expression mul(INDArray other) {
+        return mul(of(other));
+    }
+
+    public Expression mul(double value) {
+        return mul(scalar(value));
+    }
+
+    public Expression div(Expression other) {
+        return binary(BinaryOp.DIV, this, other);
+    }
+
+    public Expression div(INDArray other) {
+        return div(of(other));
+    }
+
+    public Expression div(double value) {
+        return div(scalar(value));
+    }
+
+    /** value / this */
+    public Expression rdiv(double value) {
+        return binary(BinaryOp.RDIV, this, scalar(value));
+    }
+
+    public Expression max(Expression other) {
+        return binary(BinaryOp.MAX, this, other);
+    }
+
+    public Expression max(double value) {
+        return max(scalar(value));
+    }
+
+    public Expression min(Expression other) {
+        return binary(BinaryOp.MIN, this, other);
+    }
+
+    public Expression min(double value) {
+        return min(scalar(value));
+    }
+
+    public Expression pow(double value) {
+        return binary(BinaryOp.POW, this, scalar(value));
+    }
+
+    public Expression addRowVector(INDArray rowVector) {
+        return add(broadcast(Kind.ROW_VECTOR, rowVector));
+    }
+
+    public Expression subRowVector(INDArray rowVector) {
+        return sub(broadcast(Kind.ROW_VECTOR, rowVector));
+    }
+
+    public Expression mulRowVector(INDArray rowVector) {
+        return mul(broadcast(Kind.ROW_VECTOR, rowVector));
+    }
+
+    public Expression divRowVector(INDArray rowVector) {
+        return div(broadcast(Kind.ROW_VECTOR, rowVector));
+    }
+
+    public Expression addColumnVector(INDArray columnVector) {
+        return add(broadcast(Kind.COLUMN_VECTOR, columnVector));
+    }
+
+    public Expression subColumnVector(INDArray columnVector) {
+        return sub(broadcast(Kind.COLUMN_VECTOR, columnVector));
+    }
+
+    public Expression mulColumnVector(INDArray columnVector) {
+        return mul(broadcast(Kind.COLUMN_VECTOR, columnVector));
+    }
+
+    public Expression divColumnVector(INDArray columnVector) {
+        return div(broadcast(Kind.COLUMN_VECTOR, columnVector));
+    }
+
+    public Expression neg() {
+        return unary(UnaryOp.NEG, this);
+    }
+
+    public Expression abs() {
+        return unary(UnaryOp.ABS, this);
+    }
+
+    public Expression exp() {
+        return unary(UnaryOp.EXP, this);
+    }
+
+    public Expression log() {
+        return unary(UnaryOp.LOG, this);
+    }
+
+    public Expression sqrt() {
+        return unary(UnaryOp.SQRT, this);
+    }
+
+    public Expression square() {
+        return unary(UnaryOp.SQUARE, this);
+    }
+
+    public Expression tanh() {
+        return unary(UnaryOp.TANH, this);
+    }
+
+    /** 1 - tanh(this)^2 */
+    public Expression tanhDerivative() {
+        return unary(UnaryOp.TANH_DERIVATIVE, this);
+    }
+
+    public Expression sigmoid() {
+        return unary(UnaryOp.SIGMOID, this);
+    }
+
+    /** sigmoid(this) * (1 - sigmoid(this)) */
+    public Expression sigmoidDerivative() {
+        return unary(UnaryOp.SIGMOID_DERIVATIVE, this);
+    }
+
+    public Expression relu() {
+        return unary(UnaryOp.RELU, this);
+    }
+
+    public Expression sign() {
+        return unary(UnaryOp.SIGN, this);
+    }
+
+    /**
+     * Evaluate the expression into a new array
+     * with the shape of the arrays in the expression and
+     * the ordering of the first of them
+     * @return the result
+     */
+    public INDArray eval() {
+        INDArray first = firstArray(this);
+        if(first == null)
+            throw new IllegalStateException("Expression has no arrays to take a shape from");
+        INDArray ret = Nd4j.create(first.shape(), first.ordering());
+        return evalInto(ret);
+    }
+
+    /**
+     * Evaluate the expression into the given array.
+     * The result may be one of the arrays in the expression (in place evaluation),
+     * as long as it does not partially overlap any other array in the expression.
+     * @param result the array to write to
+     * @return result
+     */
+    public INDArray evalInto(INDArray result) {
+        FusedProgram.compile(this, result).execute();
+        return result;
+    }
+
+    private static INDArray firstArray(Expression e) {
+        if(e == null)
+            return null;
+        if(e.kind == Kind.ARRAY)
+            return e.array;
+        INDArray ret = firstArray(e.left);
+        return ret != null ? ret : firstArray(e.right);
+    }
+
+    @Override
+    public String toString() {
+        switch(kind) {
+            case ARRAY: return "array" + java.util.Arrays.toString(array.shape());
+            case SCALAR: return String.valueOf(value);
+            case ROW_VECTOR: return "row" + java.util.Arrays.toString(array.shape());
+            case COLUMN_VECTOR: return "column" + java.util.Arrays.toString(array.shape());
+            case UNARY: return unaryOp.name().toLowerCase() + "(" + left + ")";
+            default: return binaryOp.name().toLowerCase() + "(" + left + ", " + right + ")";
+        }
+    }
+}
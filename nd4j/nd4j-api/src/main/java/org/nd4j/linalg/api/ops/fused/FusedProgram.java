@@ -0,0 +1,429 @@
+package org.nd4j.linalg.api.ops.fused;
+
+import org.apache.commons.math3.util.FastMath;
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.complex.IComplexNDArray;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.shape.Shape;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An {@link Expression} compiled to a flat list of instructions
+ * over chunk sized registers.
+ *
+ * Execution walks the result in its own ordering, {@link #CHUNK_SIZE}
+ * elements at a time: every instruction runs a tight loop over the
+ * chunk, and the final register is written to the result.
+ * The registers are small enough to stay in cache, so the arrays
+ * themselves are only read and written once.
+ *
+ * @author Adam Gibson
+ */
+class FusedProgram {
+    static final int CHUNK_SIZE = 1024;
+
+    private static final int LOAD = 0;
+    private static final int CONSTANT = 1;
+    private static final int UNARY = 2;
+    private static final int SCALAR = 3;
+    private static final int BINARY = 4;
+
+    private static class Instruction {
+        int code;
+        int target;
+        int a;
+        int b;
+        double value;
+        Source source;
+        Expression.UnaryOp unaryOp;
+        Expression.BinaryOp binaryOp;
+    }
+
+    private final List<Instruction> instructions = new ArrayList<>();
+    private final Map<Expression, Integer> registers = new IdentityHashMap<>();
+    private final int[] shape;
+    private final char order;
+    private final int length;
+    private final boolean resultIsVector;
+    private final Source result;
+    private int numRegisters;
+
+    private FusedProgram(INDArray result) {
+        if(result instanceof IComplexNDArray)
+            throw new IllegalArgumentException("Complex arrays are not supported by fused expressions");
+        this.shape = result.shape();
+        this.order = result.ordering();
+        this.length = result.length();
+        this.resultIsVector = result.isVector();
+        this.result = new Source(result, order);
+    }
+
+    /**
+     * Compile an expression to be evaluated into the given array
+     * @param root the expression
+     * @param result the array to write the result to
+     * @return the compiled program
+     */
+    static FusedProgram compile(Expression root, INDArray result) {
+        FusedProgram program = new FusedProgram(result);
+        program.emit(root);
+        return program;
+    }
+
+    private int emit(Expression e) {
+        Integer existing = registers.get(e);
+        if(existing != null)
+            return existing;
+
+        Instruction instruction = new Instruction();
+        switch(e.kind) {
+            case ARRAY:
+                checkShape(e.array);
+                instruction.code = LOAD;
+                instruction.source = new Source(e.array, order);
+                break;
+            case ROW_VECTOR:
+            case COLUMN_VECTOR:
+                instruction.code = LOAD;
+                instruction.source = new Source(e.array, e.kind == Expression.Kind.ROW_VECTOR, shape, order);
+                break;
+            case SCALAR:
+                instruction.code = CONSTANT;
+                instruction.value = e.value;
+                break;
+            case UNARY:
+                instruction.code = UNARY;
+                instruction.unaryOp = e.unaryOp;
+                instruction.a = emit(e.left);
+                break;
+            default:
+                instruction.binaryOp = e.binaryOp;
+                instruction.a = emit(e.left);
+                if(e.right.kind == Expression.Kind.SCALAR) {
+                    instruction.code = SCALAR;
+                    instruction.value = e.right.value;
+                }
+                else {
+                    instruction.code = BINARY;
+                    instruction.b = emit(e.right);
+                }
+                break;
+        }
+
+        instruction.target = numRegisters++;
+        instructions.add(instruction);
+        registers.put(e, instruction.target);
+        return instruction.target;
+    }
+
+    private void checkShape(INDArray arr) {
+        if(arr instanceof IComplexNDArray)
+            throw new IllegalArgumentException("Complex arrays are not supported by fused expressions");
+        //row and column vectors of the same length line up element for element
+        boolean sameVector = resultIsVector && arr.isVector() && arr.length() == length;
+        if(!sameVector && !Arrays.equals(arr.shape(), shape))
+            throw new IllegalArgumentException("Shape " + Arrays.toString(arr.shape()) + " does not match result shape " + Arrays.toString(shape));
+    }
+
+    /**
+     * Run the program over the whole result
+     */
+    void execute() {
+        int chunk = Math.min(CHUNK_SIZE, length);
+        double[][] registers = new double[numRegisters][chunk];
+        for(int start = 0; start < length; start += chunk) {
+            int n = Math.min(chunk, length - start);
+            for(Instruction instruction : instructions) {
+                double[] out = registers[instruction.target];
+                switch(instruction.code) {
+                    case LOAD:
+                        instruction.source.load(start, n, out);
+                        break;
+                    case CONSTANT:
+                        Arrays.fill(out, 0, n, instruction.value);
+                        break;
+                    case UNARY:
+                        unary(instruction.unaryOp, registers[instruction.a], out, n);
+                        break;
+                    case SCALAR:
+                        scalar(instruction.binaryOp, registers[instruction.a], instruction.value, out, n);
+                        break;
+                    default:
+                        binary(instruction.binaryOp, registers[instruction.a], registers[instruction.b], out, n);
+                        break;
+                }
+            }
+            result.store(start, n, registers[numRegisters - 1]);
+        }
+    }
+
+    private static void unary(Expression.UnaryOp op, double[] x, double[] out, int n) {
+        switch(op) {
+            case NEG:
+                for(int i = 0; i < n; i++)
+                    out[i] = -x[i];
+                break;
+            case SQUARE:
+                for(int i = 0; i < n; i++)
+                    out[i] = x[i] * x[i];
+                break;
+            case RELU:
+                for(int i = 0; i < n; i++)
+                    out[i] = x[i] < 0 ? 0 : x[i];
+                break;
+            default:
+                for(int i = 0; i < n; i++)
+                    out[i] = apply(op, x[i]);
+                break;
+        }
+    }
+
+    private static void scalar(Expression.BinaryOp op, double[] x, double value, double[] out, int n) {
+        switch(op) {
+            case ADD:
+                for(int i = 0; i < n; i++)
+                    out[i] = x[i] + value;
+                break;
+            case SUB:
+                for(int i = 0; i < n; i++)
+                    out[i] = x[i] - value;
+                break;
+            case MUL:
+                for(int i = 0; i < n; i++)
+                    out[i] = x[i] * value;
+                break;
+            case RSUB:
+                for(int i = 0; i < n; i++)
+                    out[i] = value - x[i];
+                break;
+            default:
+                for(int i = 0; i < n; i++)
+                    out[i] = apply(op, x[i], value);
+                break;
+        }
+    }
+
+    private static void binary(Expression.BinaryOp op, double[] x, double[] y, double[] out, int n) {
+        switch(op) {
+            case ADD:
+                for(int i = 0; i < n; i++)
+                    out[i] = x[i] + y[i];
+                break;
+            case SUB:
+                for(int i = 0; i < n; i++)
+                    out[i] = x[i] - y[i];
+                break;
+            case MUL:
+                for(int i = 0; i < n; i++)
+                    out[i] = x[i] * y[i];
+                break;
+            case DIV:
+                for(int i = 0; i < n; i++)
+                    out[i] = x[i] / y[i];
+                break;
+            default:
+                for(int i = 0; i < n; i++)
+                    out[i] = apply(op, x[i], y[i]);
+                break;
+        }
+    }
+
+    static double apply(Expression.UnaryOp op, double x) {
+        switch(op) {
+            case NEG: return -x;
+            case ABS: return Math.abs(x);
+            case EXP: return FastMath.exp(x);
+            case LOG: return FastMath.log(x);
+            case SQRT: return Math.sqrt(x);
+            case SQUARE: return x * x;
+            case TANH: return FastMath.tanh(x);
+            case TANH_DERIVATIVE: {
+                double tanh = FastMath.tanh(x);
+                return 1.0 - tanh * tanh;
+            }
+            case SIGMOID: return 1.0 / (1.0 + FastMath.exp(-x));
+            case SIGMOID_DERIVATIVE: {
+                double sigmoid = 1.0 / (1.0 + FastMath.exp(-x));
+                return sigmoid * (1.0 - sigmoid);
+            }
+            case RELU: return x < 0 ? 0 : x;
+            case SIGN: return Math.signum(x);
+            default: throw new IllegalArgumentException("Unknown op " + op);
+        }
+    }
+
+    static double apply(Expression.BinaryOp op, double x, double y) {
+        switch(op) {
+            case ADD: return x + y;
+            case SUB: return x - y;
+            case MUL: return x * y;
+            case DIV: return x / y;
+            case RSUB: return y - x;
+            case RDIV: return y / x;
+            case MAX: return Math.max(x, y);
+            case MIN: return Math.min(x, y);
+            case POW: return FastMath.pow(x, y);
+            default: throw new IllegalArgumentException("Unknown op " + op);
+        }
+    }
+
+    /**
+     * Reads (or writes) chunks of an array in the traversal order of the result
+     */
+    private static class Source {
+        private final DataBuffer buffer;
+        private final double[] doubles;
+        private final float[] floats;
+        private final int offset;
+        private final int[] shape;
+        private final int[] stride;
+        private final char order;
+        //stride between consecutive elements in traversal order, or -1 when the elements have to be located one by one
+        private final int increment;
+        //broadcast vectors: the vector values and whether they repeat along rows
+        private final double[] vector;
+        private final boolean row;
+        private final int rows;
+        private final int columns;
+
+        private Source(INDArray arr, char order) {
+            this.buffer = arr.data();
+            boolean heap = buffer.allocationMode() == DataBuffer.AllocationMode.HEAP;
+            this.doubles = heap && buffer.dataType() == DataBuffer.Type.DOUBLE ? (double[]) buffer.array() : null;
+            this.floats = heap && buffer.dataType() == DataBuffer.Type.FLOAT ? (float[]) buffer.array() : null;
+            this.offset = arr.offset();
+            this.shape = arr.shape();
+            this.stride = arr.stride();
+            this.order = order;
+            int ews = arr.elementWiseStride();
+            this.increment = ews > 0 && (arr.ordering() == order || arr.isVector()) ? ews : -1;
+            this.vector = null;
+            this.row = false;
+            this.rows = 0;
+            this.columns = 0;
+        }
+
+        private Source(INDArray vector, boolean row, int[] resultShape, char order) {
+            if(resultShape.length != 2)
+                throw new IllegalArgumentException("Vectors can only be broadcast over matrices");
+            int expected = row ? resultShape[1] : resultShape[0];
+            if(vector.length() != expected)
+                throw new IllegalArgumentException("Vector length " + vector.length() + " does not match " + (row ? "columns " : "rows ") + expected);
+            this.buffer = null;
+            this.doubles = null;
+            this.floats = null;
+            this.offset = 0;
+            this.shape = null;
+            this.stride = null;
+            this.order = order;
+            this.increment = 0;
+            this.vector = new double[vector.length()];
+            for(int i = 0; i < this.vector.length; i++)
+                this.vector[i] = vector.getDouble(i);
+            this.row = row;
+            this.rows = resultShape[0];
+            this.columns = resultShape[1];
+        }
+
+        private int offsetOf(int index) {
+            if(increment > 0)
+                return offset + index * increment;
+            return Shape.offsetForLinearIndex(offset, shape, stride, order, index);
+        }
+
+        private void load(int start, int n, double[] out) {
+            if(vector != null) {
+                loadBroadcast(start, n, out);
+                return;
+            }
+
+            if(increment > 0) {
+                int idx = offset + start * increment;
+                if(doubles != null) {
+                    for(int i = 0; i < n; i++, idx += increment)
+                        out[i] = doubles[idx];
+                }
+                else if(floats != null) {
+                    for(int i = 0; i < n; i++, idx += increment)
+                        out[i] = floats[idx];
+                }
+                else {
+                    for(int i = 0; i < n; i++, idx += increment)
+                        out[i] = buffer.getDouble(idx);
+                }
+                return;
+            }
+
+            for(int i = 0; i < n; i++) {
+                int idx = offsetOf(start + i);
+                if(doubles != null)
+                    out[i] = doubles[idx];
+                else if(floats != null)
+                    out[i] = floats[idx];
+                else
+                    out[i] = buffer.getDouble(idx);
+            }
+        }
+
+        private void loadBroadcast(int start, int n, double[] out) {
+            //position of the first element of the chunk in the result matrix
+            int r, c;
+            if(order == 'c') {
+                r = start / columns;
+                c = start - r * columns;
+            }
+            else {
+                c = start / rows;
+                r = start - c * rows;
+            }
+
+            for(int i = 0; i < n; i++) {
+                out[i] = row ? vector[c] : vector[r];
+                if(order == 'c') {
+                    if(++c == columns) {
+                        c = 0;
+                        r++;
+                    }
+                }
+                else if(++r == rows) {
+                    r = 0;
+                    c++;
+                }
+            }
+        }
+
+        private void store(int start, int n, double[] in) {
+            if(increment > 0) {
+                int idx = offset + start * increment;
+                if(doubles != null) {
+                    for(int i = 0; i < n; i++, idx += increment)
+                        doubles[idx] = in[i];
+                }
+                else if(floats != null) {
+                    for(int i = 0; i < n; i++, idx += increment)
+                        floats[idx] = (float) in[i];
+                }
+                else {
+                    for(int i = 0; i < n; i++, idx += increment)
+                        buffer.put(idx, in[i]);
+                }
+                return;
+            }
+
+            for(int i = 0; i < n; i++) {
+                int idx = offsetOf(start + i);
+                if(doubles != null)
+                    doubles[idx] = in[i];
+                else if(floats != null)
+                    floats[idx] = (float) in[i];
+                else
+                    buffer.put(idx, in[i]);
+            }
+        }
+    }
+}
@@ -4,7 +4,10 @@ import org.apache.commons.math3.util.Pair;
 import org.nd4j.linalg.api.ndarray.INDArray;
 import org.nd4j.linalg.api.ops.Accumulation;
 import org.nd4j.linalg.api.ops.Op;
+import org.nd4j.linalg.api.ops.TransformOp;
 import org.nd4j.linalg.api.ops.executioner.OpExecutioner;
+import org.nd4j.linalg.api.parallel.tasks.TaskFactory;
+import org.nd4j.linalg.api.parallel.tasks.cpu.CPUTaskFactory;
 import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.linalg.util.ArrayUtil;
 import org.slf4j.Logger;
@@ -30,6 +33,9 @@ public class DefaultParallelExecutioner implements ParallelExecutioner {
     private ForkJoinPool forkJoinPool;
     private boolean enable = true;
     public final static String ENABLED = "org.nd4j.parallel.enabled";
+    //used when the task factory isn't a CPUTaskFactory; same as the CPUTaskFactory default.
+    //Neither this value nor the two chunk guard in execChunked has been measured yet (see ReductionBenchmark)
+    public final static int DEFAULT_PARALLEL_THRESHOLD = 8192;
     private static Logger log = LoggerFactory.getLogger(DefaultParallelExecutioner.class);
 
     public DefaultParallelExecutioner(ForkJoinPool forkJoinPool) {
@@ -62,8 +68,9 @@ public class DefaultParallelExecutioner implements ParallelExecutioner {
     @Override
     public void setParallelEnabled(boolean parallelEnabled) {
         this.enable = parallelEnabled;
-        if(parallelEnabled) {
-            this.forkJoinPool = null;
+        //an executioner created with parallelism disabled has no pool yet
+        if(parallelEnabled && forkJoinPool == null && executorService == null) {
+            this.forkJoinPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors(),ForkJoinPool.defaultForkJoinWorkerThreadFactory,null,false);
         }
     }
 
@@ -87,21 +94,18 @@ public class DefaultParallelExecutioner implements ParallelExecutioner {
             return retArray;
         }
         if(forkJoinPool != null) {
-            List<ForkJoinTask<INDArray>> tasks = TaskCreator.parititonForkJoinBasedOnTensorsAlongDimension(arr,task,executioner,retArray,dimension);
-            List<ForkJoinTask<INDArray>> blockList = new ArrayList<>();
-            for(ForkJoinTask<INDArray> task2 : tasks) {
-                blockList.add(forkJoinPool.submit(task2));
-            }
-
-            for(ForkJoinTask<INDArray> block : tasks) {
-                try {
-                    block.get();
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                } catch (ExecutionException e) {
-                    e.printStackTrace();
+            final Accumulation acc = task;
+            final OpExecutioner opExecutioner = executioner;
+            final INDArray ret = retArray;
+            final int[] dims = dimension;
+            execChunked(new TensorChunkAction.TensorTask() {
+                @Override
+                public void perform(int tensorIdx) {
+                    Op op2 = acc.opForDimension(tensorIdx, dims);
+                    double result = opExecutioner.execAndReturn((Accumulation) op2).getFinalResult().doubleValue();
+                    ret.putScalar(tensorIdx, result);
                 }
-            }
+            }, task.x(), dimension);
         }
 
         else {
@@ -136,19 +140,21 @@ public class DefaultParallelExecutioner implements ParallelExecutioner {
         }
 
         if(forkJoinPool != null) {
-            Pair<CountDownLatch,List<ForkJoinTask<INDArray>>> tasks = TaskCreator.parititonForkJoinBasedOnTensorsAlongDimension(arr,task,executioner,dimension);
-            List<ForkJoinTask<INDArray>> blockList = new ArrayList<>();
-            for(ForkJoinTask<INDArray> task2 : tasks.getSecond()) {
-                blockList.add(forkJoinPool.submit(task2));
-            }
-            for(ForkJoinTask<INDArray> future : blockList)
-                try {
-                    future.get();
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                } catch (ExecutionException e) {
-                    e.printStackTrace();
+            final Op op = task;
+            final OpExecutioner opExecutioner = executioner;
+            final int[] dims = dimension;
+            execChunked(new TensorChunkAction.TensorTask() {
+                @Override
+                public void perform(int tensorIdx) {
+                    Op op2 = op.opForDimension(tensorIdx, dims);
+                    opExecutioner.exec(op2);
+                    if (op instanceof TransformOp) {
+                        TransformOp t = (TransformOp) op;
+                        TransformOp t2 = (TransformOp) op2;
+                        t.z().tensorAlongDimension(tensorIdx, dims).assign(t2.z());
+                    }
                 }
+            }, arr, dimension);
         }
 
         else {
@@ -227,19 +233,15 @@ public class DefaultParallelExecutioner implements ParallelExecutioner {
             return;
         }
         if(forkJoinPool != null) {
-            Pair<List<ForkJoinTask<INDArray>>,CountDownLatch> tasks = TaskCreator.parititonForkJoinBasedOnTensorsAlongDimension(arr,task,dimension);
-            for(ForkJoinTask<INDArray> task2 : tasks.getFirst()) {
-                forkJoinPool.submit(task2);
-            }
-
-            for(ForkJoinTask<INDArray> task2 : tasks.getFirst())
-                try {
-                    task2.get();
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                } catch (ExecutionException e) {
-                    e.printStackTrace();
+            final INDArray array = arr;
+            final TaskCreator.INDArrayTask arrayTask = task;
+            final int[] dims = dimension;
+            execChunked(new TensorChunkAction.TensorTask() {
+                @Override
+                public void perform(int tensorIdx) {
+                    arrayTask.perform(array.tensorAlongDimension(tensorIdx, dims));
                 }
+            }, arr, dimension);
         }
 
         else {
@@ -268,25 +270,29 @@ public class DefaultParallelExecutioner implements ParallelExecutioner {
 
             for(int i = 0; i < tensors; i++) {
                 for(int j = 0; j < arrBasedAlongDimension.length; j++)
-                    arrBasedAlongDimension[j] = arr[i].tensorAlongDimension(j,dimension);
+                    arrBasedAlongDimension[j] = arr[j].tensorAlongDimension(i,dimension);
                 task.perform(arrBasedAlongDimension);
             }
 
             return;
         }
         if(forkJoinPool != null) {
-            Pair<List<ForkJoinTask<INDArray[]>>,CountDownLatch> tasks = TaskCreator.parititonForkJoinBasedOnTensorsAlongDimension(arr,task,dimension);
-            for(ForkJoinTask<INDArray[]> task2 : tasks.getFirst()) {
-                forkJoinPool.execute(task2);
-            }
-            for(ForkJoinTask<INDArray[]> task2 : tasks.getFirst())
-                try {
-                    task2.get();
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                } catch (ExecutionException e) {
-                    e.printStackTrace();
+            int tensors = arr[0].tensorssAlongDimension(dimension);
+            for(int i = 1; i < arr.length; i++)
+                if(arr[i].tensorssAlongDimension(dimension) != tensors)
+                    throw new IllegalArgumentException("Unable to parallellize operations with unequal number of tenosrs along dimension");
+            final INDArray[] arrays = arr;
+            final TaskCreator.INDArrayTask arrayTask = task;
+            final int[] dims = dimension;
+            execChunked(new TensorChunkAction.TensorTask() {
+                @Override
+                public void perform(int tensorIdx) {
+                    INDArray[] arrBasedAlongDimension = new INDArray[arrays.length];
+                    for(int j = 0; j < arrBasedAlongDimension.length; j++)
+                        arrBasedAlongDimension[j] = arrays[j].tensorAlongDimension(tensorIdx, dims);
+                    arrayTask.perform(arrBasedAlongDimension);
                 }
+            }, arr[0], dimension);
         }
 
         else {
@@ -350,6 +356,49 @@ public class DefaultParallelExecutioner implements ParallelExecutioner {
 
     }
 
+    /**
+     * Run the given task for every tensor along
+     * the given dimension on the fork join pool.
+     * Tensors are grouped in to chunks of roughly equal
+     * element count (see {@link TensorChunkAction#grainSize(int, int, int, int)})
+     * based on the parallel threshold, which is split recursively
+     * rather than submitting one task per tensor.
+     * If the work would not split in to at least two chunks of at least the
+     * threshold (see {@link TensorChunkAction#worthChunking(int, int, int, int)}),
+     * the tensors are processed on the calling thread, so the chunked path is
+     * only taken when it has more than one worker's worth of work.
+     * This guard is a conservative default, not a measured crossover point.
+     * @param task the task to run for each tensor index
+     * @param arr the array to compute the tensors for
+     * @param dimension the dimension(s) to do the tensors along
+     */
+    protected void execChunked(TensorChunkAction.TensorTask task, INDArray arr, int... dimension) {
+        int tensors = arr.tensorssAlongDimension(dimension);
+        int tensorLength = arr.length() / Math.max(1, tensors);
+        int threshold = parallelThreshold();
+        if(arr.length() <= threshold || !TensorChunkAction.worthChunking(tensors, tensorLength, threshold, forkJoinPool.getParallelism())) {
+            for(int i = 0; i < tensors; i++)
+                task.perform(i);
+            return;
+        }
+
+        int grain = TensorChunkAction.grainSize(tensors, tensorLength, threshold, forkJoinPool.getParallelism());
+        forkJoinPool.invoke(new TensorChunkAction(task, 0, tensors, grain));
+    }
+
+    /**
+     * The minimum number of elements worth executing in parallel.
+     * Taken from the {@link CPUTaskFactory} when that is
+     * the task factory in use, so both parallelize at the same granularity
+     * @return the parallel threshold
+     */
+    protected int parallelThreshold() {
+        TaskFactory taskFactory = Nd4j.getTaskFactory();
+        if(taskFactory instanceof CPUTaskFactory)
+            return ((CPUTaskFactory) taskFactory).getParallelThreshold();
+        return DEFAULT_PARALLEL_THRESHOLD;
+    }
+
     @Override
     public Future exec(Runnable runnable) {
         if(executorService == null) {
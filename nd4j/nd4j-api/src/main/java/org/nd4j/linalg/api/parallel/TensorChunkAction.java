@@ -0,0 +1,129 @@
+package org.nd4j.linalg.api.parallel;
+
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Fork join action over a range of
+ * tensor along dimension indices.
+ *
+ * Rather than creating one task per tensor,
+ * the range is split recursively in half until
+ * it is no larger than the grain size, at which point
+ * the tensors in the range are processed serially.
+ * Idle workers steal the unsplit halves, so the
+ * work stays balanced without a flat list of tasks to join.
+ *
+ * @author Adam Gibson
+ */
+public class TensorChunkAction extends RecursiveAction {
+    /**
+     * Work to do for a single tensor along dimension
+     */
+    public interface TensorTask {
+        /**
+         * Perform the work for the given tensor
+         * @param tensorIdx the index of the tensor along dimension
+         */
+        void perform(int tensorIdx);
+    }
+
+    /** Number of chunks per worker; a few per worker lets faster workers pick up slack */
+    public static final int CHUNKS_PER_WORKER = 4;
+
+    private final TensorTask task;
+    private final int from;
+    private final int to;
+    private final int grain;
+
+    /**
+     *
+     * @param task the work to do for each tensor
+     * @param from the first tensor index (inclusive)
+     * @param to the last tensor index (exclusive)
+     * @param grain the maximum number of tensors to process in one leaf task
+     */
+    public TensorChunkAction(TensorTask task, int from, int to, int grain) {
+        this.task = task;
+        this.from = from;
+        this.to = to;
+        this.grain = Math.max(1, grain);
+    }
+
+    @Override
+    protected void compute() {
+        if (to - from <= grain) {
+            for (int i = from; i < to; i++)
+                task.perform(i);
+            return;
+        }
+
+        int mid = (from + to) >>> 1;
+        invokeAll(new TensorChunkAction(task, from, mid, grain), new TensorChunkAction(task, mid, to, grain));
+    }
+
+    /**
+     * Number of tensors to process per leaf task.
+     * Each leaf gets at least {@code threshold} elements of work
+     * so that task overhead is amortized, and there are at most
+     * {@link #CHUNKS_PER_WORKER} leaves per worker.
+     * @param numTensors the number of tensors along dimension
+     * @param tensorLength the length of each tensor
+     * @param threshold the minimum number of elements worth forking for
+     * @param parallelism the number of workers
+     * @return the grain size, in number of tensors
+     */
+    public static int grainSize(int numTensors, int tensorLength, int threshold, int parallelism) {
+        int minForThreshold = (int) Math.ceil(threshold / (double) Math.max(1, tensorLength));
+        int maxChunks = Math.max(1, parallelism) * CHUNKS_PER_WORKER;
+        int minForChunks = (int) Math.ceil(numTensors / (double) maxChunks);
+        return Math.max(1, Math.max(minForThreshold, minForChunks));
+    }
+
+    /**
+     * Whether forking is worth it at all: only when the range splits
+     * in to at least two leaves of {@link #grainSize(int, int, int, int)} tensors.
+     * A single leaf would run the same loop as the calling thread,
+     * plus the cost of handing it to the pool.
+     * @param numTensors the number of tensors along dimension
+     * @param tensorLength the length of each tensor
+     * @param threshold the minimum number of elements worth forking for
+     * @param parallelism the number of workers
+     * @return true if the tensors should be processed on the pool
+     */
+    public static boolean worthChunking(int numTensors, int tensorLength, int threshold, int parallelism) {
+        return parallelism > 1 && numTensors >= 2 * grainSize(numTensors, tensorLength, threshold, parallelism);
+    }
+
+    /**
+     * Run the task for every index in [0, numTasks), on the parallel executioner of
+     * {@link Nd4j#getExecutioner()} when there is more than
+     * {@link DefaultParallelExecutioner#DEFAULT_PARALLEL_THRESHOLD} elements of work in total.
+     * Small workloads never touch the executioner, and neither do executioners
+     * without parallel support: those run every task on the calling thread.
+     * @param numTasks the number of tasks
+     * @param taskWork the number of elements each task processes
+     * @param task the work for one index
+     */
+    public static void forEach(int numTasks, int taskWork, TensorTask task) {
+        int threshold = DefaultParallelExecutioner.DEFAULT_PARALLEL_THRESHOLD;
+        ParallelExecutioner executioner = null;
+        if(numTasks > 1 && (long) numTasks * taskWork > threshold) {
+            try {
+                executioner = Nd4j.getExecutioner().parallelExecutioner();
+            } catch (UnsupportedOperationException e) {
+                executioner = null;
+            }
+        }
+        if(executioner == null || !executioner.parallelEnabled()) {
+            for(int i = 0; i < numTasks; i++)
+                task.perform(i);
+            return;
+        }
+        int grain = grainSize(numTasks, taskWork, threshold, Runtime.getRuntime().availableProcessors());
+        TensorChunkAction action = new TensorChunkAction(task, 0, numTasks, grain);
+        executioner.exec(action);
+        action.join();
+    }
+}
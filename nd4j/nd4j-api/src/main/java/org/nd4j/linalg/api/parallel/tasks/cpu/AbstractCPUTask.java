@@ -6,6 +6,8 @@ import org.nd4j.linalg.api.parallel.tasks.BaseTask;
 import org.nd4j.linalg.api.parallel.tasks.Task;
 import org.nd4j.linalg.api.parallel.tasks.TaskExecutorProvider;
 import org.nd4j.linalg.api.parallel.tasks.TaskFactoryProvider;
+import org.nd4j.linalg.api.shape.tad.TADCache;
+import org.nd4j.linalg.api.shape.tad.TADDescriptor;
 
 import java.util.List;
 import java.util.concurrent.Future;
@@ -63,10 +65,10 @@ public abstract class AbstractCPUTask<V> extends BaseTask<V> {
         INDArray x = op.x();
         INDArray y = op.y();
         INDArray z = op.z();
-        INDArray tadx = x.tensorAlongDimension(tensorIdx,tensorDim);
-        this.n = tadx.length();
-        offsetX = tadx.offset();
-        incrX = tadx.elementWiseStride();
+        TADDescriptor tadx = TADCache.getInstance().get(x, tensorDim);
+        this.n = tadx.getLength();
+        offsetX = x.offset() + tadx.offset(tensorIdx);
+        incrX = tadx.getElementWiseStride();
         if(y==null){
             offsetY = 0;
             incrY = 0;
@@ -74,9 +76,9 @@ public abstract class AbstractCPUTask<V> extends BaseTask<V> {
             offsetY = offsetX;
             incrY = incrX;
         } else {
-            INDArray tady = y.tensorAlongDimension(tensorIdx,tensorDim);
-            offsetY = tady.offset();
-            incrY = tady.elementWiseStride();
+            TADDescriptor tady = TADCache.getInstance().get(y, tensorDim);
+            offsetY = y.offset() + tady.offset(tensorIdx);
+            incrY = tady.getElementWiseStride();
         }
 
         if(z==null) {
@@ -89,9 +91,9 @@ public abstract class AbstractCPUTask<V> extends BaseTask<V> {
             offsetZ = offsetY;
             incrZ = incrY;
         } else {
-            INDArray tadz = z.tensorAlongDimension(tensorIdx,tensorDim);
-            offsetZ = tadz.offset();
-            incrZ = tadz.elementWiseStride();
+            TADDescriptor tadz = TADCache.getInstance().get(z, tensorDim);
+            offsetZ = z.offset() + tadz.offset(tensorIdx);
+            incrZ = tadz.getElementWiseStride();
         }
     }
 
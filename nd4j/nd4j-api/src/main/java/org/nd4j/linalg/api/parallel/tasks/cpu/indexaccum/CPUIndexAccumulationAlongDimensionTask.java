@@ -10,6 +10,8 @@ import org.nd4j.linalg.api.parallel.tasks.Task;
 import org.nd4j.linalg.api.parallel.tasks.cpu.BaseCPUTask;
 import org.nd4j.linalg.api.parallel.tasks.cpu.accumulation.CPUAccumulationTask;
 import org.nd4j.linalg.api.parallel.tasks.cpu.accumulation.CPUAccumulationViaTensorTask;
+import org.nd4j.linalg.api.shape.tad.TADCache;
+import org.nd4j.linalg.api.shape.tad.TADDescriptor;
 import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.linalg.util.ArrayUtil;
 
@@ -55,23 +57,44 @@ public class CPUIndexAccumulationAlongDimensionTask extends BaseCPUTask<INDArray
 
     @Override
     public INDArray call() {
-        int nTensors = op.x().tensorssAlongDimension(dimensions);
+        INDArray x = op.x();
+        INDArray y = op.y();
+        int nTensors = x.tensorssAlongDimension(dimensions);
         subTasks = new ArrayList<>(nTensors);
 
-        for( int i=0; i<nTensors; i++ ){
-            IndexAccumulation opOnDimension = (IndexAccumulation)op.opForDimension(i,dimensions);
-            INDArray x2 = opOnDimension.x();
-            INDArray y2 = opOnDimension.y();
-
-            boolean canDoDirectly;
-            if(y2 == null) canDoDirectly = OpExecutionerUtil.canDoOpDirectly(x2);
-            else canDoDirectly = OpExecutionerUtil.canDoOpDirectly(x2, y2);
+        //1d tensors with a fixed stride can be reduced straight from the buffer using the cached offsets,
+        //without creating a view and an op per tensor
+        TADDescriptor tadx = null;
+        TADDescriptor tady = null;
+        if(dimensions.length == 1) {
+            tadx = TADCache.getInstance().get(x, dimensions);
+            if(y != null)
+                tady = (y == x ? tadx : TADCache.getInstance().get(y, dimensions));
+        }
+        boolean fromOffsets = tadx != null && canDoFromOffsets(tadx) && (y == null || canDoFromOffsets(tady));
 
+        for( int i=0; i<nTensors; i++ ){
             Task<Pair<Double,Integer>> task;
-            if(canDoDirectly){
-                task = new CPUIndexAccumulationTask(opOnDimension,threshold,true);
+            if(fromOffsets) {
+                int offsetX = x.offset() + tadx.offset(i);
+                int offsetY = (y != null ? y.offset() + tady.offset(i) : 0);
+                int incrY = (y != null ? tady.getElementWiseStride() : 0);
+                task = new CPUIndexAccumulationTask(op,threshold,tadx.getLength(),offsetX,offsetY,
+                        tadx.getElementWiseStride(),incrY,0,false);
             } else {
-                task = new CPUIndexAccumulationViaTensorTask(op,threshold,true);
+                IndexAccumulation opOnDimension = (IndexAccumulation)op.opForDimension(i,dimensions);
+                INDArray x2 = opOnDimension.x();
+                INDArray y2 = opOnDimension.y();
+
+                boolean canDoDirectly;
+                if(y2 == null) canDoDirectly = OpExecutionerUtil.canDoOpDirectly(x2);
+                else canDoDirectly = OpExecutionerUtil.canDoOpDirectly(x2, y2);
+
+                if(canDoDirectly){
+                    task = new CPUIndexAccumulationTask(opOnDimension,threshold,true);
+                } else {
+                    task = new CPUIndexAccumulationViaTensorTask(opOnDimension,threshold,true);
+                }
             }
 
             task.invokeAsync();
@@ -79,4 +102,8 @@ public class CPUIndexAccumulationAlongDimensionTask extends BaseCPUTask<INDArray
         }
         return null;
     }
+
+    private static boolean canDoFromOffsets(TADDescriptor tad){
+        return tad.isUniform() && tad.getElementWiseStride() > 0;
+    }
 }
@@ -475,6 +475,64 @@ public class Shape {
     }
 
 
+    /**
+     * Get the offset in the data buffer of the element at a
+     * linear index, without allocating the intermediate nd index.
+     * Equivalent to {@link #getOffset(int, int[], int[], int...)} applied to
+     * {@link #ind2subC(int[], int)} (c ordering) or {@link #ind2sub(int[], int)} (f ordering).
+     * @param baseOffset the offset of the array
+     * @param shape the shape of the array
+     * @param stride the stride of the array
+     * @param ordering the ordering the linear index is relative to
+     * @param index the linear index (assumed to be in bounds)
+     * @return the offset of the element in the buffer
+     */
+    public static int offsetForLinearIndex(int baseOffset, int[] shape, int[] stride, char ordering, int index) {
+        switch(shape.length) {
+            case 0:
+                return baseOffset + index;
+            case 1:
+                return shape[0] == 1 ? baseOffset : baseOffset + index * stride[0];
+            case 2: {
+                int row, col;
+                if(ordering == 'c') {
+                    row = index / shape[1];
+                    col = index - row * shape[1];
+                }
+                else {
+                    col = index / shape[0];
+                    row = index - col * shape[0];
+                }
+                int offset = baseOffset;
+                if(shape[0] != 1)
+                    offset += row * stride[0];
+                if(shape[1] != 1)
+                    offset += col * stride[1];
+                return offset;
+            }
+            default: {
+                int offset = baseOffset;
+                if(ordering == 'c') {
+                    for(int i = shape.length - 1; i >= 0; i--) {
+                        int size = shape[i];
+                        if(size != 1)
+                            offset += (index % size) * stride[i];
+                        index /= size;
+                    }
+                }
+                else {
+                    for(int i = 0; i < shape.length; i++) {
+                        int size = shape[i];
+                        if(size != 1)
+                            offset += (index % size) * stride[i];
+                        index /= size;
+                    }
+                }
+                return offset;
+            }
+        }
+    }
+
     /**
      * Get an offset for retrieval
      * from a data buffer
@@ -0,0 +1,219 @@
+package org.nd4j.linalg.api.shape.tad;
+
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache of {@link TADDescriptor}s
+ * keyed by shape, stride, ordering and dimensions.
+ *
+ * The cache is bounded both by the number of descriptors and by the
+ * total size of the offset tables they hold, since an irregular
+ * descriptor keeps one offset per tensor.
+ *
+ * Lookups take no lock and allocate nothing: each thread probes with its own
+ * reusable key that wraps the array's shape and stride without copying them.
+ * Only a miss copies the key, and only inserts take a lock. Eviction is
+ * second chance: a descriptor used since the last sweep survives one more.
+ * Two threads missing on the same key at once may both compute it, which is harmless.
+ *
+ * @author Adam Gibson
+ */
+public class TADCache {
+    public static final int DEFAULT_MAX_ENTRIES = 512;
+    public static final int DEFAULT_MAX_TABLE_SIZE = 1 << 22;
+
+    private static final TADCache INSTANCE = new TADCache(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_TABLE_SIZE);
+
+    private final int maxEntries;
+    private final int maxTableSize;
+    private final ConcurrentHashMap<Key, Entry> cache = new ConcurrentHashMap<>();
+    //every thread's probe state, so hits can be summed without a shared counter
+    private final Queue<Probe> probes = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<Probe> probe = new ThreadLocal<Probe>() {
+        @Override
+        protected Probe initialValue() {
+            Probe ret = new Probe();
+            probes.add(ret);
+            return ret;
+        }
+    };
+    private final AtomicLong misses = new AtomicLong();
+    //guarded by this
+    private long tableSize;
+
+    /**
+     * @param maxEntries the maximum number of descriptors to keep
+     * @param maxTableSize the maximum total number of offsets to keep across descriptors
+     */
+    public TADCache(int maxEntries, int maxTableSize) {
+        if(maxEntries < 1)
+            throw new IllegalArgumentException("Max entries must be positive");
+        this.maxEntries = maxEntries;
+        this.maxTableSize = maxTableSize;
+    }
+
+    /**
+     * The shared cache used by {@link INDArray#tensorAlongDimension(int, int...)}
+     */
+    public static TADCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Get (computing if necessary) the descriptor for the tensors
+     * along the given dimensions of an array
+     * @param arr the array
+     * @param dimension the dimensions of the tensors
+     * @return the descriptor
+     */
+    public TADDescriptor get(INDArray arr, int... dimension) {
+        Probe local = probe.get();
+        Key key = local.key.wrap(arr.shape(), arr.stride(), arr.ordering(), dimension);
+        Entry hit = cache.get(key);
+        if(hit != null) {
+            //only this thread writes its count
+            local.hits++;
+            if(!hit.used)
+                hit.used = true;
+            return hit.descriptor;
+        }
+        misses.incrementAndGet();
+
+        //copied before computing: the probe is reused by anything the computation looks up
+        key = key.copy();
+        TADDescriptor ret = TADDescriptor.create(arr, dimension);
+        //a single table bigger than the whole budget is not worth caching
+        if(ret.tableSize() > maxTableSize)
+            return ret;
+
+        Entry entry = new Entry(ret);
+        synchronized (this) {
+            Entry old = cache.put(key, entry);
+            if(old != null)
+                tableSize -= old.descriptor.tableSize();
+            tableSize += ret.tableSize();
+            evict(entry);
+        }
+
+        return ret;
+    }
+
+    //the first sweep spares (and unmarks) used entries, later sweeps evict whatever they find
+    private void evict(Entry keep) {
+        boolean secondChance = true;
+        while(overBudget() && cache.size() > 1) {
+            Iterator<Map.Entry<Key, Entry>> iter = cache.entrySet().iterator();
+            while(overBudget() && iter.hasNext()) {
+                Entry next = iter.next().getValue();
+                if(next == keep)
+                    continue;
+                if(secondChance && next.used) {
+                    next.used = false;
+                    continue;
+                }
+                tableSize -= next.descriptor.tableSize();
+                iter.remove();
+            }
+            secondChance = false;
+        }
+    }
+
+    private boolean overBudget() {
+        return cache.size() > maxEntries || tableSize > maxTableSize;
+    }
+
+    /** The number of cached descriptors */
+    public int size() {
+        return cache.size();
+    }
+
+    /** The number of lookups served from the cache */
+    public long hits() {
+        long ret = 0;
+        for(Probe p : probes)
+            ret += p.hits;
+        return ret;
+    }
+
+    /** The number of lookups that had to compute a descriptor */
+    public long misses() {
+        return misses.get();
+    }
+
+    /** Remove all cached descriptors */
+    public synchronized void clear() {
+        cache.clear();
+        tableSize = 0;
+    }
+
+    private static class Entry {
+        private final TADDescriptor descriptor;
+        private volatile boolean used;
+
+        private Entry(TADDescriptor descriptor) {
+            this.descriptor = descriptor;
+        }
+    }
+
+    private static class Probe {
+        private final Key key = new Key();
+        private volatile long hits;
+    }
+
+    private static class Key {
+        private int[] shape;
+        private int[] stride;
+        private char ordering;
+        private int[] dimension;
+        private int hash;
+
+        //points the key at the given arrays without copying them; only for probing
+        private Key wrap(int[] shape, int[] stride, char ordering, int[] dimension) {
+            this.shape = shape;
+            this.stride = stride;
+            this.ordering = ordering;
+            this.dimension = dimension;
+            int result = Arrays.hashCode(shape);
+            result = 31 * result + Arrays.hashCode(stride);
+            result = 31 * result + ordering;
+            result = 31 * result + Arrays.hashCode(dimension);
+            this.hash = result;
+            return this;
+        }
+
+        //shape and stride are not copied by the array; copy so later mutation can't corrupt a stored key
+        private Key copy() {
+            Key ret = new Key();
+            ret.shape = shape.clone();
+            ret.stride = stride.clone();
+            ret.ordering = ordering;
+            ret.dimension = dimension.clone();
+            ret.hash = hash;
+            return ret;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if(this == o)
+                return true;
+            if(!(o instanceof Key))
+                return false;
+            Key key = (Key) o;
+            return hash == key.hash && ordering == key.ordering && Arrays.equals(shape, key.shape)
+                    && Arrays.equals(stride, key.stride) && Arrays.equals(dimension, key.dimension);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package org.nd4j.linalg.api.shape.tad;
+
+import com.google.common.primitives.Ints;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.util.ArrayUtil;
+import org.nd4j.linalg.util.NDArrayMath;
+
+import java.util.Arrays;
+
+/**
+ * Precomputed layout of the tensors along a set of dimensions
+ * for arrays of a given shape, stride and ordering.
+ *
+ * Every tensor along dimension of such an array has the same shape,
+ * stride and ordering; only the offset into the buffer changes.
+ * The offsets are stored relative to the offset of the array itself, so
+ * one descriptor serves every array (or view) with the same layout.
+ * When the offsets form an arithmetic progression (always the case for matrices)
+ * only the first offset and the separation are kept, otherwise a full table is kept.
+ *
+ * @author Adam Gibson
+ */
+public class TADDescriptor {
+    private final int[] shape;
+    private final int[] stride;
+    private final char ordering;
+    private final int length;
+    private final int elementWiseStride;
+    private final int numTensors;
+    private final int firstOffset;
+    private final int offsetSeparation;
+    //null when the offsets are regular
+    private final int[] offsets;
+    private final boolean uniform;
+
+    private TADDescriptor(int[] shape, int[] stride, char ordering, int length, int elementWiseStride,
+                          int numTensors, int firstOffset, int offsetSeparation, int[] offsets, boolean uniform) {
+        this.shape = shape;
+        this.stride = stride;
+        this.ordering = ordering;
+        this.length = length;
+        this.elementWiseStride = elementWiseStride;
+        this.numTensors = numTensors;
+        this.firstOffset = firstOffset;
+        this.offsetSeparation = offsetSeparation;
+        this.offsets = offsets;
+        this.uniform = uniform;
+    }
+
+    /**
+     * Compute the descriptor for the tensors along the given dimensions of an array
+     * @param arr the array to compute the descriptor for
+     * @param dimension the dimensions of the tensors
+     * @return the descriptor
+     */
+    public static TADDescriptor create(INDArray arr, int... dimension) {
+        int numTensors = arr.tensorssAlongDimension(dimension);
+        int base = arr.offset();
+        INDArray first = tensorAlongDimension(arr, 0, dimension);
+        int[] shape = first.shape().clone();
+        int[] stride = first.stride().clone();
+        char ordering = first.ordering();
+        int firstOffset = first.offset() - base;
+        if(numTensors == 1)
+            return new TADDescriptor(shape, stride, ordering, first.length(), first.elementWiseStride(), 1, firstOffset, 0, null, true);
+
+        //for matrices the offsets are known to be regular, so check the ends rather than every tensor
+        if(arr.rank() <= 2) {
+            INDArray second = tensorAlongDimension(arr, 1, dimension);
+            INDArray last = tensorAlongDimension(arr, numTensors - 1, dimension);
+            int separation = second.offset() - base - firstOffset;
+            if(sameLayout(first, second) && sameLayout(first, last)
+                    && last.offset() - base == firstOffset + (numTensors - 1) * separation)
+                return new TADDescriptor(shape, stride, ordering, first.length(), first.elementWiseStride(), numTensors, firstOffset, separation, null, true);
+        }
+
+        int[] offsets = new int[numTensors];
+        offsets[0] = firstOffset;
+        boolean uniform = true;
+        for(int i = 1; i < numTensors; i++) {
+            INDArray tensor = tensorAlongDimension(arr, i, dimension);
+            uniform &= sameLayout(first, tensor);
+            offsets[i] = tensor.offset() - base;
+        }
+
+        int separation = offsets[1] - offsets[0];
+        boolean regular = true;
+        for(int i = 2; i < numTensors && regular; i++)
+            regular = offsets[i] - offsets[i - 1] == separation;
+
+        return new TADDescriptor(shape, stride, ordering, first.length(), first.elementWiseStride(), numTensors,
+                firstOffset, separation, regular ? null : offsets, uniform);
+    }
+
+    /**
+     * Compute a single tensor along dimension by permuting the
+     * array and slicing it, without consulting the cache
+     * @param arr the array to get the tensor from
+     * @param index the index of the tensor
+     * @param dimension the dimensions of the tensor
+     * @return the tensor along dimension
+     */
+    public static INDArray tensorAlongDimension(INDArray arr, int index, int... dimension) {
+        if(dimension.length == 1 && arr.isColumnVector() && dimension[0] == 0 || arr.isRowVector() && dimension[0] == 1)
+            return arr;
+
+        int[] tensorShape = ArrayUtil.keep(arr.shape(), dimension);
+        int[] reverseDimensions = ArrayUtil.reverseCopy(dimension);
+        int[] remove = ArrayUtil.removeIndex(ArrayUtil.range(0, arr.rank()), dimension);
+        int[] newPermuteDims = Ints.concat(remove, reverseDimensions);
+
+        INDArray permuted = arr.permute(newPermuteDims);
+
+        int sliceIdx = NDArrayMath.sliceOffsetForTensor(index, permuted, tensorShape);
+
+        INDArray ret2 = permuted.slice(sliceIdx);
+        if(dimension.length == tensorShape.length && ArrayUtil.prod(tensorShape) == ret2.length())
+            return ret2;
+
+        int length = ArrayUtil.prod(tensorShape);
+        int tensorLength = ArrayUtil.prod(tensorShape);
+        int offset = index * tensorLength / NDArrayMath.lengthPerSlice(ret2);
+
+        if(sliceIdx == 0 && length == NDArrayMath.lengthPerSlice(ret2))
+            return ret2.slice(offset);
+
+        if(length == NDArrayMath.lengthPerSlice(ret2)) {
+            offset -= ret2.slices() * (offset / ret2.slices());
+            ret2 = ret2.slice(offset);
+            return ret2;
+        }
+
+        while(ret2.length() > length) {
+            sliceIdx = NDArrayMath.sliceOffsetForTensor(index, ret2, tensorShape);
+            sliceIdx -= ret2.slices() * (sliceIdx / ret2.slices());
+            ret2 = ret2.slice(sliceIdx);
+        }
+
+        return ret2;
+    }
+
+    private static boolean sameLayout(INDArray a, INDArray b) {
+        return a.ordering() == b.ordering() && Arrays.equals(a.shape(), b.shape()) && Arrays.equals(a.stride(), b.stride());
+    }
+
+    /**
+     * The offset of a tensor relative to the offset of the array
+     * @param index the index of the tensor
+     * @return the offset of the first element of the tensor
+     */
+    public int offset(int index) {
+        if(index < 0 || index >= numTensors)
+            throw new IllegalArgumentException("Illegal tensor index " + index + " for " + numTensors + " tensors");
+        if(offsets != null)
+            return offsets[index];
+        return firstOffset + index * offsetSeparation;
+    }
+
+    /**
+     * Whether every tensor has the same shape, stride and ordering.
+     * Only uniform descriptors can be used to create views.
+     */
+    public boolean isUniform() {
+        return uniform;
+    }
+
+    /**
+     * Whether the offsets form an arithmetic progression
+     */
+    public boolean isRegular() {
+        return offsets == null;
+    }
+
+    /** The shape of each tensor (a copy) */
+    public int[] getShape() {
+        return shape.clone();
+    }
+
+    /** The stride of each tensor (a copy) */
+    public int[] getStride() {
+        return stride.clone();
+    }
+
+    public char getOrdering() {
+        return ordering;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public int getElementWiseStride() {
+        return elementWiseStride;
+    }
+
+    public int getNumTensors() {
+        return numTensors;
+    }
+
+    /** Separation between the offsets of consecutive tensors; only meaningful when regular */
+    public int getOffsetSeparation() {
+        return offsetSeparation;
+    }
+
+    /** The number of ints held by the offset table */
+    int tableSize() {
+        return offsets == null ? 0 : offsets.length;
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ *
+ *  * Copyright 2015 Skymind,Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ *
+ *
+ */
+
+package org.nd4j.linalg.api.sparse;
+
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * A sparse matrix in coordinate (COO) layout: a list of (row, column, value) entries
+ * in any order. Entries can be appended cheaply, which makes this the layout
+ * to build a matrix in before converting it to a {@link CSRMatrix} for computation.
+ * Entries at the same position are summed on conversion.
+ *
+ * @author Adam Gibson
+ */
+public class COOMatrix implements Serializable {
+
+    private final int rows;
+    private final int columns;
+    private int[] rowIndices;
+    private int[] columnIndices;
+    private double[] values;
+    private int size;
+
+    /**
+     * @param rows the number of rows
+     * @param columns the number of columns
+     */
+    public COOMatrix(int rows, int columns) {
+        this(rows, columns, 16);
+    }
+
+    /**
+     * @param rows the number of rows
+     * @param columns the number of columns
+     * @param capacity the number of entries to allocate room for
+     */
+    public COOMatrix(int rows, int columns, int capacity) {
+        if(rows < 0 || columns < 0)
+            throw new IllegalArgumentException("Rows and columns must be >= 0");
+        this.rows = rows;
+        this.columns = columns;
+        capacity = Math.max(1, capacity);
+        this.rowIndices = new int[capacity];
+        this.columnIndices = new int[capacity];
+        this.values = new double[capacity];
+    }
+
+    /**
+     * Add an entry. Zeros are not stored.
+     * @param row the row
+     * @param column the column
+     * @param value the value, added to any value already at this position
+     * @return this
+     */
+    public COOMatrix put(int row, int column, double value) {
+        if(row < 0 || row >= rows || column < 0 || column >= columns)
+            throw new IllegalArgumentException("Position (" + row + "," + column + ") out of range for " + rows + " x " + columns);
+        if(value == 0)
+            return this;
+        if(size == values.length) {
+            int capacity = values.length * 2;
+            rowIndices = Arrays.copyOf(rowIndices, capacity);
+            columnIndices = Arrays.copyOf(columnIndices, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        rowIndices[size] = row;
+        columnIndices[size] = column;
+        values[size] = value;
+        size++;
+        return this;
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public int columns() {
+        return columns;
+    }
+
+    /**
+     * @return the number of entries added so far
+     */
+    public int nnz() {
+        return size;
+    }
+
+    /**
+     * Convert to compressed sparse row layout: entries are bucketed by row,
+     * sorted by column within a row and entries at the same position are summed
+     * @return the matrix in CSR layout
+     */
+    public CSRMatrix toCSR() {
+        //counting sort by row
+        int[] rowPointers = new int[rows + 1];
+        for(int k = 0; k < size; k++)
+            rowPointers[rowIndices[k] + 1]++;
+        for(int i = 0; i < rows; i++)
+            rowPointers[i + 1] += rowPointers[i];
+        int[] next = Arrays.copyOf(rowPointers, rows);
+        int[] order = new int[size];
+        for(int k = 0; k < size; k++)
+            order[next[rowIndices[k]]++] = k;
+
+        int[] outColumns = new int[size];
+        double[] outValues = new double[size];
+        int[] outPointers = new int[rows + 1];
+        int nnz = 0;
+        long[] keys = new long[0];
+        for(int i = 0; i < rows; i++) {
+            int from = rowPointers[i];
+            int length = rowPointers[i + 1] - from;
+            //sort the row by column, carrying the entry along in the low bits
+            if(keys.length < length)
+                keys = new long[length];
+            for(int p = 0; p < length; p++) {
+                int k = order[from + p];
+                keys[p] = ((long) columnIndices[k] << 32) | k;
+            }
+            Arrays.sort(keys, 0, length);
+            for(int p = 0; p < length; p++) {
+                int column = (int) (keys[p] >>> 32);
+                double value = values[(int) keys[p]];
+                if(nnz > outPointers[i] && outColumns[nnz - 1] == column)
+                    outValues[nnz - 1] += value;
+                else {
+                    outColumns[nnz] = column;
+                    outValues[nnz++] = value;
+                }
+            }
+            outPointers[i + 1] = nnz;
+        }
+
+        DataBuffer buffer = Nd4j.createBuffer(nnz);
+        for(int k = 0; k < nnz; k++)
+            buffer.put(k, outValues[k]);
+        return new CSRMatrix(rows, columns, outPointers, Arrays.copyOf(outColumns, nnz), buffer);
+    }
+}
@@ -0,0 +1,414 @@
+/*
+ *
+ *  * Copyright 2015 Skymind,Inc.
+ *  *
+ *  *    Licensed under the Apache License, Version 2.0 (the "License");
+ *  *    you may not use this file except in compliance with the License.
+ *  *    You may obtain a copy of the License at
+ *  *
+ *  *        http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *    Unless required by applicable law or agreed to in writing, software
+ *  *    distributed under the License is distributed on an "AS IS" BASIS,
+ *  *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *    See the License for the specific language governing permissions and
+ *  *    limitations under the License.
+ *
+ *
+ */
+
+package org.nd4j.linalg.api.sparse;
+
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.parallel.TensorChunkAction;
+import org.nd4j.linalg.factory.Nd4j;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.List;
+import java.util.StringTokenizer;
+
+/**
+ * A sparse matrix in compressed sparse row (CSR) layout.
+ *
+ * Row i holds the entries rowPointers[i] until rowPointers[i + 1] of
+ * columnIndices and values, with the column indices sorted ascending within a row.
+ * The values are kept in a {@link DataBuffer} of the current data type.
+ * Only the non zero entries are stored, so a document row over a vocabulary
+ * of millions of words costs a few bytes per word in the document
+ * instead of a few bytes per word in the vocabulary.
+ *
+ * Row slices share the column indices and values of the matrix they were taken from.
+ *
+ * @author Adam Gibson
+ */
+public class CSRMatrix implements Serializable {
+
+    private final int rows;
+    private final int columns;
+    private final int[] rowPointers;
+    private final int[] columnIndices;
+    private final DataBuffer values;
+
+    /**
+     * @param rows the number of rows
+     * @param columns the number of columns
+     * @param rowPointers the start of each row in columnIndices and values, followed by the end of the last row
+     * @param columnIndices the column of each entry, ascending within a row
+     * @param values the value of each entry
+     */
+    public CSRMatrix(int rows, int columns, int[] rowPointers, int[] columnIndices, DataBuffer values) {
+        if(rows < 0 || columns < 0)
+            throw new IllegalArgumentException("Rows and columns must be >= 0");
+        if(rowPointers.length != rows + 1)
+            throw new IllegalArgumentException("Expected " + (rows + 1) + " row pointers but got " + rowPointers.length);
+        if(rowPointers[rows] > columnIndices.length || rowPointers[rows] > values.length())
+            throw new IllegalArgumentException("Row pointers point past the column indices or values");
+        for(int i = 0; i < rows; i++) {
+            if(rowPointers[i] > rowPointers[i + 1])
+                throw new IllegalArgumentException("Row pointers must not decrease");
+            for(int k = rowPointers[i]; k < rowPointers[i + 1]; k++) {
+                int column = columnIndices[k];
+                if(column < 0 || column >= columns)
+                    throw new IllegalArgumentException("Column index " + column + " out of range for " + columns + " columns");
+                if(k > rowPointers[i] && column <= columnIndices[k - 1])
+                    throw new IllegalArgumentException("Column indices must be ascending within a row");
+            }
+        }
+        this.rows = rows;
+        this.columns = columns;
+        this.rowPointers = rowPointers;
+        this.columnIndices = columnIndices;
+        this.values = values;
+    }
+
+    /**
+     * Create a matrix from the non zero entries of a dense matrix
+     * @param arr the matrix (or row vector) to convert
+     * @return the sparse matrix
+     */
+    public static CSRMatrix fromDense(INDArray arr) {
+        if(arr.rank() > 2)
+            throw new IllegalArgumentException("Only matrices and vectors can be converted, got rank " + arr.rank());
+        int rows = arr.rows();
+        int columns = arr.columns();
+        int[] rowPointers = new int[rows + 1];
+        int nnz = 0;
+        for(int i = 0; i < rows; i++) {
+            for(int j = 0; j < columns; j++)
+                if(arr.getDouble(i, j) != 0)
+                    nnz++;
+            rowPointers[i + 1] = nnz;
+        }
+        int[] columnIndices = new int[nnz];
+        DataBuffer values = Nd4j.createBuffer(nnz);
+        int k = 0;
+        for(int i = 0; i < rows; i++) {
+            for(int j = 0; j < columns; j++) {
+                double value = arr.getDouble(i, j);
+                if(value != 0) {
+                    columnIndices[k] = j;
+                    values.put(k++, value);
+                }
+            }
+        }
+        return new CSRMatrix(rows, columns, rowPointers, columnIndices, values);
+    }
+
+    /**
+     * Parse lines in svmlight/libsvm format ("label index:value index:value ... # comment",
+     * indices starting at 1) in to one row per line
+     * @param lines the lines to parse
+     * @param columns the number of features
+     * @param labels if not null, receives the label of each line
+     * @return the features as a sparse matrix
+     */
+    public static CSRMatrix fromSvmLight(List<String> lines, int columns, double[] labels) {
+        if(labels != null && labels.length < lines.size())
+            throw new IllegalArgumentException("Labels array is too small for " + lines.size() + " lines");
+        COOMatrix coo = new COOMatrix(lines.size(), columns);
+        for(int i = 0; i < lines.size(); i++) {
+            StringTokenizer tok = new StringTokenizer(lines.get(i), " \t");
+            if(!tok.hasMoreTokens())
+                throw new IllegalArgumentException("Missing label on line " + i);
+            double label = Double.parseDouble(tok.nextToken());
+            if(labels != null)
+                labels[i] = label;
+            while(tok.hasMoreTokens()) {
+                String col = tok.nextToken();
+                if(col.startsWith("#"))
+                    break;
+                //qid is not supported
+                if(col.startsWith("qid:"))
+                    continue;
+                int colon = col.indexOf(':');
+                if(colon < 0)
+                    throw new IllegalArgumentException("Expected index:value but got " + col + " on line " + i);
+                int index = Integer.parseInt(col.substring(0, colon)) - 1;
+                coo.put(i, index, Double.parseDouble(col.substring(colon + 1)));
+            }
+        }
+        return coo.toCSR();
+    }
+
+    /**
+     * Stack matrices with the same number of columns on top of each other,
+     * for example single document rows in to a minibatch
+     * @param matrices the matrices to stack
+     * @return the stacked matrix
+     */
+    public static CSRMatrix vstack(List<CSRMatrix> matrices) {
+        if(matrices.isEmpty())
+            throw new IllegalArgumentException("Nothing to stack");
+        int columns = matrices.get(0).columns;
+        int rows = 0;
+        int nnz = 0;
+        for(CSRMatrix matrix : matrices) {
+            if(matrix.columns != columns)
+                throw new IllegalArgumentException("All matrices must have " + columns + " columns");
+            rows += matrix.rows;
+            nnz += matrix.nnz();
+        }
+        int[] rowPointers = new int[rows + 1];
+        int[] columnIndices = new int[nnz];
+        DataBuffer values = Nd4j.createBuffer(nnz);
+        int row = 0;
+        int k = 0;
+        for(CSRMatrix matrix : matrices) {
+            for(int i = 0; i < matrix.rows; i++) {
+                for(int p = matrix.rowPointers[i]; p < matrix.rowPointers[i + 1]; p++) {
+                    columnIndices[k] = matrix.columnIndices[p];
+                    values.put(k++, matrix.values.getDouble(p));
+                }
+                rowPointers[++row] = k;
+            }
+        }
+        return new CSRMatrix(rows, columns, rowPointers, columnIndices, values);
+    }
+
+    /**
+     * @return the number of rows
+     */
+    public int rows() {
+        return rows;
+    }
+
+    /**
+     * @return the number of columns
+     */
+    public int columns() {
+        return columns;
+    }
+
+    /**
+     * @return the shape (rows, columns)
+     */
+    public int[] shape() {
+        return new int[]{rows, columns};
+    }
+
+    /**
+     * @return the number of stored entries
+     */
+    public int nnz() {
+        return rowPointers[rows] - rowPointers[0];
+    }
+
+    /**
+     * The row pointers. Entries are indexed in to {@link #columnIndices()} and {@link #values()},
+     * which for a row slice do not start at 0.
+     * @return the row pointers
+     */
+    public int[] rowPointers() {
+        return rowPointers;
+    }
+
+    /**
+     * @return the column index of each entry
+     */
+    public int[] columnIndices() {
+        return columnIndices;
+    }
+
+    /**
+     * @return the value of each entry
+     */
+    public DataBuffer values() {
+        return values;
+    }
+
+    /**
+     * Get a single value
+     * @param row the row
+     * @param column the column
+     * @return the value, 0 if there is no entry
+     */
+    public double getDouble(int row, int column) {
+        checkRow(row);
+        int k = Arrays.binarySearch(columnIndices, rowPointers[row], rowPointers[row + 1], column);
+        return k < 0 ? 0 : values.getDouble(k);
+    }
+
+    /**
+     * Get a row, sharing the entries of this matrix
+     * @param row the row
+     * @return a 1 x columns matrix
+     */
+    public CSRMatrix getRow(int row) {
+        return getRows(row, row + 1);
+    }
+
+    /**
+     * Get a range of rows, sharing the entries of this matrix
+     * @param from the first row
+     * @param to the row after the last row
+     * @return a (to - from) x columns matrix
+     */
+    public CSRMatrix getRows(int from, int to) {
+        if(from < 0 || to > rows || from > to)
+            throw new IllegalArgumentException("Illegal row range " + from + " to " + to + " for " + rows + " rows");
+        return new CSRMatrix(to - from, columns, Arrays.copyOfRange(rowPointers, from, to + 1), columnIndices, values);
+    }
+
+    /**
+     * Gather rows in to a new matrix, for example to build a shuffled minibatch
+     * @param rowIndices the rows to gather
+     * @return a rowIndices.length x columns matrix
+     */
+    public CSRMatrix getRows(int[] rowIndices) {
+        int nnz = 0;
+        for(int row : rowIndices) {
+            checkRow(row);
+            nnz += rowPointers[row + 1] - rowPointers[row];
+        }
+        int[] newPointers = new int[rowIndices.length + 1];
+        int[] newColumns = new int[nnz];
+        DataBuffer newValues = Nd4j.createBuffer(nnz);
+        int k = 0;
+        for(int i = 0; i < rowIndices.length; i++) {
+            int row = rowIndices[i];
+            int length = rowPointers[row + 1] - rowPointers[row];
+            System.arraycopy(columnIndices, rowPointers[row], newColumns, k, length);
+            for(int p = rowPointers[row]; p < rowPointers[row + 1]; p++)
+                newValues.put(k++, values.getDouble(p));
+            newPointers[i + 1] = k;
+        }
+        return new CSRMatrix(rowIndices.length, columns, newPointers, newColumns, newValues);
+    }
+
+    /**
+     * @return a dense copy of this matrix
+     */
+    public INDArray toDense() {
+        INDArray ret = Nd4j.create(rows, columns);
+        DataBuffer out = ret.data();
+        int offset = ret.offset();
+        int rowStride = ret.stride(0);
+        int columnStride = ret.stride(1);
+        for(int i = 0; i < rows; i++)
+            for(int k = rowPointers[i]; k < rowPointers[i + 1]; k++)
+                out.put(offset + i * rowStride + columnIndices[k] * columnStride, values.getDouble(k));
+        return ret;
+    }
+
+    /**
+     * Multiply by a dense matrix: this x other
+     * @param other a columns x n matrix
+     * @return a new rows x n dense matrix
+     */
+    public INDArray mmul(INDArray other) {
+        if(other.rank() != 2 || other.rows() != columns)
+            throw new IllegalArgumentException("Shape mismatch: " + rows + " x " + columns + " times " + Arrays.toString(other.shape()));
+        return mmul(other, Nd4j.create(rows, other.columns()));
+    }
+
+    /**
+     * Multiply by a dense matrix, writing the result in to a dense matrix: result = this x other
+     * @param other a columns x n matrix
+     * @param result the rows x n matrix to write to, overwritten
+     * @return result
+     */
+    public INDArray mmul(INDArray other, final INDArray result) {
+        if(other.rank() != 2 || other.rows() != columns)
+            throw new IllegalArgumentException("Shape mismatch: " + rows + " x " + columns + " times " + Arrays.toString(other.shape()));
+        if(result.rank() != 2 || result.rows() != rows || result.columns() != other.columns())
+            throw new IllegalArgumentException("Result must be " + rows + " x " + other.columns() + " but is " + Arrays.toString(result.shape()));
+        final int n = other.columns();
+        final DataBuffer b = other.data();
+        final int bOffset = other.offset();
+        final int bRowStride = other.stride(0);
+        final int bColumnStride = other.stride(1);
+        final DataBuffer c = result.data();
+        final int cOffset = result.offset();
+        final int cRowStride = result.stride(0);
+        final int cColumnStride = result.stride(1);
+
+        //each task writes only its own row of the result
+        TensorChunkAction.forEach(rows, Math.max(1, nnz() / Math.max(1, rows)) * n, new TensorChunkAction.TensorTask() {
+            @Override
+            public void perform(int i) {
+                int cRow = cOffset + i * cRowStride;
+                for(int j = 0; j < n; j++)
+                    c.put(cRow + j * cColumnStride, 0.0);
+                for(int k = rowPointers[i]; k < rowPointers[i + 1]; k++) {
+                    double value = values.getDouble(k);
+                    int bRow = bOffset + columnIndices[k] * bRowStride;
+                    for(int j = 0; j < n; j++) {
+                        int idx = cRow + j * cColumnStride;
+                        c.put(idx, c.getDouble(idx) + value * b.getDouble(bRow + j * bColumnStride));
+                    }
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Multiply the transpose of this matrix by a dense matrix: this^T x other.
+     * This is the weight gradient of a layer with sparse input.
+     * @param other a rows x n matrix
+     * @return a new columns x n dense matrix
+     */
+    public INDArray transposeMmul(INDArray other) {
+        if(other.rank() != 2 || other.rows() != rows)
+            throw new IllegalArgumentException("Shape mismatch: " + columns + " x " + rows + " times " + Arrays.toString(other.shape()));
+        final int n = other.columns();
+        INDArray result = Nd4j.create(columns, n);
+        final DataBuffer b = other.data();
+        final int bOffset = other.offset();
+        final int bRowStride = other.stride(0);
+        final int bColumnStride = other.stride(1);
+        final DataBuffer c = result.data();
+        final int cOffset = result.offset();
+        final int cRowStride = result.stride(0);
+        final int cColumnStride = result.stride(1);
+
+        //entries of different rows scatter in to the same result rows, so split over the result columns instead
+        TensorChunkAction.forEach(n, nnz(), new TensorChunkAction.TensorTask() {
+            @Override
+            public void perform(int j) {
+                for(int i = 0; i < rows; i++) {
+                    double bij = b.getDouble(bOffset + i * bRowStride + j * bColumnStride);
+                    if(bij == 0)
+                        continue;
+                    for(int k = rowPointers[i]; k < rowPointers[i + 1]; k++) {
+                        int idx = cOffset + columnIndices[k] * cRowStride + j * cColumnStride;
+                        c.put(idx, c.getDouble(idx) + values.getDouble(k) * bij);
+                    }
+                }
+            }
+        });
+        return result;
+    }
+
+    private void checkRow(int row) {
+        if(row < 0 || row >= rows)
+            throw new IllegalArgumentException("Row " + row + " out of range for " + rows + " rows");
+    }
+
+    @Override
+    public String toString() {
+        return "CSRMatrix{rows=" + rows + ", columns=" + columns + ", nnz=" + nnz() + "}";
+    }
+}
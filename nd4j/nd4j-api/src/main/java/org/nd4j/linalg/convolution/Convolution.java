@@ -20,14 +20,16 @@
 package org.nd4j.linalg.convolution;
 
 
+import org.nd4j.linalg.api.buffer.DataBuffer;
 import org.nd4j.linalg.api.complex.IComplexNDArray;
 import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.parallel.TensorChunkAction;
 import org.nd4j.linalg.factory.Nd4j;
-import org.nd4j.linalg.indexing.INDArrayIndex;
-import org.nd4j.linalg.indexing.NDArrayIndex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Arrays;
+
 
 /**
  * Convolution is the
@@ -67,6 +69,19 @@ public class Convolution {
         return col2im(col, stride[0], stride[1], padding[0], padding[1], height, width);
     }
 
+    /**
+     * Rearrange matrix columns into blocks, writing into the given image
+     * (its height and width are taken from the image)
+     * @param col the column transposed image to convert
+     * @param stride the stride (y, x)
+     * @param padding the padding (height, width)
+     * @param img the image to write to, of shape [n, c, height, width]
+     * @return the image
+     */
+    public static INDArray col2im(INDArray col, int[] stride, int[] padding, INDArray img) {
+        return col2im(col, stride[0], stride[1], padding[0], padding[1], img);
+    }
+
     /**
      * Rearrange matrix
      * columns into blocks
@@ -82,50 +97,71 @@ public class Convolution {
      * @return
      */
     public static INDArray col2im(INDArray col, int sy, int sx, int ph, int pw, int h, int w) {
-        //number of images
-        int n = col.size(0);
-        //number of columns
-        int c = col.size(1);
-        //kernel height
-        int kh = col.size(2);
-        //kernel width
-        int kw = col.size(3);
-        //out height
-        int outH = col.size(4);
-        //out width
-        int outW = col.size(5);
-
-        INDArray img = Nd4j.create(n,c,h + 2 * ph + sy - 1,w + 2 * pw + sx - 1);
-        for(int i = 0; i < kh; i++) {
-            //iterate over the kernel rows
-            int  iLim = i + sy * outH;
-            for(int j = 0; j < kw; j++) {
-                //iterate over the kernel columns
-                int  jLim = j + sx * outW;
-                INDArrayIndex[]indices = new INDArrayIndex[] {
-                        NDArrayIndex.all(),
-                        NDArrayIndex.all(),
-                        NDArrayIndex.interval(i, sy, iLim),
-                        NDArrayIndex.interval(j, sx, jLim)
-                };
-
-                INDArray get = img.get(indices);
-
-                INDArray colAdd = col.get(
-                        NDArrayIndex.all()
-                        , NDArrayIndex.all()
-                        , NDArrayIndex.point(i)
-                        ,NDArrayIndex.point(j)
-                        ,NDArrayIndex.all()
-                        ,NDArrayIndex.all());
-                get.addi(colAdd);
-                img.put(indices,get);
+        return col2im(col, sy, sx, ph, pw, Nd4j.create(col.size(0), col.size(1), h, w));
+    }
 
-            }
-        }
+    /**
+     * Rearrange matrix columns into blocks, writing into the given image.
+     * Every element of the image is overwritten with the sum of the
+     * column entries that map to it; entries that map to the padding are dropped.
+     * @param col the column transposed image to convert, of shape [n, c, kh, kw, outH, outW]
+     * @param sy stride y
+     * @param sx stride x
+     * @param ph padding height
+     * @param pw padding width
+     * @param img the image to write to, of shape [n, c, h, w]
+     * @return the image
+     */
+    public static INDArray col2im(INDArray col, final int sy, final int sx, final int ph, final int pw, final INDArray img) {
+        if(col.rank() != 6)
+            throw new IllegalArgumentException("Column array must be of rank 6 [n, c, kh, kw, outH, outW] but was of shape " + Arrays.toString(col.shape()));
+        if(img.rank() != 4 || img.size(0) != col.size(0) || img.size(1) != col.size(1))
+            throw new IllegalArgumentException("Image of shape " + Arrays.toString(img.shape()) + " does not match column array of shape " + Arrays.toString(col.shape()));
+        final int c = col.size(1);
+        final int kh = col.size(2);
+        final int kw = col.size(3);
+        final int outH = col.size(4);
+        final int outW = col.size(5);
+        final int h = img.size(2);
+        final int w = img.size(3);
+        final int[] cs = col.stride();
+        final int[] is = img.stride();
+        final int colOffset = col.offset();
+        final int imgOffset = img.offset();
+        final DataBuffer colData = col.data();
+        final DataBuffer imgData = img.data();
+
+        TensorChunkAction.forEach(col.size(0) * c, kh * kw * outH * outW, new TensorChunkAction.TensorTask() {
+            @Override
+            public void perform(int plane) {
+                int colBase = colOffset + (plane / c) * cs[0] + (plane % c) * cs[1];
+                int imgBase = imgOffset + (plane / c) * is[0] + (plane % c) * is[1];
+                for(int y = 0; y < h; y++)
+                    for(int x = 0; x < w; x++)
+                        imgData.put(imgBase + y * is[2] + x * is[3], 0.0);
 
-        //return the subset of the padded image relative to the height/width of the image and the padding width/height
-        return img.get(NDArrayIndex.all(), NDArrayIndex.all(), NDArrayIndex.interval(ph, ph + h), NDArrayIndex.interval(pw, pw + w));
+                for(int i = 0; i < kh; i++) {
+                    for(int j = 0; j < kw; j++) {
+                        int colKernel = colBase + i * cs[2] + j * cs[3];
+                        for(int oy = 0; oy < outH; oy++) {
+                            int y = i + sy * oy - ph;
+                            if(y < 0 || y >= h)
+                                continue;
+                            int colRow = colKernel + oy * cs[4];
+                            int imgRow = imgBase + y * is[2];
+                            for(int ox = 0; ox < outW; ox++) {
+                                int x = j + sx * ox - pw;
+                                if(x < 0 || x >= w)
+                                    continue;
+                                int imgIdx = imgRow + x * is[3];
+                                imgData.put(imgIdx, imgData.getDouble(imgIdx) + colData.getDouble(colRow + ox * cs[5]));
+                            }
+                        }
+                    }
+                }
+            }
+        });
+        return img;
     }
 
     /**
@@ -140,6 +176,19 @@ public class Convolution {
         return im2col(img, kernel[0], kernel[1], stride[0], stride[1], padding[0], padding[1], 0, false);
     }
 
+    /**
+     * Implement column formatted images, writing into the given array
+     * @param img the image to process
+     * @param kernel the kernel size (height, width)
+     * @param stride the stride (y, x)
+     * @param padding the padding (height, width)
+     * @param out the array to write to, of shape {@link #im2colShape(int[], int, int, int, int, int, int, boolean)}
+     * @return the column formatted image
+     */
+    public static INDArray im2col(INDArray img, int[] kernel, int[] stride, int[] padding, INDArray out) {
+        return im2col(img, kernel[0], kernel[1], stride[0], stride[1], padding[0], padding[1], 0, false, out);
+    }
+
     /**
      * Implement column formatted images
      * @param img the image to process
@@ -155,44 +204,89 @@ public class Convolution {
      *
      */
     public static INDArray im2col(INDArray img, int kh, int kw, int sy, int sx, int ph, int pw, int pval, boolean coverAll) {
-        //number of images
-        int n = img.size(0);
-        //number of channels (depth)
-        int c = img.size(1);
-        //image height
-        int h = img.size(2);
-        //image width
-        int w = img.size(3);
-        int outHeight = outSize(h, kh, sy, ph, coverAll);
-        int outWidth = outSize(w, kw, sx, pw, coverAll);
-        INDArray padded = Nd4j.pad(img, new int[][]{
-                {0, 0}
-                , {0, 0}
-                , {ph, ph + sy - 1}
-                ,{pw, pw + sx - 1}}
-                , Nd4j.PadMode.CONSTANT);
-        INDArray ret =   Nd4j.create(n, c, kh, kw, outHeight, outWidth);
-        for(int i = 0; i < kh; i++) {
-            //offset for the row based on the stride and output height
-            int iLim = i + sy * outHeight;
-            for(int j = 0; j < kw; j++) {
-                //offset for the column based on stride and output width
-                int  jLim = j + sx * outWidth;
-                INDArray get = padded.get(
-                        NDArrayIndex.all()
-                        , NDArrayIndex.all()
-                        , NDArrayIndex.interval(i, sy, iLim)
-                        , NDArrayIndex.interval(j, sx, jLim));
-                ret.put(new INDArrayIndex[]{
-                        NDArrayIndex.all()
-                        ,NDArrayIndex.all()
-                        ,NDArrayIndex.point(i)
-                        ,NDArrayIndex.point(j)
-                        ,NDArrayIndex.all()
-                        ,NDArrayIndex.all()}, get);
+        INDArray ret = Nd4j.create(im2colShape(img.shape(), kh, kw, sy, sx, ph, pw, coverAll));
+        return im2col(img, kh, kw, sy, sx, ph, pw, pval, coverAll, ret);
+    }
+
+    /**
+     * Implement column formatted images, writing into the given array.
+     * out[n, c, i, j, y, x] = img[n, c, i + sy * y - ph, j + sx * x - pw], or the padding value
+     * where that falls outside of the image. The padding is never materialized and
+     * (image, channel) pairs are processed in parallel.
+     * @param img the image to process, of shape [n, c, h, w]
+     * @param kh the kernel height
+     * @param kw the kernel width
+     * @param sy the stride along y
+     * @param sx the stride along x
+     * @param ph the padding width
+     * @param pw the padding height
+     * @param pval the padding value
+     * @param coverAll whether to cover the whole image or not
+     * @param out the array to write to, of shape {@link #im2colShape(int[], int, int, int, int, int, int, boolean)}
+     * @return the column formatted image
+     */
+    public static INDArray im2col(INDArray img, final int kh, final int kw, final int sy, final int sx, final int ph, final int pw, final int pval, boolean coverAll, INDArray out) {
+        if(img.rank() != 4)
+            throw new IllegalArgumentException("Image must be of rank 4 [n, c, h, w] but was of shape " + Arrays.toString(img.shape()));
+        int[] shape = im2colShape(img.shape(), kh, kw, sy, sx, ph, pw, coverAll);
+        if(!Arrays.equals(shape, out.shape()))
+            throw new IllegalArgumentException("Output must be of shape " + Arrays.toString(shape) + " but was of shape " + Arrays.toString(out.shape()));
+        final int c = img.size(1);
+        final int h = img.size(2);
+        final int w = img.size(3);
+        final int outH = shape[4];
+        final int outW = shape[5];
+        final int[] is = img.stride();
+        final int[] cs = out.stride();
+        final int imgOffset = img.offset();
+        final int colOffset = out.offset();
+        final DataBuffer imgData = img.data();
+        final DataBuffer colData = out.data();
+
+        TensorChunkAction.forEach(img.size(0) * c, kh * kw * outH * outW, new TensorChunkAction.TensorTask() {
+            @Override
+            public void perform(int plane) {
+                int imgBase = imgOffset + (plane / c) * is[0] + (plane % c) * is[1];
+                int colBase = colOffset + (plane / c) * cs[0] + (plane % c) * cs[1];
+                for(int i = 0; i < kh; i++) {
+                    for(int j = 0; j < kw; j++) {
+                        int colKernel = colBase + i * cs[2] + j * cs[3];
+                        for(int oy = 0; oy < outH; oy++) {
+                            int y = i + sy * oy - ph;
+                            int colRow = colKernel + oy * cs[4];
+                            if(y < 0 || y >= h) {
+                                for(int ox = 0; ox < outW; ox++)
+                                    colData.put(colRow + ox * cs[5], (double) pval);
+                                continue;
+                            }
+                            int imgRow = imgBase + y * is[2];
+                            for(int ox = 0; ox < outW; ox++) {
+                                int x = j + sx * ox - pw;
+                                double value = x < 0 || x >= w ? pval : imgData.getDouble(imgRow + x * is[3]);
+                                colData.put(colRow + ox * cs[5], value);
+                            }
+                        }
+                    }
+                }
             }
-        }
-        return ret;
+        });
+        return out;
+    }
+
+    /**
+     * The shape of the column formatted image
+     * @param imgShape the shape of the image [n, c, h, w]
+     * @param kh the kernel height
+     * @param kw the kernel width
+     * @param sy the stride along y
+     * @param sx the stride along x
+     * @param ph the padding height
+     * @param pw the padding width
+     * @param coverAll whether to cover the whole image or not
+     * @return the shape [n, c, kh, kw, outH, outW]
+     */
+    public static int[] im2colShape(int[] imgShape, int kh, int kw, int sy, int sx, int ph, int pw, boolean coverAll) {
+        return new int[]{imgShape[0], imgShape[1], kh, kw, outSize(imgShape[2], kh, sy, ph, coverAll), outSize(imgShape[3], kw, sx, pw, coverAll)};
     }
 
     /**
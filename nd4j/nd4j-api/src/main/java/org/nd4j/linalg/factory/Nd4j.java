@@ -52,6 +52,7 @@ import org.nd4j.linalg.indexing.BooleanIndexing;
 import org.nd4j.linalg.indexing.conditions.Conditions;
 import org.nd4j.linalg.indexing.functions.Value;
 import org.nd4j.linalg.util.ArrayUtil;
+import org.nd4j.linalg.util.TopK;
 import org.nd4j.linalg.api.shape.Shape;
 import org.springframework.core.io.Resource;
 
@@ -1029,6 +1030,24 @@ public class Nd4j {
         INSTANCE = factory;
     }
 
+    /**
+     * The factory used to create data buffers
+     *
+     * @return the data buffer factory
+     */
+    public static DataBufferFactory getDataBufferFactory() {
+        return DATA_BUFFER_FACTORY_INSTANCE;
+    }
+
+    /**
+     * Set the factory used to create data buffers
+     *
+     * @param factory the data buffer factory to use
+     */
+    public static void setDataBufferFactory(DataBufferFactory factory) {
+        DATA_BUFFER_FACTORY_INSTANCE = factory;
+    }
+
     /**
      * Returns the ordering of the ndarrays
      *
@@ -1204,6 +1223,24 @@ public class Nd4j {
         return ret;
     }
 
+    /**
+     * The k largest (or smallest) elements of a vector and their indices.
+     * Unlike {@link #sortWithIndices(INDArray, int, boolean)} this doesn't sort
+     * (or modify) the whole vector; see {@link TopK}.
+     *
+     * @param vector    the vector to select from
+     * @param k         the number of elements to select
+     * @param ascending whether to select the smallest (true) or largest (false) elements
+     * @return row vectors of the indices and values, best first
+     */
+    public static INDArray[] topKWithIndices(INDArray vector, int k, boolean ascending) {
+        TopK.Selection selection = TopK.select(vector, k, !ascending);
+        return new INDArray[]{
+                Nd4j.create(ArrayUtil.toDoubles(selection.indices())),
+                Nd4j.create(selection.values())
+        };
+    }
+
     /**
      * Sort an ndarray along a particular dimension
      *
@@ -59,8 +59,9 @@ public class Nesterovs implements Serializable,GradientUpdater {
             v = Nd4j.zeros(gradient.shape());
         if(momentumAfter !=null)
             momentum = (momentumAfter.containsKey(iteration)) ? momentumAfter.get(iteration) : momentum;
-        INDArray vPrev = v;
-        v = vPrev.mul(momentum).subi(gradient.mul(lr));
+        //update v in place so the state stays in the buffer allocated on the first call
+        INDArray vPrev = v.dup();
+        v.muli(momentum).subi(gradient.mul(lr));
         //reference https://cs231n.github.io/neural-networks-3/#sgd 2nd equation
         //DL4J default is negative step function thus we flipped the signs:
         // x += mu * v_prev + (-1 - mu) * v
@@ -0,0 +1,206 @@
+package org.nd4j.linalg.util;
+
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+/**
+ * Partial selection of the k largest (or smallest)
+ * elements of a vector without sorting the whole vector.
+ *
+ * A single pass over the vector keeps the best k elements
+ * seen so far in a bounded binary heap of primitives, so a query is
+ * O(n log k) time and O(k) memory rather than the O(n log n) time and
+ * boxed O(n) memory of a full sort with indices.
+ * Ties are broken in favour of the lower index.
+ *
+ * @author Adam Gibson
+ */
+public class TopK {
+
+    private TopK() {
+    }
+
+    /**
+     * Indices of the k largest or smallest elements of a vector
+     * @param vector the vector to select from
+     * @param k the number of elements to select (clamped to the vector length)
+     * @param largest whether to select the largest (true) or smallest (false) elements
+     * @return the indices, best first
+     */
+    public static int[] indices(INDArray vector, int k, boolean largest) {
+        return select(vector, k, largest).indices();
+    }
+
+    /**
+     * The k largest or smallest elements of a vector and their indices
+     * @param vector the vector to select from
+     * @param k the number of elements to select (clamped to the vector length)
+     * @param largest whether to select the largest (true) or smallest (false) elements
+     * @return the selection, best first
+     */
+    public static Selection select(INDArray vector, int k, boolean largest) {
+        if(!vector.isVector() && !vector.isScalar())
+            throw new IllegalArgumentException("Top k selection is only supported for vectors");
+        int length = vector.length();
+        Heap heap = new Heap(Math.max(0, Math.min(k, length)), largest);
+        if(heap.capacity == 0)
+            return heap.drain();
+
+        int stride = vector.elementWiseStride();
+        if(stride < 1) {
+            vector = vector.dup();
+            stride = vector.elementWiseStride();
+        }
+
+        DataBuffer data = vector.data();
+        int offset = vector.offset();
+        if(data.allocationMode() == DataBuffer.AllocationMode.HEAP && data.dataType() == DataBuffer.Type.DOUBLE) {
+            double[] d = (double[]) data.array();
+            for(int i = 0; i < length; i++)
+                heap.offer(d[offset + i * stride], i);
+        }
+        else if(data.allocationMode() == DataBuffer.AllocationMode.HEAP && data.dataType() == DataBuffer.Type.FLOAT) {
+            float[] f = (float[]) data.array();
+            for(int i = 0; i < length; i++)
+                heap.offer(f[offset + i * stride], i);
+        }
+        else {
+            for(int i = 0; i < length; i++)
+                heap.offer(data.getDouble(offset + i * stride), i);
+        }
+
+        return heap.drain();
+    }
+
+    /**
+     * Row wise top k selection of a matrix
+     * @param matrix the matrix to select from
+     * @param k the number of elements to select per row
+     * @param largest whether to select the largest (true) or smallest (false) elements
+     * @return the indices for each row, best first
+     */
+    public static int[][] rowIndices(INDArray matrix, int k, boolean largest) {
+        int[][] ret = new int[matrix.rows()][];
+        for(int i = 0; i < ret.length; i++)
+            ret[i] = indices(matrix.getRow(i), k, largest);
+        return ret;
+    }
+
+    /**
+     * The result of a selection: parallel arrays of
+     * indices and values, best first
+     */
+    public static class Selection {
+        private final int[] indices;
+        private final double[] values;
+
+        public Selection(int[] indices, double[] values) {
+            this.indices = indices;
+            this.values = values;
+        }
+
+        public int[] indices() {
+            return indices;
+        }
+
+        public double[] values() {
+            return values;
+        }
+    }
+
+    /**
+     * Bounded heap whose root is the worst element kept so far
+     */
+    private static class Heap {
+        private final int capacity;
+        private final boolean largest;
+        private final double[] values;
+        private final int[] indices;
+        private int size;
+
+        private Heap(int capacity, boolean largest) {
+            this.capacity = capacity;
+            this.largest = largest;
+            this.values = new double[capacity];
+            this.indices = new int[capacity];
+        }
+
+        //true if (v1,i1) ranks below (v2,i2)
+        private boolean worse(double v1, int i1, double v2, int i2) {
+            if(v1 == v2 || (Double.isNaN(v1) && Double.isNaN(v2)))
+                return i1 > i2;
+            //NaNs rank last
+            if(Double.isNaN(v1))
+                return true;
+            if(Double.isNaN(v2))
+                return false;
+            return largest ? v1 < v2 : v1 > v2;
+        }
+
+        private void offer(double value, int index) {
+            if(size < capacity) {
+                values[size] = value;
+                indices[size] = index;
+                siftUp(size++);
+            }
+            else if(worse(values[0], indices[0], value, index)) {
+                values[0] = value;
+                indices[0] = index;
+                siftDown(0);
+            }
+        }
+
+        private void siftUp(int i) {
+            while(i > 0) {
+                int parent = (i - 1) >>> 1;
+                if(!worse(values[i], indices[i], values[parent], indices[parent]))
+                    break;
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while(true) {
+                int left = 2 * i + 1;
+                if(left >= size)
+                    break;
+                int worst = left;
+                int right = left + 1;
+                if(right < size && worse(values[right], indices[right], values[left], indices[left]))
+                    worst = right;
+                if(!worse(values[worst], indices[worst], values[i], indices[i]))
+                    break;
+                swap(i, worst);
+                i = worst;
+            }
+        }
+
+        private void swap(int i, int j) {
+            double v = values[i];
+            values[i] = values[j];
+            values[j] = v;
+            int idx = indices[i];
+            indices[i] = indices[j];
+            indices[j] = idx;
+        }
+
+        //repeatedly remove the worst element, filling the result from the back
+        private Selection drain() {
+            int n = size;
+            int[] retIndices = new int[n];
+            double[] retValues = new double[n];
+            for(int i = n - 1; i >= 0; i--) {
+                retIndices[i] = indices[0];
+                retValues[i] = values[0];
+                size--;
+                if(size > 0) {
+                    values[0] = values[size];
+                    indices[0] = indices[size];
+                    siftDown(0);
+                }
+            }
+            return new Selection(retIndices, retValues);
+        }
+    }
+}
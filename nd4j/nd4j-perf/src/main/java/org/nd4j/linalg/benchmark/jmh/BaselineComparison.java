@@ -0,0 +1,200 @@
+package org.nd4j.linalg.benchmark.jmh;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares two sets of jmh json results, for example a stored
+ * baseline and the results of the current build.
+ *
+ * Results are matched by benchmark name and parameters. A result counts as
+ * a regression (or improvement) when the relative change of the score exceeds
+ * the threshold and the difference is larger than the combined score errors,
+ * so noisy benchmarks do not fail a build. Whether a higher score is better
+ * depends on the mode (throughput vs time per op).
+ *
+ * Usage: BaselineComparison baseline.json current.json [threshold]
+ *
+ * @author Adam Gibson
+ */
+public class BaselineComparison {
+
+    public enum Status {
+        REGRESSION, IMPROVEMENT, UNCHANGED, NEW, MISSING
+    }
+
+    /**
+     * The comparison of one benchmark between the two runs
+     */
+    public static class Difference {
+        private final String key;
+        private final Status status;
+        private final double baseline;
+        private final double current;
+        private final String unit;
+
+        public Difference(String key, Status status, double baseline, double current, String unit) {
+            this.key = key;
+            this.status = status;
+            this.baseline = baseline;
+            this.current = current;
+            this.unit = unit;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public double getBaseline() {
+            return baseline;
+        }
+
+        public double getCurrent() {
+            return current;
+        }
+
+        /**
+         * @return the relative change of the score, positive when the score grew
+         */
+        public double getChange() {
+            return baseline == 0 ? 0 : (current - baseline) / baseline;
+        }
+
+        @Override
+        public String toString() {
+            switch(status) {
+                case NEW: return String.format("%-12s %s %.3f %s", status, key, current, unit);
+                case MISSING: return String.format("%-12s %s %.3f %s", status, key, baseline, unit);
+                default: return String.format("%-12s %s %.3f -> %.3f %s (%+.1f%%)", status, key, baseline, current, unit, 100 * getChange());
+            }
+        }
+    }
+
+    private static class Score {
+        private double score;
+        private double error;
+        private String unit;
+        private boolean higherIsBetter;
+    }
+
+    private BaselineComparison() {
+    }
+
+    /**
+     * Compare two result files
+     * @param baseline the baseline results
+     * @param current the current results
+     * @param threshold the relative change counted as a regression or improvement
+     * @return one difference per benchmark in either file
+     * @throws IOException if a file can not be read
+     */
+    public static List<Difference> compare(File baseline, File current, double threshold) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        return compare(mapper.readTree(baseline), mapper.readTree(current), threshold);
+    }
+
+    /**
+     * Compare two parsed result arrays
+     * @param baseline the baseline results
+     * @param current the current results
+     * @param threshold the relative change counted as a regression or improvement
+     * @return one difference per benchmark in either set of results
+     */
+    public static List<Difference> compare(JsonNode baseline, JsonNode current, double threshold) {
+        Map<String, Score> before = scores(baseline);
+        Map<String, Score> after = scores(current);
+        List<Difference> ret = new ArrayList<>();
+        for(Map.Entry<String, Score> entry : before.entrySet()) {
+            Score old = entry.getValue();
+            Score now = after.get(entry.getKey());
+            if(now == null) {
+                ret.add(new Difference(entry.getKey(), Status.MISSING, old.score, Double.NaN, old.unit));
+                continue;
+            }
+            double diff = now.score - old.score;
+            Status status = Status.UNCHANGED;
+            if(Math.abs(diff) > threshold * Math.abs(old.score) && Math.abs(diff) > old.error + now.error)
+                status = (diff > 0) == old.higherIsBetter ? Status.IMPROVEMENT : Status.REGRESSION;
+            ret.add(new Difference(entry.getKey(), status, old.score, now.score, now.unit));
+        }
+        for(Map.Entry<String, Score> entry : after.entrySet())
+            if(!before.containsKey(entry.getKey()))
+                ret.add(new Difference(entry.getKey(), Status.NEW, Double.NaN, entry.getValue().score, entry.getValue().unit));
+        return ret;
+    }
+
+    /**
+     * @param differences the differences
+     * @return whether any benchmark regressed
+     */
+    public static boolean hasRegressions(List<Difference> differences) {
+        for(Difference difference : differences)
+            if(difference.getStatus() == Status.REGRESSION)
+                return true;
+        return false;
+    }
+
+    /**
+     * Print the differences, regressions first
+     * @param differences the differences
+     * @param out where to print to
+     */
+    public static void print(List<Difference> differences, PrintStream out) {
+        for(Status status : Status.values())
+            for(Difference difference : differences)
+                if(difference.getStatus() == status)
+                    out.println(difference);
+    }
+
+    private static Map<String, Score> scores(JsonNode results) {
+        Map<String, Score> ret = new LinkedHashMap<>();
+        for(JsonNode result : results) {
+            StringBuilder key = new StringBuilder(result.get("benchmark").asText());
+            JsonNode params = result.get("params");
+            if(params != null) {
+                //sorted, so the key does not depend on the order jmh wrote the params in
+                Map<String, String> sorted = new TreeMap<>();
+                Iterator<Map.Entry<String, JsonNode>> fields = params.fields();
+                while(fields.hasNext()) {
+                    Map.Entry<String, JsonNode> field = fields.next();
+                    sorted.put(field.getKey(), field.getValue().asText());
+                }
+                key.append(sorted);
+            }
+            JsonNode metric = result.get("primaryMetric");
+            Score score = new Score();
+            score.score = metric.get("score").asDouble();
+            JsonNode error = metric.get("scoreError");
+            score.error = error == null || !error.isNumber() ? 0 : error.asDouble();
+            score.unit = metric.get("scoreUnit").asText();
+            score.higherIsBetter = "thrpt".equals(result.get("mode").asText());
+            ret.put(key.toString(), score);
+        }
+        return ret;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if(args.length < 2) {
+            System.err.println("Usage: BaselineComparison baseline.json current.json [threshold]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 0.1;
+        List<Difference> differences = compare(new File(args[0]), new File(args[1]), threshold);
+        print(differences, System.out);
+        System.exit(hasRegressions(differences) ? 1 : 0);
+    }
+}
@@ -0,0 +1,61 @@
+package org.nd4j.linalg.benchmark.jmh;
+
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.NDArrayIndex;
+
+/**
+ * Array set up shared by the benchmarks, so every benchmark
+ * takes the same "order", "layout" and "dataType" parameters.
+ *
+ * @author Adam Gibson
+ */
+public class BenchmarkArrays {
+
+    private BenchmarkArrays() {
+    }
+
+    /**
+     * Set the data type of the arrays created from now on
+     * @param dataType float or double
+     */
+    public static void setDataType(String dataType) {
+        DataBuffer.Type type;
+        switch(dataType) {
+            case "float":
+                type = DataBuffer.Type.FLOAT;
+                break;
+            case "double":
+                type = DataBuffer.Type.DOUBLE;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown data type " + dataType);
+        }
+        Nd4j.dtype = type;
+        Nd4j.factory().setDType(type);
+    }
+
+    /**
+     * A random matrix
+     * @param rows the number of rows
+     * @param columns the number of columns
+     * @param order c or f
+     * @param layout contiguous for a whole matrix,
+     *               view for the leading columns of a matrix twice as wide (strided, non zero offset
+     *               for f order)
+     * @return the matrix
+     */
+    public static INDArray matrix(int rows, int columns, String order, String layout) {
+        char ordering = order.charAt(0);
+        switch(layout) {
+            case "contiguous":
+                return Nd4j.rand(rows, columns).dup(ordering);
+            case "view":
+                return Nd4j.rand(rows, 2 * columns).dup(ordering).get(NDArrayIndex.all(),
+                        NDArrayIndex.interval(columns / 2, columns / 2 + columns));
+            default:
+                throw new IllegalArgumentException("Unknown layout " + layout);
+        }
+    }
+}
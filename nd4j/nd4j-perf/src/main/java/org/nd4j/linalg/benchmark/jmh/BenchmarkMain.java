@@ -0,0 +1,78 @@
+package org.nd4j.linalg.benchmark.jmh;
+
+import org.kohsuke.args4j.CmdLineException;
+import org.kohsuke.args4j.CmdLineParser;
+import org.kohsuke.args4j.Option;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * Runs the jmh benchmarks and writes the results as json.
+ * If a baseline (the json results of an earlier run) is given,
+ * the results are compared against it and the exit code is 1 if anything regressed.
+ *
+ * Everything not covered here (params, profilers, ...) can be passed
+ * to org.openjdk.jmh.Main in the benchmarks jar instead.
+ *
+ * @author Adam Gibson
+ */
+public class BenchmarkMain {
+    @Option(name="--include",usage="Regex of the benchmarks to run",aliases = "-i")
+    private String include = BenchmarkMain.class.getPackage().getName() + ".*";
+    @Option(name="--results",usage="File to write the json results to",aliases = "-o")
+    private String results = "jmh-results.json";
+    @Option(name="--baseline",usage="Json results to compare against",aliases = "-b")
+    private String baseline;
+    @Option(name="--threshold",usage="Relative slow down counted as a regression",aliases = "-t")
+    private double threshold = 0.1;
+    @Option(name="--forks",usage="Number of forks (default: per benchmark)",aliases = "-f")
+    private int forks = -1;
+    @Option(name="--warmupIterations",usage="Warmup iterations (default: per benchmark)",aliases = "-wi")
+    private int warmupIterations = -1;
+    @Option(name="--iterations",usage="Measurement iterations (default: per benchmark)",aliases = "-mi")
+    private int iterations = -1;
+
+    /**
+     * Run the benchmarks
+     * @param args the arguments
+     * @return the exit code
+     * @throws Exception if the benchmarks could not be run
+     */
+    public int doMain(String[] args) throws Exception {
+        CmdLineParser parser = new CmdLineParser(this);
+        try {
+            parser.parseArgument(args);
+        } catch(CmdLineException e) {
+            System.err.println(e.getMessage());
+            parser.printUsage(System.err);
+            return 2;
+        }
+
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .include(include)
+                .resultFormat(ResultFormatType.JSON)
+                .result(results);
+        if(forks >= 0)
+            options.forks(forks);
+        if(warmupIterations >= 0)
+            options.warmupIterations(warmupIterations);
+        if(iterations > 0)
+            options.measurementIterations(iterations);
+        new Runner(options.build()).run();
+
+        if(baseline == null)
+            return 0;
+        List<BaselineComparison.Difference> differences = BaselineComparison.compare(new File(baseline), new File(results), threshold);
+        BaselineComparison.print(differences, System.out);
+        return BaselineComparison.hasRegressions(differences) ? 1 : 0;
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.exit(new BenchmarkMain().doMain(args));
+    }
+}
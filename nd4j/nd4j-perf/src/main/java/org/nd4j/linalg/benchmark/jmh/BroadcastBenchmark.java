@@ -0,0 +1,79 @@
+package org.nd4j.linalg.benchmark.jmh;
+
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Row and column vector ops, as used for biases and normalization.
+ * The in place ops add and then subtract so the values do not drift.
+ *
+ * @author Adam Gibson
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class BroadcastBenchmark {
+
+    @Param({"128x784", "1000x100"})
+    public String shape;
+
+    @Param({"c", "f"})
+    public String order;
+
+    @Param({"contiguous", "view"})
+    public String layout;
+
+    @Param({"float", "double"})
+    public String dataType;
+
+    private INDArray arr;
+    private INDArray row;
+    private INDArray column;
+
+    @Setup
+    public void setup() {
+        BenchmarkArrays.setDataType(dataType);
+        String[] split = shape.split("x");
+        int rows = Integer.parseInt(split[0]);
+        int columns = Integer.parseInt(split[1]);
+        arr = BenchmarkArrays.matrix(rows, columns, order, layout);
+        row = Nd4j.rand(1, columns);
+        column = Nd4j.rand(rows, 1);
+    }
+
+    @Benchmark
+    public INDArray addiRowVector() {
+        return arr.addiRowVector(row).subiRowVector(row);
+    }
+
+    @Benchmark
+    public INDArray addiColumnVector() {
+        return arr.addiColumnVector(column).subiColumnVector(column);
+    }
+
+    @Benchmark
+    public INDArray muliRowVector() {
+        return arr.muliRowVector(row).diviRowVector(row);
+    }
+
+    @Benchmark
+    public INDArray addRowVector() {
+        return arr.addRowVector(row);
+    }
+}
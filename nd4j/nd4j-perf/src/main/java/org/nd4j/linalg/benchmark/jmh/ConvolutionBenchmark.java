@@ -0,0 +1,93 @@
+package org.nd4j.linalg.benchmark.jmh;
+
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.convolution.Convolution;
+import org.nd4j.linalg.factory.Nd4j;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * im2col/col2im on a minibatch of images (as used by the convolution layer),
+ * allocating the result and into a reused buffer,
+ * and fft based 2d convolution of a single matrix.
+ *
+ * @author Adam Gibson
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ConvolutionBenchmark {
+
+    @Param({"28", "64"})
+    public int imageSize;
+
+    @Param({"3", "5"})
+    public int kernelSize;
+
+    @Param({"c", "f"})
+    public String order;
+
+    @Param({"float", "double"})
+    public String dataType;
+
+    private static final int MINIBATCH = 16;
+    private static final int CHANNELS = 3;
+
+    private INDArray images;
+    private INDArray columns;
+    private INDArray columnBuffer;
+    private INDArray imageBuffer;
+    private INDArray matrix;
+    private INDArray kernel;
+
+    @Setup
+    public void setup() {
+        BenchmarkArrays.setDataType(dataType);
+        char ordering = order.charAt(0);
+        images = Nd4j.rand(new int[]{MINIBATCH, CHANNELS, imageSize, imageSize}).dup(ordering);
+        columns = Convolution.im2col(images, kernelSize, kernelSize, 1, 1, 0, 0, 0, false);
+        columnBuffer = Nd4j.create(columns.shape());
+        imageBuffer = Nd4j.create(images.shape());
+        matrix = Nd4j.rand(imageSize, imageSize).dup(ordering);
+        kernel = Nd4j.rand(kernelSize, kernelSize).dup(ordering);
+    }
+
+    @Benchmark
+    public INDArray im2col() {
+        return Convolution.im2col(images, kernelSize, kernelSize, 1, 1, 0, 0, 0, false);
+    }
+
+    @Benchmark
+    public INDArray im2colInto() {
+        return Convolution.im2col(images, kernelSize, kernelSize, 1, 1, 0, 0, 0, false, columnBuffer);
+    }
+
+    @Benchmark
+    public INDArray col2im() {
+        return Convolution.col2im(columns, 1, 1, 0, 0, imageSize, imageSize);
+    }
+
+    @Benchmark
+    public INDArray col2imInto() {
+        return Convolution.col2im(columns, 1, 1, 0, 0, imageBuffer);
+    }
+
+    @Benchmark
+    public INDArray conv2dValid() {
+        return Convolution.conv2d(matrix, kernel, Convolution.Type.VALID);
+    }
+}
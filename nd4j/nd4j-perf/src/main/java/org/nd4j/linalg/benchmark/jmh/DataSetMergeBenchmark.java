@@ -0,0 +1,66 @@
+package org.nd4j.linalg.benchmark.jmh;
+
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.factory.Nd4j;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Merging minibatches in to one DataSet, as done when collecting
+ * a partition or building a larger batch.
+ *
+ * @author Adam Gibson
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class DataSetMergeBenchmark {
+
+    @Param({"1", "32"})
+    public int batchSize;
+
+    @Param({"64"})
+    public int batches;
+
+    @Param({"784"})
+    public int features;
+
+    @Param({"float", "double"})
+    public String dataType;
+
+    private List<DataSet> dataSets;
+
+    @Setup
+    public void setup() {
+        BenchmarkArrays.setDataType(dataType);
+        dataSets = new ArrayList<>();
+        for(int i = 0; i < batches; i++)
+            dataSets.add(new DataSet(Nd4j.rand(batchSize, features), Nd4j.rand(batchSize, 10)));
+    }
+
+    @Benchmark
+    public DataSet merge() {
+        return DataSet.merge(dataSets, false);
+    }
+
+    @Benchmark
+    public DataSet mergeClone() {
+        return DataSet.merge(dataSets, true);
+    }
+}
@@ -0,0 +1,97 @@
+package org.nd4j.linalg.benchmark.jmh;
+
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.ops.impl.transforms.Exp;
+import org.nd4j.linalg.api.ops.impl.transforms.Sigmoid;
+import org.nd4j.linalg.api.ops.impl.transforms.Tanh;
+import org.nd4j.linalg.factory.Nd4j;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scalar, pairwise and transform ops. Results go to preallocated
+ * arrays so only the op itself is measured.
+ *
+ * @author Adam Gibson
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ElementwiseBenchmark {
+
+    @Param({"256", "1024"})
+    public int size;
+
+    @Param({"c", "f"})
+    public String order;
+
+    @Param({"contiguous", "view"})
+    public String layout;
+
+    @Param({"float", "double"})
+    public String dataType;
+
+    private INDArray x;
+    private INDArray y;
+    private INDArray result;
+
+    @Setup
+    public void setup() {
+        BenchmarkArrays.setDataType(dataType);
+        x = BenchmarkArrays.matrix(size, size, order, layout);
+        y = BenchmarkArrays.matrix(size, size, order, layout);
+        result = Nd4j.create(size, size);
+    }
+
+    @Benchmark
+    public INDArray scalarAdd() {
+        return x.add(1.0, result);
+    }
+
+    @Benchmark
+    public INDArray pairwiseAdd() {
+        return x.add(y, result);
+    }
+
+    @Benchmark
+    public INDArray pairwiseMul() {
+        return x.mul(y, result);
+    }
+
+    @Benchmark
+    public INDArray exp() {
+        Nd4j.getExecutioner().exec(new Exp(x, result));
+        return result;
+    }
+
+    @Benchmark
+    public INDArray tanh() {
+        Nd4j.getExecutioner().exec(new Tanh(x, result));
+        return result;
+    }
+
+    @Benchmark
+    public INDArray sigmoid() {
+        Nd4j.getExecutioner().exec(new Sigmoid(x, result));
+        return result;
+    }
+
+    @Benchmark
+    public INDArray dup() {
+        return x.dup();
+    }
+}
@@ -0,0 +1,59 @@
+package org.nd4j.linalg.benchmark.jmh;
+
+import org.nd4j.linalg.api.complex.IComplexNDArray;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.fft.FFT;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Forward and inverse fft of a real vector.
+ *
+ * @author Adam Gibson
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class FFTBenchmark {
+
+    @Param({"256", "1000", "4096"})
+    public int length;
+
+    @Param({"float", "double"})
+    public String dataType;
+
+    private INDArray arr;
+    private IComplexNDArray transformed;
+
+    @Setup
+    public void setup() {
+        BenchmarkArrays.setDataType(dataType);
+        arr = Nd4j.rand(1, length);
+        transformed = FFT.fft(arr);
+    }
+
+    @Benchmark
+    public IComplexNDArray fft() {
+        return FFT.fft(arr);
+    }
+
+    @Benchmark
+    public IComplexNDArray ifft() {
+        return FFT.ifft(transformed);
+    }
+}
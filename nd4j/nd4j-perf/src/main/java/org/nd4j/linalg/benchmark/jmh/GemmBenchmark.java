@@ -0,0 +1,76 @@
+package org.nd4j.linalg.benchmark.jmh;
+
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Matrix multiply of square matrices, allocating the result
+ * and into a preallocated result.
+ *
+ * @author Adam Gibson
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class GemmBenchmark {
+
+    @Param({"64", "256", "1024"})
+    public int size;
+
+    @Param({"c", "f"})
+    public String order;
+
+    @Param({"contiguous", "view"})
+    public String layout;
+
+    @Param({"float", "double"})
+    public String dataType;
+
+    private INDArray a;
+    private INDArray b;
+    private INDArray result;
+
+    @Setup
+    public void setup() {
+        BenchmarkArrays.setDataType(dataType);
+        a = BenchmarkArrays.matrix(size, size, order, layout);
+        b = BenchmarkArrays.matrix(size, size, order, layout);
+        result = Nd4j.create(size, size);
+    }
+
+    @Benchmark
+    public INDArray mmul() {
+        return a.mmul(b);
+    }
+
+    @Benchmark
+    public INDArray mmulInto() {
+        return a.mmul(b, result);
+    }
+
+    @Benchmark
+    public INDArray mmulTransposed() {
+        return a.mmul(b.transpose());
+    }
+
+    @Benchmark
+    public INDArray gemv() {
+        return a.mmul(b.getColumn(0));
+    }
+}
@@ -0,0 +1,130 @@
+package org.nd4j.linalg.benchmark.jmh;
+
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.indexing.NDArrayIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Linear element access (getDouble(i), putScalar(i,v) and the bulk
+ * getDoubles/putDoubles) over c and f ordered arrays, strided views
+ * and offset views.
+ *
+ * @author Adam Gibson
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class LinearIndexBenchmark {
+
+    /**
+     * contiguous: a whole c or f ordered matrix
+     * view: a column slab of a larger matrix (strided, no element wise stride)
+     * offset: a block of rows of a larger matrix (non zero offset)
+     * tensor: a slice of a rank 3 array
+     */
+    @Param({"contiguous", "view", "offset", "tensor"})
+    public String layout;
+
+    @Param({"c", "f"})
+    public String order;
+
+    @Param({"256"})
+    public int size;
+
+    private INDArray arr;
+    private int[] indexes;
+    private double[] buffer;
+
+    @Setup
+    public void setup() {
+        char ordering = order.charAt(0);
+        switch(layout) {
+            case "contiguous":
+                arr = Nd4j.rand(size, size).dup(ordering);
+                break;
+            case "view":
+                arr = Nd4j.rand(size, 2 * size).dup(ordering).get(NDArrayIndex.all(),
+                        NDArrayIndex.interval(0, size));
+                break;
+            case "offset":
+                arr = Nd4j.rand(2 * size, size).dup(ordering).get(NDArrayIndex.interval(size, 2 * size),
+                        NDArrayIndex.all());
+                break;
+            case "tensor":
+                arr = Nd4j.rand(new int[]{4, size, size}).dup(ordering).slice(1);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown layout " + layout);
+        }
+
+        Random random = new Random(42);
+        indexes = new int[arr.length()];
+        for(int i = 0; i < indexes.length; i++)
+            indexes[i] = random.nextInt(arr.length());
+        buffer = new double[indexes.length];
+    }
+
+    @Benchmark
+    public double getDoubleSequential() {
+        double sum = 0;
+        int length = arr.length();
+        for(int i = 0; i < length; i++)
+            sum += arr.getDouble(i);
+        return sum;
+    }
+
+    @Benchmark
+    public double getDoubleRandom() {
+        double sum = 0;
+        for(int i = 0; i < indexes.length; i++)
+            sum += arr.getDouble(indexes[i]);
+        return sum;
+    }
+
+    @Benchmark
+    public void getDoublesBulk(Blackhole bh) {
+        bh.consume(arr.getDoubles(indexes, buffer));
+    }
+
+    @Benchmark
+    public INDArray putScalarSequential() {
+        int length = arr.length();
+        for(int i = 0; i < length; i++)
+            arr.putScalar(i, i);
+        return arr;
+    }
+
+    @Benchmark
+    public INDArray putDoublesBulk() {
+        return arr.putDoubles(indexes, buffer);
+    }
+
+    @Benchmark
+    public double getDouble2d() {
+        double sum = 0;
+        int rows = arr.rows();
+        int columns = arr.columns();
+        for(int i = 0; i < rows; i++)
+            for(int j = 0; j < columns; j++)
+                sum += arr.getDouble(i, j);
+        return sum;
+    }
+}
@@ -0,0 +1,139 @@
+package org.nd4j.linalg.benchmark.jmh;
+
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.ops.impl.accum.Sum;
+import org.nd4j.linalg.api.parallel.DefaultParallelExecutioner;
+import org.nd4j.linalg.api.parallel.tasks.TaskFactory;
+import org.nd4j.linalg.api.parallel.tasks.cpu.CPUTaskFactory;
+import org.nd4j.linalg.factory.Nd4j;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Accumulations over the whole array and along a dimension
+ * (one reduction per tensor along the dimension).
+ *
+ * The tensors* benchmarks run one reduction per tensor through the
+ * {@link DefaultParallelExecutioner}, either serially on the calling thread
+ * or chunked on its fork join pool ("execution"), to compare the two paths
+ * at a given parallel threshold, e.g. -p parallelThreshold=1024,8192,65536
+ * The default threshold of 8192 and the guard that only forks for two full
+ * chunks were chosen without running this benchmark; its results should set them.
+ *
+ * @author Adam Gibson
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ReductionBenchmark {
+
+    @Param({"128x128", "1000x100", "100x10000"})
+    public String shape;
+
+    @Param({"c", "f"})
+    public String order;
+
+    @Param({"contiguous", "view"})
+    public String layout;
+
+    @Param({"float", "double"})
+    public String dataType;
+
+    @Param({"serial", "chunked"})
+    public String execution;
+
+    @Param({"8192"})
+    public int parallelThreshold;
+
+    private INDArray arr;
+    private ForkJoinPool pool;
+    private DefaultParallelExecutioner executioner;
+    private int previousThreshold = -1;
+
+    @Setup
+    public void setup() {
+        BenchmarkArrays.setDataType(dataType);
+        String[] split = shape.split("x");
+        arr = BenchmarkArrays.matrix(Integer.parseInt(split[0]), Integer.parseInt(split[1]), order, layout);
+        pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        executioner = new DefaultParallelExecutioner(pool);
+        switch(execution) {
+            case "serial":
+                executioner.setParallelEnabled(false);
+                break;
+            case "chunked":
+                executioner.setParallelEnabled(true);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown execution " + execution);
+        }
+        TaskFactory taskFactory = Nd4j.getTaskFactory();
+        if(taskFactory instanceof CPUTaskFactory) {
+            previousThreshold = ((CPUTaskFactory) taskFactory).getParallelThreshold();
+            ((CPUTaskFactory) taskFactory).setParallelThreshold(parallelThreshold);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+        if(previousThreshold >= 0)
+            ((CPUTaskFactory) Nd4j.getTaskFactory()).setParallelThreshold(previousThreshold);
+    }
+
+    @Benchmark
+    public INDArray tensorsSumRows() {
+        return executioner.execBasedOnArraysAlongDimension(arr, new Sum(arr), Nd4j.getExecutioner(), 1);
+    }
+
+    @Benchmark
+    public INDArray tensorsSumColumns() {
+        return executioner.execBasedOnArraysAlongDimension(arr, new Sum(arr), Nd4j.getExecutioner(), 0);
+    }
+
+    @Benchmark
+    public Number sumAll() {
+        return arr.sumNumber();
+    }
+
+    @Benchmark
+    public INDArray sumRows() {
+        return arr.sum(1);
+    }
+
+    @Benchmark
+    public INDArray sumColumns() {
+        return arr.sum(0);
+    }
+
+    @Benchmark
+    public INDArray meanColumns() {
+        return arr.mean(0);
+    }
+
+    @Benchmark
+    public INDArray maxRows() {
+        return arr.max(1);
+    }
+
+    @Benchmark
+    public INDArray norm2Rows() {
+        return arr.norm2(1);
+    }
+}
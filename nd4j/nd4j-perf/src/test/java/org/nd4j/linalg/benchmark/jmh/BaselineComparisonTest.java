@@ -0,0 +1,74 @@
+package org.nd4j.linalg.benchmark.jmh;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Adam Gibson
+ */
+public class BaselineComparisonTest {
+
+    private static String result(String benchmark, String mode, String order, double score, String error) {
+        return "{\"benchmark\":\"" + benchmark + "\",\"mode\":\"" + mode + "\",\"params\":{\"size\":\"64\",\"order\":\"" + order + "\"},"
+                + "\"primaryMetric\":{\"score\":" + score + ",\"scoreError\":" + error + ",\"scoreUnit\":\"us/op\"}}";
+    }
+
+    private static JsonNode parse(String... results) throws Exception {
+        StringBuilder json = new StringBuilder("[");
+        for(int i = 0; i < results.length; i++) {
+            if(i > 0)
+                json.append(',');
+            json.append(results[i]);
+        }
+        return new ObjectMapper().readTree(json.append(']').toString());
+    }
+
+    @Test
+    public void testCompare() throws Exception {
+        JsonNode baseline = parse(
+                result("gemm", "avgt", "c", 100, "1"),
+                result("gemm", "avgt", "f", 100, "1"),
+                result("sum", "avgt", "c", 10, "5"),
+                result("merge", "thrpt", "c", 100, "1"),
+                result("removed", "avgt", "c", 1, "\"NaN\""));
+        JsonNode current = parse(
+                result("gemm", "avgt", "c", 150, "1"),
+                result("gemm", "avgt", "f", 50, "1"),
+                //slower, but within the error
+                result("sum", "avgt", "c", 13, "5"),
+                result("merge", "thrpt", "c", 50, "1"),
+                result("added", "avgt", "c", 1, "\"NaN\""));
+
+        List<BaselineComparison.Difference> differences = BaselineComparison.compare(baseline, current, 0.1);
+        assertEquals(6, differences.size());
+        assertEquals(BaselineComparison.Status.REGRESSION, differences.get(0).getStatus());
+        assertEquals(0.5, differences.get(0).getChange(), 1e-9);
+        assertEquals(BaselineComparison.Status.IMPROVEMENT, differences.get(1).getStatus());
+        assertEquals(BaselineComparison.Status.UNCHANGED, differences.get(2).getStatus());
+        //lower throughput is worse
+        assertEquals(BaselineComparison.Status.REGRESSION, differences.get(3).getStatus());
+        assertEquals(BaselineComparison.Status.MISSING, differences.get(4).getStatus());
+        assertEquals(BaselineComparison.Status.NEW, differences.get(5).getStatus());
+        assertTrue(BaselineComparison.hasRegressions(differences));
+
+        assertFalse(BaselineComparison.hasRegressions(BaselineComparison.compare(baseline, baseline, 0.1)));
+    }
+
+    @Test
+    public void testParamOrder() throws Exception {
+        JsonNode baseline = parse("{\"benchmark\":\"gemm\",\"mode\":\"avgt\",\"params\":{\"a\":\"1\",\"b\":\"2\"},"
+                + "\"primaryMetric\":{\"score\":1,\"scoreError\":0,\"scoreUnit\":\"us/op\"}}");
+        JsonNode current = parse("{\"benchmark\":\"gemm\",\"mode\":\"avgt\",\"params\":{\"b\":\"2\",\"a\":\"1\"},"
+                + "\"primaryMetric\":{\"score\":1,\"scoreError\":0,\"scoreUnit\":\"us/op\"}}");
+        List<BaselineComparison.Difference> differences = BaselineComparison.compare(baseline, current, 0.1);
+        assertEquals(1, differences.size());
+        assertEquals(BaselineComparison.Status.UNCHANGED, differences.get(0).getStatus());
+    }
+}
@@ -0,0 +1,148 @@
+package org.nd4j.linalg.api.buffer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.nd4j.linalg.BaseNd4jTest;
+import org.nd4j.linalg.api.buffer.allocation.BufferWorkspace;
+import org.nd4j.linalg.api.buffer.allocation.DataBufferPool;
+import org.nd4j.linalg.api.buffer.factory.DataBufferFactory;
+import org.nd4j.linalg.api.buffer.factory.PooledDataBufferFactory;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.factory.Nd4jBackend;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for pooled data buffer allocation
+ *
+ * @author Adam Gibson
+ */
+public class PooledDataBufferFactoryTest extends BaseNd4jTest {
+    private DataBufferFactory origFactory;
+    private DataBuffer.AllocationMode origAlloc;
+    private PooledDataBufferFactory factory;
+
+    public PooledDataBufferFactoryTest(Nd4jBackend backend) {
+        super(backend);
+    }
+
+    public PooledDataBufferFactoryTest(String name, Nd4jBackend backend) {
+        super(name, backend);
+    }
+
+    public PooledDataBufferFactoryTest(String name) {
+        super(name);
+    }
+
+    public PooledDataBufferFactoryTest() {
+    }
+
+    @Before
+    public void before() {
+        super.before();
+        origFactory = Nd4j.getDataBufferFactory();
+        origAlloc = Nd4j.alloc;
+        Nd4j.alloc = DataBuffer.AllocationMode.HEAP;
+        factory = new PooledDataBufferFactory();
+        Nd4j.setDataBufferFactory(factory);
+    }
+
+    @After
+    public void after() {
+        Nd4j.setDataBufferFactory(origFactory);
+        Nd4j.alloc = origAlloc;
+        super.after();
+    }
+
+    @Test
+    public void testReleaseReusesStorage() {
+        DataBuffer first = factory.createDouble(10);
+        Object storage = first.array();
+        first.put(3, 5.0);
+        first.release();
+        assertEquals(1, factory.getPool().releases());
+        assertEquals(80, factory.getPool().bytesRetained());
+
+        DataBuffer second = factory.createDouble(10);
+        assertSame(storage, second.array());
+        assertEquals(0.0, second.getDouble(3), 0.0);
+        assertEquals(1, factory.getPool().hits());
+        assertEquals(1, factory.getPool().misses());
+        assertEquals(0, factory.getPool().bytesRetained());
+
+        //different size class
+        DataBuffer third = factory.createDouble(11);
+        assertNotSame(storage, third.array());
+        assertEquals(2, factory.getPool().misses());
+    }
+
+    @Test
+    public void testPersistedBuffersNotReleased() {
+        DataBuffer buffer = factory.createFloat(10);
+        buffer.persist();
+        buffer.release();
+        assertEquals(0, factory.getPool().releases());
+        buffer.put(0, 1.0f);
+        assertEquals(1.0f, buffer.getFloat(0), 0.0f);
+    }
+
+    @Test
+    public void testRetainedBytesBounded() {
+        DataBufferPool pool = new DataBufferPool(1, 100);
+        pool.release(new double[10]);
+        pool.release(new double[10]);
+        assertEquals(80, pool.bytesRetained());
+        assertEquals(1, pool.dropped());
+        pool.clear();
+        assertEquals(0, pool.bytesRetained());
+    }
+
+    @Test
+    public void testWorkspaceReleasesOnClose() {
+        INDArray outside = Nd4j.create(5, 5);
+        try(BufferWorkspace workspace = BufferWorkspace.open()) {
+            for(int i = 0; i < 3; i++)
+                Nd4j.create(5, 5);
+            INDArray kept = Nd4j.create(5, 5);
+            kept.data().persist();
+            assertEquals(4, workspace.size());
+        }
+        assertNull(BufferWorkspace.current());
+        assertEquals(3, factory.getPool().releases());
+
+        //steady state: the same allocations are now served from the pool
+        long misses = factory.getPool().misses();
+        try(BufferWorkspace workspace = BufferWorkspace.open()) {
+            for(int i = 0; i < 3; i++)
+                Nd4j.create(5, 5);
+        }
+        assertEquals(misses, factory.getPool().misses());
+        assertEquals(0.0, outside.sumNumber().doubleValue(), 0.0);
+    }
+
+    @Test
+    public void testNestedWorkspaces() {
+        BufferWorkspace outer = BufferWorkspace.open();
+        Nd4j.create(2, 2);
+        BufferWorkspace inner = BufferWorkspace.open();
+        Nd4j.create(2, 2);
+        try {
+            outer.close();
+            fail("Closing the outer workspace first should fail");
+        } catch(IllegalStateException e) {
+            //expected
+        }
+        inner.close();
+        assertSame(outer, BufferWorkspace.current());
+        assertEquals(1, outer.size());
+        outer.close();
+        assertNull(BufferWorkspace.current());
+    }
+
+    @Override
+    public char ordering() {
+        return 'c';
+    }
+}
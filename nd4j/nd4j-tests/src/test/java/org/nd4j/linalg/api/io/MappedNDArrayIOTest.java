@@ -0,0 +1,100 @@
+package org.nd4j.linalg.api.io;
+
+import org.junit.Test;
+import org.nd4j.linalg.BaseNd4jTest;
+import org.nd4j.linalg.api.buffer.DataBuffer;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.factory.Nd4jBackend;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the memory mapped ndarray format
+ *
+ * @author Adam Gibson
+ */
+public class MappedNDArrayIOTest extends BaseNd4jTest {
+
+    public MappedNDArrayIOTest(Nd4jBackend backend) {
+        super(backend);
+    }
+
+    public MappedNDArrayIOTest(String name, Nd4jBackend backend) {
+        super(name, backend);
+    }
+
+    public MappedNDArrayIOTest(String name) {
+        super(name);
+    }
+
+    public MappedNDArrayIOTest() {
+    }
+
+    @Test
+    public void testMapRoundTrip() throws Exception {
+        INDArray arr = Nd4j.linspace(1, 24, 24).reshape(2, 3, 4);
+        File file = File.createTempFile("mapped", ".bin");
+        file.deleteOnExit();
+        MappedNDArrayIO io = new MappedNDArrayIO(MappedNDArrayIO.Mode.READ_ONLY);
+        io.write(arr, file);
+        assertEquals(0, (file.length() - arr.length() * arr.data().getElementSize()) % MappedNDArrayIO.ALIGNMENT);
+
+        INDArray read = io.read(file);
+        assertEquals(DataBuffer.AllocationMode.DIRECT, read.data().allocationMode());
+        assertArrayEquals(arr.shape(), read.shape());
+        assertEquals(arr, read);
+        assertEquals(arr.sumNumber().doubleValue(), read.sumNumber().doubleValue(), 1e-3);
+    }
+
+    @Test
+    public void testViewWrittenCompact() throws Exception {
+        INDArray arr = Nd4j.linspace(1, 20, 20).reshape(4, 5);
+        INDArray view = arr.get(org.nd4j.linalg.indexing.NDArrayIndex.interval(1, 3), org.nd4j.linalg.indexing.NDArrayIndex.interval(1, 4));
+        File file = File.createTempFile("mappedview", ".bin");
+        file.deleteOnExit();
+        MappedNDArrayIO io = new MappedNDArrayIO();
+        io.write(view, file);
+
+        INDArray read = io.read(file);
+        assertEquals(view, read);
+        assertEquals(0, read.offset());
+    }
+
+    @Test
+    public void testCopyOnWriteDoesNotTouchFile() throws Exception {
+        INDArray arr = Nd4j.linspace(1, 6, 6);
+        File file = File.createTempFile("mappedcow", ".bin");
+        file.deleteOnExit();
+        MappedNDArrayIO io = new MappedNDArrayIO();
+        io.write(arr, file);
+
+        INDArray cow = io.read(file, MappedNDArrayIO.Mode.COPY_ON_WRITE);
+        cow.putScalar(0, 100);
+        assertEquals(100, cow.getDouble(0), 1e-6);
+        assertEquals(arr, io.read(file, MappedNDArrayIO.Mode.READ_ONLY));
+
+        INDArray rw = io.read(file, MappedNDArrayIO.Mode.READ_WRITE);
+        rw.putScalar(0, 100);
+        assertEquals(100, io.read(file, MappedNDArrayIO.Mode.READ_ONLY).getDouble(0), 1e-6);
+    }
+
+    @Test
+    public void testStreamRoundTrip() throws Exception {
+        INDArray arr = Nd4j.rand(5, 7);
+        MappedNDArrayIO io = new MappedNDArrayIO();
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        io.write(arr, bos);
+        INDArray read = io.read(new ByteArrayInputStream(bos.toByteArray()));
+        assertEquals(arr, read);
+    }
+
+    @Override
+    public char ordering() {
+        return 'c';
+    }
+}
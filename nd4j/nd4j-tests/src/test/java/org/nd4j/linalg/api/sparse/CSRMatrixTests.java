@@ -0,0 +1,148 @@
+package org.nd4j.linalg.api.sparse;
+
+import org.junit.Test;
+import org.nd4j.linalg.BaseNd4jTest;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.factory.Nd4jBackend;
+import org.nd4j.linalg.indexing.NDArrayIndex;
+
+import java.util.Arrays;
+
+/**
+ * @author Adam Gibson
+ */
+public class CSRMatrixTests extends BaseNd4jTest {
+    public CSRMatrixTests(String name, Nd4jBackend backend) {
+        super(name, backend);
+    }
+
+    public CSRMatrixTests(Nd4jBackend backend) {
+        super(backend);
+    }
+
+    public CSRMatrixTests(String name) {
+        super(name);
+    }
+
+    public CSRMatrixTests() {
+    }
+
+    private INDArray dense() {
+        return Nd4j.create(new double[][]{
+                {0, 1, 0, 0, 2},
+                {0, 0, 0, 0, 0},
+                {3, 0, 0, -1, 0},
+                {0, 0, 4, 0, 5}});
+    }
+
+    @Test
+    public void testFromDense() {
+        INDArray dense = dense();
+        CSRMatrix sparse = CSRMatrix.fromDense(dense);
+        assertEquals(4, sparse.rows());
+        assertEquals(5, sparse.columns());
+        assertEquals(6, sparse.nnz());
+        assertTrue(Arrays.equals(new int[]{0, 2, 2, 4, 6}, sparse.rowPointers()));
+        assertTrue(Arrays.equals(new int[]{1, 4, 0, 3, 2, 4}, sparse.columnIndices()));
+        assertEquals(-1, sparse.getDouble(2, 3), 1e-6);
+        assertEquals(0, sparse.getDouble(2, 2), 1e-6);
+        assertEquals(dense, sparse.toDense());
+    }
+
+    @Test
+    public void testCOO() {
+        COOMatrix coo = new COOMatrix(4, 5, 1);
+        coo.put(3, 4, 2).put(0, 4, 2).put(2, 3, -1).put(3, 2, 4).put(0, 1, 1)
+                .put(2, 0, 3).put(3, 4, 3).put(1, 1, 0);
+        assertEquals(7, coo.nnz());
+        CSRMatrix sparse = coo.toCSR();
+        //the two entries at (3, 4) are summed, the zero is not stored
+        assertEquals(6, sparse.nnz());
+        assertEquals(dense(), sparse.toDense());
+    }
+
+    @Test
+    public void testMmul() {
+        INDArray dense = dense();
+        CSRMatrix sparse = CSRMatrix.fromDense(dense);
+        INDArray other = Nd4j.linspace(1, 15, 15).reshape(5, 3);
+        assertEquals(dense.mmul(other), sparse.mmul(other));
+        //strided views and f ordered arrays
+        assertEquals(dense.mmul(other.dup('f')), sparse.mmul(other.dup('f')));
+        INDArray transposed = Nd4j.linspace(1, 15, 15).reshape(3, 5).transpose();
+        assertEquals(dense.mmul(transposed), sparse.mmul(transposed));
+
+        INDArray result = Nd4j.ones(4, 3);
+        assertTrue(result == sparse.mmul(other, result));
+        assertEquals(dense.mmul(other), result);
+
+        INDArray delta = Nd4j.linspace(1, 8, 8).reshape(4, 2);
+        assertEquals(dense.transpose().mmul(delta), sparse.transposeMmul(delta));
+    }
+
+    @Test
+    public void testLargeMmul() {
+        //enough work to be split over the parallel executioner
+        INDArray dense = Nd4j.rand(200, 300);
+        dense.muli(Nd4j.rand(200, 300).gti(0.9));
+        CSRMatrix sparse = CSRMatrix.fromDense(dense);
+        INDArray other = Nd4j.rand(300, 50);
+        assertEquals(dense.mmul(other), sparse.mmul(other));
+        INDArray delta = Nd4j.rand(200, 50);
+        assertEquals(dense.transpose().mmul(delta), sparse.transposeMmul(delta));
+    }
+
+    @Test
+    public void testRows() {
+        INDArray dense = dense();
+        CSRMatrix sparse = CSRMatrix.fromDense(dense);
+        CSRMatrix row = sparse.getRow(2);
+        assertEquals(1, row.rows());
+        assertEquals(2, row.nnz());
+        assertTrue(sparse.values() == row.values());
+        assertEquals(dense.getRow(2), row.toDense());
+
+        CSRMatrix range = sparse.getRows(1, 4);
+        assertEquals(dense.get(NDArrayIndex.interval(1, 4), NDArrayIndex.all()), range.toDense());
+
+        CSRMatrix gathered = sparse.getRows(new int[]{3, 0, 3});
+        assertEquals(6, gathered.nnz());
+        assertEquals(Nd4j.vstack(dense.getRow(3), dense.getRow(0), dense.getRow(3)), gathered.toDense());
+
+        CSRMatrix stacked = CSRMatrix.vstack(Arrays.asList(sparse.getRow(3), row, sparse.getRows(0, 2)));
+        assertEquals(Nd4j.vstack(dense.getRow(3), dense.getRow(2), dense.getRow(0), dense.getRow(1)), stacked.toDense());
+    }
+
+    @Test
+    public void testSvmLight() {
+        double[] labels = new double[3];
+        CSRMatrix sparse = CSRMatrix.fromSvmLight(Arrays.asList(
+                "1 2:1 5:2",
+                "-1 qid:3 # nothing",
+                "2 1:3 4:-1 # comment 5:1"), 5, labels);
+        assertTrue(Arrays.equals(new double[]{1, -1, 2}, labels));
+        assertEquals(dense().getRows(0, 1, 2), sparse.toDense());
+    }
+
+    @Test
+    public void testInvalid() {
+        try {
+            new CSRMatrix(1, 3, new int[]{0, 2}, new int[]{2, 1}, Nd4j.createBuffer(2));
+            fail("Expected unsorted column indices to be rejected");
+        } catch(IllegalArgumentException e) {
+            //expected
+        }
+        try {
+            CSRMatrix.fromDense(dense()).mmul(Nd4j.ones(4, 2));
+            fail("Expected a shape mismatch");
+        } catch(IllegalArgumentException e) {
+            //expected
+        }
+    }
+
+    @Override
+    public char ordering() {
+        return 'c';
+    }
+}
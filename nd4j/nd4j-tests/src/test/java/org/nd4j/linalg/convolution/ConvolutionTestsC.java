@@ -117,6 +117,124 @@ public  class ConvolutionTestsC extends BaseNd4jTest {
         assertEquals(assertion,im2colTest);
     }
 
+    @Test
+    public void testIm2ColNonSquareStridePadding() {
+        //3x4 image, 2x3 kernel, stride 2 down and 1 across, padding 1 on each side
+        INDArray img = Nd4j.linspace(1, 12, 12).reshape(1, 1, 3, 4);
+        INDArray assertion = Nd4j.create(new double[]{
+                0, 0, 0, 0, 0, 5, 6, 7, 0, 0, 0, 0, 5, 6, 7, 8, 0, 0, 0, 0, 6, 7, 8, 0,
+                0, 1, 2, 3, 0, 9, 10, 11, 1, 2, 3, 4, 9, 10, 11, 12, 2, 3, 4, 0, 10, 11, 12, 0
+        }, new int[]{1, 1, 2, 3, 2, 4});
+        assertEquals(assertion, Convolution.im2col(img, 2, 3, 2, 1, 1, 1, 0, false));
+        assertEquals(assertion, Convolution.im2col(img, 2, 3, 2, 1, 1, 1, 0, false, Nd4j.create(new int[]{1, 1, 2, 3, 2, 4}, 'f')));
+    }
+
+    @Test
+    public void testCol2ImNonSquareStridePadding() {
+        INDArray col = Nd4j.linspace(1, 48, 48).reshape(1, 1, 2, 3, 2, 4);
+        INDArray assertion = Nd4j.create(new double[]{
+                59, 102, 105, 79,
+                19, 42, 45, 39,
+                67, 114, 117, 87
+        }, new int[]{1, 1, 3, 4});
+        assertEquals(assertion, Convolution.col2im(col, 2, 1, 1, 1, 3, 4));
+        assertEquals(assertion, Convolution.col2im(col, new int[]{2, 1}, new int[]{1, 1}, Nd4j.create(new int[]{1, 1, 3, 4}, 'f')));
+    }
+
+    @Test
+    public void testIm2ColCol2ImMatchDefinition() {
+        Nd4j.getRandom().setSeed(123);
+        INDArray img = Nd4j.rand(new int[]{2, 3, 5, 7});
+        INDArray col = Convolution.im2col(img, 3, 2, 2, 3, 1, 2, 0, false);
+        assertEquals(im2colReference(img, 3, 2, 2, 3, 1, 2, 0), col);
+
+        INDArray grad = Nd4j.rand(col.shape());
+        assertEquals(col2imReference(grad, 2, 3, 1, 2, 5, 7), Convolution.col2im(grad, 2, 3, 1, 2, 5, 7));
+    }
+
+    @Test
+    public void testIm2ColIntoBuffer() {
+        INDArray img = Nd4j.linspace(1, 2 * 3 * 5 * 4, 2 * 3 * 5 * 4).reshape(2, 3, 5, 4);
+        INDArray expected = im2colReference(img, 3, 2, 2, 1, 1, 1, 0);
+        assertTrue(Arrays.equals(Convolution.im2colShape(img.shape(), 3, 2, 2, 1, 1, 1, false), expected.shape()));
+
+        //an f ordered buffer filled with garbage is completely overwritten, and reused
+        INDArray buffer = Nd4j.create(expected.shape(), 'f').assign(-1);
+        for(int i = 0; i < 2; i++) {
+            INDArray ret = Convolution.im2col(img, 3, 2, 2, 1, 1, 1, 0, false, buffer);
+            assertTrue(ret == buffer);
+            assertEquals(expected, buffer);
+        }
+
+        //an f ordered image gives the same columns
+        assertEquals(expected, Convolution.im2col(img.dup('f'), 3, 2, 2, 1, 1, 1, 0, false));
+    }
+
+    @Test
+    public void testIm2ColPadValue() {
+        INDArray img = Nd4j.ones(1, 1, 2, 2);
+        INDArray col = Convolution.im2col(img, 1, 1, 1, 1, 1, 1, 7, false);
+        //a ring of padding around the 2x2 image
+        assertEquals(4 * 1 + 12 * 7, col.sum(Integer.MAX_VALUE).getDouble(0), 1e-6);
+    }
+
+    @Test
+    public void testCol2ImIntoBuffer() {
+        INDArray col = Nd4j.linspace(1, 2 * 3 * 3 * 2 * 3 * 4, 2 * 3 * 3 * 2 * 3 * 4).reshape(2, 3, 3, 2, 3, 4);
+        INDArray expected = col2imReference(col, 2, 1, 1, 1, 5, 4);
+        assertEquals(expected, Convolution.col2im(col, 2, 1, 1, 1, 5, 4));
+        INDArray buffer = Nd4j.create(new int[]{2, 3, 5, 4}, 'f').assign(100);
+        INDArray ret = Convolution.col2im(col, new int[]{2, 1}, new int[]{1, 1}, buffer);
+        assertTrue(ret == buffer);
+        assertEquals(expected, buffer);
+
+        //col2im is the adjoint of im2col: <im2col(x), y> == <x, col2im(y)>
+        INDArray x = Nd4j.rand(new int[]{2, 3, 5, 4});
+        double left = Convolution.im2col(x, 3, 2, 2, 1, 1, 1, 0, false).mul(col).sum(Integer.MAX_VALUE).getDouble(0);
+        double right = x.mul(expected).sum(Integer.MAX_VALUE).getDouble(0);
+        assertEquals(left, right, 1e-2 * Math.abs(left));
+    }
+
+    //im2col from its definition: col[n][c][i][j][y][x] = img[n][c][y * sy + i - ph][x * sx + j - pw], or pval outside the image
+    private static INDArray im2colReference(INDArray img, int kh, int kw, int sy, int sx, int ph, int pw, double pval) {
+        int h = img.size(2);
+        int w = img.size(3);
+        int outH = Convolution.outSize(h, kh, sy, ph, false);
+        int outW = Convolution.outSize(w, kw, sx, pw, false);
+        INDArray ret = Nd4j.create(img.size(0), img.size(1), kh, kw, outH, outW);
+        for(int n = 0; n < img.size(0); n++)
+            for(int c = 0; c < img.size(1); c++)
+                for(int i = 0; i < kh; i++)
+                    for(int j = 0; j < kw; j++)
+                        for(int y = 0; y < outH; y++)
+                            for(int x = 0; x < outW; x++) {
+                                int row = y * sy + i - ph;
+                                int column = x * sx + j - pw;
+                                boolean inside = row >= 0 && row < h && column >= 0 && column < w;
+                                ret.putScalar(new int[]{n, c, i, j, y, x}, inside ? img.getDouble(n, c, row, column) : pval);
+                            }
+        return ret;
+    }
+
+    //col2im from its definition: each column entry is added to the image pixel im2col read it from
+    private static INDArray col2imReference(INDArray col, int sy, int sx, int ph, int pw, int h, int w) {
+        INDArray ret = Nd4j.create(col.size(0), col.size(1), h, w);
+        for(int n = 0; n < col.size(0); n++)
+            for(int c = 0; c < col.size(1); c++)
+                for(int i = 0; i < col.size(2); i++)
+                    for(int j = 0; j < col.size(3); j++)
+                        for(int y = 0; y < col.size(4); y++)
+                            for(int x = 0; x < col.size(5); x++) {
+                                int row = y * sy + i - ph;
+                                int column = x * sx + j - pw;
+                                if(row < 0 || row >= h || column < 0 || column >= w)
+                                    continue;
+                                int[] pixel = {n, c, row, column};
+                                ret.putScalar(pixel, ret.getDouble(pixel) + col.getDouble(n, c, i, j, y, x));
+                            }
+        return ret;
+    }
+
 
 
 
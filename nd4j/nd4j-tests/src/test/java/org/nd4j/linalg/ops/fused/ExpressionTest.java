@@ -0,0 +1,86 @@
+package org.nd4j.linalg.ops.fused;
+
+import org.junit.Test;
+import org.nd4j.linalg.BaseNd4jTest;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.ops.fused.Expression;
+import org.nd4j.linalg.api.ops.impl.transforms.Sigmoid;
+import org.nd4j.linalg.api.ops.impl.transforms.Tanh;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.factory.Nd4jBackend;
+import org.nd4j.linalg.ops.transforms.Transforms;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests for lazily evaluated fused expressions
+ *
+ * @author Adam Gibson
+ */
+public class ExpressionTest extends BaseNd4jTest {
+
+    public ExpressionTest(Nd4jBackend backend) {
+        super(backend);
+    }
+
+    public ExpressionTest(String name, Nd4jBackend backend) {
+        super(name, backend);
+    }
+
+    public ExpressionTest(String name) {
+        super(name);
+    }
+
+    public ExpressionTest() {
+    }
+
+    @Test
+    public void testMatchesEagerOps() {
+        INDArray x = Nd4j.rand(7, 9);
+        INDArray y = Nd4j.rand(7, 9);
+        INDArray expected = Transforms.sigmoid(x.mul(y).addi(1.0)).muli(2.0).rsubi(1.0);
+        INDArray fused = x.lazy().mul(y).add(1.0).sigmoid().mul(2.0).rsub(1.0).eval();
+        assertEquals(expected, fused);
+    }
+
+    @Test
+    public void testMixedOrderAndViews() {
+        INDArray x = Nd4j.rand(6, 8).dup('f');
+        INDArray big = Nd4j.rand(6, 16);
+        INDArray view = big.getColumns(1, 3, 5, 7, 9, 11, 13, 15);
+        INDArray expected = x.mul(view).subi(x);
+        assertEquals(expected, x.lazy().mul(view).sub(x).eval());
+        INDArray result = Nd4j.create(new int[]{6, 8}, 'c');
+        assertEquals(expected, x.lazy().mul(view).sub(x).evalInto(result));
+    }
+
+    @Test
+    public void testBroadcast() {
+        INDArray x = Nd4j.rand(5, 4);
+        INDArray row = Nd4j.rand(1, 4);
+        INDArray column = Nd4j.rand(5, 1);
+        INDArray expected = x.mulRowVector(row).subiColumnVector(column);
+        assertEquals(expected, x.lazy().mulRowVector(row).subColumnVector(column).eval());
+    }
+
+    @Test
+    public void testSharedSubExpressionAndInPlace() {
+        INDArray x = Nd4j.rand(4, 4);
+        INDArray expected = Nd4j.getExecutioner().execAndReturn(new Tanh(x.dup()));
+        expected = expected.mul(expected).rsubi(1.0);
+
+        Expression tanh = x.lazy().tanh();
+        assertEquals(expected, tanh.mul(tanh).rsub(1.0).eval());
+        assertEquals(expected, x.lazy().tanhDerivative().eval());
+
+        INDArray sigmoid = Nd4j.getExecutioner().execAndReturn(new Sigmoid(x.dup()));
+        x.lazy().sigmoid().evalInto(x);
+        assertEquals(sigmoid, x);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testShapeMismatch() {
+        Nd4j.rand(3, 4).lazy().add(Nd4j.rand(4, 3)).eval();
+    }
+
+}
@@ -0,0 +1,120 @@
+package org.nd4j.linalg.parallel;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.parallel.DefaultParallelExecutioner;
+import org.nd4j.linalg.api.parallel.TaskCreator;
+import org.nd4j.linalg.api.parallel.TensorChunkAction;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.factory.Nd4jBackend;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TensorChunkActionTest {
+
+    @Before
+    public void before() throws Exception {
+        Nd4j nd4j = new Nd4j();
+        Nd4jBackend backend = (Nd4jBackend)Class.forName("org.nd4j.linalg.cpu.CpuBackend").newInstance();
+        nd4j.initWithBackend(backend);
+        Nd4j.factory().setOrder('c');
+    }
+
+    @Test
+    public void testGrainSize() {
+        //small tensors: grain is bounded below by the threshold
+        assertEquals(64, TensorChunkAction.grainSize(500, 128, 8192, 4));
+        //large tensors: one tensor per leaf is enough work
+        assertEquals(1, TensorChunkAction.grainSize(8, 100000, 8192, 4));
+        //many tensors: at most CHUNKS_PER_WORKER leaves per worker
+        assertEquals(100000 / (4 * TensorChunkAction.CHUNKS_PER_WORKER), TensorChunkAction.grainSize(100000, 1000, 8192, 4));
+    }
+
+    @Test
+    public void testWorthChunking() {
+        //one leaf of work: the calling thread does it
+        assertFalse(TensorChunkAction.worthChunking(10, 1000, 8192, 4));
+        //a second leaf that is not full still is not worth forking for
+        assertFalse(TensorChunkAction.worthChunking(12, 1000, 8192, 4));
+        assertTrue(TensorChunkAction.worthChunking(18, 1000, 8192, 4));
+        assertTrue(TensorChunkAction.worthChunking(8, 100000, 8192, 4));
+        //nothing to gain without a second worker
+        assertFalse(TensorChunkAction.worthChunking(8, 100000, 8192, 1));
+    }
+
+    @Test
+    public void testToggleParallel() {
+        DefaultParallelExecutioner executioner = new DefaultParallelExecutioner(new ForkJoinPool(4));
+        INDArray arr = Nd4j.rand(new int[]{400, 100});
+        INDArray expected = arr.dup().muli(2.0);
+        TaskCreator.INDArrayTask task = new TaskCreator.INDArrayTask() {
+            @Override
+            public void perform(INDArray... arr) {
+                arr[0].muli(2.0);
+            }
+        };
+        executioner.setParallelEnabled(false);
+        executioner.execBasedOnArraysAlongDimension(arr, task, 1);
+        assertEquals(expected, arr);
+        //enabling again must keep a pool to run on
+        executioner.setParallelEnabled(true);
+        executioner.execBasedOnArraysAlongDimension(arr, task, 1);
+        assertEquals(expected.muli(2.0), arr);
+    }
+
+    @Test
+    public void testEveryTensorVisitedOnce() {
+        int[] grains = {1, 3, 7, 100, 1000};
+        for(int grain : grains) {
+            final AtomicIntegerArray counts = new AtomicIntegerArray(997);
+            new ForkJoinPool(4).invoke(new TensorChunkAction(new TensorChunkAction.TensorTask() {
+                @Override
+                public void perform(int tensorIdx) {
+                    counts.incrementAndGet(tensorIdx);
+                }
+            }, 0, counts.length(), grain));
+            for(int i = 0; i < counts.length(); i++)
+                assertEquals("grain " + grain + ", tensor " + i, 1, counts.get(i));
+        }
+    }
+
+    @Test
+    public void testForEach() {
+        //below the threshold on the calling thread, above it on the executioner
+        int[] taskWork = {1, DefaultParallelExecutioner.DEFAULT_PARALLEL_THRESHOLD};
+        for(int work : taskWork) {
+            final AtomicIntegerArray counts = new AtomicIntegerArray(97);
+            TensorChunkAction.forEach(counts.length(), work, new TensorChunkAction.TensorTask() {
+                @Override
+                public void perform(int tensorIdx) {
+                    counts.incrementAndGet(tensorIdx);
+                }
+            });
+            for(int i = 0; i < counts.length(); i++)
+                assertEquals("work " + work + ", task " + i, 1, counts.get(i));
+        }
+    }
+
+    @Test
+    public void testChunkedMatchesSerial() {
+        DefaultParallelExecutioner executioner = new DefaultParallelExecutioner(new ForkJoinPool(4));
+        INDArray arr = Nd4j.rand(new int[]{200, 100});
+        INDArray expected = arr.dup();
+        for(int i = 0; i < expected.tensorssAlongDimension(1); i++)
+            expected.tensorAlongDimension(i, 1).muli(2.0);
+
+        executioner.execBasedOnArraysAlongDimension(arr, new TaskCreator.INDArrayTask() {
+            @Override
+            public void perform(INDArray... arr) {
+                arr[0].muli(2.0);
+            }
+        }, 1);
+        assertEquals(expected, arr);
+    }
+}
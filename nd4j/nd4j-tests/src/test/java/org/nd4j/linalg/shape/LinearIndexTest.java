@@ -0,0 +1,87 @@
+package org.nd4j.linalg.shape;
+
+import org.junit.Test;
+import org.nd4j.linalg.BaseNd4jTest;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.shape.Shape;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.factory.Nd4jBackend;
+import org.nd4j.linalg.util.ArrayUtil;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests for allocation free linear element access
+ *
+ * @author Adam Gibson
+ */
+public class LinearIndexTest extends BaseNd4jTest {
+
+    public LinearIndexTest(Nd4jBackend backend) {
+        super(backend);
+    }
+
+    public LinearIndexTest(String name, Nd4jBackend backend) {
+        super(name, backend);
+    }
+
+    public LinearIndexTest(String name) {
+        super(name);
+    }
+
+    public LinearIndexTest() {
+    }
+
+    @Test
+    public void testOffsetMatchesInd2Sub() {
+        int[][] shapes = {{5}, {1, 6}, {6, 1}, {3, 4}, {2, 3, 4}, {2, 1, 3, 2}};
+        for(char order : new char[]{'c', 'f'}) {
+            for(int[] shape : shapes) {
+                int[] stride = order == 'c' ? ArrayUtil.calcStrides(shape) : ArrayUtil.calcStridesFortran(shape);
+                int length = ArrayUtil.prod(shape);
+                for(int i = 0; i < length; i++) {
+                    int[] sub = order == 'c' ? Shape.ind2subC(shape, i) : Shape.ind2sub(shape, i);
+                    assertEquals(Shape.getOffset(3, shape, stride, sub), Shape.offsetForLinearIndex(3, shape, stride, order, i));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testViews() {
+        for(char order : new char[]{'c', 'f'}) {
+            INDArray arr = Nd4j.linspace(1, 60, 60).reshape(order, 3, 4, 5);
+            INDArray view = arr.slice(1).getColumn(2);
+            INDArray copy = view.dup();
+            for(int i = 0; i < view.length(); i++)
+                assertEquals(copy.getDouble(i), view.getDouble(i), 1e-6);
+
+            INDArray matrix = arr.slice(2);
+            INDArray matrixCopy = matrix.dup();
+            for(int i = 0; i < matrix.rows(); i++)
+                for(int j = 0; j < matrix.columns(); j++)
+                    assertEquals(matrixCopy.getDouble(i, j), matrix.getDouble(i, j), 1e-6);
+        }
+    }
+
+    @Test
+    public void testBulkGetPut() {
+        INDArray arr = Nd4j.linspace(1, 12, 12).reshape(3, 4);
+        INDArray transposed = arr.transpose();
+        int[] indexes = {0, 5, 11, 3};
+        double[] expected = new double[indexes.length];
+        for(int i = 0; i < indexes.length; i++)
+            expected[i] = transposed.getDouble(indexes[i]);
+        assertArrayEquals(expected, transposed.getDoubles(indexes, new double[indexes.length]), 1e-6);
+
+        transposed.putDoubles(indexes, new double[]{-1, -2, -3, -4});
+        assertEquals(-1, transposed.getDouble(0), 1e-6);
+        assertEquals(-2, transposed.getDouble(5), 1e-6);
+        assertEquals(-3, transposed.getDouble(11), 1e-6);
+        assertEquals(-4, transposed.getDouble(3), 1e-6);
+        //writes went through to the original array
+        assertEquals(-2, arr.transpose().getDouble(5), 1e-6);
+    }
+
+}
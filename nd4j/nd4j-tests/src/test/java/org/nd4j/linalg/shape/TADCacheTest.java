@@ -0,0 +1,128 @@
+package org.nd4j.linalg.shape;
+
+import org.junit.Test;
+import org.nd4j.linalg.BaseNd4jTest;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.api.shape.tad.TADCache;
+import org.nd4j.linalg.api.shape.tad.TADDescriptor;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.factory.Nd4jBackend;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for cached tensor along dimension descriptors
+ *
+ * @author Adam Gibson
+ */
+public class TADCacheTest extends BaseNd4jTest {
+
+    public TADCacheTest(Nd4jBackend backend) {
+        super(backend);
+    }
+
+    public TADCacheTest(String name, Nd4jBackend backend) {
+        super(name, backend);
+    }
+
+    public TADCacheTest(String name) {
+        super(name);
+    }
+
+    public TADCacheTest() {
+    }
+
+    @Test
+    public void testMatchesUncached() {
+        int[][] dimensions = {{0}, {1}, {2}, {0, 1}, {1, 2}, {0, 2}};
+        for(char order : new char[]{'c', 'f'}) {
+            INDArray arr = Nd4j.linspace(1, 60, 60).reshape(order, 3, 4, 5);
+            for(int[] dims : dimensions) {
+                int n = arr.tensorssAlongDimension(dims);
+                for(int i = 0; i < n; i++) {
+                    INDArray expected = TADDescriptor.tensorAlongDimension(arr, i, dims);
+                    INDArray cached = arr.tensorAlongDimension(i, dims);
+                    assertArrayEquals(expected.shape(), cached.shape());
+                    assertArrayEquals(expected.stride(), cached.stride());
+                    assertEquals(expected.offset(), cached.offset());
+                    assertEquals(expected, cached);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSharedAcrossViews() {
+        TADCache cache = new TADCache(16, 1 << 10);
+        INDArray arr = Nd4j.linspace(1, 120, 120).reshape(2, 3, 4, 5);
+        INDArray first = arr.slice(0);
+        INDArray second = arr.slice(1);
+        TADDescriptor tad = cache.get(first, 2);
+        assertEquals(1, cache.misses());
+        //same layout, different offset: served from the cache
+        assertTrue(tad == cache.get(second, 2));
+        assertEquals(1, cache.hits());
+
+        for(int i = 0; i < tad.getNumTensors(); i++) {
+            assertEquals(TADDescriptor.tensorAlongDimension(second, i, 2).offset(), second.offset() + tad.offset(i));
+        }
+    }
+
+    @Test
+    public void testEviction() {
+        TADCache cache = new TADCache(2, 1 << 10);
+        cache.get(Nd4j.create(2, 3), 1);
+        cache.get(Nd4j.create(3, 4), 1);
+        cache.get(Nd4j.create(2, 3), 1);
+        //least recently used is the 3x4 entry
+        cache.get(Nd4j.create(4, 5), 1);
+        assertEquals(2, cache.size());
+        cache.get(Nd4j.create(2, 3), 1);
+        assertEquals(3, cache.misses());
+        cache.clear();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testConcurrentLookups() throws Exception {
+        final TADCache cache = new TADCache(16, 1 << 10);
+        final INDArray arr = Nd4j.create(4, 5);
+        final TADDescriptor tad = cache.get(arr, 1);
+        final int lookups = 1000;
+        final AtomicBoolean same = new AtomicBoolean(true);
+        Thread[] threads = new Thread[4];
+        for(int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for(int j = 0; j < lookups; j++) {
+                        if(cache.get(arr, 1) != tad)
+                            same.set(false);
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        for(Thread thread : threads)
+            thread.join();
+
+        assertTrue(same.get());
+        assertEquals(1, cache.misses());
+        //hits are counted per thread and summed
+        assertEquals(threads.length * lookups, cache.hits());
+    }
+
+    @Test
+    public void testRowWiseIndexAccumulation() {
+        INDArray arr = Nd4j.linspace(1, 20, 20).reshape(4, 5);
+        arr.putScalar(new int[]{2, 1}, 100);
+        INDArray argMax = Nd4j.argMax(arr, 1);
+        assertEquals(4, argMax.length());
+        assertEquals(1, argMax.getInt(2));
+        assertEquals(4, argMax.getInt(0));
+    }
+}
@@ -0,0 +1,80 @@
+package org.nd4j.linalg.util;
+
+import org.junit.Test;
+import org.nd4j.linalg.BaseNd4jTest;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+import org.nd4j.linalg.factory.Nd4jBackend;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests for top k selection
+ *
+ * @author Adam Gibson
+ */
+public class TopKTest extends BaseNd4jTest {
+
+    public TopKTest(Nd4jBackend backend) {
+        super(backend);
+    }
+
+    public TopKTest(String name, Nd4jBackend backend) {
+        super(name, backend);
+    }
+
+    public TopKTest(String name) {
+        super(name);
+    }
+
+    public TopKTest() {
+    }
+
+    @Test
+    public void testLargestAndSmallest() {
+        INDArray vec = Nd4j.create(new double[]{3, 9, 1, 7, 5, 9, 0});
+        //ties go to the lower index
+        assertArrayEquals(new int[]{1, 5, 3}, TopK.indices(vec, 3, true));
+        assertArrayEquals(new int[]{6, 2, 0}, TopK.indices(vec, 3, false));
+        //k larger than the vector
+        assertEquals(7, TopK.indices(vec, 20, true).length);
+    }
+
+    @Test
+    public void testMatchesFullSort() {
+        INDArray vec = Nd4j.rand(1, 1000);
+        final double[] values = vec.data().asDouble();
+        Integer[] sorted = new Integer[values.length];
+        for(int i = 0; i < sorted.length; i++)
+            sorted[i] = i;
+        Arrays.sort(sorted, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer o1, Integer o2) {
+                return -Double.compare(values[o1], values[o2]);
+            }
+        });
+
+        int[] top = TopK.indices(vec, 25, true);
+        for(int i = 0; i < top.length; i++)
+            assertEquals(sorted[i].intValue(), top[i]);
+
+        INDArray[] withValues = Nd4j.topKWithIndices(vec, 25, false);
+        for(int i = 0; i < top.length; i++) {
+            assertEquals(top[i], withValues[0].getInt(i));
+            assertEquals(values[top[i]], withValues[1].getDouble(i), 1e-6);
+        }
+    }
+
+    @Test
+    public void testColumnView() {
+        INDArray matrix = Nd4j.linspace(1, 12, 12).reshape(4, 3);
+        //the column holds 2, 5, 8, 11 in c order and 5, 6, 7, 8 in f order; either way the last row is largest
+        INDArray column = matrix.getColumn(1);
+        assertArrayEquals(new int[]{3, 2}, TopK.indices(column, 2, true));
+        assertArrayEquals(new int[][]{{2, 1}, {2, 1}, {2, 1}, {2, 1}}, TopK.rowIndices(matrix, 2, true));
+    }
+}